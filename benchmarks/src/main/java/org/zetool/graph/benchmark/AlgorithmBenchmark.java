@@ -0,0 +1,100 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zetool.algorithm.components.ConnectedComponents;
+import org.zetool.algorithm.components.ParallelConnectedComponentsAlgorithm;
+import org.zetool.algorithm.shortestpath.Dijkstra;
+import org.zetool.algorithm.shortestpath.IntegralShortestPathSolution;
+import org.zetool.algorithm.shortestpath.IntegralSingleSourceShortestPathProblem;
+import org.zetool.algorithm.spanningtree.KruskalAlgorithm;
+import org.zetool.algorithm.spanningtree.MinSpanningTreeProblem;
+import org.zetool.algorithm.spanningtree.PrimAlgorithm;
+import org.zetool.algorithm.spanningtree.UndirectedForest;
+import org.zetool.graph.traversal.BreadthFirstSearch;
+import org.zetool.graph.traversal.DepthFirstSearch;
+
+/**
+ * Benchmarks the traversals, shortest path and spanning tree algorithms on random graphs of all implementations.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlgorithmBenchmark {
+
+    @Benchmark
+    public BreadthFirstSearch breadthFirstSearch(RandomGraphState state) {
+        BreadthFirstSearch bfs = new BreadthFirstSearch();
+        bfs.setProblem(state.graph);
+        bfs.setStart(state.source);
+        bfs.run();
+        return bfs;
+    }
+
+    @Benchmark
+    public DepthFirstSearch depthFirstSearch(RandomGraphState state) {
+        DepthFirstSearch dfs = new DepthFirstSearch();
+        dfs.setProblem(state.graph);
+        dfs.setStart(state.source);
+        dfs.run();
+        return dfs;
+    }
+
+    @Benchmark
+    public IntegralShortestPathSolution dijkstra(RandomGraphState state) {
+        Dijkstra dijkstra = new Dijkstra();
+        dijkstra.setProblem(new IntegralSingleSourceShortestPathProblem(state.graph, state.costs, state.source));
+        dijkstra.run();
+        return dijkstra.getSolution();
+    }
+
+    @Benchmark
+    public UndirectedForest kruskal(RandomGraphState state) {
+        KruskalAlgorithm kruskal = new KruskalAlgorithm();
+        kruskal.setProblem(new MinSpanningTreeProblem(state.graph, state.costs));
+        kruskal.run();
+        return kruskal.getSolution();
+    }
+
+    @Benchmark
+    public UndirectedForest prim(RandomGraphState state) {
+        PrimAlgorithm prim = new PrimAlgorithm();
+        prim.setProblem(new MinSpanningTreeProblem(state.graph, state.costs));
+        prim.run();
+        return prim.getSolution();
+    }
+
+    @Benchmark
+    public ConnectedComponents connectedComponents(RandomGraphState state) {
+        ParallelConnectedComponentsAlgorithm components = new ParallelConnectedComponentsAlgorithm(false);
+        components.setProblem(state.graph);
+        components.run();
+        return components.getSolution();
+    }
+}
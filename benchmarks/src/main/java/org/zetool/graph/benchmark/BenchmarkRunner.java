@@ -0,0 +1,88 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the JMH command line options and the following defaults, which can be overridden:
+ * <ul>
+ * <li>The allocation rate is measured by the GC profiler ({@code -prof gc}).</li>
+ * <li>The results are written as JSON to {@code jmh-result-<version>.json} ({@code -rf json -rff ...}), where the
+ * version is the one of the benchmarked graph library, so that results can be compared across versions.</li>
+ * </ul>
+ * Each benchmark reports the throughput and the sampled latency distribution.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * Private constructor for utility class.
+     */
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] arguments) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(arguments);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+        if (commandLine.shouldList()) {
+            new Runner(commandLine).list();
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            options.result("jmh-result-" + graphVersion() + ".json");
+        }
+        new Runner(options.build()).run();
+    }
+
+    /**
+     * Returns the version of the benchmarked library, as configured when the benchmarks were packaged.
+     *
+     * @return the version
+     * @throws IOException if the configuration cannot be read
+     */
+    private static String graphVersion() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = BenchmarkRunner.class.getResourceAsStream("/benchmark.properties")) {
+            if (input != null) {
+                properties.load(input);
+            }
+        }
+        return properties.getProperty("graph.version", "unknown");
+    }
+}
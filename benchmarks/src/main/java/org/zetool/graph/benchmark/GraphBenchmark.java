@@ -0,0 +1,82 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.zetool.graph.Edge;
+import org.zetool.graph.Graph;
+import org.zetool.graph.Node;
+
+/**
+ * Benchmarks the construction of graphs and the iteration over their adjacency.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphBenchmark {
+
+    /**
+     * Creates a graph from the edge arrays.
+     *
+     * @param state the graph
+     * @return the new graph
+     */
+    @Benchmark
+    public Graph construction(RandomGraphState state) {
+        return state.type.build(state.nodes, state.sources, state.targets);
+    }
+
+    /**
+     * Visits the incident edges of all nodes.
+     *
+     * @param state the graph
+     * @param blackhole consumes the edges
+     */
+    @Benchmark
+    public void adjacencyScan(RandomGraphState state, Blackhole blackhole) {
+        for (Node node : state.graph.nodes()) {
+            for (Edge edge : state.graph.incidentEdges(node)) {
+                blackhole.consume(edge);
+            }
+        }
+    }
+
+    /**
+     * Looks up the edges by id.
+     *
+     * @param state the graph
+     * @param blackhole consumes the edges
+     */
+    @Benchmark
+    public void edgeLookup(RandomGraphState state, Blackhole blackhole) {
+        for (int id = 0; id < state.sources.length; ++id) {
+            blackhole.consume(state.graph.getEdge(id));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.benchmark;
+
+import org.zetool.graph.DefaultDirectedGraph;
+import org.zetool.graph.DefaultGraph;
+import org.zetool.graph.DynamicNetwork;
+import org.zetool.graph.Edge;
+import org.zetool.graph.Graph;
+import org.zetool.graph.GraphBuilder;
+import org.zetool.graph.SimpleUndirectedGraph;
+
+/**
+ * The graph implementations that are benchmarked, together with their construction from arrays of end points.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public enum GraphType {
+
+    /** {@link DefaultDirectedGraph}, filled by {@link DefaultDirectedGraph#createAndSetEdge}. */
+    DEFAULT_DIRECTED(true) {
+        @Override
+        public Graph build(int nodeCount, int[] sources, int[] targets) {
+            DefaultDirectedGraph graph = new DefaultDirectedGraph(nodeCount, sources.length);
+            for (int i = 0; i < sources.length; ++i) {
+                graph.createAndSetEdge(graph.getNode(sources[i]), graph.getNode(targets[i]));
+            }
+            return graph;
+        }
+    },
+    /** {@link DefaultGraph}, filled by {@link DefaultGraph#createAndSetEdge}. */
+    DEFAULT_UNDIRECTED(false) {
+        @Override
+        public Graph build(int nodeCount, int[] sources, int[] targets) {
+            DefaultGraph graph = new DefaultGraph(nodeCount, sources.length);
+            for (int i = 0; i < sources.length; ++i) {
+                graph.createAndSetEdge(graph.getNode(sources[i]), graph.getNode(targets[i]));
+            }
+            return graph;
+        }
+    },
+    /** {@link SimpleUndirectedGraph}, filled by {@link SimpleUndirectedGraph#addEdge(int, int)}. */
+    SIMPLE_UNDIRECTED(false) {
+        @Override
+        public Graph build(int nodeCount, int[] sources, int[] targets) {
+            SimpleUndirectedGraph graph = new SimpleUndirectedGraph(nodeCount);
+            for (int i = 0; i < sources.length; ++i) {
+                graph.addEdge(sources[i], targets[i]);
+            }
+            return graph;
+        }
+    },
+    /** {@link DynamicNetwork}, filled edge by edge. */
+    DYNAMIC_NETWORK(true) {
+        @Override
+        public Graph build(int nodeCount, int[] sources, int[] targets) {
+            Graph nodes = new GraphBuilder(nodeCount).buildImmutableDirected();
+            DynamicNetwork graph = new DynamicNetwork();
+            graph.addNodes(nodes.nodes());
+            for (int i = 0; i < sources.length; ++i) {
+                graph.addEdge(new Edge(i, nodes.getNode(sources[i]), nodes.getNode(targets[i])));
+            }
+            return graph;
+        }
+    };
+
+    /** Whether the graphs are directed. */
+    private final boolean directed;
+
+    GraphType(boolean directed) {
+        this.directed = directed;
+    }
+
+    /**
+     * Returns whether the graphs of this type are directed.
+     *
+     * @return {@code true} for directed graphs
+     */
+    public boolean isDirected() {
+        return directed;
+    }
+
+    /**
+     * Creates a graph with nodes {@code 0, ..., nodeCount - 1} whose {@code i}-th edge has the id {@code i}.
+     *
+     * @param nodeCount the number of nodes
+     * @param sources the start node id of each edge
+     * @param targets the end node id of each edge
+     * @return the graph
+     */
+    public abstract Graph build(int nodeCount, int[] sources, int[] targets);
+}
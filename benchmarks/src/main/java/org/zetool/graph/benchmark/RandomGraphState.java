@@ -0,0 +1,88 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.benchmark;
+
+import java.util.SplittableRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+import org.zetool.graph.Edge;
+import org.zetool.graph.Graph;
+import org.zetool.graph.Node;
+
+/**
+ * A random connected graph shared by all threads of a benchmark. The graph consists of a cycle through all nodes and
+ * random further edges, so that the average degree is {@link #degree}. Edge costs are uniformly distributed in
+ * {@code [1, 100]}. The generation is seeded, so all runs and versions benchmark the same graphs.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+@State(Scope.Benchmark)
+public class RandomGraphState {
+
+    /** The seed of the random graphs. */
+    private static final long SEED = 42;
+
+    /** The number of nodes. */
+    @Param({"1000", "100000"})
+    public int nodes;
+    /** The average degree. */
+    @Param({"4", "16"})
+    public int degree;
+    /** The graph implementation. */
+    @Param({"DEFAULT_DIRECTED", "DEFAULT_UNDIRECTED", "SIMPLE_UNDIRECTED", "DYNAMIC_NETWORK"})
+    public GraphType type;
+
+    /** The start node id of each edge. */
+    public int[] sources;
+    /** The end node id of each edge. */
+    public int[] targets;
+    /** The graph. */
+    public Graph graph;
+    /** The edge costs. */
+    public IdentifiableIntegerMapping<Edge> costs;
+    /** The node all searches start from. */
+    public Node source;
+
+    /**
+     * Generates the graph.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        int edgeCount = Math.max(nodes, nodes * degree / 2);
+        sources = new int[edgeCount];
+        targets = new int[edgeCount];
+        for (int i = 0; i < nodes; ++i) {
+            sources[i] = i;
+            targets[i] = (i + 1) % nodes;
+        }
+        for (int i = nodes; i < edgeCount; ++i) {
+            sources[i] = random.nextInt(nodes);
+            targets[i] = random.nextInt(nodes);
+        }
+        graph = type.build(nodes, sources, targets);
+        costs = new IdentifiableIntegerMapping<>(edgeCount);
+        for (Edge edge : graph.edges()) {
+            costs.set(edge, 1 + random.nextInt(100));
+        }
+        source = graph.getNode(0);
+    }
+}
@@ -0,0 +1,142 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.benchmark;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zetool.algorithm.shortestpath.Dijkstra;
+import org.zetool.algorithm.shortestpath.IntegralShortestPathSolution;
+import org.zetool.algorithm.shortestpath.IntegralSingleSourceShortestPathProblem;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+import org.zetool.graph.CompactedGraph;
+import org.zetool.graph.DirectedGraph;
+import org.zetool.graph.Edge;
+import org.zetool.graph.GraphBuilder;
+import org.zetool.graph.ImmutableDirectedGraph;
+import org.zetool.graph.Node;
+import org.zetool.graph.NodeReordering;
+import org.zetool.graph.traversal.BreadthFirstSearch;
+
+/**
+ * Compares traversals on a grid whose node ids are scattered randomly with the same grid after renumbering the nodes
+ * by {@link NodeReordering}.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReorderingBenchmark {
+
+    /**
+     * A bidirected grid with random node ids, renumbered by one of the orders.
+     */
+    @State(Scope.Benchmark)
+    public static class GridState {
+
+        /** The width and height of the grid. */
+        @Param({"300", "1000"})
+        public int width;
+        /** The order of the nodes. */
+        @Param({"RANDOM", "BREADTH_FIRST", "REVERSE_CUTHILL_MCKEE", "DEGREE_DESCENDING"})
+        public String order;
+        /** The graph. */
+        public DirectedGraph graph;
+        /** The edge costs. */
+        public IdentifiableIntegerMapping<Edge> costs;
+        /** The node all searches start from. */
+        public Node source;
+
+        /**
+         * Generates and renumbers the grid.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            int n = width * width;
+            SplittableRandom random = new SplittableRandom(42);
+            int[] ids = random.ints(n, 0, Integer.MAX_VALUE).toArray();
+            Integer[] permutation = new Integer[n];
+            Arrays.setAll(permutation, i -> i);
+            Arrays.sort(permutation, (a, b) -> Integer.compare(ids[a], ids[b]));
+            GraphBuilder builder = new GraphBuilder(n, 4 * n);
+            for (int node = 0; node < n; ++node) {
+                if (node % width + 1 < width) {
+                    builder.addEdge(permutation[node], permutation[node + 1], 1 + random.nextInt(100));
+                    builder.addEdge(permutation[node + 1], permutation[node], 1 + random.nextInt(100));
+                }
+                if (node + width < n) {
+                    builder.addEdge(permutation[node], permutation[node + width], 1 + random.nextInt(100));
+                    builder.addEdge(permutation[node + width], permutation[node], 1 + random.nextInt(100));
+                }
+            }
+            ImmutableDirectedGraph scattered = builder.buildImmutableDirected();
+            IdentifiableIntegerMapping<Edge> scatteredCosts = builder.costs();
+            int[] nodeOrder;
+            switch (order) {
+                case "RANDOM":
+                    graph = scattered;
+                    costs = scatteredCosts;
+                    source = graph.getNode(permutation[0]);
+                    return;
+                case "BREADTH_FIRST":
+                    nodeOrder = NodeReordering.breadthFirst(scattered);
+                    break;
+                case "REVERSE_CUTHILL_MCKEE":
+                    nodeOrder = NodeReordering.reverseCuthillMcKee(scattered);
+                    break;
+                default:
+                    nodeOrder = NodeReordering.degreeDescending(scattered);
+            }
+            CompactedGraph<ImmutableDirectedGraph> reordered = NodeReordering.reorder(scattered, nodeOrder);
+            graph = reordered.getGraph();
+            costs = reordered.toCompactEdgeMapping(scatteredCosts);
+            source = reordered.getCompactNode(scattered.getNode(permutation[0]));
+        }
+    }
+
+    @Benchmark
+    public BreadthFirstSearch breadthFirstSearch(GridState state) {
+        BreadthFirstSearch bfs = new BreadthFirstSearch();
+        bfs.setProblem(state.graph);
+        bfs.setStart(state.source);
+        bfs.run();
+        return bfs;
+    }
+
+    @Benchmark
+    public IntegralShortestPathSolution dijkstra(GridState state) {
+        Dijkstra dijkstra = new Dijkstra();
+        dijkstra.setProblem(new IntegralSingleSourceShortestPathProblem(state.graph, state.costs, state.source));
+        dijkstra.run();
+        return dijkstra.getSolution();
+    }
+}
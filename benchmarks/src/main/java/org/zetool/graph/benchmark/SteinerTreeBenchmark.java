@@ -0,0 +1,102 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zetool.algorithm.steinertree.MinSteinerTreeProblem;
+import org.zetool.algorithm.steinertree.SteinerTree;
+import org.zetool.algorithm.steinertree.SteinerTreeSpanningTreeApproximationAlgorithm;
+import org.zetool.container.collection.ListSequence;
+import org.zetool.graph.Node;
+
+/**
+ * Benchmarks the spanning tree approximation for Steiner trees, which runs a shortest path computation per terminal
+ * and is therefore measured on smaller graphs than the other algorithms.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SteinerTreeBenchmark {
+
+    /**
+     * An undirected random graph with randomly chosen terminals.
+     */
+    @State(Scope.Benchmark)
+    public static class SteinerTreeState {
+
+        /** The number of nodes. */
+        @Param({"1000", "10000"})
+        public int nodes;
+        /** The average degree. */
+        @Param({"4", "16"})
+        public int degree;
+        /** The graph implementation. */
+        @Param({"DEFAULT_UNDIRECTED", "SIMPLE_UNDIRECTED"})
+        public GraphType type;
+        /** The number of terminals. */
+        @Param({"8", "32"})
+        public int terminalCount;
+        /** The problem instance. */
+        public MinSteinerTreeProblem problem;
+
+        /**
+         * Generates the graph and the terminals.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            RandomGraphState graph = new RandomGraphState();
+            graph.nodes = nodes;
+            graph.degree = degree;
+            graph.type = type;
+            graph.setUp();
+            SplittableRandom random = new SplittableRandom(terminalCount);
+            ListSequence<Node> terminals = new ListSequence<>();
+            while (terminals.size() < Math.min(terminalCount, nodes)) {
+                Node terminal = graph.graph.getNode(random.nextInt(nodes));
+                if (!terminals.contains(terminal)) {
+                    terminals.add(terminal);
+                }
+            }
+            problem = new MinSteinerTreeProblem(graph.graph, graph.costs, terminals);
+        }
+    }
+
+    @Benchmark
+    public SteinerTree spanningTreeApproximation(SteinerTreeState state) {
+        SteinerTreeSpanningTreeApproximationAlgorithm algorithm = new SteinerTreeSpanningTreeApproximationAlgorithm();
+        algorithm.setProblem(state.problem);
+        algorithm.run();
+        return algorithm.getSolution();
+    }
+}
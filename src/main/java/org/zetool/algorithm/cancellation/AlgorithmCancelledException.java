@@ -0,0 +1,86 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.cancellation;
+
+/**
+ * Thrown by an algorithm that stopped because its {@link CancellationToken} has been cancelled or has expired. The
+ * exception contains the partial result of the algorithm, if the algorithm provides one. The type of the partial
+ * result is documented by the algorithm.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class AlgorithmCancelledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+    /** Whether the algorithm stopped because of the deadline. */
+    private final boolean deadlineExceeded;
+    /** The partial result, may be {@code null}. */
+    private final transient Object partialResult;
+
+    /**
+     * Creates the exception.
+     *
+     * @param deadlineExceeded whether the deadline has passed, otherwise the token has been cancelled
+     * @param partialResult the partial result, may be {@code null}
+     */
+    public AlgorithmCancelledException(boolean deadlineExceeded, Object partialResult) {
+        super(deadlineExceeded ? "Deadline exceeded" : "Cancelled");
+        this.deadlineExceeded = deadlineExceeded;
+        this.partialResult = partialResult;
+    }
+
+    /**
+     * Creates an exception for an algorithm that stopped because an algorithm it used stopped.
+     *
+     * @param cause the exception of the used algorithm
+     * @param partialResult the partial result, may be {@code null}
+     */
+    public AlgorithmCancelledException(AlgorithmCancelledException cause, Object partialResult) {
+        super(cause.getMessage(), cause);
+        this.deadlineExceeded = cause.deadlineExceeded;
+        this.partialResult = partialResult;
+    }
+
+    /**
+     * Returns whether the algorithm stopped because the deadline has passed.
+     *
+     * @return {@code true} if the deadline has passed, {@code false} if the token has been cancelled
+     */
+    public boolean isDeadlineExceeded() {
+        return deadlineExceeded;
+    }
+
+    /**
+     * Returns whether a partial result is available.
+     *
+     * @return {@code true} if the algorithm provided a partial result
+     */
+    public boolean hasPartialResult() {
+        return partialResult != null;
+    }
+
+    /**
+     * Returns the partial result of the algorithm.
+     *
+     * @param <T> the type of the partial result
+     * @param type the expected type of the partial result
+     * @return the partial result, or {@code null} if the algorithm did not provide one
+     * @throws ClassCastException if the partial result has a different type
+     */
+    public <T> T getPartialResult(Class<T> type) {
+        return type.cast(partialResult);
+    }
+}
@@ -0,0 +1,39 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.cancellation;
+
+/**
+ * An algorithm that can be stopped cooperatively. By default algorithms use {@link CancellationToken#NONE} and run to
+ * completion.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public interface Cancellable {
+
+    /**
+     * Sets the token that is checked by the following runs.
+     *
+     * @param token the token, {@link CancellationToken#NONE} to run to completion
+     */
+    void setCancellationToken(CancellationToken token);
+
+    /**
+     * Returns the token that is checked by the following runs.
+     *
+     * @return the token
+     */
+    CancellationToken getCancellationToken();
+}
@@ -0,0 +1,117 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.cancellation;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Signals algorithms to stop, either explicitly by {@link #cancel()} or when a deadline has passed. A token can be
+ * shared by several algorithms and threads, for example all algorithms serving one request. Algorithms check
+ * {@link #shouldStop()} every {@link #CHECK_INTERVAL} iterations of their main loop, so that the check, a volatile read
+ * and possibly a call to {@link System#nanoTime()}, does not slow them down.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public final class CancellationToken {
+
+    /** The number of iterations between two checks, a power of two. */
+    public static final int CHECK_INTERVAL = 1 << 10;
+    /** The token that never stops an algorithm and cannot be cancelled. */
+    public static final CancellationToken NONE = new CancellationToken(false, 0);
+
+    /** Whether the token has a deadline. */
+    private final boolean hasDeadline;
+    /** The deadline in terms of {@link System#nanoTime()}. */
+    private final long deadline;
+    /** Whether the token has been cancelled. */
+    private volatile boolean cancelled;
+
+    private CancellationToken(boolean hasDeadline, long deadline) {
+        this.hasDeadline = hasDeadline;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Creates a token without deadline that stops algorithms once it is cancelled.
+     *
+     * @return the token
+     */
+    public static CancellationToken create() {
+        return new CancellationToken(false, 0);
+    }
+
+    /**
+     * Creates a token that stops algorithms after a given time from now or once it is cancelled.
+     *
+     * @param timeout the time budget
+     * @return the token
+     */
+    public static CancellationToken withTimeout(Duration timeout) {
+        return new CancellationToken(true, System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Cancels all algorithms using the token. They stop at their next check.
+     *
+     * @throws UnsupportedOperationException if called on {@link #NONE}
+     */
+    public void cancel() {
+        if (this == NONE) {
+            throw new UnsupportedOperationException("The NONE token cannot be cancelled");
+        }
+        cancelled = true;
+    }
+
+    /**
+     * Returns whether the token has been cancelled explicitly.
+     *
+     * @return {@code true} if {@link #cancel()} has been called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Returns whether the deadline of the token has passed.
+     *
+     * @return {@code true} if the token has a deadline that has passed
+     */
+    public boolean isExpired() {
+        return hasDeadline && System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * Returns whether algorithms should stop. Runtime O(1).
+     *
+     * @return {@code true} if the token has been cancelled or has expired
+     */
+    public boolean shouldStop() {
+        return cancelled || isExpired();
+    }
+
+    /**
+     * Throws an exception with a partial result if algorithms should stop.
+     *
+     * @param partialResult supplies the partial result of the algorithm, only called if it stops
+     * @throws AlgorithmCancelledException if the token has been cancelled or has expired
+     */
+    public void throwIfStopped(Supplier<?> partialResult) {
+        if (shouldStop()) {
+            throw new AlgorithmCancelledException(!cancelled, partialResult.get());
+        }
+    }
+}
@@ -0,0 +1,9 @@
+/**
+ * The cancellation package provides cooperative cancellation and time budgets for long running algorithms. A
+ * {@link org.zetool.algorithm.cancellation.CancellationToken} is passed to an algorithm implementing
+ * {@link org.zetool.algorithm.cancellation.Cancellable}. The algorithm checks the token regularly and stops with an
+ * {@link org.zetool.algorithm.cancellation.AlgorithmCancelledException} containing its partial result once the token is
+ * cancelled or its deadline has passed.
+ */
+
+package org.zetool.algorithm.cancellation;
@@ -0,0 +1,125 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.components;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.zetool.graph.Node;
+
+/**
+ * The connected components of a graph as computed by {@link ParallelConnectedComponentsAlgorithm}. Each node is
+ * labeled with the index of its component. Components are numbered {@code 0, ..., k-1} in the order of their
+ * smallest node id, so the labeling is deterministic regardless of how the computation was scheduled.
+ * <p>
+ * Labels are stored in an array indexed by node ids. Ids that do not belong to a node of the graph (e.g. hidden nodes)
+ * are labeled with {@link #NO_COMPONENT}.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class ConnectedComponents {
+
+    /** The label of ids that are not part of the graph. */
+    public static final int NO_COMPONENT = -1;
+    /** The component index for each node id. */
+    private final int[] labels;
+    /** The number of nodes in each component. */
+    private final int[] sizes;
+    /** The total number of nodes. */
+    private final int nodeCount;
+
+    /**
+     * Initializes the components from a labeling and the component sizes. The arrays are not copied.
+     *
+     * @param labels the component index for each node id, or {@link #NO_COMPONENT}
+     * @param sizes the number of nodes for each component
+     */
+    public ConnectedComponents(@NonNull int[] labels, @NonNull int[] sizes) {
+        this.labels = Objects.requireNonNull(labels);
+        this.sizes = Objects.requireNonNull(sizes);
+        this.nodeCount = Arrays.stream(sizes).sum();
+    }
+
+    /**
+     * Returns the number of connected components. Runtime O(1).
+     *
+     * @return the number of connected components
+     */
+    public int getComponentCount() {
+        return sizes.length;
+    }
+
+    /**
+     * Returns the index of the component containing a node. Runtime O(1).
+     *
+     * @param node the node
+     * @return the index of the component containing the node, or {@link #NO_COMPONENT}
+     */
+    public int getComponent(Node node) {
+        return node.id() < labels.length ? labels[node.id()] : NO_COMPONENT;
+    }
+
+    /**
+     * Decides whether two nodes belong to the same connected component. Runtime O(1).
+     *
+     * @param u the first node
+     * @param v the second node
+     * @return {@code true} if both nodes are in the graph and are connected by a path
+     */
+    public boolean isConnected(Node u, Node v) {
+        int component = getComponent(u);
+        return component != NO_COMPONENT && component == getComponent(v);
+    }
+
+    /**
+     * Returns the number of nodes in a component. Runtime O(1).
+     *
+     * @param component the component index
+     * @return the number of nodes in the component
+     */
+    public int getComponentSize(int component) {
+        return sizes[component];
+    }
+
+    /**
+     * Returns the component labels indexed by node id. The array is backed by this solution and must not be modified.
+     *
+     * @return the component labels indexed by node id
+     */
+    public int[] getLabels() {
+        return labels;
+    }
+
+    /**
+     * Returns the component sizes indexed by component. The array is backed by this solution and must not be modified.
+     *
+     * @return the component sizes
+     */
+    public int[] getComponentSizes() {
+        return sizes;
+    }
+
+    /**
+     * Returns the number of edges in any spanning forest of the graph, that is {@code n - k} for {@code n} nodes and
+     * {@code k} components. Spanning tree algorithms can stop as soon as they have selected this many edges.
+     *
+     * @return the number of edges in a spanning forest
+     */
+    public int getSpanningForestSize() {
+        return nodeCount - sizes.length;
+    }
+}
@@ -0,0 +1,187 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.components;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+import org.zetool.common.algorithm.AbstractAlgorithm;
+import org.zetool.graph.Edge;
+import org.zetool.graph.Graph;
+import org.zetool.graph.Node;
+
+/**
+ * Computes the connected components of a graph using a lock-free concurrent union-find structure. The edges are split
+ * into ranges that are processed in parallel. Two roots are linked with a compare-and-set operation that always
+ * attaches the root with the larger id below the root with the smaller id; this keeps the parent pointers acyclic
+ * without any locks. Finds use path halving, which is also performed with compare-and-set.
+ * <p>
+ * For directed graphs the weakly connected components are computed. The overall runtime is O(n + m α(n)) work. The
+ * edge end points are copied into two {@code int} arrays before the parallel phase, because the edge collections of
+ * the graphs are not safe to be split for concurrent iteration.
+ * <p>
+ * Anderson, Richard J. and Woll, Heather. Wait-free parallel algorithms for the union-find problem. Proceedings of the
+ * twenty-third annual ACM symposium on Theory of computing, 1991, 370-380.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class ParallelConnectedComponentsAlgorithm extends AbstractAlgorithm<Graph, ConnectedComponents> {
+
+    /** Below this number of edges the union phase is executed sequentially. */
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 14;
+    /** The number of edges processed by one task. */
+    private static final int CHUNK_SIZE = 1 << 12;
+    /** Whether the union phase may run in parallel. */
+    private final boolean parallel;
+
+    /**
+     * Initializes the algorithm to run in parallel for large enough graphs.
+     */
+    public ParallelConnectedComponentsAlgorithm() {
+        this(true);
+    }
+
+    /**
+     * Initializes the algorithm.
+     *
+     * @param parallel whether the edges may be processed in parallel
+     */
+    public ParallelConnectedComponentsAlgorithm(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    @Override
+    protected ConnectedComponents runAlgorithm(Graph graph) {
+        int domain = 0;
+        for (Node node : graph.nodes()) {
+            domain = Math.max(domain, node.id() + 1);
+        }
+
+        final int m = graph.edgeCount();
+        final int[] tails = new int[m];
+        final int[] heads = new int[m];
+        int edgeIndex = 0;
+        for (Edge edge : graph.edges()) {
+            tails[edgeIndex] = edge.start().id();
+            heads[edgeIndex++] = edge.end().id();
+        }
+
+        AtomicIntegerArray parent = new AtomicIntegerArray(domain);
+        for (int i = 0; i < domain; ++i) {
+            parent.lazySet(i, i);
+        }
+
+        if (parallel && m >= SEQUENTIAL_THRESHOLD) {
+            int chunks = (m + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                int end = Math.min(m, (chunk + 1) * CHUNK_SIZE);
+                for (int i = chunk * CHUNK_SIZE; i < end; ++i) {
+                    union(parent, tails[i], heads[i]);
+                }
+            });
+        } else {
+            for (int i = 0; i < m; ++i) {
+                union(parent, tails[i], heads[i]);
+            }
+        }
+
+        return label(graph, parent, domain);
+    }
+
+    /**
+     * Assigns dense component indices. As roots always have the smallest id of their component, a single ascending
+     * pass numbers the components by their smallest node.
+     *
+     * @param graph the graph
+     * @param parent the union-find parent pointers
+     * @param domain the number of node ids
+     * @return the connected components
+     */
+    private static ConnectedComponents label(Graph graph, AtomicIntegerArray parent, int domain) {
+        boolean[] present = new boolean[domain];
+        for (Node node : graph.nodes()) {
+            present[node.id()] = true;
+        }
+        int[] labels = new int[domain];
+        int[] sizes = new int[Math.min(16, Math.max(1, domain))];
+        int count = 0;
+        for (int v = 0; v < domain; ++v) {
+            if (!present[v]) {
+                labels[v] = ConnectedComponents.NO_COMPONENT;
+                continue;
+            }
+            int root = find(parent, v);
+            if (root == v) {
+                if (count == sizes.length) {
+                    sizes = Arrays.copyOf(sizes, 2 * count);
+                }
+                labels[v] = count++;
+            } else {
+                labels[v] = labels[root];
+            }
+            sizes[labels[v]]++;
+        }
+        return new ConnectedComponents(labels, Arrays.copyOf(sizes, count));
+    }
+
+    /**
+     * Finds the root of an element and halves the path on the way.
+     *
+     * @param parent the parent pointers
+     * @param x the element
+     * @return the root of the set containing the element
+     */
+    private static int find(AtomicIntegerArray parent, int x) {
+        while (true) {
+            int p = parent.get(x);
+            if (p == x) {
+                return x;
+            }
+            int grandParent = parent.get(p);
+            if (grandParent != p) {
+                parent.compareAndSet(x, p, grandParent);
+            }
+            x = grandParent;
+        }
+    }
+
+    /**
+     * Merges the sets containing two elements. The root with the larger id is linked below the root with the smaller
+     * id. If another thread changes the root concurrently, the operation is retried.
+     *
+     * @param parent the parent pointers
+     * @param u the first element
+     * @param v the second element
+     */
+    private static void union(AtomicIntegerArray parent, int u, int v) {
+        while (true) {
+            u = find(parent, u);
+            v = find(parent, v);
+            if (u == v) {
+                return;
+            }
+            if (u < v) {
+                int swap = u;
+                u = v;
+                v = swap;
+            }
+            if (parent.compareAndSet(u, u, v)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.instrumentation;
+
+/**
+ * The operations that are counted by an instrumented algorithm. Most counters are summed up over a run,
+ * {@link #PEAK_QUEUE_SIZE} keeps the maximal value that has been observed.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public enum Counter {
+    /** Nodes that have been finished, i.e. whose final label is known and whose incident edges are scanned. */
+    NODES_SETTLED,
+    /** Edges that have been inspected. */
+    EDGES_SCANNED,
+    /** Edges that improved the label of a node. */
+    RELAXATIONS,
+    /** Elements inserted into a priority queue. */
+    HEAP_INSERTS,
+    /** Priorities decreased in a priority queue. */
+    HEAP_DECREASE_KEYS,
+    /** Elements removed with minimal priority from a priority queue. */
+    HEAP_EXTRACTS,
+    /** Find and union operations on a disjoint set. */
+    UNION_FIND_OPERATIONS,
+    /** The maximal number of elements in a priority queue at the same time. */
+    PEAK_QUEUE_SIZE(true);
+
+    /** Whether the counter keeps a maximum instead of a sum. */
+    private final boolean maximum;
+
+    Counter() {
+        this(false);
+    }
+
+    Counter(boolean maximum) {
+        this.maximum = maximum;
+    }
+
+    /**
+     * Returns whether the counter keeps the maximal observed value instead of the sum of all values.
+     *
+     * @return {@code true} if the counter is a maximum
+     */
+    public boolean isMaximum() {
+        return maximum;
+    }
+}
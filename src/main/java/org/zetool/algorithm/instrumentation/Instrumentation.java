@@ -0,0 +1,113 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.instrumentation;
+
+import java.util.Objects;
+
+import org.zetool.graph.Graph;
+import org.zetool.graph.jfr.EventRecorder;
+
+/**
+ * Keeps the instrumentation state of an algorithm. Algorithms implementing {@link Instrumented} delegate to an
+ * instance, call {@link #start(Graph)} at the beginning of each run to obtain the counter to report to and
+ * {@link #finish()} at its end.
+ * <p>
+ * Each run is also reported to the Java Flight Recorder by the {@link EventRecorder}. If the event is enabled in a
+ * recording, the operations are counted even if instrumentation is disabled, so that the event contains the number
+ * of settled nodes and scanned edges.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public final class Instrumentation {
+
+    /** The class of the instrumented algorithm. */
+    private final Class<?> algorithm;
+    /** Whether the following runs are counted. */
+    private boolean enabled;
+    /** The counts of the last run, {@code null} if it has not been counted. */
+    private OperationCounts counts;
+    /** The event of the current run, {@code null} if no event is recorded. */
+    private EventRecorder.AlgorithmRun event;
+    /** The counts of the current run reported in the event. */
+    private OperationCounts eventCounts;
+
+    /**
+     * Initializes the instrumentation of an algorithm.
+     *
+     * @param algorithm the class of the instrumented algorithm
+     */
+    public Instrumentation(Class<?> algorithm) {
+        this.algorithm = Objects.requireNonNull(algorithm);
+    }
+
+    /**
+     * Enables or disables counting for the following runs.
+     *
+     * @param enabled whether operations are counted
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns whether the following runs are counted.
+     *
+     * @return {@code true} if operations are counted
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts a new run. If instrumentation is enabled, fresh counts are returned. Otherwise the {@link
+     * OperationCounter#NONE no-op counter} is returned and the counts of previous runs are discarded, unless the run is
+     * recorded by the flight recorder.
+     *
+     * @param graph the graph the algorithm runs on
+     * @return the counter for the run
+     */
+    public OperationCounter start(Graph graph) {
+        event = EventRecorder.get().startAlgorithmRun(algorithm, graph.nodeCount(), graph.edgeCount());
+        OperationCounts runCounts = enabled || event != null ? new OperationCounts() : null;
+        counts = enabled ? runCounts : null;
+        eventCounts = event != null ? runCounts : null;
+        return runCounts == null ? OperationCounter.NONE : runCounts;
+    }
+
+    /**
+     * Ends the current run and commits its flight recorder event.
+     */
+    public void finish() {
+        if (event != null) {
+            event.finish(eventCounts.get(Counter.NODES_SETTLED), eventCounts.get(Counter.EDGES_SCANNED));
+            event = null;
+            eventCounts = null;
+        }
+    }
+
+    /**
+     * Returns the counts of the last run.
+     *
+     * @return the counts
+     * @throws IllegalStateException if the last run has not been counted
+     */
+    public OperationCounts getCounts() {
+        if (counts == null) {
+            throw new IllegalStateException("No operations counted, enable instrumentation before running.");
+        }
+        return counts;
+    }
+}
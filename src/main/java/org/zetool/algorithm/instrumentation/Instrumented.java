@@ -0,0 +1,47 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.instrumentation;
+
+/**
+ * An algorithm that can count the operations of its runs. Instrumentation is disabled by default. If it is enabled
+ * before a run, the counts of that run are available afterwards, alongside the solution.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public interface Instrumented {
+
+    /**
+     * Enables or disables counting of operations for the following runs.
+     *
+     * @param instrumented whether operations are counted
+     */
+    void setInstrumented(boolean instrumented);
+
+    /**
+     * Returns whether operations are counted.
+     *
+     * @return {@code true} if the operations of the following runs are counted
+     */
+    boolean isInstrumented();
+
+    /**
+     * Returns the operation counts of the last run.
+     *
+     * @return the operation counts
+     * @throws IllegalStateException if the algorithm has not been run with instrumentation enabled
+     */
+    OperationCounts getOperationCounts();
+}
@@ -0,0 +1,67 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.instrumentation;
+
+/**
+ * Receives the operations performed by an algorithm. Algorithms call the counter in their inner loops, so
+ * implementations must be cheap. If no counts are requested, the {@link #NONE} counter is used. Its methods are empty,
+ * so that the calls are inlined and removed by the JIT as long as no other counter is used at the same call site.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public interface OperationCounter {
+
+    /** The counter ignoring all operations. */
+    OperationCounter NONE = new OperationCounter() {
+        @Override
+        public void add(Counter counter, long amount) {
+        }
+
+        @Override
+        public void max(Counter counter, long value) {
+        }
+
+        @Override
+        public String toString() {
+            return "NONE";
+        }
+    };
+
+    /**
+     * Counts a single operation.
+     *
+     * @param counter the operation
+     */
+    default void increment(Counter counter) {
+        add(counter, 1);
+    }
+
+    /**
+     * Counts a number of operations at once.
+     *
+     * @param counter the operation
+     * @param amount the number of operations
+     */
+    void add(Counter counter, long amount);
+
+    /**
+     * Observes a value of a counter that keeps the maximum, such as the current size of a queue.
+     *
+     * @param counter the counter
+     * @param value the current value
+     */
+    void max(Counter counter, long value);
+}
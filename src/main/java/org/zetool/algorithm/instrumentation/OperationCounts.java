@@ -0,0 +1,66 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.instrumentation;
+
+import java.util.Arrays;
+
+/**
+ * Stores the operation counts of a single algorithm run in a primitive array. The counts are not thread-safe and are
+ * meant to be filled by a single run and read afterwards.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public final class OperationCounts implements OperationCounter {
+
+    /** The counted values indexed by the ordinal of the counter. */
+    private final long[] values = new long[Counter.values().length];
+
+    @Override
+    public void add(Counter counter, long amount) {
+        values[counter.ordinal()] += amount;
+    }
+
+    @Override
+    public void max(Counter counter, long value) {
+        values[counter.ordinal()] = Math.max(values[counter.ordinal()], value);
+    }
+
+    /**
+     * Returns the value of a counter. Runtime O(1).
+     *
+     * @param counter the counter
+     * @return the sum of the counted operations, or the maximum for {@link Counter#isMaximum() maximum counters}
+     */
+    public long get(Counter counter) {
+        return values[counter.ordinal()];
+    }
+
+    /**
+     * Resets all counters to zero.
+     */
+    public void clear() {
+        Arrays.fill(values, 0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (Counter counter : Counter.values()) {
+            builder.append(counter.ordinal() == 0 ? "" : ", ").append(counter).append('=').append(get(counter));
+        }
+        return builder.append('}').toString();
+    }
+}
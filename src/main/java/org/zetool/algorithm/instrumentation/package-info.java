@@ -0,0 +1,8 @@
+/**
+ * The instrumentation package provides opt-in counters of the elementary operations performed by an algorithm run,
+ * such as settled nodes, scanned edges and priority queue operations. Algorithms supporting the counters implement
+ * {@link org.zetool.algorithm.instrumentation.Instrumented}. If instrumentation is disabled, the algorithms report to
+ * {@link org.zetool.algorithm.instrumentation.OperationCounter#NONE} whose empty methods are removed by the JIT.
+ */
+
+package org.zetool.algorithm.instrumentation;
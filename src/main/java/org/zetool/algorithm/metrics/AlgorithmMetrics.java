@@ -0,0 +1,88 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of one algorithm on one graph: a latency histogram of the successful runs and striped counters of the
+ * successful and failed runs. The counters are {@link LongAdder}s that keep a cell per contending thread, so that
+ * recording from many query threads does not contend on a single value. All methods are thread-safe.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public final class AlgorithmMetrics {
+
+    /** The latencies of the successful runs in nanoseconds. */
+    private final LatencyHistogram latency = new LatencyHistogram();
+    /** The number of successful runs. */
+    private final LongAdder runs = new LongAdder();
+    /** The number of runs that ended with an exception. */
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Records a successful run.
+     *
+     * @param nanos the duration of the run in nanoseconds
+     */
+    public void recordRun(long nanos) {
+        latency.record(Math.max(0, nanos));
+        runs.increment();
+    }
+
+    /**
+     * Records a run that ended with an exception.
+     */
+    public void recordFailure() {
+        failures.increment();
+    }
+
+    /**
+     * Returns the latency histogram of the successful runs.
+     *
+     * @return the latencies in nanoseconds
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Returns the number of successful runs.
+     *
+     * @return the number of runs
+     */
+    public long getRuns() {
+        return runs.sum();
+    }
+
+    /**
+     * Returns the number of failed runs.
+     *
+     * @return the number of failures
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Removes all recorded runs.
+     */
+    public void reset() {
+        latency.reset();
+        runs.reset();
+        failures.reset();
+    }
+}
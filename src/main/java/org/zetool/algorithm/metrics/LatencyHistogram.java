@@ -0,0 +1,210 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * A lock-free histogram of non-negative values, typically latencies in nanoseconds. Values are counted in logarithmic
+ * buckets in the style of HdrHistogram: values below {@code 128} are exact, larger values are split into 64 linear
+ * sub-buckets per power of two. Thus every recorded value is represented with a relative error below 1/64, for any
+ * magnitude up to {@link Long#MAX_VALUE}, using a fixed array of counters.
+ * <p>
+ * Recording is wait-free and can be done concurrently by any number of threads. {@link #snapshot()} copies the
+ * counters, it is not atomic with respect to concurrent recording but each value is either contained or not.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public final class LatencyHistogram {
+
+    /** The number of bits of the value that are kept exactly. */
+    static final int SUB_BUCKET_BITS = 7;
+    /** The number of exact values, also the number of indices of the first magnitude. */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /** The number of sub-buckets per further magnitude. */
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT >> 1;
+    /** The number of buckets required for values up to {@link Long#MAX_VALUE}. */
+    static final int BUCKET_COUNT = index(Long.MAX_VALUE) + 1;
+
+    /** The count of each bucket. */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    /** The sum of all recorded values. */
+    private final LongAccumulator sum = new LongAccumulator(Long::sum, 0);
+    /** The smallest recorded value. */
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    /** The largest recorded value. */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a value. Runtime O(1).
+     *
+     * @param value the value, must not be negative
+     * @throws IllegalArgumentException if the value is negative
+     */
+    public void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+        counts.incrementAndGet(index(value));
+        sum.accumulate(value);
+        min.accumulate(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Returns a copy of the current state. Runtime O(buckets).
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, sum.get(), count == 0 ? 0 : min.get(), max.get());
+    }
+
+    /**
+     * Removes all recorded values. Values recorded concurrently may or may not be removed.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            counts.set(i, 0);
+        }
+        sum.reset();
+        min.reset();
+        max.reset();
+    }
+
+    /**
+     * Returns the bucket of a value.
+     *
+     * @param value the non-negative value
+     * @return the index of the bucket
+     */
+    static int index(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * HALF_SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    /**
+     * Returns the largest value that is counted in a bucket.
+     *
+     * @param index the index of the bucket
+     * @return the largest value of the bucket
+     */
+    static long highestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / HALF_SUB_BUCKET_COUNT - 1;
+        long subBucket = index % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * An immutable copy of the state of a histogram.
+     */
+    public static final class Snapshot {
+
+        /** The counts per bucket. */
+        private final long[] counts;
+        /** The number of values. */
+        private final long count;
+        /** The sum of the values. */
+        private final long sum;
+        /** The smallest value, 0 if empty. */
+        private final long min;
+        /** The largest value, 0 if empty. */
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long min, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        /**
+         * Returns the number of recorded values.
+         *
+         * @return the number of values
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the smallest recorded value.
+         *
+         * @return the smallest value, or 0 if no value has been recorded
+         */
+        public long getMin() {
+            return min;
+        }
+
+        /**
+         * Returns the largest recorded value.
+         *
+         * @return the largest value, or 0 if no value has been recorded
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Returns the arithmetic mean of the recorded values.
+         *
+         * @return the mean, or 0 if no value has been recorded
+         */
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Returns the value below or at which the given fraction of the recorded values lies. The result is the
+         * largest value of the bucket containing the quantile, but never more than the maximum. Runtime O(buckets).
+         *
+         * @param quantile the quantile between 0 and 1, for example 0.99 for the 99th percentile
+         * @return the value at the quantile, or 0 if no value has been recorded
+         * @throws IllegalArgumentException if the quantile is not between 0 and 1
+         */
+        public long getValueAtQuantile(double quantile) {
+            if (!(quantile >= 0 && quantile <= 1)) {
+                throw new IllegalArgumentException("Quantile not in [0, 1]: " + quantile);
+            }
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; ++i) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValue(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.metrics;
+
+import java.util.Objects;
+
+import org.zetool.common.algorithm.AbstractAlgorithm;
+
+/**
+ * Runs another algorithm and records the duration of each run into {@link AlgorithmMetrics}. The problem is passed to
+ * the wrapped algorithm, whose solution is returned. If the wrapped algorithm throws an exception, a failure is
+ * recorded and the exception is passed on.
+ *
+ * @param <P> the problem type
+ * @param <S> the solution type
+ * @author Jan-Philipp Kappmeier
+ */
+public class MeteredAlgorithm<P, S> extends AbstractAlgorithm<P, S> {
+
+    /** The wrapped algorithm. */
+    private final AbstractAlgorithm<P, S> algorithm;
+    /** The metrics receiving the runs. */
+    private final AlgorithmMetrics metrics;
+
+    /**
+     * Creates a metered algorithm.
+     *
+     * @param algorithm the wrapped algorithm
+     * @param metrics the metrics receiving the runs
+     */
+    public MeteredAlgorithm(AbstractAlgorithm<P, S> algorithm, AlgorithmMetrics metrics) {
+        super(algorithm.getName());
+        this.algorithm = algorithm;
+        this.metrics = Objects.requireNonNull(metrics);
+    }
+
+    @Override
+    protected S runAlgorithm(P problem) {
+        long start = System.nanoTime();
+        try {
+            algorithm.setProblem(problem);
+            algorithm.run();
+        } catch (RuntimeException | Error ex) {
+            metrics.recordFailure();
+            throw ex;
+        }
+        metrics.recordRun(System.nanoTime() - start);
+        return algorithm.getSolution();
+    }
+
+    /**
+     * Returns the wrapped algorithm, for example to access its instrumentation.
+     *
+     * @return the wrapped algorithm
+     */
+    public AbstractAlgorithm<P, S> getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Returns the metrics receiving the runs.
+     *
+     * @return the metrics
+     */
+    public AlgorithmMetrics getMetrics() {
+        return metrics;
+    }
+}
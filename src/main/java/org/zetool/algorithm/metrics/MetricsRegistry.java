@@ -0,0 +1,128 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.metrics;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.zetool.common.algorithm.AbstractAlgorithm;
+
+/**
+ * Keeps {@link AlgorithmMetrics} per algorithm and graph. Metrics are identified by the name of an algorithm, by
+ * default its simple class name, and a label of the graph chosen by the caller. All methods are thread-safe, lookup
+ * and recording do not lock.
+ * <p>
+ * The metrics can be exported as a map or as text with one {@code key value} line per entry. The keys have the form
+ * {@code algorithm.graph.metric}, where the metric is one of {@code runs}, {@code failures}, {@code min}, {@code max},
+ * {@code mean}, {@code p50}, {@code p90}, {@code p99} and {@code p999}. Latencies are given in nanoseconds.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class MetricsRegistry {
+
+    /** The exported quantiles. */
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    /** The names of the exported quantiles. */
+    private static final String[] QUANTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    /** The metrics by key. */
+    private final ConcurrentMap<String, AlgorithmMetrics> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the metrics of an algorithm on a graph, which are created on first access.
+     *
+     * @param algorithm the name of the algorithm
+     * @param graph the label of the graph
+     * @return the metrics
+     */
+    public AlgorithmMetrics get(String algorithm, String graph) {
+        return metrics.computeIfAbsent(key(algorithm, graph), k -> new AlgorithmMetrics());
+    }
+
+    /**
+     * Wraps an algorithm so that its runs are recorded under its simple class name and the given graph label.
+     *
+     * @param <P> the problem type
+     * @param <S> the solution type
+     * @param algorithm the algorithm
+     * @param graph the label of the graph
+     * @return the metered algorithm
+     */
+    public <P, S> MeteredAlgorithm<P, S> metered(AbstractAlgorithm<P, S> algorithm, String graph) {
+        return new MeteredAlgorithm<>(algorithm, get(algorithm.getClass().getSimpleName(), graph));
+    }
+
+    /**
+     * Removes all recorded runs. The metrics stay registered.
+     */
+    public void reset() {
+        metrics.values().forEach(AlgorithmMetrics::reset);
+    }
+
+    /**
+     * Returns the current values of all metrics, sorted by key.
+     *
+     * @return the values by key
+     */
+    public SortedMap<String, Number> snapshot() {
+        SortedMap<String, Number> result = new TreeMap<>();
+        for (Map.Entry<String, AlgorithmMetrics> entry : metrics.entrySet()) {
+            String prefix = entry.getKey() + '.';
+            AlgorithmMetrics value = entry.getValue();
+            LatencyHistogram.Snapshot latency = value.getLatency().snapshot();
+            result.put(prefix + "runs", value.getRuns());
+            result.put(prefix + "failures", value.getFailures());
+            result.put(prefix + "min", latency.getMin());
+            result.put(prefix + "max", latency.getMax());
+            result.put(prefix + "mean", latency.getMean());
+            for (int i = 0; i < QUANTILES.length; ++i) {
+                result.put(prefix + QUANTILE_NAMES[i], latency.getValueAtQuantile(QUANTILES[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the current values of all metrics as text, one {@code key value} line per metric, sorted by key.
+     *
+     * @return the text representation
+     */
+    public String export() {
+        StringBuilder builder = new StringBuilder();
+        snapshot().forEach((key, value) -> builder.append(key).append(' ').append(value).append('\n'));
+        return builder.toString();
+    }
+
+    private static String key(String algorithm, String graph) {
+        return sanitize(algorithm) + '.' + sanitize(graph);
+    }
+
+    /**
+     * Replaces characters that would break the key format by underscores.
+     *
+     * @param name the name
+     * @return the name containing no white space and dots
+     */
+    private static String sanitize(String name) {
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Empty metric name");
+        }
+        return name.replaceAll("[\\s.]", "_");
+    }
+}
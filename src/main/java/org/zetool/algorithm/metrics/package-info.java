@@ -0,0 +1,7 @@
+/**
+ * The metrics package records the latency and throughput of repeated algorithm runs, for example of shortest path
+ * queries served online. A {@link org.zetool.algorithm.metrics.MetricsRegistry} keeps lock-free log-bucketed latency
+ * histograms and striped run counters per algorithm and graph that can be exported as a map or as plain text.
+ */
+
+package org.zetool.algorithm.metrics;
@@ -0,0 +1,102 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.shortestpath;
+
+import org.zetool.graph.Edge;
+import org.zetool.graph.Graph;
+import org.zetool.graph.Node;
+
+/**
+ * A compact adjacency array (forward star) representation of a graph snapshot that is used by the shortest path
+ * algorithms working on primitive arrays. For each node id {@code v} the edges leaving {@code v} are stored at the
+ * positions {@code offsets[v], ..., offsets[v + 1] - 1} of {@code heads} (the opposite node id) and {@code edges}
+ * (the edge id).
+ * <p>
+ * Undirected graphs store each edge in both directions.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+final class AdjacencyArrays {
+
+    /** The number of node ids, i.e., the largest node id plus one. */
+    final int nodeDomain;
+    /** The number of edge ids, i.e., the largest edge id plus one. */
+    final int edgeDomain;
+    /** The start of the adjacency of each node id, with a sentinel at the end. */
+    final int[] offsets;
+    /** The node id at the other end of each adjacency entry. */
+    final int[] heads;
+    /** The edge id of each adjacency entry. */
+    final int[] edges;
+
+    private AdjacencyArrays(int nodeDomain, int edgeDomain, int[] offsets, int[] heads, int[] edges) {
+        this.nodeDomain = nodeDomain;
+        this.edgeDomain = edgeDomain;
+        this.offsets = offsets;
+        this.heads = heads;
+        this.edges = edges;
+    }
+
+    /**
+     * Creates the adjacency arrays for a graph using two passes over the edges. For directed graphs either the
+     * outgoing or, if {@code reverse} is set, the incoming edges are stored.
+     *
+     * @param graph the graph
+     * @param reverse whether incoming edges are stored for directed graphs
+     * @return the adjacency arrays
+     */
+    static AdjacencyArrays of(Graph graph, boolean reverse) {
+        int nodeDomain = 0;
+        for (Node node : graph.nodes()) {
+            nodeDomain = Math.max(nodeDomain, node.id() + 1);
+        }
+        int edgeDomain = 0;
+        boolean directed = graph.isDirected();
+        int[] offsets = new int[nodeDomain + 1];
+        for (Edge edge : graph.edges()) {
+            edgeDomain = Math.max(edgeDomain, edge.id() + 1);
+            if (directed) {
+                offsets[(reverse ? edge.end() : edge.start()).id() + 1]++;
+            } else {
+                offsets[edge.start().id() + 1]++;
+                offsets[edge.end().id() + 1]++;
+            }
+        }
+        for (int v = 0; v < nodeDomain; ++v) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] heads = new int[offsets[nodeDomain]];
+        int[] edges = new int[offsets[nodeDomain]];
+        int[] fill = new int[nodeDomain];
+        System.arraycopy(offsets, 0, fill, 0, nodeDomain);
+        for (Edge edge : graph.edges()) {
+            int tail = edge.start().id();
+            int head = edge.end().id();
+            if (directed && reverse) {
+                int swap = tail;
+                tail = head;
+                head = swap;
+            }
+            heads[fill[tail]] = head;
+            edges[fill[tail]++] = edge.id();
+            if (!directed) {
+                heads[fill[head]] = tail;
+                edges[fill[head]++] = edge.id();
+            }
+        }
+        return new AdjacencyArrays(nodeDomain, edgeDomain, offsets, heads, edges);
+    }
+}
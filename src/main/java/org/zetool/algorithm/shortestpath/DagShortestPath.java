@@ -0,0 +1,124 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.shortestpath;
+
+import org.zetool.common.algorithm.AbstractAlgorithm;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+import org.zetool.container.mapping.IdentifiableObjectMapping;
+import org.zetool.graph.DirectedGraph;
+import org.zetool.graph.Edge;
+import org.zetool.graph.Graph;
+import org.zetool.graph.Node;
+import org.zetool.graph.traversal.TopologicalOrder;
+import org.zetool.graph.traversal.TopologicalSort;
+
+/**
+ * Computes shortest or longest paths from a source node in a directed acyclic graph. The edges are relaxed in
+ * topological order, so every node is final when it is reached and the runtime is O(n + m). In contrast to
+ * {@link Dijkstra}, the costs may be negative.
+ * <p>
+ * The distance of nodes that are not reachable from the source is {@link Integer#MAX_VALUE} for shortest paths and
+ * {@link Integer#MIN_VALUE} for longest paths. If a target is given, the computation stops as soon as the target has
+ * been processed.
+ * <p>
+ * Path lengths are computed with {@code long} arithmetic and must fit into an {@code int}. The distances are not
+ * saturated, because a saturated value could not be distinguished from a correct distance or from the value of
+ * unreachable nodes. Instead, the computation fails with an {@link ArithmeticException} if a distance overflows.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class DagShortestPath extends AbstractAlgorithm<IntegralSingleSourceShortestPathProblem, IntegralShortestPathSolution> {
+
+    /** Whether longest paths are computed instead of shortest paths. */
+    private final boolean longest;
+
+    public DagShortestPath() {
+        this(false);
+    }
+
+    /**
+     * Initializes the algorithm to compute either shortest or longest paths.
+     *
+     * @param longest if {@code true}, longest paths are computed
+     */
+    public DagShortestPath(boolean longest) {
+        super(longest ? "DAG Longest Path" : "DAG Shortest Path");
+        this.longest = longest;
+    }
+
+    /**
+     * Computes the paths.
+     *
+     * @param problem the instance
+     * @return the shortest (or longest) path distances and the predecessors
+     * @throws IllegalArgumentException if the graph is not directed or contains a directed cycle, or if the source is
+     * not contained in the graph
+     * @throws ArithmeticException if a distance does not fit into an {@code int}
+     */
+    @Override
+    protected IntegralShortestPathSolution runAlgorithm(IntegralSingleSourceShortestPathProblem problem) {
+        Graph g = problem.getGraph();
+        if (!g.isDirected()) {
+            throw new IllegalArgumentException("Graph must be directed.");
+        }
+        DirectedGraph graph = (DirectedGraph) g;
+        Node source = problem.getSource();
+        if (!graph.contains(source)) {
+            throw new IllegalArgumentException("Source " + source + " is not contained in the graph");
+        }
+        TopologicalSort sort = new TopologicalSort();
+        sort.setProblem(graph);
+        sort.run();
+        TopologicalOrder order = sort.getSolution();
+        if (!order.isAcyclic()) {
+            throw new IllegalArgumentException("Graph contains a directed cycle: " + order.getCycle());
+        }
+
+        IdentifiableIntegerMapping<Edge> costs = problem.getCosts();
+        Node target = problem.getTarget().orElse(null);
+        final int unreachable = longest ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+
+        IdentifiableIntegerMapping<Node> distances = new IdentifiableIntegerMapping<>(graph.nodeCount());
+        IdentifiableObjectMapping<Node, Edge> edges = new IdentifiableObjectMapping<>(graph.nodeCount());
+        IdentifiableObjectMapping<Node, Node> nodes = new IdentifiableObjectMapping<>(graph.nodeCount());
+        for (Node node : graph.nodes()) {
+            distances.set(node, unreachable);
+        }
+        distances.set(source, 0);
+
+        int[] ids = order.getOrder();
+        for (int i = order.getPosition(source); i < ids.length; ++i) {
+            Node v = graph.getNode(ids[i]);
+            int vDistance = distances.get(v);
+            if (vDistance == unreachable) {
+                continue;
+            }
+            if (v.equals(target)) {
+                break;
+            }
+            for (Edge edge : graph.outgoingEdges(v)) {
+                Node w = edge.end();
+                long candidate = (long) vDistance + costs.get(edge);
+                if (longest ? candidate > distances.get(w) : candidate < distances.get(w)) {
+                    distances.set(w, Math.toIntExact(candidate));
+                    edges.set(w, edge);
+                    nodes.set(w, v);
+                }
+            }
+        }
+        return new IntegralShortestPathSolution(graph.nodes(), distances, edges, nodes);
+    }
+}
@@ -15,10 +15,19 @@
  */
 package org.zetool.algorithm.shortestpath;
 
+import java.util.Objects;
 import java.util.function.Function;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
 
+import org.zetool.algorithm.cancellation.AlgorithmCancelledException;
+import org.zetool.algorithm.cancellation.Cancellable;
+import org.zetool.algorithm.cancellation.CancellationToken;
+import org.zetool.algorithm.instrumentation.Counter;
+import org.zetool.algorithm.instrumentation.Instrumentation;
+import org.zetool.algorithm.instrumentation.Instrumented;
+import org.zetool.algorithm.instrumentation.OperationCounter;
+import org.zetool.algorithm.instrumentation.OperationCounts;
 import org.zetool.common.algorithm.AbstractAlgorithm;
 import org.zetool.container.priority.MinHeap;
 import org.zetool.graph.Edge;
@@ -28,14 +37,27 @@ import org.zetool.container.mapping.IdentifiableIntegerMapping;
 import org.zetool.container.mapping.IdentifiableObjectMapping;
 import org.zetool.graph.DirectedGraph;
 import org.zetool.graph.Graph;
+import org.zetool.graph.attribute.IntColumn;
 
 /**
+ * Dijkstra's algorithm for shortest paths with non-negative integral costs.
+ * <p>
+ * A run can be stopped by a {@link CancellationToken}. The token is checked when the first node is settled and then
+ * every {@link CancellationToken#CHECK_INTERVAL} settled nodes. The {@link AlgorithmCancelledException} contains the
+ * partial {@link IntegralShortestPathSolution}: settled nodes have their final distance, all other nodes have distance
+ * {@link Integer#MAX_VALUE}.
+ * <p>
+ * If the costs are given as {@link IntColumn}, they are read by edge id from the array of a heap column or from the
+ * buffer of a direct column instead of through a mapping.
  *
  * @author Martin Groß
  */
-public class Dijkstra extends AbstractAlgorithm<IntegralSingleSourceShortestPathProblem, IntegralShortestPathSolution> {
+public class Dijkstra extends AbstractAlgorithm<IntegralSingleSourceShortestPathProblem, IntegralShortestPathSolution>
+        implements Instrumented, Cancellable {
 
     private final boolean reverse;
+    private final Instrumentation instrumentation = new Instrumentation(getClass());
+    private CancellationToken cancellation = CancellationToken.NONE;
 
     public Dijkstra() {
         this(false);
@@ -48,8 +70,39 @@ public class Dijkstra extends AbstractAlgorithm<IntegralSingleSourceShortestPath
 
     @Override
     protected IntegralShortestPathSolution runAlgorithm(IntegralSingleSourceShortestPathProblem problem) {
-        DijkstraRunner runner = new DijkstraRunner(getProblem(), createAccessor());
-        return new IntegralShortestPathSolution(getProblem().getGraph().nodes(), runner.distances, runner.edges, runner.nodes);
+        DijkstraRunner runner;
+        try {
+            runner = new DijkstraRunner(getProblem(), createAccessor(), instrumentation.start(problem.getGraph()),
+                    cancellation);
+        } finally {
+            instrumentation.finish();
+        }
+        return runner.solution();
+    }
+
+    @Override
+    public void setCancellationToken(CancellationToken token) {
+        cancellation = Objects.requireNonNull(token);
+    }
+
+    @Override
+    public CancellationToken getCancellationToken() {
+        return cancellation;
+    }
+
+    @Override
+    public void setInstrumented(boolean instrumented) {
+        instrumentation.setEnabled(instrumented);
+    }
+
+    @Override
+    public boolean isInstrumented() {
+        return instrumentation.isEnabled();
+    }
+
+    @Override
+    public OperationCounts getOperationCounts() {
+        return instrumentation.getCounts();
     }
 
     private Function<Node, IdentifiableCollection<Edge>> createAccessor() {
@@ -74,6 +127,10 @@ public class Dijkstra extends AbstractAlgorithm<IntegralSingleSourceShortestPath
     private class DijkstraRunner {
 
         private final IdentifiableIntegerMapping<Edge> costs;
+        /** The costs indexed by edge id if they are given as heap column, {@code null} otherwise. */
+        private final int[] costArray;
+        /** The costs if they are given as column outside of the heap, {@code null} otherwise. */
+        private final IntColumn<Edge> costColumn;
         private final Graph graph;
         private final Node source;
         private final Node target;
@@ -82,6 +139,8 @@ public class Dijkstra extends AbstractAlgorithm<IntegralSingleSourceShortestPath
          * Graph type agnostic incident edge accessor.
          */
         private final Function<Node, IdentifiableCollection<Edge>> incidentEdges;
+        private final OperationCounter counter;
+        private final CancellationToken cancellation;
 
         private final IdentifiableIntegerMapping<Node> distances;
         private final IdentifiableObjectMapping<Node, Edge> edges;
@@ -94,13 +153,21 @@ public class Dijkstra extends AbstractAlgorithm<IntegralSingleSourceShortestPath
          * @param costs the edge costs
          * @param source the source code
          * @param target the optional target node, can be {@code null}
+         * @param counter receives the performed operations
+         * @param cancellation the token checked while nodes are settled
          */
-        DijkstraRunner(IntegralSingleSourceShortestPathProblem problemInstance, @NonNull Function<Node, IdentifiableCollection<Edge>> incidentEdges) {
+        DijkstraRunner(IntegralSingleSourceShortestPathProblem problemInstance, @NonNull Function<Node, IdentifiableCollection<Edge>> incidentEdges,
+                OperationCounter counter, CancellationToken cancellation) {
             this.graph = problemInstance.getGraph();
             this.costs = problemInstance.getCosts();
+            IntColumn<Edge> column = problemInstance.getCostColumn().orElse(null);
+            this.costArray = column != null && !column.isDirect() ? column.array() : null;
+            this.costColumn = column != null && column.isDirect() ? column : null;
             this.source = problemInstance.getSource();
             this.target = problemInstance.getTarget().orElse(null);
             this.incidentEdges = incidentEdges;
+            this.counter = counter;
+            this.cancellation = cancellation;
             distances = new IdentifiableIntegerMapping<>(graph.nodeCount());
             edges = new IdentifiableObjectMapping<>(graph.edgeCount());
             nodes = new IdentifiableObjectMapping<>(graph.nodeCount());
@@ -110,8 +177,14 @@ public class Dijkstra extends AbstractAlgorithm<IntegralSingleSourceShortestPath
 
         private void run() {
             init();
+            int settled = 0;
             while (!queue.isEmpty()) {
+                if ((settled++ & (CancellationToken.CHECK_INTERVAL - 1)) == 0) {
+                    cancellation.throwIfStopped(this::solution);
+                }
                 MinHeap<Node, Integer>.Element minElement = queue.extractMin();
+                counter.increment(Counter.HEAP_EXTRACTS);
+                counter.increment(Counter.NODES_SETTLED);
 
                 Node v = minElement.getObject();
                 Integer vDistance = minElement.getPriority();
@@ -125,6 +198,10 @@ public class Dijkstra extends AbstractAlgorithm<IntegralSingleSourceShortestPath
             }
         }
 
+        private IntegralShortestPathSolution solution() {
+            return new IntegralShortestPathSolution(graph.nodes(), distances, edges, nodes);
+        }
+
         private void init() {
             for (int v = 0; v < graph.nodeCount(); v++) {
                 distances.set(graph.getNode(v), Integer.MAX_VALUE);
@@ -132,13 +209,19 @@ public class Dijkstra extends AbstractAlgorithm<IntegralSingleSourceShortestPath
             }
             distances.set(source, 0);
             queue.decreasePriority(source, 0);
+            counter.add(Counter.HEAP_INSERTS, graph.nodeCount());
+            counter.max(Counter.PEAK_QUEUE_SIZE, graph.nodeCount());
+            counter.increment(Counter.HEAP_DECREASE_KEYS);
         }
 
         private void decreaseIncidentEdges(Node v, Integer minDistance) {
             for (Edge edge : incidentEdges.apply(v)) {
+                counter.increment(Counter.EDGES_SCANNED);
                 Node candidate = edge.opposite(v);
                 if (notClassified(candidate) && isEdgeImproving(candidate, minDistance, edge)) {
-                    queue.decreasePriority(candidate, minDistance + costs.get(edge));
+                    queue.decreasePriority(candidate, minDistance + cost(edge));
+                    counter.increment(Counter.RELAXATIONS);
+                    counter.increment(Counter.HEAP_DECREASE_KEYS);
                     edges.set(candidate, edge);
                     nodes.set(candidate, v);
                 }
@@ -164,7 +247,14 @@ public class Dijkstra extends AbstractAlgorithm<IntegralSingleSourceShortestPath
          * @return {@code true} if using the {@code edge} yields a shorter path to {@link candidate}
          */
         private boolean isEdgeImproving(Node candidate, Integer currentNodeDistance, Edge edge) {
-            return (long) queue.priority(candidate) > (long) currentNodeDistance + (long) costs.get(edge);
+            return (long) queue.priority(candidate) > (long) currentNodeDistance + (long) cost(edge);
+        }
+
+        private int cost(Edge edge) {
+            if (costArray != null) {
+                return costArray[edge.id()];
+            }
+            return costColumn != null ? costColumn.get(edge.id()) : costs.get(edge);
         }
 
     }
@@ -0,0 +1,345 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.shortestpath;
+
+import java.util.Arrays;
+
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+import org.zetool.graph.Edge;
+import org.zetool.graph.Graph;
+
+/**
+ * Reusable working memory for running Dijkstra's algorithm many times on the same {@link AdjacencyArrays}. Distances,
+ * predecessors and an indexed binary heap are kept in arrays that are allocated once. Instead of clearing them before
+ * each query, entries are tagged with a query stamp and are only valid if the stamp matches the current query.
+ * <p>
+ * If the workspace is created with masks, nodes and edges can be excluded from a single query by masking them. Masks
+ * are tagged with the query stamp as well, so they are lifted for free when the next query starts. The graph itself is never modified, which allows several
+ * workspaces to run concurrently on the same adjacency arrays.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+final class DijkstraWorkspace {
+
+    /** The graph. */
+    private final AdjacencyArrays adjacency;
+    /** The non-negative costs indexed by edge id. */
+    private final int[] costs;
+    /** The tentative or final distance of each node id. */
+    private final int[] distance;
+    /** The edge id used to reach each node id. */
+    private final int[] predecessorEdge;
+    /** The node id from which each node id is reached. */
+    private final int[] predecessorNode;
+    /** The query in which a node was reached. */
+    private final int[] reached;
+    /** The query in which a node was settled. */
+    private final int[] settled;
+    /** The query in which a node is masked, {@code null} if the workspace has no masks. */
+    private final int[] maskedNode;
+    /** The query in which an edge is masked, {@code null} if the workspace has no masks. */
+    private final int[] maskedEdge;
+    /** The binary heap containing node ids. */
+    private final int[] heap;
+    /** The position of each node id in the heap. Only valid for reached, unsettled nodes. */
+    private final int[] position;
+    /** The number of nodes in the heap. */
+    private int heapSize;
+    /** The stamp of the current query. */
+    private int query = 1;
+
+    /**
+     * Initializes the workspace without masks.
+     *
+     * @param adjacency the graph
+     * @param costs the non-negative costs indexed by edge id, not copied
+     */
+    DijkstraWorkspace(AdjacencyArrays adjacency, int[] costs) {
+        this(adjacency, costs, false);
+    }
+
+    /**
+     * Initializes the workspace.
+     *
+     * @param adjacency the graph
+     * @param costs the non-negative costs indexed by edge id, not copied
+     * @param masks whether nodes and edges can be masked
+     */
+    DijkstraWorkspace(AdjacencyArrays adjacency, int[] costs, boolean masks) {
+        this.adjacency = adjacency;
+        this.costs = costs;
+        int n = adjacency.nodeDomain;
+        distance = new int[n];
+        predecessorEdge = new int[n];
+        predecessorNode = new int[n];
+        reached = new int[n];
+        settled = new int[n];
+        maskedNode = masks ? new int[n] : null;
+        maskedEdge = masks ? new int[adjacency.edgeDomain] : null;
+        heap = new int[n];
+        position = new int[n];
+    }
+
+    /**
+     * Copies edge costs into an array indexed by edge id.
+     *
+     * @param graph the graph
+     * @param adjacency the adjacency arrays of the graph
+     * @param costs the edge costs
+     * @return the costs indexed by edge id
+     * @throws IllegalArgumentException if an edge has negative costs
+     */
+    static int[] costArray(Graph graph, AdjacencyArrays adjacency, IdentifiableIntegerMapping<Edge> costs) {
+        int[] result = new int[adjacency.edgeDomain];
+        for (Edge edge : graph.edges()) {
+            result[edge.id()] = costs.get(edge);
+            if (result[edge.id()] < 0) {
+                throw new IllegalArgumentException("Negative costs on edge " + edge);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Starts a new query. All distances and masks of the previous query become invalid. Runtime O(1) amortized.
+     */
+    void reset() {
+        if (++query == Integer.MAX_VALUE) {
+            query = 1;
+            Arrays.fill(reached, 0);
+            Arrays.fill(settled, 0);
+            if (maskedNode != null) {
+                Arrays.fill(maskedNode, 0);
+                Arrays.fill(maskedEdge, 0);
+            }
+        }
+        heapSize = 0;
+    }
+
+    /**
+     * Excludes a node from the current query.
+     *
+     * @param node the node id
+     * @throws NullPointerException if the workspace has no masks
+     */
+    void maskNode(int node) {
+        maskedNode[node] = query;
+    }
+
+    /**
+     * Excludes an edge from the current query.
+     *
+     * @param edge the edge id
+     * @throws NullPointerException if the workspace has no masks
+     */
+    void maskEdge(int edge) {
+        maskedEdge[edge] = query;
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from a source until the target is settled or all reachable nodes are settled. If the
+     * target is -1, all reachable nodes are settled.
+     *
+     * @param source the source node id
+     * @param target the target node id, or -1
+     * @return the distance of the target, or {@link DistanceTable#UNREACHABLE}
+     */
+    int run(int source, int target) {
+        if (isMasked(source)) {
+            return DistanceTable.UNREACHABLE;
+        }
+        reach(source, 0, -1, -1);
+        while (heapSize > 0) {
+            int v = extractMin();
+            settled[v] = query;
+            if (v == target) {
+                return distance[v];
+            }
+            scan(v);
+        }
+        return target == -1 ? DistanceTable.UNREACHABLE : distance(target);
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from a source until all targets are settled and writes their distances into a row of
+     * a distance table. Entries of targets that are not reached are not written.
+     *
+     * @param source the source node id
+     * @param columnOf the column of each target node id, -1 for ids that are no target
+     * @param targets the number of distinct targets
+     * @param distances the distance table in row-major order
+     * @param rowStart the index of the first column of the row in {@code distances}
+     * @return the number of targets that have been reached
+     */
+    int runToTargets(int source, int[] columnOf, int targets, int[] distances, int rowStart) {
+        if (isMasked(source) || targets == 0) {
+            return 0;
+        }
+        reach(source, 0, -1, -1);
+        int found = 0;
+        while (heapSize > 0) {
+            int v = extractMin();
+            settled[v] = query;
+            int column = columnOf[v];
+            if (column != -1) {
+                distances[rowStart + column] = distance[v];
+                if (++found == targets) {
+                    return found;
+                }
+            }
+            scan(v);
+        }
+        return found;
+    }
+
+    private boolean isMasked(int node) {
+        return maskedNode != null && maskedNode[node] == query;
+    }
+
+    /**
+     * Relaxes the edges leaving a settled node.
+     *
+     * @param v the settled node id
+     */
+    private void scan(int v) {
+        long vDistance = distance[v];
+        boolean masks = maskedEdge != null;
+        for (int i = adjacency.offsets[v]; i < adjacency.offsets[v + 1]; ++i) {
+            int edge = adjacency.edges[i];
+            int w = adjacency.heads[i];
+            if (settled[w] == query || masks && (maskedEdge[edge] == query || maskedNode[w] == query)) {
+                continue;
+            }
+            long candidate = vDistance + costs[edge];
+            if (candidate >= DistanceTable.UNREACHABLE) {
+                continue;
+            }
+            if (reached[w] != query) {
+                reach(w, (int) candidate, edge, v);
+            } else if (candidate < distance[w]) {
+                distance[w] = (int) candidate;
+                predecessorEdge[w] = edge;
+                predecessorNode[w] = v;
+                siftUp(position[w]);
+            }
+        }
+    }
+
+    /**
+     * Returns the distance of a node computed by the current query.
+     *
+     * @param node the node id
+     * @return the distance, or {@link DistanceTable#UNREACHABLE} if the node has not been settled
+     */
+    int distance(int node) {
+        return settled[node] == query ? distance[node] : DistanceTable.UNREACHABLE;
+    }
+
+    /**
+     * Returns the edge used to reach a node in the current query.
+     *
+     * @param node the node id
+     * @return the edge id, or -1 for the source and nodes that have not been settled
+     */
+    int predecessorEdge(int node) {
+        return settled[node] == query ? predecessorEdge[node] : -1;
+    }
+
+    /**
+     * Returns whether a node has been settled by the current query.
+     *
+     * @param node the node id
+     * @return {@code true} if the distance of the node is final
+     */
+    boolean isSettled(int node) {
+        return settled[node] == query;
+    }
+
+    /**
+     * Returns the edge ids on the shortest path from the source of the current query to a settled node.
+     *
+     * @param node the settled node id
+     * @return the edge ids in the order of the path
+     */
+    int[] pathEdges(int node) {
+        int length = 0;
+        for (int v = node; predecessorEdge[v] != -1; v = predecessorNode[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = node; predecessorEdge[v] != -1; v = predecessorNode[v]) {
+            path[--length] = predecessorEdge[v];
+        }
+        return path;
+    }
+
+    private void reach(int node, int nodeDistance, int edge, int predecessor) {
+        reached[node] = query;
+        distance[node] = nodeDistance;
+        predecessorEdge[node] = edge;
+        predecessorNode[node] = predecessor;
+        heap[heapSize] = node;
+        position[node] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private int extractMin() {
+        int min = heap[0];
+        int last = heap[--heapSize];
+        if (heapSize > 0) {
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    private void siftUp(int index) {
+        int node = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (distance[heap[parent]] <= distance[node]) {
+                break;
+            }
+            heap[index] = heap[parent];
+            position[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = node;
+        position[node] = index;
+    }
+
+    private void siftDown(int index) {
+        int node = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && distance[heap[child + 1]] < distance[heap[child]]) {
+                child++;
+            }
+            if (distance[heap[child]] >= distance[node]) {
+                break;
+            }
+            heap[index] = heap[child];
+            position[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = node;
+        position[node] = index;
+    }
+}
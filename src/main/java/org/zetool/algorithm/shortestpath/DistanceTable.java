@@ -0,0 +1,119 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.shortestpath;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.zetool.graph.Node;
+
+/**
+ * A table of distances between a list of source nodes (the rows) and a list of target nodes (the columns). The
+ * distances are stored row by row in a single {@code int} array. Unreachable targets have distance
+ * {@link Integer#MAX_VALUE}.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class DistanceTable {
+
+    /** The distance value for targets that are not reachable. */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    /** The source nodes, one per row. */
+    private final List<Node> sources;
+    /** The target nodes, one per column. */
+    private final List<Node> targets;
+    /** The row of each source node id, or -1. */
+    private final int[] rowOf;
+    /** The column of each target node id, or -1. */
+    private final int[] columnOf;
+    /** The distances in row-major order. */
+    private final int[] distances;
+
+    /**
+     * Initializes the table. The arrays are not copied.
+     *
+     * @param sources the source nodes
+     * @param targets the target nodes
+     * @param rowOf the row index for each source node id, -1 for ids that are no source
+     * @param columnOf the column index for each target node id, -1 for ids that are no target
+     * @param distances the distances in row-major order
+     */
+    DistanceTable(@NonNull List<Node> sources, @NonNull List<Node> targets, int[] rowOf, int[] columnOf,
+            int[] distances) {
+        this.sources = Collections.unmodifiableList(Objects.requireNonNull(sources));
+        this.targets = Collections.unmodifiableList(Objects.requireNonNull(targets));
+        this.rowOf = rowOf;
+        this.columnOf = columnOf;
+        this.distances = distances;
+    }
+
+    /**
+     * Returns the source nodes in the order of the rows.
+     *
+     * @return the source nodes
+     */
+    public List<Node> getSources() {
+        return sources;
+    }
+
+    /**
+     * Returns the target nodes in the order of the columns.
+     *
+     * @return the target nodes
+     */
+    public List<Node> getTargets() {
+        return targets;
+    }
+
+    /**
+     * Returns the distance stored in a cell of the table. Runtime O(1).
+     *
+     * @param row the row, i.e., the index of the source
+     * @param column the column, i.e., the index of the target
+     * @return the distance, or {@link #UNREACHABLE}
+     */
+    public int getDistance(int row, int column) {
+        return distances[row * targets.size() + column];
+    }
+
+    /**
+     * Returns the distance from a source node to a target node. Runtime O(1).
+     *
+     * @param source the source node
+     * @param target the target node
+     * @return the distance, or {@link #UNREACHABLE}
+     * @throws IllegalArgumentException if the nodes are not a source and a target of the table
+     */
+    public int getDistance(Node source, Node target) {
+        int row = source.id() < rowOf.length ? rowOf[source.id()] : -1;
+        int column = target.id() < columnOf.length ? columnOf[target.id()] : -1;
+        if (row == -1 || column == -1) {
+            throw new IllegalArgumentException("No table entry for " + source + " and " + target);
+        }
+        return getDistance(row, column);
+    }
+
+    /**
+     * Returns the distances in row-major order. The array is backed by this table and must not be modified.
+     *
+     * @return the distance matrix
+     */
+    public int[] getDistances() {
+        return distances;
+    }
+}
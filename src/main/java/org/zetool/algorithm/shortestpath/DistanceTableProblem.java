@@ -0,0 +1,92 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.shortestpath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+import org.zetool.graph.Edge;
+import org.zetool.graph.Graph;
+import org.zetool.graph.Node;
+
+/**
+ * Collects the inputs for computing a {@link DistanceTable}: the shortest path distances from each of a list of
+ * source nodes to each of a list of target nodes.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class DistanceTableProblem {
+
+    private final Graph graph;
+    private final IdentifiableIntegerMapping<Edge> costs;
+    private final List<Node> sources;
+    private final List<Node> targets;
+
+    /**
+     * Initializes the problem. The node lists are copied.
+     *
+     * @param graph the graph instance, directed or undirected
+     * @param costs the non-negative edge costs
+     * @param sources the source nodes, one per row of the table
+     * @param targets the distinct target nodes, one per column of the table
+     * @throws IllegalArgumentException if a node is not contained in the graph or a target occurs twice
+     */
+    public DistanceTableProblem(@NonNull Graph graph, @NonNull IdentifiableIntegerMapping<Edge> costs,
+            @NonNull List<Node> sources, @NonNull List<Node> targets) {
+        this.graph = Objects.requireNonNull(graph);
+        this.costs = Objects.requireNonNull(costs);
+        this.sources = Collections.unmodifiableList(new ArrayList<>(sources));
+        this.targets = Collections.unmodifiableList(new ArrayList<>(targets));
+        for (Node source : this.sources) {
+            checkContained(source);
+        }
+        Set<Node> distinct = new HashSet<>();
+        for (Node target : this.targets) {
+            checkContained(target);
+            if (!distinct.add(target)) {
+                throw new IllegalArgumentException("Target " + target + " occurs twice");
+            }
+        }
+    }
+
+    private void checkContained(Node node) {
+        if (!graph.contains(node)) {
+            throw new IllegalArgumentException("Node " + node + " is not contained in the graph");
+        }
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    public IdentifiableIntegerMapping<Edge> getCosts() {
+        return costs;
+    }
+
+    public List<Node> getSources() {
+        return sources;
+    }
+
+    public List<Node> getTargets() {
+        return targets;
+    }
+}
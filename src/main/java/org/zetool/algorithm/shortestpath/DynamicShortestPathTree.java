@@ -0,0 +1,346 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.shortestpath;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.zetool.container.collection.IdentifiableCollection;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+import org.zetool.container.mapping.IdentifiableObjectMapping;
+import org.zetool.graph.DirectedGraph;
+import org.zetool.graph.Edge;
+import org.zetool.graph.GraphChangeListener;
+import org.zetool.graph.Node;
+import org.zetool.graph.ObservableGraph;
+
+/**
+ * Maintains a shortest path tree from a fixed source while edges of an {@link ObservableGraph} are hidden, shown or
+ * added and while edge costs change. Instead of recomputing all distances, only the nodes whose distance changes are
+ * processed, following the approach of Ramalingam and Reps.
+ * <ul>
+ * <li>If an edge gets cheaper or becomes available, Dijkstra's algorithm is continued from its end node and only
+ * touches nodes whose distance decreases.</li>
+ * <li>If a tree edge gets more expensive or is hidden, the subtree below it is invalidated. The invalidated nodes are
+ * seeded with the best distance over edges from unaffected nodes and Dijkstra's algorithm is run on them only. Changes
+ * of non-tree edges are ignored.</li>
+ * </ul>
+ * The tree registers itself as listener of the graph. Costs must be non-negative and must only be changed by
+ * {@link #setCost(Edge, int)}, otherwise the changes are not noticed. This includes edges created after the tree,
+ * which are inserted with the costs they have at the time they are added. The solution returned by {@link #getSolution()}
+ * is a live view that reflects all repairs.
+ * <p>
+ * Ramalingam, Ganesan and Reps, Thomas. An incremental algorithm for a generalization of the shortest-path problem.
+ * Journal of Algorithms, 1996, 21(2), 267-305.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class DynamicShortestPathTree implements GraphChangeListener {
+
+    /** The distance of unreachable nodes. */
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    /** The graph. */
+    private final ObservableGraph graph;
+    /** The graph as directed graph, {@code null} if the graph is undirected. */
+    private final DirectedGraph directedGraph;
+    /** The edge costs. */
+    private final IdentifiableIntegerMapping<Edge> costs;
+    /** The source of the tree. */
+    private final Node source;
+    /** The distance of each node. */
+    private final IdentifiableIntegerMapping<Node> distances;
+    /** The tree edge leading to each node. */
+    private final IdentifiableObjectMapping<Node, Edge> edges;
+    /** The predecessor node of each node in the tree. */
+    private final IdentifiableObjectMapping<Node, Node> nodes;
+    /** The number of node ids covered by the mappings. */
+    private int domain;
+    /** Marks nodes whose subtree has been invalidated. */
+    private boolean[] affected;
+    /** The priority queue with entries {@code distance << 32 | id}, containing outdated entries. */
+    private long[] heap = new long[16];
+    /** The number of entries in the heap. */
+    private int heapSize;
+    /** The number of nodes whose distance has been set by the last update. */
+    private int lastUpdateSize;
+
+    /**
+     * Computes the initial shortest path tree and subscribes to changes of the graph.
+     *
+     * @param graph the graph
+     * @param costs the non-negative edge costs
+     * @param source the source node
+     */
+    public DynamicShortestPathTree(@NonNull ObservableGraph graph, @NonNull IdentifiableIntegerMapping<Edge> costs,
+            @NonNull Node source) {
+        this.graph = Objects.requireNonNull(graph);
+        this.directedGraph = graph.isDirected() ? (DirectedGraph) graph : null;
+        this.costs = Objects.requireNonNull(costs);
+        this.source = Objects.requireNonNull(source);
+        for (Node node : graph.nodes()) {
+            domain = Math.max(domain, node.id() + 1);
+        }
+        distances = new IdentifiableIntegerMapping<>(domain);
+        edges = new IdentifiableObjectMapping<>(domain);
+        nodes = new IdentifiableObjectMapping<>(domain);
+        affected = new boolean[domain];
+        recompute();
+        graph.addChangeListener(this);
+    }
+
+    /**
+     * Computes the tree from scratch. Runtime O(m log n).
+     */
+    public final void recompute() {
+        for (Node node : graph.nodes()) {
+            distances.set(node, UNREACHABLE);
+            edges.set(node, null);
+            nodes.set(node, null);
+        }
+        lastUpdateSize = 0;
+        distances.set(source, 0);
+        push(source, 0);
+        propagate();
+    }
+
+    /**
+     * Stops the tree from listening to changes of the graph. The tree is not updated afterwards.
+     */
+    public void detach() {
+        graph.removeChangeListener(this);
+    }
+
+    /**
+     * Returns a view of the current shortest path tree. Nodes that are not reachable have distance
+     * {@link Integer#MAX_VALUE}. The solution is updated by later repairs.
+     *
+     * @return the shortest path distances and predecessors
+     */
+    public IntegralShortestPathSolution getSolution() {
+        return new IntegralShortestPathSolution(graph.nodes(), distances, edges, nodes);
+    }
+
+    /**
+     * Returns the number of nodes whose distance label was set during the last update. This is the amount of work done
+     * by the repair, compared to the number of nodes for a recomputation.
+     *
+     * @return the number of updated node labels
+     */
+    public int getLastUpdateSize() {
+        return lastUpdateSize;
+    }
+
+    /**
+     * Changes the costs of an edge and repairs the tree.
+     *
+     * @param edge the edge
+     * @param cost the new non-negative costs
+     */
+    public void setCost(Edge edge, int cost) {
+        int old = costs.get(edge);
+        costs.set(edge, cost);
+        if (!graph.contains(edge)) {
+            return;
+        }
+        if (cost < old) {
+            decreased(edge);
+        } else if (cost > old) {
+            increased(edge);
+        }
+    }
+
+    @Override
+    public void edgeAdded(Edge edge) {
+        decreased(edge);
+    }
+
+    @Override
+    public void edgeShown(Edge edge) {
+        decreased(edge);
+    }
+
+    @Override
+    public void edgeHidden(Edge edge) {
+        increased(edge);
+    }
+
+    /**
+     * Repairs the tree after an edge became cheaper or available.
+     *
+     * @param edge the edge
+     */
+    private void decreased(Edge edge) {
+        ensureDomain(Math.max(edge.start().id(), edge.end().id()) + 1);
+        lastUpdateSize = 0;
+        relax(edge, edge.start());
+        if (directedGraph == null) {
+            relax(edge, edge.end());
+        }
+        propagate();
+    }
+
+    /**
+     * Repairs the tree after an edge became more expensive or unavailable.
+     *
+     * @param edge the edge
+     */
+    private void increased(Edge edge) {
+        ensureDomain(Math.max(edge.start().id(), edge.end().id()) + 1);
+        lastUpdateSize = 0;
+        Node child;
+        if (edge.equals(edges.get(edge.end()))) {
+            child = edge.end();
+        } else if (directedGraph == null && edge.equals(edges.get(edge.start()))) {
+            child = edge.start();
+        } else {
+            return;
+        }
+
+        List<Node> subtree = new ArrayList<>();
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        stack.push(child);
+        while (!stack.isEmpty()) {
+            Node v = stack.pop();
+            affected[v.id()] = true;
+            subtree.add(v);
+            for (Edge e : outgoing(v)) {
+                Node w = e.opposite(v);
+                if (e.equals(edges.get(w)) && !affected[w.id()]) {
+                    stack.push(w);
+                }
+            }
+            distances.set(v, UNREACHABLE);
+            edges.set(v, null);
+            nodes.set(v, null);
+        }
+
+        for (Node v : subtree) {
+            for (Edge e : incoming(v)) {
+                Node u = e.opposite(v);
+                if (!affected[u.id()]) {
+                    relaxWithoutPush(e, u, v);
+                }
+            }
+        }
+        for (Node v : subtree) {
+            affected[v.id()] = false;
+            if (distances.get(v) != UNREACHABLE) {
+                push(v, distances.get(v));
+            }
+        }
+        propagate();
+    }
+
+    /**
+     * Continues Dijkstra's algorithm with the nodes in the queue. Outdated queue entries are skipped.
+     */
+    private void propagate() {
+        while (heapSize > 0) {
+            long entry = pop();
+            int vDistance = (int) (entry >>> 32);
+            Node v = graph.getNode((int) entry);
+            if (vDistance != distances.get(v)) {
+                continue;
+            }
+            for (Edge e : outgoing(v)) {
+                relax(e, v);
+            }
+        }
+    }
+
+    private void relax(Edge edge, Node from) {
+        Node to = edge.opposite(from);
+        if (relaxWithoutPush(edge, from, to)) {
+            push(to, distances.get(to));
+        }
+    }
+
+    private boolean relaxWithoutPush(Edge edge, Node from, Node to) {
+        int fromDistance = distances.get(from);
+        if (fromDistance == UNREACHABLE) {
+            return false;
+        }
+        long candidate = (long) fromDistance + costs.get(edge);
+        if (candidate < distances.get(to)) {
+            distances.set(to, (int) candidate);
+            edges.set(to, edge);
+            nodes.set(to, from);
+            lastUpdateSize++;
+            return true;
+        }
+        return false;
+    }
+
+    private IdentifiableCollection<Edge> outgoing(Node node) {
+        return directedGraph == null ? graph.incidentEdges(node) : directedGraph.outgoingEdges(node);
+    }
+
+    private IdentifiableCollection<Edge> incoming(Node node) {
+        return directedGraph == null ? graph.incidentEdges(node) : directedGraph.incomingEdges(node);
+    }
+
+    private void ensureDomain(int size) {
+        if (size > domain) {
+            distances.setDomainSize(size);
+            edges.setDomainSize(size);
+            nodes.setDomainSize(size);
+            affected = Arrays.copyOf(affected, size);
+            for (int id = domain; id < size; ++id) {
+                Node node = graph.getNode(id);
+                if (node != null) {
+                    distances.set(node, UNREACHABLE);
+                }
+            }
+            domain = size;
+        }
+    }
+
+    private void push(Node node, int distance) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, 2 * heapSize);
+        }
+        long entry = ((long) distance << 32) | node.id();
+        int index = heapSize++;
+        while (index > 0 && heap[(index - 1) >>> 1] > entry) {
+            heap[index] = heap[(index - 1) >>> 1];
+            index = (index - 1) >>> 1;
+        }
+        heap[index] = entry;
+    }
+
+    private long pop() {
+        long min = heap[0];
+        long last = heap[--heapSize];
+        int index = 0;
+        while (2 * index + 1 < heapSize) {
+            int child = 2 * index + 1;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = last;
+        return min;
+    }
+}
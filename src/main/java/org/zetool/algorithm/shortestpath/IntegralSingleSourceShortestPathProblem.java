@@ -25,6 +25,7 @@ import org.zetool.graph.Edge;
 import org.zetool.graph.Graph;
 import org.zetool.graph.Node;
 import org.zetool.container.mapping.IdentifiableIntegerMapping;
+import org.zetool.graph.attribute.IntColumn;
 
 /**
  * Collects the inputs for the <i>Successive Shortest Path Problem</i>.
@@ -35,6 +36,7 @@ public class IntegralSingleSourceShortestPathProblem {
 
     private final Graph graph;
     private final IdentifiableIntegerMapping<Edge> costs;
+    private final IntColumn<Edge> costColumn;
     private final Node source;
     private final Node target;
 
@@ -60,6 +62,35 @@ public class IntegralSingleSourceShortestPathProblem {
     public IntegralSingleSourceShortestPathProblem(@NonNull Graph graph, @NonNull IdentifiableIntegerMapping<Edge> costs, @NonNull Node source,
             @Nullable Node target) {
         this.costs = Objects.requireNonNull(costs);
+        this.costColumn = null;
+        this.graph = Objects.requireNonNull(graph);
+        this.source = Objects.requireNonNull(source);
+        this.target = target;
+    }
+
+    /**
+     * Initializes the problem with costs stored in a column, which algorithms read by edge id.
+     *
+     * @param graph the graph instance, directed or undirected
+     * @param costs the edge costs, indexed by edge id
+     * @param source the source node
+     */
+    public IntegralSingleSourceShortestPathProblem(@NonNull Graph graph, @NonNull IntColumn<Edge> costs, @NonNull Node source) {
+        this(graph, costs, source, null);
+    }
+
+    /**
+     * Initializes the problem with costs stored in a column, which algorithms read by edge id.
+     *
+     * @param graph the graph instance, directed or undirected
+     * @param costs the edge costs, indexed by edge id
+     * @param source the source node
+     * @param target the sink node, can be {@code null}
+     */
+    public IntegralSingleSourceShortestPathProblem(@NonNull Graph graph, @NonNull IntColumn<Edge> costs, @NonNull Node source,
+            @Nullable Node target) {
+        this.costColumn = Objects.requireNonNull(costs);
+        this.costs = costs.asMapping();
         this.graph = Objects.requireNonNull(graph);
         this.source = Objects.requireNonNull(source);
         this.target = target;
@@ -69,10 +100,24 @@ public class IntegralSingleSourceShortestPathProblem {
         return graph;
     }
 
+    /**
+     * Returns the edge costs. If the problem has been created with a column, this is a view of the column.
+     *
+     * @return the edge costs
+     */
     public IdentifiableIntegerMapping<Edge> getCosts() {
         return costs;
     }
 
+    /**
+     * Returns the column containing the edge costs, if the problem has been created with a column.
+     *
+     * @return the optional cost column
+     */
+    public Optional<IntColumn<Edge>> getCostColumn() {
+        return Optional.ofNullable(costColumn);
+    }
+
     public Node getSource() {
         return source;
     }
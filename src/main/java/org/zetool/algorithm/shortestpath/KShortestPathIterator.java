@@ -0,0 +1,265 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.shortestpath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.zetool.graph.Edge;
+import org.zetool.graph.Graph;
+import org.zetool.graph.Node;
+import org.zetool.graph.structure.Path;
+import org.zetool.graph.structure.StaticPath;
+
+/**
+ * Lazily enumerates the loopless paths between the source and the target of an
+ * {@link IntegralSingleSourceShortestPathProblem} in the order of increasing costs using Yen's algorithm. The next
+ * path is only computed when it is requested.
+ * <p>
+ * The graph is read once into adjacency arrays. All spur searches run on a reusable {@link DijkstraWorkspace} that
+ * masks the root path nodes and the deviation edges for a single query, the graph is never modified. Optionally the
+ * spur searches of one iteration run in parallel, each thread using its own workspace. Ties between paths of equal
+ * costs are broken by the number of edges and then by discovery order, so the enumeration is deterministic also in
+ * parallel mode.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class KShortestPathIterator implements Iterator<Path> {
+
+    /** The adjacency arrays of the graph. */
+    private final AdjacencyArrays adjacency;
+    /** The costs indexed by edge id. */
+    private final int[] costs;
+    /** The edges indexed by id. */
+    private final Edge[] edges;
+    /** The source node. */
+    private final Node sourceNode;
+    /** The source node id. */
+    private final int source;
+    /** The target node id. */
+    private final int target;
+    /** Whether the spur searches run in parallel. */
+    private final boolean parallel;
+    /** Idle workspaces. */
+    private final ConcurrentLinkedQueue<DijkstraWorkspace> workspaces = new ConcurrentLinkedQueue<>();
+    /** The paths that have been returned, as edge ids. */
+    private final List<int[]> accepted = new ArrayList<>();
+    /** Candidate paths that have not been returned yet. */
+    private final PriorityQueue<Candidate> candidates = new PriorityQueue<>(Comparator
+            .comparingLong((Candidate c) -> c.cost).thenComparingInt(c -> c.edges.length).thenComparingLong(c -> c.rank));
+    /** All paths ever found, used to avoid duplicate candidates. */
+    private final Set<Candidate> known = new HashSet<>();
+    /** The path that is returned next, if already computed. */
+    private Candidate next;
+    /** Whether no further paths exist. */
+    private boolean exhausted;
+    /** The costs of the path returned last. */
+    private long lastCost = -1;
+    /** Counts the found candidates to break ties. */
+    private long candidateCount;
+
+    /**
+     * Initializes the sequential enumeration of paths for an instance.
+     *
+     * @param problem the instance, which must have a target
+     */
+    public KShortestPathIterator(@NonNull IntegralSingleSourceShortestPathProblem problem) {
+        this(problem, false);
+    }
+
+    /**
+     * Initializes the enumeration of paths for an instance.
+     *
+     * @param problem the instance, which must have a target
+     * @param parallel whether the spur searches of one iteration run in parallel
+     * @throws IllegalArgumentException if the graph is not directed, the problem has no target or costs are negative
+     */
+    public KShortestPathIterator(@NonNull IntegralSingleSourceShortestPathProblem problem, boolean parallel) {
+        Graph graph = problem.getGraph();
+        if (!graph.isDirected()) {
+            throw new IllegalArgumentException("Graph must be directed.");
+        }
+        this.sourceNode = problem.getSource();
+        this.source = sourceNode.id();
+        this.target = problem.getTarget().orElseThrow(() -> new IllegalArgumentException("Target required.")).id();
+        this.parallel = parallel;
+        adjacency = AdjacencyArrays.of(graph, false);
+        costs = DijkstraWorkspace.costArray(graph, adjacency, problem.getCosts());
+        edges = new Edge[adjacency.edgeDomain];
+        for (Edge edge : graph.edges()) {
+            edges[edge.id()] = edge;
+        }
+        DijkstraWorkspace workspace = acquire();
+        long distance = workspace.run(source, target);
+        if (distance != DistanceTable.UNREACHABLE) {
+            next = new Candidate(workspace.pathEdges(target), distance, candidateCount++);
+            known.add(next);
+        } else {
+            exhausted = true;
+        }
+        workspaces.add(workspace);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !exhausted) {
+            computeNext();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Path next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        accepted.add(next.edges);
+        lastCost = next.cost;
+        Path path = toPath(next.edges);
+        next = null;
+        return path;
+    }
+
+    /**
+     * Returns the costs of the path that has been returned by the last call to {@link #next()}.
+     *
+     * @return the costs of the last path, or -1 if no path has been returned yet
+     */
+    public long getLastCost() {
+        return lastCost;
+    }
+
+    private void computeNext() {
+        int[] previous = accepted.get(accepted.size() - 1);
+        List<Candidate> found;
+        if (parallel) {
+            found = IntStream.range(0, previous.length).parallel().mapToObj(i -> spur(previous, i))
+                    .collect(Collectors.toList());
+        } else {
+            found = new ArrayList<>(previous.length);
+            for (int i = 0; i < previous.length; ++i) {
+                found.add(spur(previous, i));
+            }
+        }
+        for (Candidate candidate : found) {
+            if (candidate != null && known.add(candidate)) {
+                candidate.rank = candidateCount++;
+                candidates.add(candidate);
+            }
+        }
+        next = candidates.poll();
+        exhausted = next == null;
+    }
+
+    /**
+     * Computes the shortest path that shares the first {@code i} edges with {@code previous} and deviates at the
+     * {@code i}-th node.
+     *
+     * @param previous the path found last
+     * @param i the number of edges of the root path
+     * @return the candidate, or {@code null} if no such path exists
+     */
+    private Candidate spur(int[] previous, int i) {
+        DijkstraWorkspace workspace = acquire();
+        try {
+            workspace.reset();
+            long rootCost = 0;
+            int spurNode = source;
+            for (int j = 0; j < i; ++j) {
+                workspace.maskNode(spurNode);
+                rootCost += costs[previous[j]];
+                spurNode = edges[previous[j]].end().id();
+            }
+            for (int[] path : accepted) {
+                if (path.length > i && sharesPrefix(path, previous, i)) {
+                    workspace.maskEdge(path[i]);
+                }
+            }
+            int distance = workspace.run(spurNode, target);
+            if (distance == DistanceTable.UNREACHABLE) {
+                return null;
+            }
+            int[] spurPath = workspace.pathEdges(target);
+            int[] candidate = Arrays.copyOf(previous, i + spurPath.length);
+            System.arraycopy(spurPath, 0, candidate, i, spurPath.length);
+            return new Candidate(candidate, rootCost + distance, 0);
+        } finally {
+            workspaces.add(workspace);
+        }
+    }
+
+    private static boolean sharesPrefix(int[] a, int[] b, int length) {
+        for (int j = 0; j < length; ++j) {
+            if (a[j] != b[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private DijkstraWorkspace acquire() {
+        DijkstraWorkspace workspace = workspaces.poll();
+        return workspace == null ? new DijkstraWorkspace(adjacency, costs, true) : workspace;
+    }
+
+    private Path toPath(int[] edgeIds) {
+        if (edgeIds.length == 0) {
+            return new StaticPath(sourceNode, sourceNode);
+        }
+        Edge[] pathEdges = new Edge[edgeIds.length];
+        for (int i = 0; i < edgeIds.length; ++i) {
+            pathEdges[i] = edges[edgeIds[i]];
+        }
+        return new StaticPath(pathEdges);
+    }
+
+    /**
+     * A path given by its edge ids together with its costs.
+     */
+    private static class Candidate {
+
+        private final int[] edges;
+        private final long cost;
+        private long rank;
+
+        Candidate(int[] edges, long cost, long rank) {
+            this.edges = edges;
+            this.cost = cost;
+            this.rank = rank;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Candidate && Arrays.equals(edges, ((Candidate) o).edges);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(edges);
+        }
+    }
+}
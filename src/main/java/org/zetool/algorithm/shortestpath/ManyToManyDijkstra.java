@@ -0,0 +1,105 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.shortestpath;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.zetool.common.algorithm.AbstractAlgorithm;
+import org.zetool.graph.Node;
+
+/**
+ * Computes a {@link DistanceTable} from a list of sources to a list of targets with non-negative integral costs. Each
+ * row is computed by one run of Dijkstra's algorithm on {@link AdjacencyArrays} that stops as soon as all targets are
+ * settled. Only the distances are written into the table, no shortest path trees are created.
+ * <p>
+ * Rows are computed in parallel if there are enough of them. The rows are split into at most one task per available
+ * processor. Each task takes the next row that has not been started yet and reuses a {@link DijkstraWorkspace} for all
+ * of its rows, so the working memory is allocated once per worker thread instead of once per source. For directed
+ * graphs the outgoing edges are followed.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class ManyToManyDijkstra extends AbstractAlgorithm<DistanceTableProblem, DistanceTable> {
+
+    /** Below this number of rows the table is computed sequentially. */
+    private static final int SEQUENTIAL_THRESHOLD = 4;
+    /** Whether rows may be computed in parallel. */
+    private final boolean parallel;
+
+    /**
+     * Initializes the algorithm to compute rows in parallel.
+     */
+    public ManyToManyDijkstra() {
+        this(true);
+    }
+
+    /**
+     * Initializes the algorithm.
+     *
+     * @param parallel whether rows may be computed in parallel
+     */
+    public ManyToManyDijkstra(boolean parallel) {
+        super("Many-to-Many Dijkstra");
+        this.parallel = parallel;
+    }
+
+    /**
+     * Computes the distance table.
+     *
+     * @param problem the sources, targets and costs
+     * @return the distances
+     * @throws ArithmeticException if the table exceeds the size of an array
+     */
+    @Override
+    protected DistanceTable runAlgorithm(DistanceTableProblem problem) {
+        AdjacencyArrays adjacency = AdjacencyArrays.of(problem.getGraph(), false);
+        int[] costs = DijkstraWorkspace.costArray(problem.getGraph(), adjacency, problem.getCosts());
+        List<Node> sources = problem.getSources();
+        List<Node> targets = problem.getTargets();
+        final int n = adjacency.nodeDomain;
+        final int rows = sources.size();
+        final int columns = targets.size();
+
+        int[] rowOf = new int[n];
+        Arrays.fill(rowOf, -1);
+        for (int row = 0; row < rows; ++row) {
+            rowOf[sources.get(row).id()] = row;
+        }
+        int[] columnOf = new int[n];
+        Arrays.fill(columnOf, -1);
+        for (int column = 0; column < columns; ++column) {
+            columnOf[targets.get(column).id()] = column;
+        }
+
+        int[] distances = new int[Math.multiplyExact(rows, columns)];
+        Arrays.fill(distances, DistanceTable.UNREACHABLE);
+        int tasks = parallel && rows >= SEQUENTIAL_THRESHOLD
+                ? Math.min(rows, Runtime.getRuntime().availableProcessors()) : 1;
+        AtomicInteger nextRow = new AtomicInteger();
+        IntStream range = IntStream.range(0, tasks);
+        (tasks > 1 ? range.parallel() : range).forEach(task -> {
+            DijkstraWorkspace workspace = new DijkstraWorkspace(adjacency, costs);
+            for (int row = nextRow.getAndIncrement(); row < rows; row = nextRow.getAndIncrement()) {
+                workspace.reset();
+                workspace.runToTargets(sources.get(row).id(), columnOf, columns, distances, row * columns);
+            }
+        });
+        return new DistanceTable(sources, targets, rowOf, columnOf, distances);
+    }
+}
@@ -15,6 +15,16 @@
  */
 package org.zetool.algorithm.shortestpath;
 
+import java.util.Objects;
+
+import org.zetool.algorithm.cancellation.AlgorithmCancelledException;
+import org.zetool.algorithm.cancellation.Cancellable;
+import org.zetool.algorithm.cancellation.CancellationToken;
+import org.zetool.algorithm.instrumentation.Counter;
+import org.zetool.algorithm.instrumentation.Instrumentation;
+import org.zetool.algorithm.instrumentation.Instrumented;
+import org.zetool.algorithm.instrumentation.OperationCounter;
+import org.zetool.algorithm.instrumentation.OperationCounts;
 import org.zetool.graph.Edge;
 import org.zetool.container.mapping.IdentifiableIntegerMapping;
 import org.zetool.container.mapping.IdentifiableObjectMapping;
@@ -25,10 +35,16 @@ import org.zetool.graph.structure.Path;
 import org.zetool.graph.structure.StaticPath;
 
 /**
+ * The algorithm of Moore, Bellman and Ford for shortest paths with arbitrary integral costs.
+ * <p>
+ * A run can be stopped by a {@link CancellationToken}, which is checked every {@link CancellationToken#CHECK_INTERVAL}
+ * scanned edges. The {@link AlgorithmCancelledException} contains an {@link IntegralShortestPathSolution} with upper
+ * bounds of the distances and the paths realizing them. The algorithm itself is reset and computes from scratch when
+ * it is run again.
  *
  * @author Martin Groß
  */
-public class MooreBellmanFord {
+public class MooreBellmanFord implements Instrumented, Cancellable {
 
     private IdentifiableIntegerMapping<Edge> costs;
     private DirectedGraph graph;
@@ -36,6 +52,8 @@ public class MooreBellmanFord {
     private IdentifiableIntegerMapping<Node> distances;
     private IdentifiableObjectMapping<Node, Edge> edges;
     private IdentifiableObjectMapping<Node, Node> nodes;
+    private final Instrumentation instrumentation = new Instrumentation(getClass());
+    private CancellationToken cancellation = CancellationToken.NONE;
 
     public MooreBellmanFord() {
     }
@@ -113,6 +131,7 @@ public class MooreBellmanFord {
         if (distances != null) {
             return;
         }
+        OperationCounter counter = instrumentation.start(graph);
         distances = new IdentifiableIntegerMapping<>(graph.nodeCount());
         edges = new IdentifiableObjectMapping<>(graph.nodeCount());
         nodes = new IdentifiableObjectMapping<>(graph.nodeCount());
@@ -120,8 +139,26 @@ public class MooreBellmanFord {
             distances.set(node, Integer.MAX_VALUE);
         }
         distances.set(source, 0);
+        try {
+            relaxAll(counter);
+        } finally {
+            instrumentation.finish();
+        }
+    }
+
+    private void relaxAll(OperationCounter counter) {
+        int scanned = 0;
         for (int i = 0; i < graph.nodeCount(); i++) {
             for (Edge e : graph.edges()) {
+                if ((scanned++ & (CancellationToken.CHECK_INTERVAL - 1)) == 0 && cancellation.shouldStop()) {
+                    IntegralShortestPathSolution partial = new IntegralShortestPathSolution(graph.nodes(), distances,
+                            edges, nodes);
+                    distances = null;
+                    edges = null;
+                    nodes = null;
+                    throw new AlgorithmCancelledException(!cancellation.isCancelled(), partial);
+                }
+                counter.increment(Counter.EDGES_SCANNED);
                 Node v = e.start();
                 Node w = e.end();
                 long dw = distances.get(w);
@@ -130,11 +167,37 @@ public class MooreBellmanFord {
                     distances.set(w, distances.get(v) + costs.get(e));
                     edges.set(w, e);
                     nodes.set(w, v);
+                    counter.increment(Counter.RELAXATIONS);
                 }
             }
         }
     }
 
+    @Override
+    public void setCancellationToken(CancellationToken token) {
+        cancellation = Objects.requireNonNull(token);
+    }
+
+    @Override
+    public CancellationToken getCancellationToken() {
+        return cancellation;
+    }
+
+    @Override
+    public void setInstrumented(boolean instrumented) {
+        instrumentation.setEnabled(instrumented);
+    }
+
+    @Override
+    public boolean isInstrumented() {
+        return instrumentation.isEnabled();
+    }
+
+    @Override
+    public OperationCounts getOperationCounts() {
+        return instrumentation.getCounts();
+    }
+
     public DirectedGraph getGraph() {
         return graph;
     }
@@ -0,0 +1,211 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.shortestpath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.zetool.common.algorithm.AbstractAlgorithm;
+import org.zetool.graph.Graph;
+import org.zetool.graph.Node;
+
+/**
+ * Computes hop distances from many source nodes at once using a bit-parallel multi-source breadth first search. Each
+ * source is assigned a bit (a lane) in per-node bit masks of {@code long} words; a single scan over the adjacency of
+ * a node advances all searches that currently visit the node. Up to {@value #MAX_WORDS} words, i.e. 512 concurrent
+ * searches, are used per batch; more sources are processed in several batches.
+ * <p>
+ * The result is a {@link DistanceTable} with one row per source and one column per node of the graph, ordered by id.
+ * For directed graphs the outgoing edges are followed, or the incoming edges if the search is reversed. The
+ * distances equal those of {@link Dijkstra} with {@link org.zetool.graph.util.GraphUtil#UNIT_EDGE_MAPPING}.
+ * <p>
+ * Then, Manuel et al. The more the merrier: Efficient multi-source graph traversal. Proceedings of the VLDB Endowment,
+ * 2014, 8(4), 449-460.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class MultiSourceBreadthFirstSearch extends AbstractAlgorithm<Graph, DistanceTable> {
+
+    /** The maximal number of {@code long} words per node and batch. */
+    private static final int MAX_WORDS = 8;
+    /** Whether incoming edges are followed in directed graphs. */
+    private final boolean reverse;
+    /** The source nodes. */
+    private List<Node> sources = new ArrayList<>();
+
+    public MultiSourceBreadthFirstSearch() {
+        this(false);
+    }
+
+    /**
+     * Initializes the search.
+     *
+     * @param reverse if {@code true}, incoming edges are followed in directed graphs
+     */
+    public MultiSourceBreadthFirstSearch(boolean reverse) {
+        super("Multi-Source BFS");
+        this.reverse = reverse;
+    }
+
+    /**
+     * Defines the source nodes. Each source gets its own row in the resulting table.
+     *
+     * @param sources the source nodes
+     */
+    public void setSources(@NonNull List<Node> sources) {
+        this.sources = new ArrayList<>(Objects.requireNonNull(sources));
+    }
+
+    /**
+     * Computes the hop distances from the sources to all nodes.
+     *
+     * @param graph the graph
+     * @return the distance table
+     * @throws IllegalArgumentException if a source is not contained in the graph or is hidden
+     * @throws ArithmeticException if the table or the bit masks of a batch exceed the size of an array
+     */
+    @Override
+    protected DistanceTable runAlgorithm(Graph graph) {
+        for (Node source : sources) {
+            if (!graph.contains(source)) {
+                throw new IllegalArgumentException("Source " + source + " is not contained in the graph");
+            }
+        }
+        AdjacencyArrays adjacency = AdjacencyArrays.of(graph, reverse);
+        final int n = adjacency.nodeDomain;
+        final int k = sources.size();
+
+        List<Node> targets = new ArrayList<>(graph.nodeCount());
+        int[] columnOf = new int[n];
+        Arrays.fill(columnOf, -1);
+        for (int id = 0, column = 0; id < n; ++id) {
+            Node node = graph.getNode(id);
+            if (node != null && graph.contains(node)) {
+                targets.add(node);
+                columnOf[id] = column++;
+            }
+        }
+        int[] rowOf = new int[n];
+        Arrays.fill(rowOf, -1);
+        for (int row = 0; row < k; ++row) {
+            rowOf[sources.get(row).id()] = row;
+        }
+
+        int[] distances = new int[Math.multiplyExact(k, targets.size())];
+        Arrays.fill(distances, DistanceTable.UNREACHABLE);
+        for (int first = 0; first < k; first += 64 * MAX_WORDS) {
+            int batch = Math.min(64 * MAX_WORDS, k - first);
+            new Batch(adjacency, columnOf, targets.size(), distances, first, batch).run();
+        }
+        return new DistanceTable(sources, targets, rowOf, columnOf, distances);
+    }
+
+    /**
+     * One bit-parallel search for a batch of consecutive sources.
+     */
+    private class Batch {
+
+        private final AdjacencyArrays adjacency;
+        private final int[] columnOf;
+        private final int columns;
+        private final int[] distances;
+        private final int first;
+        private final int words;
+        private long[] seen;
+        private long[] visit;
+        private long[] visitNext;
+
+        Batch(AdjacencyArrays adjacency, int[] columnOf, int columns, int[] distances, int first, int size) {
+            this.adjacency = adjacency;
+            this.columnOf = columnOf;
+            this.columns = columns;
+            this.distances = distances;
+            this.first = first;
+            this.words = (size + 63) / 64;
+            int length = Math.multiplyExact(adjacency.nodeDomain, words);
+            seen = new long[length];
+            visit = new long[length];
+            visitNext = new long[length];
+            for (int lane = 0; lane < size; ++lane) {
+                int source = sources.get(first + lane).id();
+                long bit = 1L << (lane & 63);
+                seen[source * words + (lane >>> 6)] |= bit;
+                visit[source * words + (lane >>> 6)] |= bit;
+                record(source, lane >>> 6, bit, 0);
+            }
+        }
+
+        void run() {
+            final int n = adjacency.nodeDomain;
+            for (int level = 1; ; ++level) {
+                boolean active = false;
+                for (int v = 0; v < n; ++v) {
+                    if (!isVisited(v)) {
+                        continue;
+                    }
+                    for (int i = adjacency.offsets[v]; i < adjacency.offsets[v + 1]; ++i) {
+                        int u = adjacency.heads[i];
+                        for (int w = 0; w < words; ++w) {
+                            long discovered = visit[v * words + w] & ~seen[u * words + w];
+                            if (discovered != 0) {
+                                seen[u * words + w] |= discovered;
+                                visitNext[u * words + w] |= discovered;
+                                record(u, w, discovered, level);
+                                active = true;
+                            }
+                        }
+                    }
+                }
+                if (!active) {
+                    return;
+                }
+                long[] swap = visit;
+                visit = visitNext;
+                visitNext = swap;
+                Arrays.fill(visitNext, 0);
+            }
+        }
+
+        private boolean isVisited(int v) {
+            for (int w = 0; w < words; ++w) {
+                if (visit[v * words + w] != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Stores the distance for all lanes that reached a node in the same level.
+         *
+         * @param node the node id
+         * @param word the word containing the lanes
+         * @param lanes the lane bits
+         * @param distance the distance
+         */
+        private void record(int node, int word, long lanes, int distance) {
+            int column = columnOf[node];
+            while (lanes != 0) {
+                int row = first + 64 * word + Long.numberOfTrailingZeros(lanes);
+                distances[row * columns + column] = distance;
+                lanes &= lanes - 1;
+            }
+        }
+    }
+}
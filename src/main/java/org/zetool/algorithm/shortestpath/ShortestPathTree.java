@@ -0,0 +1,79 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.shortestpath;
+
+/**
+ * A shortest path tree stored in two {@code int} arrays indexed by node id: the distance from the source and the id of
+ * the edge leading to the node in the tree. Instances are immutable and are shared by the
+ * {@link ShortestPathTreeCache}.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public final class ShortestPathTree {
+
+    /** The estimated number of bytes used by the object headers and fields of a tree. */
+    private static final long OVERHEAD = 64;
+    /** The source node id. */
+    private final int source;
+    /** The distance of each node id, {@link DistanceTable#UNREACHABLE} if not reachable. */
+    private final int[] distances;
+    /** The id of the tree edge leading to each node id, -1 for the source and unreachable nodes. */
+    private final int[] predecessorEdges;
+
+    ShortestPathTree(int source, int[] distances, int[] predecessorEdges) {
+        this.source = source;
+        this.distances = distances;
+        this.predecessorEdges = predecessorEdges;
+    }
+
+    /**
+     * Returns the id of the source node.
+     *
+     * @return the source node id
+     */
+    public int getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the distance of a node. Runtime O(1).
+     *
+     * @param node the node id
+     * @return the distance, or {@link DistanceTable#UNREACHABLE}
+     */
+    public int getDistance(int node) {
+        return node >= 0 && node < distances.length ? distances[node] : DistanceTable.UNREACHABLE;
+    }
+
+    /**
+     * Returns the edge leading to a node in the tree. Runtime O(1).
+     *
+     * @param node the node id
+     * @return the edge id, or -1 for the source and unreachable nodes
+     */
+    public int getPredecessorEdge(int node) {
+        return node >= 0 && node < predecessorEdges.length ? predecessorEdges[node] : -1;
+    }
+
+    /**
+     * Returns the estimated heap size of the tree in bytes.
+     *
+     * @return the size in bytes
+     */
+    long estimatedSize() {
+        return OVERHEAD + 4L * (distances.length + predecessorEdges.length);
+    }
+}
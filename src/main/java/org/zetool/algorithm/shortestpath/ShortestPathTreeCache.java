@@ -0,0 +1,278 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.shortestpath;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.zetool.container.mapping.IdentifiableConstantMapping;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+import org.zetool.graph.Edge;
+import org.zetool.graph.Graph;
+import org.zetool.graph.ImmutableDirectedGraph;
+import org.zetool.graph.ImmutableUndirectedGraph;
+import org.zetool.graph.MutableGraph;
+import org.zetool.graph.Node;
+import org.zetool.graph.util.VersionedIntegerMapping;
+
+/**
+ * A bounded cache of {@link ShortestPathTree shortest path trees} computed by Dijkstra's algorithm. Trees are cached
+ * per graph instance, cost mapping instance, source and direction. The least recently used trees are evicted once the
+ * estimated size of all trees exceeds a given number of bytes.
+ * <p>
+ * A cached tree is only returned if neither the graph nor the costs have been changed since it was computed. Changes
+ * are detected by the {@link MutableGraph#getModificationCount() modification count} of the graph and the
+ * {@link VersionedIntegerMapping#getVersion() version} of the costs, stale trees are dropped when they are accessed.
+ * Therefore only trees for immutable graphs or mutable graphs that track their modifications and for versioned or
+ * constant costs are cached. For all other graphs and cost mappings the tree is computed on each request.
+ * <p>
+ * The cache is thread-safe. Trees are computed outside of the lock, so concurrent requests for the same missing tree
+ * may compute it more than once. The cache keeps references to the graphs and cost mappings of the cached trees until
+ * they are evicted or {@link #clear() cleared}.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class ShortestPathTreeCache {
+
+    /** The estimated number of bytes used by the map entry and key of a cached tree. */
+    private static final long ENTRY_OVERHEAD = 120;
+    /** The maximal estimated size of all cached trees. */
+    private final long capacity;
+    /** The cached trees in access order. */
+    private final LinkedHashMap<Key, Entry> trees = new LinkedHashMap<>(16, 0.75f, true);
+    /** The estimated size of all cached trees. */
+    private long size;
+    /** The number of requests answered from the cache. */
+    private long hits;
+    /** The number of requests for which a tree has been computed. */
+    private long misses;
+
+    /**
+     * Initializes an empty cache.
+     *
+     * @param capacity the maximal estimated size of all cached trees in bytes
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public ShortestPathTreeCache(long capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Negative capacity: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the shortest path tree from a source, computing it if it is not cached or stale. For directed graphs the
+     * outgoing edges are followed, or the incoming edges if the tree is reversed. Runtime O(1) for cached trees,
+     * O(m log n) otherwise.
+     *
+     * @param graph the graph
+     * @param costs the non-negative edge costs
+     * @param source the source node
+     * @param reverse whether incoming edges are followed in directed graphs
+     * @return the shortest path tree
+     * @throws IllegalArgumentException if an edge has negative costs
+     */
+    public ShortestPathTree get(@NonNull Graph graph, @NonNull IdentifiableIntegerMapping<Edge> costs,
+            @NonNull Node source, boolean reverse) {
+        long graphVersion = version(Objects.requireNonNull(graph));
+        long costsVersion = version(Objects.requireNonNull(costs));
+        if (graphVersion == MutableGraph.UNTRACKED || costsVersion == -1) {
+            synchronized (this) {
+                misses++;
+            }
+            return compute(graph, costs, source, reverse);
+        }
+        Key key = new Key(graph, costs, source.id(), reverse);
+        synchronized (this) {
+            Entry entry = trees.get(key);
+            if (entry != null) {
+                if (entry.graphVersion == graphVersion && entry.costsVersion == costsVersion) {
+                    hits++;
+                    return entry.tree;
+                }
+                remove(key);
+            }
+            misses++;
+        }
+        ShortestPathTree tree = compute(graph, costs, source, reverse);
+        long treeSize = tree.estimatedSize() + ENTRY_OVERHEAD;
+        if (treeSize <= capacity) {
+            synchronized (this) {
+                Entry previous = trees.put(key, new Entry(tree, treeSize, graphVersion, costsVersion));
+                size += treeSize - (previous == null ? 0 : previous.size);
+                evict();
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Removes all trees from the cache.
+     */
+    public synchronized void clear() {
+        trees.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns the number of cached trees.
+     *
+     * @return the number of trees
+     */
+    public synchronized int getTreeCount() {
+        return trees.size();
+    }
+
+    /**
+     * Returns the estimated size of all cached trees in bytes.
+     *
+     * @return the size in bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of requests answered from the cache.
+     *
+     * @return the number of hits
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of requests for which a tree has been computed.
+     *
+     * @return the number of misses
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    private void remove(Key key) {
+        size -= trees.remove(key).size;
+    }
+
+    private void evict() {
+        Iterator<Entry> eldest = trees.values().iterator();
+        while (size > capacity) {
+            size -= eldest.next().size;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Returns the version of a graph.
+     *
+     * @param graph the graph
+     * @return the modification count, or {@link MutableGraph#UNTRACKED} if changes of the graph cannot be detected
+     */
+    private static long version(Graph graph) {
+        if (graph instanceof MutableGraph) {
+            return ((MutableGraph) graph).getModificationCount();
+        }
+        return graph instanceof ImmutableDirectedGraph || graph instanceof ImmutableUndirectedGraph ? 0
+                : MutableGraph.UNTRACKED;
+    }
+
+    /**
+     * Returns the version of a cost mapping.
+     *
+     * @param costs the costs
+     * @return the version, or -1 if changes of the costs cannot be detected
+     */
+    private static long version(IdentifiableIntegerMapping<Edge> costs) {
+        if (costs instanceof VersionedIntegerMapping) {
+            return ((VersionedIntegerMapping<Edge>) costs).getVersion();
+        }
+        return costs instanceof IdentifiableConstantMapping ? 0 : -1;
+    }
+
+    private static ShortestPathTree compute(Graph graph, IdentifiableIntegerMapping<Edge> costs, Node source,
+            boolean reverse) {
+        AdjacencyArrays adjacency = AdjacencyArrays.of(graph, reverse);
+        DijkstraWorkspace workspace = new DijkstraWorkspace(adjacency,
+                DijkstraWorkspace.costArray(graph, adjacency, costs));
+        int n = adjacency.nodeDomain;
+        int[] distances = new int[n];
+        int[] predecessorEdges = new int[n];
+        if (source.id() < n) {
+            workspace.run(source.id(), -1);
+        }
+        for (int v = 0; v < n; ++v) {
+            distances[v] = workspace.distance(v);
+            predecessorEdges[v] = workspace.predecessorEdge(v);
+        }
+        return new ShortestPathTree(source.id(), distances, predecessorEdges);
+    }
+
+    /**
+     * Identifies a tree by the instances of the graph and the costs, the source and the direction.
+     */
+    private static final class Key {
+
+        private final Graph graph;
+        private final IdentifiableIntegerMapping<Edge> costs;
+        private final int source;
+        private final boolean reverse;
+
+        Key(Graph graph, IdentifiableIntegerMapping<Edge> costs, int source, boolean reverse) {
+            this.graph = graph;
+            this.costs = costs;
+            this.source = source;
+            this.reverse = reverse;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return graph == other.graph && costs == other.costs && source == other.source && reverse == other.reverse;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = System.identityHashCode(graph);
+            hash = 31 * hash + System.identityHashCode(costs);
+            hash = 31 * hash + source;
+            return 2 * hash + (reverse ? 1 : 0);
+        }
+    }
+
+    /**
+     * A cached tree with the versions of graph and costs it has been computed for.
+     */
+    private static final class Entry {
+
+        private final ShortestPathTree tree;
+        private final long size;
+        private final long graphVersion;
+        private final long costsVersion;
+
+        Entry(ShortestPathTree tree, long size, long graphVersion, long costsVersion) {
+            this.tree = tree;
+            this.size = size;
+            this.graphVersion = graphVersion;
+            this.costsVersion = costsVersion;
+        }
+    }
+}
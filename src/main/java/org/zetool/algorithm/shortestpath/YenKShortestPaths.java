@@ -0,0 +1,74 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.shortestpath;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.zetool.common.algorithm.AbstractAlgorithm;
+import org.zetool.graph.structure.Path;
+
+/**
+ * Computes the {@code k} shortest loopless paths between the source and the target of an
+ * {@link IntegralSingleSourceShortestPathProblem} in a directed graph using Yen's algorithm. The paths are returned in
+ * the order of increasing costs. If less than {@code k} loopless paths exist, all of them are returned. Use
+ * {@link KShortestPathIterator} directly to compute paths only on demand.
+ * <p>
+ * Yen, Jin Y. Finding the k shortest loopless paths in a network. Management Science, 1971, 17(11), 712-716.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class YenKShortestPaths extends AbstractAlgorithm<IntegralSingleSourceShortestPathProblem, List<Path>> {
+
+    /** The number of paths to compute. */
+    private final int k;
+    /** Whether the spur searches run in parallel. */
+    private final boolean parallel;
+
+    /**
+     * Initializes the algorithm to compute {@code k} paths sequentially.
+     *
+     * @param k the number of paths
+     */
+    public YenKShortestPaths(int k) {
+        this(k, false);
+    }
+
+    /**
+     * Initializes the algorithm.
+     *
+     * @param k the number of paths
+     * @param parallel whether the spur searches of one iteration may run in parallel
+     */
+    public YenKShortestPaths(int k, boolean parallel) {
+        super("Yen's k Shortest Paths");
+        if (k < 0) {
+            throw new IllegalArgumentException("Number of paths must be non-negative: " + k);
+        }
+        this.k = k;
+        this.parallel = parallel;
+    }
+
+    @Override
+    protected List<Path> runAlgorithm(IntegralSingleSourceShortestPathProblem problem) {
+        KShortestPathIterator paths = new KShortestPathIterator(problem, parallel);
+        List<Path> result = new ArrayList<>(k);
+        while (result.size() < k && paths.hasNext()) {
+            result.add(paths.next());
+        }
+        return result;
+    }
+}
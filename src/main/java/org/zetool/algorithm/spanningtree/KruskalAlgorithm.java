@@ -18,6 +18,11 @@ package org.zetool.algorithm.spanningtree;
 import java.util.Comparator;
 import java.util.PriorityQueue;
 
+import org.zetool.algorithm.instrumentation.Counter;
+import org.zetool.algorithm.instrumentation.Instrumentation;
+import org.zetool.algorithm.instrumentation.Instrumented;
+import org.zetool.algorithm.instrumentation.OperationCounter;
+import org.zetool.algorithm.instrumentation.OperationCounts;
 import org.zetool.common.algorithm.AbstractAlgorithm;
 import org.zetool.container.collection.DisjointSet;
 import org.zetool.container.collection.IdentifiableCollection;
@@ -26,6 +31,7 @@ import org.zetool.container.mapping.IdentifiableIntegerMapping;
 import org.zetool.graph.Edge;
 import org.zetool.graph.Graph;
 import org.zetool.graph.Node;
+import org.zetool.graph.attribute.IntColumn;
 
 /**
  * Computes a minimum spanning tree using Kruskal's algorithm. If the input graph is connected, the resulting edges form
@@ -34,6 +40,9 @@ import org.zetool.graph.Node;
  * Observe that the implementation works with both, undirected input graphs and bidirectional graphs. In the latter case
  * the result should be assumed to be a graph in the underlying undirected graph.
  * <p>
+ * If the distances are given as {@link IntColumn}, the edges are compared by reading the distances by edge id from the
+ * array of a heap column or from the buffer of a direct column instead of through a mapping.
+ * <p>
  * Kruskal, Joseph B.
  * <a href="https://www.ams.org/journals/proc/1956-007-01/S0002-9939-1956-0078686-7/S0002-9939-1956-0078686-7.pdf">
  * On the shortest spanning subtree of a graph and the traveling salesman problem.</a> Proceedings of the American
@@ -42,7 +51,9 @@ import org.zetool.graph.Node;
  * @author Jan-Philipp Kappmeier
  */
 public class KruskalAlgorithm extends AbstractAlgorithm<MinSpanningTreeProblem, UndirectedForest>
-        implements MinimumSpanningTreeAlgorithm {
+        implements MinimumSpanningTreeAlgorithm, Instrumented {
+
+    private final Instrumentation instrumentation = new Instrumentation(getClass());
 
     /**
      * Execute Kruskal's algorithm with a given {@link MinSpanningTreeProblem minimum spanning tree instance}.
@@ -55,16 +66,16 @@ public class KruskalAlgorithm extends AbstractAlgorithm<MinSpanningTreeProblem,
         UndirectedForest tree;
 
         Graph graph = problem.getGraph();
-
-        IdentifiableIntegerMapping<Edge> weights = problem.getDistances();
+        OperationCounter counter = instrumentation.start(graph);
 
         IdentifiableCollection<Edge> treeEdges = new ListSequence<>();
 
         if (graph.edgeCount() == 0) {
+            instrumentation.finish();
             return new UndirectedForest(treeEdges);
         }
 
-        final Comparator<Edge> comp = (Edge o1, Edge o2) -> weights.get(o1) - weights.get(o2);
+        final Comparator<Edge> comp = comparator(problem);
 
         PriorityQueue<Edge> heap = new PriorityQueue<>(graph.edgeCount(), comp);
 
@@ -72,19 +83,62 @@ public class KruskalAlgorithm extends AbstractAlgorithm<MinSpanningTreeProblem,
         for (Edge e : graph.edges()) {
             heap.offer(e);
         }
+        counter.add(Counter.HEAP_INSERTS, heap.size());
+        counter.max(Counter.PEAK_QUEUE_SIZE, heap.size());
 
         DisjointSet<Node> unionFind = new DisjointSet<>(graph.nodes());
 
         while (!heap.isEmpty() && treeEdges.size() != graph.nodeCount() - 1) {
             Edge e = heap.poll();
-            if (unionFind.find(e.start()).id() != unionFind.find(e.end()).id()) {
+            counter.increment(Counter.HEAP_EXTRACTS);
+            counter.increment(Counter.EDGES_SCANNED);
+            Node startRoot = unionFind.find(e.start());
+            Node endRoot = unionFind.find(e.end());
+            counter.add(Counter.UNION_FIND_OPERATIONS, 2);
+            if (startRoot.id() != endRoot.id()) {
                 treeEdges.add(e);
-                unionFind.union(unionFind.find(e.start()), unionFind.find(e.end()));
+                unionFind.union(startRoot, endRoot);
+                counter.increment(Counter.UNION_FIND_OPERATIONS);
             }
         }
 
         tree = new UndirectedForest(treeEdges);
+        instrumentation.finish();
         return tree;
     }
 
+    /**
+     * Returns a comparator of edges by their distances, which reads a column directly if the distances are given as
+     * column.
+     *
+     * @param problem the minimum spanning tree instance
+     * @return the comparator
+     */
+    private static Comparator<Edge> comparator(MinSpanningTreeProblem problem) {
+        IntColumn<Edge> column = problem.getDistanceColumn().orElse(null);
+        if (column == null) {
+            IdentifiableIntegerMapping<Edge> weights = problem.getDistances();
+            return (Edge o1, Edge o2) -> weights.get(o1) - weights.get(o2);
+        } else if (column.isDirect()) {
+            return (Edge o1, Edge o2) -> column.get(o1.id()) - column.get(o2.id());
+        }
+        int[] weights = column.array();
+        return (Edge o1, Edge o2) -> weights[o1.id()] - weights[o2.id()];
+    }
+
+    @Override
+    public void setInstrumented(boolean instrumented) {
+        instrumentation.setEnabled(instrumented);
+    }
+
+    @Override
+    public boolean isInstrumented() {
+        return instrumentation.isEnabled();
+    }
+
+    @Override
+    public OperationCounts getOperationCounts() {
+        return instrumentation.getCounts();
+    }
+
 }
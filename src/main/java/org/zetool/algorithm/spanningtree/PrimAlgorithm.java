@@ -15,6 +15,11 @@
  */
 package org.zetool.algorithm.spanningtree;
 
+import org.zetool.algorithm.instrumentation.Counter;
+import org.zetool.algorithm.instrumentation.Instrumentation;
+import org.zetool.algorithm.instrumentation.Instrumented;
+import org.zetool.algorithm.instrumentation.OperationCounter;
+import org.zetool.algorithm.instrumentation.OperationCounts;
 import org.zetool.common.algorithm.AbstractAlgorithm;
 import org.zetool.graph.Edge;
 import org.zetool.container.collection.IdentifiableCollection;
@@ -25,6 +30,7 @@ import org.zetool.container.priority.MinHeap;
 import org.zetool.graph.Node;
 
 import org.zetool.graph.Graph;
+import org.zetool.graph.attribute.IntColumn;
 
 /**
  * Computes a minimum spanning tree using Prim's (or Jarník's) algorithm. If the input graph is connected, the resulting
@@ -39,10 +45,24 @@ import org.zetool.graph.Graph;
  * <p>
  * Prim, Robert C. <a href="">Shortest connection networks And some generalizations</a>. Bell System Technical Journal,
  * 1957, 36(6), 1389–1401.
+ * <p>
+ * If the distances are given as {@link IntColumn}, they are read by edge id from the array of a heap column or from
+ * the buffer of a direct column instead of through a mapping.
  *
  * @author Marlen Schwengfelder
  */
-public class PrimAlgorithm extends AbstractAlgorithm<MinSpanningTreeProblem, UndirectedForest> {
+public class PrimAlgorithm extends AbstractAlgorithm<MinSpanningTreeProblem, UndirectedForest>
+        implements Instrumented {
+
+    private final Instrumentation instrumentation = new Instrumentation(getClass());
+    /** Receives the operations of the current run. */
+    private OperationCounter counter = OperationCounter.NONE;
+    /** The edge distances of the current run, if they are given as mapping. */
+    private IdentifiableIntegerMapping<Edge> weights;
+    /** The edge distances of the current run indexed by edge id, if they are given as heap column. */
+    private int[] weightArray;
+    /** The edge distances of the current run, if they are given as column outside of the heap. */
+    private IntColumn<Edge> weightColumn;
 
     /**
      * Execute Prim's/Jarník's algorithm with a given {@link MinSpanningTreeProblem minimum spanning tree instance}.
@@ -53,6 +73,11 @@ public class PrimAlgorithm extends AbstractAlgorithm<MinSpanningTreeProblem, Und
     @Override
     protected UndirectedForest runAlgorithm(MinSpanningTreeProblem problem) {
         Graph graph = problem.getGraph();
+        counter = instrumentation.start(graph);
+        weights = problem.getDistances();
+        IntColumn<Edge> column = problem.getDistanceColumn().orElse(null);
+        weightArray = column != null && !column.isDirect() ? column.array() : null;
+        weightColumn = column != null && column.isDirect() ? column : null;
 
         IdentifiableIntegerMapping<Node> distances = new IdentifiableIntegerMapping<>(graph.nodeCount());
         IdentifiableObjectMapping<Node, Edge> heapEdges = new IdentifiableObjectMapping<>(graph.edgeCount());
@@ -69,9 +94,25 @@ public class PrimAlgorithm extends AbstractAlgorithm<MinSpanningTreeProblem, Und
             }
         }
 
+        instrumentation.finish();
         return new UndirectedForest(solutionEdges);
     }
 
+    @Override
+    public void setInstrumented(boolean instrumented) {
+        instrumentation.setEnabled(instrumented);
+    }
+
+    @Override
+    public boolean isInstrumented() {
+        return instrumentation.isEnabled();
+    }
+
+    @Override
+    public OperationCounts getOperationCounts() {
+        return instrumentation.getCounts();
+    }
+
     /**
      * Starting from a node detect the spanning tree containing this node.
      *
@@ -84,36 +125,56 @@ public class PrimAlgorithm extends AbstractAlgorithm<MinSpanningTreeProblem, Und
             final IdentifiableObjectMapping<Node, Edge> heapEdges, final IdentifiableCollection<Edge> solutionEdges) {
         MinHeap<Node, Integer> queue = new MinHeap<>(getProblem().getGraph().nodeCount());
 
-        handleNode(startNode, queue, distances, heapEdges);
+        int queueSize = handleNode(startNode, queue, distances, heapEdges);
+        counter.max(Counter.PEAK_QUEUE_SIZE, queueSize);
         while (!queue.isEmpty()) {
             MinHeap<Node, Integer>.Element min = queue.extractMin();
+            counter.increment(Counter.HEAP_EXTRACTS);
             Node v = min.getObject();
             solutionEdges.add(heapEdges.get(v));
-            handleNode(v, queue, distances, heapEdges);
+            queueSize += handleNode(v, queue, distances, heapEdges) - 1;
+            counter.max(Counter.PEAK_QUEUE_SIZE, queueSize);
         }
     }
 
-    private void handleNode(final Node v, MinHeap<Node, Integer> queue, IdentifiableIntegerMapping<Node> distances,
+    /**
+     * Adds a node to the tree and updates the cheapest connecting edges of its neighbors.
+     *
+     * @param v the node that is added to the tree
+     * @param queue the queue of nodes that can be connected to the tree
+     * @param distances current node distances
+     * @param heapEdges cheapest connecting edges for each node (that have been discovered before)
+     * @return the number of nodes inserted into the queue
+     */
+    private int handleNode(final Node v, MinHeap<Node, Integer> queue, IdentifiableIntegerMapping<Node> distances,
             final IdentifiableObjectMapping<Node, Edge> heapEdges) {
-        IdentifiableIntegerMapping<Edge> weights = getProblem().getDistances();
-
         distances.set(v, Integer.MIN_VALUE);
+        counter.increment(Counter.NODES_SETTLED);
+        int inserted = 0;
 
         IdentifiableCollection<Edge> incidentEdges = getProblem().getGraph().incidentEdges(v);
         for (Edge edge : incidentEdges) {
+            counter.increment(Counter.EDGES_SCANNED);
             Node w = edge.opposite(v);
+            int weight = weight(edge);
             if (isConnectedFirst(w, distances)) {
                 // Node w found the first time
-                distances.set(w, weights.get(edge));
+                distances.set(w, weight);
                 heapEdges.set(w, edge);
                 queue.insert(w, distances.get(w));
-            } else if (canBeConnectedCheaper(w, distances, edge, weights)) {
+                inserted++;
+                counter.increment(Counter.RELAXATIONS);
+                counter.increment(Counter.HEAP_INSERTS);
+            } else if (canBeConnectedCheaper(w, distances, weight)) {
                 // Update solution edge for w, if cheaper
-                distances.set(w, weights.get(edge));
+                distances.set(w, weight);
                 heapEdges.set(w, edge);
-                queue.decreasePriority(w, weights.get(edge));
+                queue.decreasePriority(w, weight);
+                counter.increment(Counter.RELAXATIONS);
+                counter.increment(Counter.HEAP_DECREASE_KEYS);
             }
         }
+        return inserted;
     }
 
     /**
@@ -132,12 +193,17 @@ public class PrimAlgorithm extends AbstractAlgorithm<MinSpanningTreeProblem, Und
      *
      * @param w the node that is considered
      * @param distances the current node distances
-     * @param edge the edge that is considered
-     * @param weights the edge weights
-     * @return {@code true} if {@code w} can be cheaper connected to the tree by using {@link edge}
+     * @param weight the weight of the edge that is considered
+     * @return {@code true} if {@code w} can be cheaper connected to the tree by using the edge
      */
-    private boolean canBeConnectedCheaper(Node w, IdentifiableIntegerMapping<Node> distances, Edge edge,
-            IdentifiableIntegerMapping<Edge> weights) {
-        return weights.get(edge) < distances.get(w);
+    private boolean canBeConnectedCheaper(Node w, IdentifiableIntegerMapping<Node> distances, int weight) {
+        return weight < distances.get(w);
+    }
+
+    private int weight(Edge edge) {
+        if (weightArray != null) {
+            return weightArray[edge.id()];
+        }
+        return weightColumn != null ? weightColumn.get(edge.id()) : weights.get(edge);
     }
 }
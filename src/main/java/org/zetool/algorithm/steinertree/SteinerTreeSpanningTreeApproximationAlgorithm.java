@@ -15,9 +15,15 @@
  */
 package org.zetool.algorithm.steinertree;
 
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.zetool.algorithm.cancellation.AlgorithmCancelledException;
+import org.zetool.algorithm.cancellation.Cancellable;
+import org.zetool.algorithm.cancellation.CancellationToken;
 import org.zetool.algorithm.shortestpath.Dijkstra;
 import org.zetool.algorithm.shortestpath.IntegralSingleSourceShortestPathProblem;
 import org.zetool.algorithm.spanningtree.KruskalAlgorithm;
@@ -40,15 +46,23 @@ import org.zetool.graph.structure.Path;
 /**
  * Approximates the general Steiner tree minimization problem using a minimum spanning tree of the terminal nodes and
  * metric completion. By reduction this yields a 2-approximation of the optimal solution.
+ * <p>
+ * A run can be stopped by a {@link CancellationToken} while the metric closure is computed, which dominates the
+ * running time. The token is passed to the shortest path computations. If the shortest paths from at least one
+ * terminal are known, the {@link AlgorithmCancelledException} contains the best tree found so far: a {@link SteinerTree}
+ * connecting all reachable terminals using only the shortest paths from the terminals processed so far. It does not
+ * guarantee the approximation factor.
  *
  * @author Jan-Philipp Kappmeier
  */
-public class SteinerTreeSpanningTreeApproximationAlgorithm extends AbstractAlgorithm<MinSteinerTreeProblem, SteinerTree> {
+public class SteinerTreeSpanningTreeApproximationAlgorithm extends AbstractAlgorithm<MinSteinerTreeProblem, SteinerTree>
+        implements Cancellable {
 
     /**
      * The logger object of this algorithm.
      */
     private static final Logger LOG = Debug.globalLogger;
+    private CancellationToken cancellation = CancellationToken.NONE;
 
     @Override
     protected SteinerTree runAlgorithm(MinSteinerTreeProblem problem) {
@@ -56,6 +70,20 @@ public class SteinerTreeSpanningTreeApproximationAlgorithm extends AbstractAlgor
         // Compute metric closure
         MetricClosure metricClosure = computeMetricClosure(problem.getTerminals());
 
+        return createSteinerTree(metricClosure);
+    }
+
+    @Override
+    public void setCancellationToken(CancellationToken token) {
+        cancellation = Objects.requireNonNull(token);
+    }
+
+    @Override
+    public CancellationToken getCancellationToken() {
+        return cancellation;
+    }
+
+    private SteinerTree createSteinerTree(MetricClosure metricClosure) {
         // Phase 2:
         // Compute MST
         UndirectedForest mst = computeMinimumSpanningTree(metricClosure);
@@ -66,7 +94,7 @@ public class SteinerTreeSpanningTreeApproximationAlgorithm extends AbstractAlgor
 
         long cost = 0;
         for (Edge edge : edges) {
-            cost += problem.getWeights().get(edge);
+            cost += getProblem().getWeights().get(edge);
         }
 
         return new SteinerTree(edges, cost);
@@ -82,11 +110,19 @@ public class SteinerTreeSpanningTreeApproximationAlgorithm extends AbstractAlgor
         IdentifiableIntegerMapping<Edge> shortestpathDist = new IdentifiableIntegerMapping<>(subgraphEdgeCount);
 
         Dijkstra dijkstra = new Dijkstra();
+        dijkstra.setCancellationToken(cancellation);
         IdentifiableObjectMapping<Node, Forest> rootedForests = new IdentifiableObjectMapping<>(terminals);
         for (int i = 0; i < terminals.size(); ++i) {
             Node node = terminals.get(i);
             dijkstra.setProblem(new IntegralSingleSourceShortestPathProblem(getProblem().getGraph(), getProblem().getWeights(), node));
-            dijkstra.run();
+            try {
+                dijkstra.run();
+            } catch (AlgorithmCancelledException ex) {
+                // the closure edges of the terminals before i are complete, the tree of their paths is the best so far
+                SteinerTree partial = i == 0 ? null
+                        : createSteinerTree(new MetricClosure(geometricClosure, shortestpathDist, rootedForests));
+                throw new AlgorithmCancelledException(ex, partial);
+            }
             rootedForests.set(node, dijkstra.getSolution().getForest());
 
             for (int j = i + 1; j < terminals.size(); ++j) {
@@ -114,13 +150,18 @@ public class SteinerTreeSpanningTreeApproximationAlgorithm extends AbstractAlgor
 
     private IdentifiableCollection<Edge> createSolutionTree(UndirectedForest mst, MetricClosure closure) {
         ListSequence<Edge> treeEdges = new ListSequence<>();
+        Set<Edge> contained = new HashSet<>();
         for (Edge edge : mst.getEdges()) {
             Node fromOriginal = getProblem().getTerminals().get(edge.start().id());
             Node toOriginal = getProblem().getTerminals().get(edge.end().id());
 
             Forest forest = closure.rootedForests.get(fromOriginal);
             Path path = forest.getPathToRoot(toOriginal);
-            treeEdges.addAll(path.getEdges());
+            for (Edge pathEdge : path.getEdges()) {
+                if (contained.add(pathEdge)) {
+                    treeEdges.add(pathEdge);
+                }
+            }
         }
 
         return treeEdges;
@@ -0,0 +1,252 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.function.Function;
+
+import org.zetool.container.collection.IdentifiableCollection;
+import org.zetool.container.collection.ListSequence;
+import org.zetool.graph.util.ArraySliceCollection;
+import org.zetool.graph.util.OppositeNodeCollection;
+
+/**
+ * Common base of the immutable graphs. Nodes and edges are kept in arrays sorted by id, the incident edges of all
+ * nodes are stored consecutively in a single array with an offset per node id. All fields are final and never change
+ * after construction, so instances can be shared between threads without synchronization.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+abstract class AbstractImmutableGraph implements Graph {
+
+    /** The minimal length of offset arrays whose prefix sums are computed in parallel. */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /** The nodes sorted by id. */
+    protected final Node[] nodes;
+    /** The nodes indexed by id, {@code null} for ids without node. */
+    protected final Node[] nodeById;
+    /** The edges sorted by id. */
+    protected final Edge[] edges;
+    /** The edges indexed by id, {@code null} for ids without edge. */
+    protected final Edge[] edgeById;
+    /** The start of the incident edges of each node id in {@link #incident}, with a sentinel at the end. */
+    protected final int[] incidentOffsets;
+    /** The incident edges of all nodes. Loops are contained twice. */
+    protected final Edge[] incident;
+
+    /**
+     * Initializes the graph from nodes and edges. The arrays are sorted by id if necessary and must not be changed
+     * afterwards. Runtime O(n + m) for sorted input.
+     *
+     * @param nodes the nodes
+     * @param edges the edges, their end points must be contained in the nodes
+     */
+    protected AbstractImmutableGraph(Node[] nodes, Edge[] edges) {
+        this.nodes = sortedById(nodes, Comparator.comparingInt(Node::id));
+        this.edges = sortedById(edges, Comparator.comparingInt(Edge::id));
+        int nodeDomain = nodes.length == 0 ? 0 : this.nodes[nodes.length - 1].id() + 1;
+        nodeById = new Node[nodeDomain];
+        for (Node node : nodes) {
+            nodeById[node.id()] = node;
+        }
+        edgeById = new Edge[edges.length == 0 ? 0 : this.edges[edges.length - 1].id() + 1];
+        for (Edge edge : edges) {
+            edgeById[edge.id()] = edge;
+        }
+        incidentOffsets = new int[nodeDomain + 1];
+        for (Edge edge : edges) {
+            incidentOffsets[edge.start().id() + 1]++;
+            incidentOffsets[edge.end().id() + 1]++;
+        }
+        prefixSum(incidentOffsets);
+        incident = new Edge[2 * edges.length];
+        int[] fill = Arrays.copyOf(incidentOffsets, nodeDomain);
+        for (Edge edge : this.edges) {
+            incident[fill[edge.start().id()]++] = edge;
+            incident[fill[edge.end().id()]++] = edge;
+        }
+    }
+
+    /**
+     * Copies the elements of a collection into an array.
+     *
+     * @param <E> the element type
+     * @param elements the elements
+     * @param result the array, must have the size of the collection
+     * @return the filled array
+     */
+    protected static <E> E[] toArray(Iterable<E> elements, E[] result) {
+        int i = 0;
+        for (E element : elements) {
+            result[i++] = element;
+        }
+        return result;
+    }
+
+    private static <E> E[] sortedById(E[] elements, Comparator<E> byId) {
+        for (int i = 1; i < elements.length; ++i) {
+            if (byId.compare(elements[i - 1], elements[i]) >= 0) {
+                E[] sorted = elements.clone();
+                Arrays.sort(sorted, byId);
+                return sorted;
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * Computes the adjacency of each node id with respect to one end point of the edges.
+     *
+     * @param offsets receives the start of each node id, must have size of the node domain plus one
+     * @param endPoint the end point used to assign an edge to a node
+     * @return the adjacency array
+     */
+    protected final Edge[] adjacency(int[] offsets, Function<Edge, Node> endPoint) {
+        for (Edge edge : edges) {
+            offsets[endPoint.apply(edge).id() + 1]++;
+        }
+        prefixSum(offsets);
+        Edge[] adjacency = new Edge[edges.length];
+        int[] fill = Arrays.copyOf(offsets, offsets.length - 1);
+        for (Edge edge : edges) {
+            adjacency[fill[endPoint.apply(edge).id()]++] = edge;
+        }
+        return adjacency;
+    }
+
+    private static void prefixSum(int[] values) {
+        if (values.length >= PARALLEL_THRESHOLD) {
+            Arrays.parallelPrefix(values, Integer::sum);
+        } else {
+            for (int i = 1; i < values.length; ++i) {
+                values[i] += values[i - 1];
+            }
+        }
+    }
+
+    /**
+     * Returns the range of an adjacency array belonging to a node.
+     *
+     * @param adjacency the adjacency array
+     * @param offsets the offsets
+     * @param node the node
+     * @return the edges of the node
+     */
+    protected final IdentifiableCollection<Edge> slice(Edge[] adjacency, int[] offsets, Node node) {
+        int id = node.id();
+        if (!contains(node)) {
+            return new ArraySliceCollection<>(adjacency, 0, 0);
+        }
+        return new ArraySliceCollection<>(adjacency, offsets[id], offsets[id + 1]);
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> edges() {
+        return new ArraySliceCollection<>(edges, 0, edges.length, edgeById);
+    }
+
+    @Override
+    public IdentifiableCollection<Node> nodes() {
+        return new ArraySliceCollection<>(nodes, 0, nodes.length, nodeById);
+    }
+
+    @Override
+    public int edgeCount() {
+        return edges.length;
+    }
+
+    @Override
+    public int nodeCount() {
+        return nodes.length;
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> incidentEdges(Node node) {
+        return slice(incident, incidentOffsets, node);
+    }
+
+    @Override
+    public IdentifiableCollection<Node> adjacentNodes(Node node) {
+        return new OppositeNodeCollection(node, incidentEdges(node));
+    }
+
+    @Override
+    public int degree(Node node) {
+        return contains(node) ? incidentOffsets[node.id() + 1] - incidentOffsets[node.id()] : 0;
+    }
+
+    @Override
+    public boolean contains(Edge edge) {
+        return edge.id() >= 0 && edge.id() < edgeById.length && edge.equals(edgeById[edge.id()]);
+    }
+
+    @Override
+    public boolean contains(Node node) {
+        return node.id() >= 0 && node.id() < nodeById.length && node.equals(nodeById[node.id()]);
+    }
+
+    @Override
+    public Edge getEdge(int id) {
+        return id >= 0 && id < edgeById.length ? edgeById[id] : null;
+    }
+
+    @Override
+    public Node getNode(int id) {
+        return id >= 0 && id < nodeById.length ? nodeById[id] : null;
+    }
+
+    /**
+     * Returns the edges leaving a node that are used to look up edges between two nodes.
+     *
+     * @param start the start node
+     * @return the edges that may lead from {@code start} to another node
+     */
+    protected abstract IdentifiableCollection<Edge> edgesFrom(Node start);
+
+    @Override
+    public Edge getEdge(Node start, Node end) {
+        for (Edge edge : edgesFrom(start)) {
+            if (edge.opposite(start).equals(end)) {
+                return edge;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> getEdges(Node start, Node end) {
+        ListSequence<Edge> result = new ListSequence<>();
+        for (Edge edge : edgesFrom(start)) {
+            if (edge.opposite(start).equals(end)) {
+                result.add(edge);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        return nodes().iterator();
+    }
+
+    @Override
+    public String toString() {
+        return DirectedGraph.stringRepresentation(this);
+    }
+}
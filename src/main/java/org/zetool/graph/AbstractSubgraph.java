@@ -0,0 +1,306 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+
+import org.zetool.container.collection.IdentifiableCollection;
+import org.zetool.graph.util.ArraySliceCollection;
+import org.zetool.graph.util.FilteredCollection;
+import org.zetool.graph.util.OppositeNodeCollection;
+
+/**
+ * Common base of the subgraph views. A subgraph is induced by a set of node ids, a set of edge ids, or both; an edge
+ * belongs to the subgraph if its id is selected and both end points belong to it. The views do not copy anything,
+ * all accessors filter the collections of the parent graph. Changes of the parent graph and of the bit sets are
+ * reflected by the view.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+abstract class AbstractSubgraph<G extends Graph> implements Graph {
+
+    /** The graph of which this is a subgraph. */
+    protected final G parent;
+    /** The selected node ids, {@code null} if all nodes are selected. */
+    private final BitSet nodeSelection;
+    /** The selected edge ids, {@code null} if all edges are selected. */
+    private final BitSet edgeSelection;
+
+    /**
+     * Initializes the view.
+     *
+     * @param parent the parent graph
+     * @param nodeSelection the selected node ids, {@code null} to select all nodes
+     * @param edgeSelection the selected edge ids, {@code null} to select all edges
+     */
+    protected AbstractSubgraph(G parent, BitSet nodeSelection, BitSet edgeSelection) {
+        this.parent = parent;
+        this.nodeSelection = nodeSelection;
+        this.edgeSelection = edgeSelection;
+    }
+
+    /**
+     * Returns the graph of which this is a subgraph.
+     *
+     * @return the parent graph
+     */
+    public G getParent() {
+        return parent;
+    }
+
+    private boolean isSelected(Node node) {
+        return nodeSelection == null || nodeSelection.get(node.id());
+    }
+
+    /**
+     * Decides whether an edge of the parent graph belongs to the subgraph. Runtime O(1).
+     *
+     * @param edge an edge of the parent graph
+     * @return whether the edge and its end points are selected
+     */
+    protected final boolean isSelected(Edge edge) {
+        return (edgeSelection == null || edgeSelection.get(edge.id())) && isSelected(edge.start())
+                && isSelected(edge.end());
+    }
+
+    /**
+     * Filters a collection of edges of the parent graph that are incident to a node.
+     *
+     * @param node the node
+     * @param edges the edges of the parent graph
+     * @return the edges belonging to the subgraph, empty if the node does not belong to it
+     */
+    protected final IdentifiableCollection<Edge> filter(Node node, IdentifiableCollection<Edge> edges) {
+        if (!contains(node)) {
+            return new ArraySliceCollection<>(new Edge[0], 0, 0);
+        }
+        return new FilteredCollection<>(edges, this::isSelected);
+    }
+
+    /**
+     * Counts the edges of a collection of edges of the parent graph that belong to the subgraph.
+     *
+     * @param node the node the edges are incident to
+     * @param edges the edges of the parent graph
+     * @return the number of edges belonging to the subgraph
+     */
+    protected final int count(Node node, IdentifiableCollection<Edge> edges) {
+        if (!contains(node)) {
+            return 0;
+        }
+        int count = 0;
+        for (Edge edge : edges) {
+            if (isSelected(edge)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static <E> Iterable<E> selected(BitSet selection, IntFunction<E> lookup) {
+        return () -> new Iterator<E>() {
+            private int id = -1;
+            private E next = advance();
+
+            private E advance() {
+                while ((id = selection.nextSetBit(id + 1)) >= 0) {
+                    E element = lookup.apply(id);
+                    if (element != null) {
+                        return element;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public E next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                E current = next;
+                next = advance();
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Returns the nodes of the subgraph. If the subgraph is induced by a node set, the iteration runs in time
+     * proportional to the selected nodes, otherwise to the nodes of the parent.
+     *
+     * @return the nodes of the subgraph
+     */
+    @Override
+    public IdentifiableCollection<Node> nodes() {
+        if (nodeSelection == null) {
+            return parent.nodes();
+        }
+        return new FilteredCollection<>(parent.nodes(), this::isSelected, selected(nodeSelection, parent::getNode));
+    }
+
+    /**
+     * Returns the edges of the subgraph. If the subgraph is induced by an edge set, the iteration runs in time
+     * proportional to the selected edges, otherwise to the edges of the parent.
+     *
+     * @return the edges of the subgraph
+     */
+    @Override
+    public IdentifiableCollection<Edge> edges() {
+        if (edgeSelection == null) {
+            return new FilteredCollection<>(parent.edges(), this::isSelected);
+        }
+        return new FilteredCollection<>(parent.edges(), this::isSelected, selected(edgeSelection, parent::getEdge));
+    }
+
+    /**
+     * Returns the number of edges of the subgraph. Runtime proportional to the iteration of {@link #edges()}.
+     *
+     * @return the number of edges
+     */
+    @Override
+    public int edgeCount() {
+        return edges().size();
+    }
+
+    /**
+     * Returns the number of nodes of the subgraph. Runtime proportional to the iteration of {@link #nodes()}.
+     *
+     * @return the number of nodes
+     */
+    @Override
+    public int nodeCount() {
+        return nodeSelection == null ? parent.nodeCount() : nodes().size();
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> incidentEdges(Node node) {
+        return filter(node, parent.incidentEdges(node));
+    }
+
+    @Override
+    public IdentifiableCollection<Node> adjacentNodes(Node node) {
+        return new OppositeNodeCollection(node, incidentEdges(node));
+    }
+
+    @Override
+    public int degree(Node node) {
+        return count(node, parent.incidentEdges(node));
+    }
+
+    @Override
+    public boolean contains(Edge edge) {
+        return isSelected(edge) && parent.contains(edge);
+    }
+
+    @Override
+    public boolean contains(Node node) {
+        return isSelected(node) && parent.contains(node);
+    }
+
+    @Override
+    public Edge getEdge(int id) {
+        Edge edge = parent.getEdge(id);
+        return edge != null && isSelected(edge) ? edge : null;
+    }
+
+    @Override
+    public Node getNode(int id) {
+        Node node = parent.getNode(id);
+        return node != null && isSelected(node) ? node : null;
+    }
+
+    @Override
+    public Edge getEdge(Node start, Node end) {
+        for (Edge edge : getEdges(start, end)) {
+            return edge;
+        }
+        return null;
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> getEdges(Node start, Node end) {
+        return filter(start, parent.getEdges(start, end));
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        return nodes().iterator();
+    }
+
+    /**
+     * Copies the subgraph into a graph with dense ids. Runtime O(n + m) for the iteration of nodes and edges.
+     *
+     * @param <C> the type of the compact graph
+     * @param factory creates the compact graph from nodes and edges sorted by id
+     * @return the compact graph and the mapping of the ids
+     */
+    protected final <C extends Graph> CompactedGraph<C> compact(BiFunction<Node[], Edge[], C> factory) {
+        List<Node> originalNodes = new ArrayList<>();
+        int nodeDomain = 0;
+        for (Node node : nodes()) {
+            originalNodes.add(node);
+            nodeDomain = Math.max(nodeDomain, node.id() + 1);
+        }
+        originalNodes.sort((first, second) -> Integer.compare(first.id(), second.id()));
+        int[] originalNodeIds = new int[originalNodes.size()];
+        int[] compactNodeIds = new int[nodeDomain];
+        Arrays.fill(compactNodeIds, -1);
+        Node[] nodes = new Node[originalNodes.size()];
+        for (int i = 0; i < nodes.length; ++i) {
+            originalNodeIds[i] = originalNodes.get(i).id();
+            compactNodeIds[originalNodeIds[i]] = i;
+            nodes[i] = new Node(i);
+        }
+
+        List<Edge> originalEdges = new ArrayList<>();
+        int edgeDomain = 0;
+        for (Edge edge : edges()) {
+            originalEdges.add(edge);
+            edgeDomain = Math.max(edgeDomain, edge.id() + 1);
+        }
+        originalEdges.sort((first, second) -> Integer.compare(first.id(), second.id()));
+        int[] originalEdgeIds = new int[originalEdges.size()];
+        int[] compactEdgeIds = new int[edgeDomain];
+        Arrays.fill(compactEdgeIds, -1);
+        Edge[] edges = new Edge[originalEdges.size()];
+        for (int i = 0; i < edges.length; ++i) {
+            Edge original = originalEdges.get(i);
+            originalEdgeIds[i] = original.id();
+            compactEdgeIds[original.id()] = i;
+            edges[i] = new Edge(i, nodes[compactNodeIds[original.start().id()]],
+                    nodes[compactNodeIds[original.end().id()]]);
+        }
+        return new CompactedGraph<>(factory.apply(nodes, edges), parent, originalNodeIds, compactNodeIds,
+                originalEdgeIds, compactEdgeIds);
+    }
+
+    @Override
+    public String toString() {
+        return DirectedGraph.stringRepresentation(this);
+    }
+}
@@ -0,0 +1,208 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import java.util.function.IntFunction;
+
+import org.zetool.container.mapping.Identifiable;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+
+/**
+ * A copy of a subgraph with dense ids, together with the mapping between the ids of the copy and the ids of the
+ * original graph. Obtained by {@link DirectedSubgraph#compact()}, {@link UndirectedSubgraph#compact()} or
+ * {@link NodeReordering}. Values of the original graph, e.g. edge costs, are carried over to the compact graph by
+ * {@link #toCompactEdgeMapping(IdentifiableIntegerMapping)}, results computed on the compact graph are translated back
+ * by {@link #toOriginalNodeMapping(IdentifiableIntegerMapping)}.
+ *
+ * @param <G> the type of the compact graph
+ * @author Jan-Philipp Kappmeier
+ */
+public class CompactedGraph<G extends Graph> {
+
+    /** The graph with dense ids. */
+    private final G graph;
+    /** The graph that has been compacted. */
+    private final Graph original;
+    /** The original id of each node of the compact graph. */
+    private final int[] originalNodeIds;
+    /** The compact id of each original node id, -1 for nodes not contained. */
+    private final int[] compactNodeIds;
+    /** The original id of each edge of the compact graph. */
+    private final int[] originalEdgeIds;
+    /** The compact id of each original edge id, -1 for edges not contained. */
+    private final int[] compactEdgeIds;
+
+    CompactedGraph(G graph, Graph original, int[] originalNodeIds, int[] compactNodeIds, int[] originalEdgeIds,
+            int[] compactEdgeIds) {
+        this.graph = graph;
+        this.original = original;
+        this.originalNodeIds = originalNodeIds;
+        this.compactNodeIds = compactNodeIds;
+        this.originalEdgeIds = originalEdgeIds;
+        this.compactEdgeIds = compactEdgeIds;
+    }
+
+    /**
+     * Returns the compact graph. Its nodes and edges have the ids {@code 0, ..., n - 1} and {@code 0, ..., m - 1}.
+     *
+     * @return the compact graph
+     */
+    public G getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the node of the original graph that corresponds to a node of the compact graph. Runtime O(1).
+     *
+     * @param node a node of the compact graph
+     * @return the original node
+     */
+    public Node getOriginalNode(Node node) {
+        return original.getNode(originalNodeIds[node.id()]);
+    }
+
+    /**
+     * Returns the node of the compact graph that corresponds to a node of the original graph. Runtime O(1).
+     *
+     * @param node a node of the original graph
+     * @return the compact node or {@code null} if the node is not part of the compact graph
+     */
+    public Node getCompactNode(Node node) {
+        int id = node.id() < compactNodeIds.length ? compactNodeIds[node.id()] : -1;
+        return id == -1 ? null : graph.getNode(id);
+    }
+
+    /**
+     * Returns the edge of the original graph that corresponds to an edge of the compact graph. Runtime O(1).
+     *
+     * @param edge an edge of the compact graph
+     * @return the original edge
+     */
+    public Edge getOriginalEdge(Edge edge) {
+        return original.getEdge(originalEdgeIds[edge.id()]);
+    }
+
+    /**
+     * Returns the edge of the compact graph that corresponds to an edge of the original graph. Runtime O(1).
+     *
+     * @param edge an edge of the original graph
+     * @return the compact edge or {@code null} if the edge is not part of the compact graph
+     */
+    public Edge getCompactEdge(Edge edge) {
+        int id = edge.id() < compactEdgeIds.length ? compactEdgeIds[edge.id()] : -1;
+        return id == -1 ? null : graph.getEdge(id);
+    }
+
+    /**
+     * Returns the original id of each compact node id. The array is not copied and must not be changed.
+     *
+     * @return the original node ids indexed by compact id
+     */
+    public int[] getOriginalNodeIds() {
+        return originalNodeIds;
+    }
+
+    /**
+     * Returns the compact id of each original node id, or -1 for nodes that are not contained. The array covers the
+     * ids up to the largest contained id. It is not copied and must not be changed.
+     *
+     * @return the compact node ids indexed by original id
+     */
+    public int[] getCompactNodeIds() {
+        return compactNodeIds;
+    }
+
+    /**
+     * Returns the original id of each compact edge id. The array is not copied and must not be changed.
+     *
+     * @return the original edge ids indexed by compact id
+     */
+    public int[] getOriginalEdgeIds() {
+        return originalEdgeIds;
+    }
+
+    /**
+     * Returns the compact id of each original edge id, or -1 for edges that are not contained. The array covers the
+     * ids up to the largest contained id. It is not copied and must not be changed.
+     *
+     * @return the compact edge ids indexed by original id
+     */
+    public int[] getCompactEdgeIds() {
+        return compactEdgeIds;
+    }
+
+    /**
+     * Copies the values of the original nodes to the corresponding nodes of the compact graph. Runtime O(n).
+     *
+     * @param mapping a mapping defined for all nodes of the original graph that are part of the compact graph
+     * @return the mapping for the nodes of the compact graph
+     */
+    public IdentifiableIntegerMapping<Node> toCompactNodeMapping(IdentifiableIntegerMapping<Node> mapping) {
+        return translate(mapping, originalNodeIds, original::getNode, graph::getNode);
+    }
+
+    /**
+     * Copies the values of the compact nodes to the corresponding nodes of the original graph. The result is defined
+     * only for nodes of the original graph that are part of the compact graph. Runtime O(n).
+     *
+     * @param mapping a mapping for the nodes of the compact graph
+     * @return the mapping for the nodes of the original graph
+     */
+    public IdentifiableIntegerMapping<Node> toOriginalNodeMapping(IdentifiableIntegerMapping<Node> mapping) {
+        return translate(mapping, compactNodeIds, graph::getNode, original::getNode);
+    }
+
+    /**
+     * Copies the values of the original edges to the corresponding edges of the compact graph. Runtime O(m).
+     *
+     * @param mapping a mapping defined for all edges of the original graph that are part of the compact graph
+     * @return the mapping for the edges of the compact graph
+     */
+    public IdentifiableIntegerMapping<Edge> toCompactEdgeMapping(IdentifiableIntegerMapping<Edge> mapping) {
+        return translate(mapping, originalEdgeIds, original::getEdge, graph::getEdge);
+    }
+
+    /**
+     * Copies the values of the compact edges to the corresponding edges of the original graph. The result is defined
+     * only for edges of the original graph that are part of the compact graph. Runtime O(m).
+     *
+     * @param mapping a mapping for the edges of the compact graph
+     * @return the mapping for the edges of the original graph
+     */
+    public IdentifiableIntegerMapping<Edge> toOriginalEdgeMapping(IdentifiableIntegerMapping<Edge> mapping) {
+        return translate(mapping, compactEdgeIds, graph::getEdge, original::getEdge);
+    }
+
+    /**
+     * Copies the values of a mapping to the elements of the other graph.
+     *
+     * @param mapping the mapping for the source elements
+     * @param sourceIds the source id of each target id, -1 for targets without source
+     * @param source the lookup of source elements by id
+     * @param target the lookup of target elements by id
+     * @return the mapping for the target elements
+     */
+    private static <T extends Identifiable> IdentifiableIntegerMapping<T> translate(
+            IdentifiableIntegerMapping<T> mapping, int[] sourceIds, IntFunction<T> source, IntFunction<T> target) {
+        IdentifiableIntegerMapping<T> result = new IdentifiableIntegerMapping<>(sourceIds.length);
+        for (int id = 0; id < sourceIds.length; ++id) {
+            if (sourceIds[id] != -1) {
+                result.set(target.apply(id), mapping.get(source.apply(sourceIds[id])));
+            }
+        }
+        return result;
+    }
+}
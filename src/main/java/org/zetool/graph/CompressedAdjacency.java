@@ -0,0 +1,570 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Compressed storage of sorted adjacency lists. Each list is encoded into a byte array using the techniques of the
+ * WebGraph framework:
+ * <ul>
+ * <li>A list can refer to the list of one of the {@link #WINDOW} preceding nodes and copy some of its entries,
+ * described by alternating lengths of copied and skipped blocks. Reference chains are bounded by
+ * {@link #MAX_REFERENCE_CHAIN} to bound the decoding time.</li>
+ * <li>Runs of at least {@link #MIN_INTERVAL} consecutive ids among the remaining entries are stored as intervals.</li>
+ * <li>The remaining residuals are stored as gaps to their predecessor, the first one relative to the node itself.</li>
+ * </ul>
+ * All numbers are written as variable length integers with seven bits per byte. Lists may contain an id several times.
+ * The start of each list and the number of preceding entries are stored as differences in the same way, with an
+ * absolute sample every {@code 2^SAMPLE_BITS} nodes, so that the index needs about two bytes per node.
+ * <p>
+ * Boldi, Paolo and Vigna, Sebastiano. The WebGraph framework I: Compression techniques. Proceedings of the 13th
+ * International World Wide Web Conference, 2004, 595-602.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+final class CompressedAdjacency {
+
+    /** The number of preceding lists that are considered as reference. */
+    static final int WINDOW = 7;
+    /** The number of bits of the header of a list that store the reference. */
+    private static final int REFERENCE_BITS = 3;
+    /** The maximal length of a chain of references. */
+    static final int MAX_REFERENCE_CHAIN = 3;
+    /** The minimal length of a run of consecutive ids that is stored as interval. */
+    static final int MIN_INTERVAL = 4;
+    /** The number of bits of the distance between two sampled index entries. */
+    private static final int SAMPLE_BITS = 5;
+    private static final int[] EMPTY = new int[0];
+    /** The encoded lists. */
+    private final byte[] data;
+    /**
+     * For each node and the end, the start of its encoded list in {@link #data} and the global index of its first
+     * entry, stored as differences to the previous node in variable length integers.
+     */
+    private final byte[] index;
+    /** Every {@code 2^SAMPLE_BITS}-th entry of the index: data offset, first entry and position in {@link #index}. */
+    private final int[] samples;
+    /** The number of nodes. */
+    private final int nodeCount;
+    /** The total number of entries. */
+    private final int entryCount;
+
+    private CompressedAdjacency(byte[] data, int[] dataOffsets, int[] listOffsets) {
+        this.data = data;
+        this.nodeCount = listOffsets.length - 1;
+        this.entryCount = listOffsets[nodeCount];
+        Writer writer = new Writer(2 * listOffsets.length);
+        samples = new int[3 * ((listOffsets.length >>> SAMPLE_BITS) + 1)];
+        for (int entry = 0; entry < listOffsets.length; ++entry) {
+            if ((entry & ((1 << SAMPLE_BITS) - 1)) == 0) {
+                int sample = 3 * (entry >>> SAMPLE_BITS);
+                samples[sample] = dataOffsets[entry];
+                samples[sample + 1] = listOffsets[entry];
+                samples[sample + 2] = writer.size;
+            } else {
+                writer.write(dataOffsets[entry] - dataOffsets[entry - 1]);
+                writer.write(listOffsets[entry] - listOffsets[entry - 1]);
+            }
+        }
+        this.index = writer.toArray();
+    }
+
+    /**
+     * Reads an entry of the index. Runtime O(2^SAMPLE_BITS).
+     *
+     * @param entry the node id, or the number of nodes for the end
+     * @return the data offset in the upper and the first entry index in the lower 32 bits
+     */
+    private long entry(int entry) {
+        int sample = 3 * (entry >>> SAMPLE_BITS);
+        int dataOffset = samples[sample];
+        int listOffset = samples[sample + 1];
+        Reader reader = new Reader(index, samples[sample + 2]);
+        for (int k = entry & ((1 << SAMPLE_BITS) - 1); k > 0; --k) {
+            dataOffset += reader.read();
+            listOffset += reader.read();
+        }
+        return ((long) dataOffset << 32) | (listOffset & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Encodes adjacency lists given in compressed sparse row format. The lists must be sorted. Each list is encoded
+     * without reference and with each admissible reference in the window, and the shortest encoding is kept. Runtime
+     * O(WINDOW * m).
+     *
+     * @param listOffsets the start of the list of each node in {@code entries}, with a sentinel at the end
+     * @param entries the sorted lists of all nodes
+     * @return the compressed lists
+     */
+    static CompressedAdjacency encode(int[] listOffsets, int[] entries) {
+        int nodeCount = listOffsets.length - 1;
+        Writer writer = new Writer(Math.max(16, entries.length));
+        Writer best = new Writer(16);
+        Writer trial = new Writer(16);
+        Writer blocks = new Writer(16);
+        int[] offsets = new int[nodeCount + 1];
+        int[] chain = new int[nodeCount];
+        int[] extras = new int[0];
+        boolean[] matched = new boolean[0];
+        for (int node = 0; node < nodeCount; ++node) {
+            offsets[node] = writer.size;
+            int from = listOffsets[node];
+            int degree = listOffsets[node + 1] - from;
+            if (degree == 0) {
+                continue;
+            }
+            if (matched.length < degree) {
+                matched = new boolean[2 * degree];
+                extras = new int[2 * degree];
+            }
+            int bestReference = -1;
+            for (int reference = 0; reference <= WINDOW && reference <= node; ++reference) {
+                int candidate = node - reference;
+                if (reference > 0 && (chain[candidate] >= MAX_REFERENCE_CHAIN
+                        || listOffsets[candidate] == listOffsets[candidate + 1])) {
+                    continue;
+                }
+                Arrays.fill(matched, 0, degree, false);
+                blocks.size = 0;
+                if (reference > 0) {
+                    writeCopyBlocks(blocks, entries, listOffsets[candidate], listOffsets[candidate + 1], from,
+                            from + degree, matched);
+                }
+                int extraCount = 0;
+                for (int i = 0; i < degree; ++i) {
+                    if (!matched[i]) {
+                        extras[extraCount++] = entries[from + i];
+                    }
+                }
+                trial.size = 0;
+                writeIntervalsAndResiduals(trial, node, reference, blocks, extras, extraCount);
+                if (bestReference == -1 || trial.size < best.size) {
+                    Writer swap = best;
+                    best = trial;
+                    trial = swap;
+                    bestReference = reference;
+                }
+            }
+            chain[node] = bestReference == 0 ? 0 : chain[node - bestReference] + 1;
+            writer.append(best);
+        }
+        offsets[nodeCount] = writer.size;
+        return new CompressedAdjacency(writer.toArray(), offsets, listOffsets);
+    }
+
+    private static void writeCopyBlocks(Writer writer, int[] entries, int fromReference, int toReference, int from,
+            int to, boolean[] matched) {
+        int referenceDegree = toReference - fromReference;
+        boolean[] copied = new boolean[referenceDegree];
+        int i = fromReference;
+        int j = from;
+        while (i < toReference && j < to) {
+            if (entries[i] < entries[j]) {
+                i++;
+            } else if (entries[i] > entries[j]) {
+                j++;
+            } else {
+                copied[i - fromReference] = true;
+                matched[j - from] = true;
+                i++;
+                j++;
+            }
+        }
+        int[] blocks = new int[referenceDegree + 1];
+        int blockCount = 0;
+        boolean copying = true;
+        int length = 0;
+        for (boolean copy : copied) {
+            if (copy != copying) {
+                blocks[blockCount++] = length;
+                copying = copy;
+                length = 0;
+            }
+            length++;
+        }
+        if (copying) {
+            blocks[blockCount++] = length;
+        }
+        writer.write(blockCount);
+        for (int block = 0; block < blockCount; ++block) {
+            writer.write(block == 0 ? blocks[block] : blocks[block] - 1);
+        }
+    }
+
+    private static void writeIntervalsAndResiduals(Writer writer, int node, int reference, Writer blocks,
+            int[] extras, int count) {
+        int[] intervals = new int[count];
+        int intervalCount = 0;
+        int[] residuals = new int[count];
+        int residualCount = 0;
+        int i = 0;
+        while (i < count) {
+            int j = i;
+            while (j + 1 < count && extras[j + 1] == extras[j] + 1) {
+                j++;
+            }
+            if (j - i + 1 >= MIN_INTERVAL) {
+                intervals[intervalCount++] = i;
+                intervals[intervalCount++] = j - i + 1;
+            } else {
+                for (int k = i; k <= j; ++k) {
+                    residuals[residualCount++] = extras[k];
+                }
+            }
+            i = j + 1;
+        }
+        writer.write(reference | (intervalCount / 2) << REFERENCE_BITS);
+        writer.append(blocks);
+        int previous = node;
+        for (int k = 0; k < intervalCount; k += 2) {
+            int start = extras[intervals[k]];
+            writer.write(k == 0 ? zigzag(start - node) : start - previous);
+            writer.write(intervals[k + 1] - MIN_INTERVAL);
+            previous = start + intervals[k + 1] - 1;
+        }
+        for (int k = 0; k < residualCount; ++k) {
+            writer.write(k == 0 ? zigzag(residuals[k] - node) : residuals[k] - residuals[k - 1]);
+        }
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Returns the number of lists.
+     *
+     * @return the number of nodes
+     */
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the total number of entries.
+     *
+     * @return the number of entries of all lists
+     */
+    int entryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Returns the length of the list of a node. Runtime O(2^SAMPLE_BITS).
+     *
+     * @param node the node id
+     * @return the number of entries of the list
+     */
+    int degree(int node) {
+        return firstIndex(node + 1) - firstIndex(node);
+    }
+
+    /**
+     * Returns the global index of the first entry of the list of a node. Runtime O(2^SAMPLE_BITS).
+     *
+     * @param node the node id
+     * @return the index of the first entry
+     */
+    int firstIndex(int node) {
+        return (int) entry(node);
+    }
+
+    /**
+     * Returns the node whose list contains the entry with the given global index. Runtime O(log n).
+     *
+     * @param entryIndex the global index of an entry
+     * @return the node id
+     */
+    int nodeOf(int entryIndex) {
+        int low = 0;
+        int high = samples.length / 3 - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if ((middle << SAMPLE_BITS) <= nodeCount && samples[3 * middle + 1] <= entryIndex) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        int node = low << SAMPLE_BITS;
+        while (node < nodeCount && firstIndex(node + 1) <= entryIndex) {
+            node++;
+        }
+        return node;
+    }
+
+    /**
+     * Returns the number of bytes used by the arrays of this representation.
+     *
+     * @return the approximate memory footprint in bytes
+     */
+    long byteSize() {
+        return data.length + index.length + 4L * samples.length;
+    }
+
+    /**
+     * Decodes the list of a node. Runtime O(degree) plus the decoding of at most {@link #MAX_REFERENCE_CHAIN}
+     * referenced lists.
+     *
+     * @param node the node id
+     * @return the sorted list
+     */
+    int[] decode(int node) {
+        Cursor cursor = new Cursor(node);
+        if (cursor.remaining == 0) {
+            return EMPTY;
+        }
+        int[] list = new int[cursor.remaining];
+        for (int i = 0; i < list.length; ++i) {
+            list[i] = cursor.nextInt();
+        }
+        return list;
+    }
+
+    /**
+     * Returns an iterator that decodes the list of a node entry by entry, without creating arrays. Runtime
+     * O(2^SAMPLE_BITS + number of copy blocks and intervals) for the creation, plus the same for each referenced list,
+     * and O(1) per entry plus the entries skipped in referenced lists.
+     *
+     * @param node the node id
+     * @return an iterator over the sorted list
+     */
+    PrimitiveIterator.OfInt iterator(int node) {
+        return new Cursor(node);
+    }
+
+    /**
+     * Decodes a list lazily. The copied entries, the intervals and the residuals are each sorted and are read by their
+     * own reader; the cursor merges them.
+     */
+    private final class Cursor implements PrimitiveIterator.OfInt {
+
+        /** The number of entries that have not been returned yet. */
+        private int remaining;
+        /** The referenced list, {@code null} if the list has no reference. */
+        private Cursor referenced;
+        private Reader blockReader;
+        private int blocksLeft;
+        private int blockIndex;
+        /** The number of entries of the referenced list that remain in the current block. */
+        private int blockLeft;
+        private boolean copying;
+        private Reader intervalReader;
+        private int intervalsLeft;
+        /** The number of entries of the current interval after {@link #interval}. */
+        private int intervalLeft;
+        private Reader residualReader;
+        private int residualsLeft;
+        private boolean hasCopied;
+        private boolean hasInterval;
+        private boolean hasResidual;
+        /** The next copied entry, valid if {@link #hasCopied}. */
+        private int copied;
+        /** The next entry of an interval, valid if {@link #hasInterval}. */
+        private int interval;
+        /** The next residual, valid if {@link #hasResidual}. */
+        private int residual;
+
+        Cursor(int node) {
+            long location = entry(node);
+            remaining = firstIndex(node + 1) - (int) location;
+            if (remaining == 0) {
+                return;
+            }
+            Reader reader = new Reader(data, (int) (location >>> 32));
+            int header = reader.read();
+            int reference = header & ((1 << REFERENCE_BITS) - 1);
+            int copiedCount = 0;
+            if (reference > 0) {
+                referenced = new Cursor(node - reference);
+                blocksLeft = reader.read();
+                blockReader = new Reader(data, reader.position);
+                for (int block = 0; block < blocksLeft; ++block) {
+                    int length = block == 0 ? reader.read() : reader.read() + 1;
+                    copiedCount += block % 2 == 0 ? length : 0;
+                }
+            }
+            intervalsLeft = header >>> REFERENCE_BITS;
+            intervalReader = new Reader(data, reader.position);
+            int intervalEntries = 0;
+            for (int k = 0; k < intervalsLeft; ++k) {
+                reader.read();
+                intervalEntries += reader.read() + MIN_INTERVAL;
+            }
+            residualReader = reader;
+            residualsLeft = remaining - copiedCount - intervalEntries;
+            advanceCopied();
+            if (intervalsLeft > 0) {
+                interval = node;
+                readInterval(unzigzag(intervalReader.read()));
+            }
+            if (residualsLeft > 0) {
+                residual = node + unzigzag(residualReader.read());
+                residualsLeft--;
+                hasResidual = true;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            int value;
+            if (hasCopied && (!hasInterval || copied <= interval) && (!hasResidual || copied <= residual)) {
+                value = copied;
+                advanceCopied();
+            } else if (hasInterval && (!hasResidual || interval <= residual)) {
+                value = interval;
+                advanceInterval();
+            } else {
+                value = residual;
+                advanceResidual();
+            }
+            return value;
+        }
+
+        private void advanceCopied() {
+            hasCopied = false;
+            while (referenced != null) {
+                if (blockLeft > 0) {
+                    blockLeft--;
+                    int value = referenced.nextInt();
+                    if (copying) {
+                        copied = value;
+                        hasCopied = true;
+                        return;
+                    }
+                } else if (blocksLeft > 0) {
+                    copying = blockIndex % 2 == 0;
+                    blockLeft = blockIndex == 0 ? blockReader.read() : blockReader.read() + 1;
+                    blockIndex++;
+                    blocksLeft--;
+                } else {
+                    referenced = null;
+                }
+            }
+        }
+
+        private void advanceInterval() {
+            if (intervalLeft > 0) {
+                interval++;
+                intervalLeft--;
+            } else if (intervalsLeft > 0) {
+                readInterval(intervalReader.read());
+            } else {
+                hasInterval = false;
+            }
+        }
+
+        /**
+         * Reads the length of the next interval.
+         *
+         * @param gap the difference of the start of the interval to the end of the previous interval, or to the node
+         * for the first interval
+         */
+        private void readInterval(int gap) {
+            interval += gap;
+            intervalLeft = intervalReader.read() + MIN_INTERVAL - 1;
+            intervalsLeft--;
+            hasInterval = true;
+        }
+
+        private void advanceResidual() {
+            if (residualsLeft > 0) {
+                residual += residualReader.read();
+                residualsLeft--;
+            } else {
+                hasResidual = false;
+            }
+        }
+    }
+
+    /**
+     * Writes variable length integers into a growing byte array.
+     */
+    private static final class Writer {
+
+        private byte[] bytes;
+        private int size;
+
+        Writer(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        void write(int value) {
+            if (size + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(size + 5, 2 * bytes.length));
+            }
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void append(Writer other) {
+            if (size + other.size > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(size + other.size, 2 * bytes.length));
+            }
+            System.arraycopy(other.bytes, 0, bytes, size, other.size);
+            size += other.size;
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+
+    /**
+     * Reads variable length integers from a byte array.
+     */
+    private static final class Reader {
+
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        int read() {
+            int value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = bytes[position++];
+                value |= (current & 0x7F) << shift;
+                shift += 7;
+            } while (current < 0);
+            return value;
+        }
+    }
+}
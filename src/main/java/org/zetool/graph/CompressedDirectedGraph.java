@@ -0,0 +1,488 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import org.zetool.container.collection.IdentifiableCollection;
+import org.zetool.container.collection.ListSequence;
+import org.zetool.container.mapping.Identifiable;
+import org.zetool.graph.localization.GraphLocalization;
+import org.zetool.graph.util.ArraySliceCollection;
+import org.zetool.graph.util.OppositeNodeCollection;
+
+/**
+ * A read-only directed graph for networks that are too large for an uncompressed representation. The sorted successor
+ * lists are stored compressed as described in {@link CompressedAdjacency}; graphs with locality, e.g. with nodes
+ * numbered along a spatial order, typically need one to two bytes per edge instead of the four bytes per edge and per
+ * node of compressed sparse row arrays of {@code int}.
+ * <p>
+ * Nodes have the ids {@code 0, ..., n - 1}. The edges are numbered by start node and, for equal start nodes, by end
+ * node, so the edge ids of a graph created from another graph may differ. Node and edge objects are created on demand
+ * when they are accessed; they are equal to the objects returned earlier by id. The successor ids of a node can be
+ * decoded without creating objects by {@link #successorIds(int)} and {@link #successorIterator(int)}.
+ * <p>
+ * Incoming edges are only available if the transposed graph is stored as well, which doubles the footprint. Otherwise
+ * the methods concerning incoming edges throw an {@link UnsupportedOperationException}.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class CompressedDirectedGraph implements DirectedGraph {
+
+    /** The successor lists. */
+    private final CompressedAdjacency successors;
+    /** The predecessor lists, {@code null} if not stored. */
+    private final CompressedAdjacency predecessors;
+
+    private CompressedDirectedGraph(CompressedAdjacency successors, CompressedAdjacency predecessors) {
+        this.successors = successors;
+        this.predecessors = predecessors;
+    }
+
+    /**
+     * Creates a compressed graph from arrays of start and end node ids. Runtime O(m log m).
+     *
+     * @param nodeCount the number of nodes
+     * @param sources the start node id of each edge
+     * @param targets the end node id of each edge
+     * @param withIncoming whether the predecessor lists are stored, too
+     * @return the compressed graph
+     * @throws IllegalArgumentException if the arrays differ in length or contain invalid node ids
+     */
+    public static CompressedDirectedGraph of(int nodeCount, int[] sources, int[] targets, boolean withIncoming) {
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException("Sources and targets differ in length: " + sources.length + " vs. "
+                    + targets.length);
+        }
+        for (int i = 0; i < sources.length; ++i) {
+            if (sources[i] < 0 || sources[i] >= nodeCount || targets[i] < 0 || targets[i] >= nodeCount) {
+                throw new IllegalArgumentException("Invalid edge (" + sources[i] + "," + targets[i] + ") for "
+                        + nodeCount + " nodes");
+            }
+        }
+        CompressedAdjacency successors = compress(nodeCount, sources, targets);
+        CompressedAdjacency predecessors = withIncoming ? compress(nodeCount, targets, sources) : null;
+        return new CompressedDirectedGraph(successors, predecessors);
+    }
+
+    /**
+     * Creates a compressed copy of a directed graph. The node ids of the graph should be dense, as the compressed
+     * graph contains a node for every id up to the largest one. Runtime O(n + m log m).
+     *
+     * @param graph the graph
+     * @param withIncoming whether the predecessor lists are stored, too
+     * @return the compressed graph
+     */
+    public static CompressedDirectedGraph of(DirectedGraph graph, boolean withIncoming) {
+        int nodeCount = 0;
+        for (Node node : graph.nodes()) {
+            nodeCount = Math.max(nodeCount, node.id() + 1);
+        }
+        int[] sources = new int[graph.edgeCount()];
+        int[] targets = new int[graph.edgeCount()];
+        int i = 0;
+        for (Edge edge : graph.edges()) {
+            sources[i] = edge.start().id();
+            targets[i++] = edge.end().id();
+        }
+        return of(nodeCount, sources, targets, withIncoming);
+    }
+
+    private static CompressedAdjacency compress(int nodeCount, int[] from, int[] to) {
+        int[] offsets = new int[nodeCount + 1];
+        for (int node : from) {
+            offsets[node + 1]++;
+        }
+        for (int i = 1; i < offsets.length; ++i) {
+            offsets[i] += offsets[i - 1];
+        }
+        int[] entries = new int[from.length];
+        int[] fill = Arrays.copyOf(offsets, nodeCount);
+        for (int i = 0; i < from.length; ++i) {
+            entries[fill[from[i]]++] = to[i];
+        }
+        for (int node = 0; node < nodeCount; ++node) {
+            Arrays.sort(entries, offsets[node], offsets[node + 1]);
+        }
+        return CompressedAdjacency.encode(offsets, entries);
+    }
+
+    private CompressedAdjacency predecessors() {
+        if (predecessors == null) {
+            throw new UnsupportedOperationException(GraphLocalization.NOT_SUPPORTED);
+        }
+        return predecessors;
+    }
+
+    /**
+     * Returns the number of bytes used by the compressed lists.
+     *
+     * @return the approximate memory footprint in bytes
+     */
+    public long byteSize() {
+        return successors.byteSize() + (predecessors == null ? 0 : predecessors.byteSize());
+    }
+
+    /**
+     * Decodes the sorted successor ids of a node. Runtime O(out degree) plus the decoding of a bounded number of
+     * referenced lists.
+     *
+     * @param node the node id
+     * @return the successor ids, containing a node several times if there are parallel edges
+     */
+    public int[] successorIds(int node) {
+        return successors.decode(node);
+    }
+
+    /**
+     * Decodes the sorted predecessor ids of a node. Only available if the predecessor lists are stored.
+     *
+     * @param node the node id
+     * @return the predecessor ids, containing a node several times if there are parallel edges
+     */
+    public int[] predecessorIds(int node) {
+        return predecessors().decode(node);
+    }
+
+    /**
+     * Returns an iterator over the sorted successor ids of a node. The ids are decoded lazily while iterating, without
+     * creating an array. Runtime O(1) per id plus the decoding of a bounded number of referenced lists.
+     *
+     * @param node the node id
+     * @return an iterator over the successor ids
+     */
+    public PrimitiveIterator.OfInt successorIterator(int node) {
+        return successors.iterator(node);
+    }
+
+    private Edge edge(int index, int start, int end) {
+        return new Edge(index, new Node(start), new Node(end));
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> edges() {
+        return new LazyCollection<>(successors.entryCount(), this::getEdge, () -> new Iterator<Edge>() {
+            private int node = -1;
+            private int[] list = new int[0];
+            private int first;
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                while (position == list.length && node + 1 < successors.nodeCount()) {
+                    first += list.length;
+                    list = successors.decode(++node);
+                    position = 0;
+                }
+                return position < list.length;
+            }
+
+            @Override
+            public Edge next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return edge(first + position, node, list[position++]);
+            }
+        });
+    }
+
+    @Override
+    public IdentifiableCollection<Node> nodes() {
+        return new LazyCollection<>(nodeCount(), this::getNode, null);
+    }
+
+    @Override
+    public int edgeCount() {
+        return successors.entryCount();
+    }
+
+    @Override
+    public int nodeCount() {
+        return successors.nodeCount();
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> incidentEdges(Node node) {
+        IdentifiableCollection<Edge> outgoing = outgoingEdges(node);
+        IdentifiableCollection<Edge> incoming = incomingEdges(node);
+        Edge[] incident = new Edge[outgoing.size() + incoming.size()];
+        int i = 0;
+        for (Edge edge : outgoing) {
+            incident[i++] = edge;
+        }
+        for (Edge edge : incoming) {
+            incident[i++] = edge;
+        }
+        return new ArraySliceCollection<>(incident, 0, incident.length);
+    }
+
+    @Override
+    public IdentifiableCollection<Node> adjacentNodes(Node node) {
+        return new OppositeNodeCollection(node, incidentEdges(node));
+    }
+
+    @Override
+    public int degree(Node node) {
+        return inDegree(node) + outDegree(node);
+    }
+
+    @Override
+    public boolean contains(Edge edge) {
+        Edge stored = getEdge(edge.id());
+        return stored != null && stored.start().equals(edge.start()) && stored.end().equals(edge.end());
+    }
+
+    @Override
+    public boolean contains(Node node) {
+        return node.id() >= 0 && node.id() < nodeCount();
+    }
+
+    /**
+     * Returns the edge with the given id. Runtime O(log n + out degree of its start node).
+     *
+     * @param id the edge id
+     * @return the edge or {@code null} if there is no edge with the id
+     */
+    @Override
+    public Edge getEdge(int id) {
+        if (id < 0 || id >= edgeCount()) {
+            return null;
+        }
+        int start = successors.nodeOf(id);
+        return edge(id, start, successors.decode(start)[id - successors.firstIndex(start)]);
+    }
+
+    @Override
+    public Edge getEdge(Node start, Node end) {
+        if (!contains(start)) {
+            return null;
+        }
+        int[] list = successors.decode(start.id());
+        int position = firstPosition(list, end.id());
+        return position < list.length && list[position] == end.id()
+                ? edge(successors.firstIndex(start.id()) + position, start.id(), end.id()) : null;
+    }
+
+    private static int firstPosition(int[] list, int value) {
+        int low = 0;
+        int high = list.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (list[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> getEdges(Node start, Node end) {
+        ListSequence<Edge> result = new ListSequence<>();
+        if (contains(start)) {
+            int[] list = successors.decode(start.id());
+            for (int position = firstPosition(list, end.id()); position < list.length && list[position] == end.id();
+                    ++position) {
+                result.add(edge(successors.firstIndex(start.id()) + position, start.id(), end.id()));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Node getNode(int id) {
+        return id >= 0 && id < nodeCount() ? new Node(id) : null;
+    }
+
+    /**
+     * Returns the incoming edges of a node. Each predecessor's successor list is decoded to determine the edge ids.
+     * Only available if the predecessor lists are stored. Runtime O(sum of the out degrees of the predecessors).
+     *
+     * @param node the node
+     * @return the incoming edges
+     */
+    @Override
+    public IdentifiableCollection<Edge> incomingEdges(Node node) {
+        if (!contains(node)) {
+            return new ArraySliceCollection<>(new Edge[0], 0, 0);
+        }
+        int[] predecessorIds = predecessors().decode(node.id());
+        Edge[] incoming = new Edge[predecessorIds.length];
+        int i = 0;
+        while (i < predecessorIds.length) {
+            int start = predecessorIds[i];
+            int index = successors.firstIndex(start) + firstPosition(successors.decode(start), node.id());
+            do {
+                incoming[i++] = edge(index++, start, node.id());
+            } while (i < predecessorIds.length && predecessorIds[i] == start);
+        }
+        return new ArraySliceCollection<>(incoming, 0, incoming.length);
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> outgoingEdges(Node node) {
+        if (!contains(node)) {
+            return new ArraySliceCollection<>(new Edge[0], 0, 0);
+        }
+        int[] list = successors.decode(node.id());
+        int first = successors.firstIndex(node.id());
+        Edge[] outgoing = new Edge[list.length];
+        for (int i = 0; i < list.length; ++i) {
+            outgoing[i] = edge(first + i, node.id(), list[i]);
+        }
+        return new ArraySliceCollection<>(outgoing, 0, outgoing.length);
+    }
+
+    @Override
+    public IdentifiableCollection<Node> predecessorNodes(Node node) {
+        return new OppositeNodeCollection(node, incomingEdges(node));
+    }
+
+    @Override
+    public IdentifiableCollection<Node> successorNodes(Node node) {
+        return new OppositeNodeCollection(node, outgoingEdges(node));
+    }
+
+    @Override
+    public int inDegree(Node node) {
+        return contains(node) ? predecessors().degree(node.id()) : 0;
+    }
+
+    @Override
+    public int outDegree(Node node) {
+        return contains(node) ? successors.degree(node.id()) : 0;
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        return nodes().iterator();
+    }
+
+    @Override
+    public String toString() {
+        return DirectedGraph.stringRepresentation(this);
+    }
+
+    /**
+     * An unmodifiable collection of the elements with ids {@code 0, ..., size - 1} that are created on demand.
+     *
+     * @param <E> the element type
+     */
+    private static class LazyCollection<E extends Identifiable> implements IdentifiableCollection<E> {
+
+        private final int size;
+        private final IntFunction<E> lookup;
+        private final Supplier<Iterator<E>> iteration;
+
+        /**
+         * Creates the collection.
+         *
+         * @param size the number of elements
+         * @param lookup creates the element with a given id
+         * @param iteration creates an iterator in order of the ids, or {@code null} to use the lookup
+         */
+        LazyCollection(int size, IntFunction<E> lookup, Supplier<Iterator<E>> iteration) {
+            this.size = size;
+            this.lookup = lookup;
+            this.iteration = iteration;
+        }
+
+        @Override
+        public boolean add(E element) {
+            throw new UnsupportedOperationException(GraphLocalization.NOT_SUPPORTED);
+        }
+
+        @Override
+        public boolean remove(E element) {
+            throw new UnsupportedOperationException(GraphLocalization.NOT_SUPPORTED);
+        }
+
+        @Override
+        public E removeLast() {
+            throw new UnsupportedOperationException(GraphLocalization.NOT_SUPPORTED);
+        }
+
+        @Override
+        public boolean contains(E element) {
+            return element.id() >= 0 && element.id() < size && element.equals(lookup.apply(element.id()));
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public E get(int id) {
+            return id >= 0 && id < size ? lookup.apply(id) : null;
+        }
+
+        @Override
+        public E first() {
+            return get(0);
+        }
+
+        @Override
+        public E last() {
+            return get(size - 1);
+        }
+
+        @Override
+        public E predecessor(E element) {
+            return get(element.id() - 1);
+        }
+
+        @Override
+        public E successor(E element) {
+            return element.id() + 1 < size ? get(element.id() + 1) : null;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            if (iteration != null) {
+                return iteration.get();
+            }
+            return new Iterator<E>() {
+                private int id;
+
+                @Override
+                public boolean hasNext() {
+                    return id < size;
+                }
+
+                @Override
+                public E next() {
+                    if (id == size) {
+                        throw new NoSuchElementException();
+                    }
+                    return lookup.apply(id++);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,455 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.zetool.container.collection.IdentifiableCollection;
+import org.zetool.container.collection.ListSequence;
+import org.zetool.graph.localization.GraphLocalization;
+import org.zetool.graph.util.ArraySliceCollection;
+import org.zetool.graph.util.OppositeNodeCollection;
+
+/**
+ * A directed graph that allows any number of threads to add edges concurrently. Edge ids are allocated by an atomic
+ * counter and the edges are stored in lazily allocated segments, such that adding an edge never needs a global lock.
+ * Each node owns two append-only blocks for its outgoing and incoming edges, an edge insertion only locks the blocks
+ * of its own end points. Threads adding edges between different nodes therefore do not contend.
+ * <p>
+ * Reading is lock free. The adjacency views are consistent snapshots of the edges added so far, the collections
+ * returned by {@link #edges()} and {@link #nodes()} are weakly consistent copies. An edge becomes visible in
+ * {@link #getEdge(int)} slightly before it appears in the adjacency of its end points. Edges cannot be removed or
+ * hidden; use {@link #copyToImmutable()} to obtain an immutable copy for algorithms after the insertion phase.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class ConcurrentDirectedGraph implements MutableDirectedGraph {
+
+    /** The number of bits of the size of the first edge segment. */
+    private static final int FIRST_SEGMENT_BITS = 10;
+    /** The size of the first edge segment, every further segment is twice as large as its predecessor. */
+    private static final int FIRST_SEGMENT_SIZE = 1 << FIRST_SEGMENT_BITS;
+    /** The number of segments necessary to store all non-negative ids. */
+    private static final int SEGMENTS = 31 - FIRST_SEGMENT_BITS;
+    /** The number of edge ids that can be stored in the segments. */
+    private static final int MAX_EDGES = Integer.MAX_VALUE - FIRST_SEGMENT_SIZE + 1;
+    /** The nodes and their adjacency, indexed by node id. Replaced as a whole if the capacity grows. */
+    private volatile NodeEntry[] nodes;
+    /** The segments storing the edges by id. */
+    private final AtomicReferenceArray<AtomicReferenceArray<Edge>> segments = new AtomicReferenceArray<>(SEGMENTS);
+    /** The smallest edge id that has not been handed out. */
+    private final AtomicInteger nextEdgeId = new AtomicInteger();
+    /** The number of edges in the graph. */
+    private final LongAdder edgeCount = new LongAdder();
+
+    /**
+     * Creates a new graph with nodes {@code 0, ..., nodeCapacity - 1} and space for the given number of edges.
+     * Runtime O(nodeCapacity + edgeCapacity).
+     *
+     * @param nodeCapacity the number of nodes
+     * @param edgeCapacity the number of edges for which space is allocated in advance
+     */
+    public ConcurrentDirectedGraph(int nodeCapacity, int edgeCapacity) {
+        nodes = new NodeEntry[0];
+        setNodeCapacity(nodeCapacity);
+        setEdgeCapacity(edgeCapacity);
+    }
+
+    private static int segment(int id) {
+        return 31 - Integer.numberOfLeadingZeros(id + FIRST_SEGMENT_SIZE) - FIRST_SEGMENT_BITS;
+    }
+
+    private static int offset(int id) {
+        int position = id + FIRST_SEGMENT_SIZE;
+        return position - Integer.highestOneBit(position);
+    }
+
+    private static int segmentSize(int segment) {
+        return FIRST_SEGMENT_SIZE << segment;
+    }
+
+    private AtomicReferenceArray<Edge> segmentFor(int id) {
+        int segment = segment(id);
+        AtomicReferenceArray<Edge> edges = segments.get(segment);
+        if (edges == null) {
+            segments.compareAndSet(segment, null, new AtomicReferenceArray<>(segmentSize(segment)));
+            edges = segments.get(segment);
+        }
+        return edges;
+    }
+
+    private NodeEntry entry(Node node) {
+        NodeEntry[] entries = nodes;
+        if (node.id() < 0 || node.id() >= entries.length) {
+            throw new IllegalArgumentException("Node " + node + " is not contained in the graph");
+        }
+        return entries[node.id()];
+    }
+
+    /**
+     * Creates a new edge with the next free id between two nodes of the graph. Can be called concurrently by any
+     * number of threads. Runtime O(1) amortized.
+     *
+     * @param start the start node of the new edge
+     * @param end the end node of the new edge
+     * @return the new edge
+     * @throws IllegalArgumentException if one of the nodes is not contained in the graph
+     * @throws IllegalStateException if all edge ids are used
+     */
+    @Override
+    public Edge createAndSetEdge(Node start, Node end) {
+        NodeEntry startEntry = entry(start);
+        NodeEntry endEntry = entry(end);
+        while (true) {
+            int id = nextEdgeId.getAndIncrement();
+            if (id < 0 || id >= MAX_EDGES) {
+                nextEdgeId.set(MAX_EDGES);
+                throw new IllegalStateException(GraphLocalization.LOC.getString("ds.Graph.NoCapacityException"));
+            }
+            Edge edge = new Edge(id, startEntry.node, endEntry.node);
+            if (segmentFor(id).compareAndSet(offset(id), null, edge)) {
+                link(edge, startEntry, endEntry);
+                return edge;
+            }
+        }
+    }
+
+    /**
+     * Adds an existing edge to the graph at the position of its id, which must be free. Adding an edge that is
+     * already contained has no effect. Can be called concurrently with {@link #createAndSetEdge(Node, Node)}, which
+     * skips ids that are used by such edges. Runtime O(1) amortized.
+     *
+     * @param edge the edge
+     * @throws IllegalArgumentException if another edge with the same id is contained, or if one of the end points is
+     * not contained in the graph
+     */
+    public void setEdge(Edge edge) {
+        NodeEntry startEntry = entry(edge.start());
+        NodeEntry endEntry = entry(edge.end());
+        if (edge.id() < 0 || edge.id() >= MAX_EDGES) {
+            throw new IllegalArgumentException("Invalid edge id " + edge.id());
+        }
+        if (segmentFor(edge.id()).compareAndSet(offset(edge.id()), null, edge)) {
+            nextEdgeId.accumulateAndGet(edge.id() + 1, Math::max);
+            link(edge, startEntry, endEntry);
+        } else if (!edge.equals(getEdge(edge.id()))) {
+            throw new IllegalArgumentException("Edge position is already occupied");
+        }
+    }
+
+    private void link(Edge edge, NodeEntry startEntry, NodeEntry endEntry) {
+        startEntry.outgoing.add(edge);
+        endEntry.incoming.add(edge);
+        edgeCount.increment();
+    }
+
+    @Override
+    public void setEdges(Iterable<Edge> edges) {
+        for (Edge edge : edges) {
+            setEdge(edge);
+        }
+    }
+
+    /**
+     * Makes sure that the graph contains nodes with the ids of the given nodes. As all node ids below the node
+     * capacity are used, this only increases the capacity if necessary.
+     *
+     * @param nodes the nodes
+     */
+    @Override
+    public void setNodes(Iterable<Node> nodes) {
+        int maximum = -1;
+        for (Node node : nodes) {
+            maximum = Math.max(maximum, node.id());
+        }
+        if (maximum >= getNodeCapacity()) {
+            setNodeCapacity(maximum + 1);
+        }
+    }
+
+    @Override
+    public int getNodeCapacity() {
+        return nodes.length;
+    }
+
+    /**
+     * Adds nodes to the graph until it contains the given number of nodes. Runtime O(newCapacity).
+     *
+     * @param newCapacity the new number of nodes
+     * @throws IllegalArgumentException if the graph contains more nodes
+     */
+    @Override
+    public synchronized void setNodeCapacity(int newCapacity) {
+        NodeEntry[] entries = nodes;
+        if (newCapacity < entries.length) {
+            throw new IllegalArgumentException("Nodes cannot be removed from a concurrent graph");
+        }
+        NodeEntry[] grown = Arrays.copyOf(entries, newCapacity);
+        for (int i = entries.length; i < newCapacity; ++i) {
+            grown[i] = new NodeEntry(new Node(i));
+        }
+        nodes = grown;
+    }
+
+    /**
+     * Returns the number of modifications. As nodes and edges can only be added, this is the sum of the number of
+     * nodes and edges. Runtime O(1).
+     *
+     * @return the modification count
+     */
+    @Override
+    public long getModificationCount() {
+        return edgeCount.sum() + nodes.length;
+    }
+
+    /**
+     * Returns the number of edges for which space is allocated. Runtime O(1).
+     *
+     * @return the number of edges that can be stored without allocating
+     */
+    @Override
+    public int getEdgeCapacity() {
+        int capacity = 0;
+        for (int segment = 0; segment < SEGMENTS; ++segment) {
+            if (segments.get(segment) != null) {
+                capacity += segmentSize(segment);
+            }
+        }
+        return capacity;
+    }
+
+    /**
+     * Allocates space for edges with ids below the given capacity. The space for further edges is allocated on
+     * demand, allocated space is never released.
+     *
+     * @param newCapacity the number of edges that can be stored without allocating
+     */
+    @Override
+    public void setEdgeCapacity(int newCapacity) {
+        if (newCapacity > 0) {
+            for (int segment = 0; segment <= segment(newCapacity - 1); ++segment) {
+                segmentFor(segmentSize(segment) - FIRST_SEGMENT_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of the edges contained in the graph, sorted by id. Runtime O(m).
+     *
+     * @return the edges of the graph
+     */
+    @Override
+    public IdentifiableCollection<Edge> edges() {
+        int bound = Math.min(nextEdgeId.get(), MAX_EDGES);
+        Edge[] byId = new Edge[bound];
+        int count = 0;
+        for (int segment = 0; segment < SEGMENTS && segmentSize(segment) - FIRST_SEGMENT_SIZE < bound; ++segment) {
+            AtomicReferenceArray<Edge> edges = segments.get(segment);
+            if (edges == null) {
+                continue;
+            }
+            int first = segmentSize(segment) - FIRST_SEGMENT_SIZE;
+            for (int i = 0; i < edges.length() && first + i < bound; ++i) {
+                Edge edge = edges.get(i);
+                if (edge != null) {
+                    byId[first + i] = edge;
+                    count++;
+                }
+            }
+        }
+        Edge[] sorted = new Edge[count];
+        int i = 0;
+        for (Edge edge : byId) {
+            if (edge != null) {
+                sorted[i++] = edge;
+            }
+        }
+        return new ArraySliceCollection<>(sorted, 0, i, byId);
+    }
+
+    @Override
+    public IdentifiableCollection<Node> nodes() {
+        NodeEntry[] entries = nodes;
+        Node[] result = new Node[entries.length];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = entries[i].node;
+        }
+        return new ArraySliceCollection<>(result, 0, result.length, result);
+    }
+
+    @Override
+    public int edgeCount() {
+        return edgeCount.intValue();
+    }
+
+    @Override
+    public int nodeCount() {
+        return nodes.length;
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> incidentEdges(Node node) {
+        NodeEntry entry = entry(node);
+        ListSequence<Edge> result = new ListSequence<>();
+        entry.outgoing.view().forEach(result::add);
+        entry.incoming.view().forEach(result::add);
+        return result;
+    }
+
+    @Override
+    public IdentifiableCollection<Node> adjacentNodes(Node node) {
+        return new OppositeNodeCollection(node, incidentEdges(node));
+    }
+
+    @Override
+    public int degree(Node node) {
+        NodeEntry entry = entry(node);
+        return entry.outgoing.size + entry.incoming.size;
+    }
+
+    @Override
+    public boolean contains(Edge edge) {
+        return edge.equals(getEdge(edge.id()));
+    }
+
+    @Override
+    public boolean contains(Node node) {
+        return node.id() >= 0 && node.id() < nodes.length;
+    }
+
+    @Override
+    public Edge getEdge(int id) {
+        if (id < 0 || id >= MAX_EDGES) {
+            return null;
+        }
+        AtomicReferenceArray<Edge> edges = segments.get(segment(id));
+        return edges == null ? null : edges.get(offset(id));
+    }
+
+    @Override
+    public Edge getEdge(Node start, Node end) {
+        for (Edge edge : outgoingEdges(start)) {
+            if (edge.end().equals(end)) {
+                return edge;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> getEdges(Node start, Node end) {
+        ListSequence<Edge> result = new ListSequence<>();
+        for (Edge edge : outgoingEdges(start)) {
+            if (edge.end().equals(end)) {
+                result.add(edge);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Node getNode(int id) {
+        NodeEntry[] entries = nodes;
+        return id >= 0 && id < entries.length ? entries[id].node : null;
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> incomingEdges(Node node) {
+        return entry(node).incoming.view();
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> outgoingEdges(Node node) {
+        return entry(node).outgoing.view();
+    }
+
+    @Override
+    public IdentifiableCollection<Node> predecessorNodes(Node node) {
+        return new OppositeNodeCollection(node, incomingEdges(node));
+    }
+
+    @Override
+    public IdentifiableCollection<Node> successorNodes(Node node) {
+        return new OppositeNodeCollection(node, outgoingEdges(node));
+    }
+
+    @Override
+    public int inDegree(Node node) {
+        return entry(node).incoming.size;
+    }
+
+    @Override
+    public int outDegree(Node node) {
+        return entry(node).outgoing.size;
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        return nodes().iterator();
+    }
+
+    @Override
+    public String toString() {
+        return DirectedGraph.stringRepresentation(this);
+    }
+
+    /**
+     * A node together with its outgoing and incoming edges.
+     */
+    private static final class NodeEntry {
+
+        private final Node node;
+        private final EdgeBlock outgoing = new EdgeBlock();
+        private final EdgeBlock incoming = new EdgeBlock();
+
+        private NodeEntry(Node node) {
+            this.node = node;
+        }
+    }
+
+    /**
+     * An append-only list of edges. Appending is synchronized on the block, reading is lock free: the size is read
+     * before the array, and every array that is published contains all edges below the published size.
+     */
+    private static final class EdgeBlock {
+
+        private static final Edge[] EMPTY = new Edge[0];
+        /** The edges, only the first {@link #size} entries are valid. */
+        private volatile Edge[] edges = EMPTY;
+        /** The number of edges, serves as degree counter. */
+        private volatile int size;
+
+        private synchronized void add(Edge edge) {
+            Edge[] current = edges;
+            int count = size;
+            if (count == current.length) {
+                current = Arrays.copyOf(current, Math.max(4, 2 * count));
+                edges = current;
+            }
+            current[count] = edge;
+            size = count + 1;
+        }
+
+        private IdentifiableCollection<Edge> view() {
+            int count = size;
+            return new ArraySliceCollection<>(edges, 0, count);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import java.util.Arrays;
+
+/**
+ * An integer array that can be frozen cheaply while it is still changed by its owner. The values are stored in chunks
+ * of fixed size. Freezing copies only the references to the chunks, which are then shared with the frozen copy. A shared
+ * chunk is copied when it is changed for the first time afterwards, so a frozen copy never changes and can be read by
+ * any number of threads without synchronization.
+ * <p>
+ * The values can also be accessed as bits, which allows the array to be used as bit set.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+final class CopyOnWriteIntArray {
+
+    private static final int CHUNK_BITS = 8;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    /** The values in chunks of {@link #CHUNK_SIZE}. */
+    private final int[][] chunks;
+    /** Whether each chunk is shared with a frozen copy and must be copied before it is changed. */
+    private final boolean[] shared;
+    private final int length;
+
+    /**
+     * Creates an array of zeros. Runtime O(length).
+     *
+     * @param length the number of values
+     */
+    CopyOnWriteIntArray(int length) {
+        this.length = length;
+        chunks = new int[(length + CHUNK_MASK) >>> CHUNK_BITS][CHUNK_SIZE];
+        shared = new boolean[chunks.length];
+    }
+
+    /**
+     * Creates an array that can store the given number of bits. Runtime O(bits / 32).
+     *
+     * @param bits the number of bits
+     * @return an array of zeros
+     */
+    static CopyOnWriteIntArray ofBits(int bits) {
+        return new CopyOnWriteIntArray((bits + Integer.SIZE - 1) / Integer.SIZE);
+    }
+
+    int get(int index) {
+        return chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+    }
+
+    /**
+     * Sets a value. Runtime O(1), if the chunk of the value has to be copied the runtime is in the size of a chunk.
+     *
+     * @param index the index
+     * @param value the value
+     */
+    void set(int index, int value) {
+        writableChunk(index >>> CHUNK_BITS)[index & CHUNK_MASK] = value;
+    }
+
+    void add(int index, int amount) {
+        writableChunk(index >>> CHUNK_BITS)[index & CHUNK_MASK] += amount;
+    }
+
+    boolean getBit(int bit) {
+        return getBit(chunks, length, bit);
+    }
+
+    void setBit(int bit, boolean value) {
+        int index = bit / Integer.SIZE;
+        int mask = 1 << (bit % Integer.SIZE);
+        int word = get(index);
+        set(index, value ? word | mask : word & ~mask);
+    }
+
+    private int[] writableChunk(int chunk) {
+        if (shared[chunk]) {
+            chunks[chunk] = chunks[chunk].clone();
+            shared[chunk] = false;
+        }
+        return chunks[chunk];
+    }
+
+    /**
+     * Returns a copy of the current values that is not affected by later changes. Runtime O(length / chunk size).
+     *
+     * @return the frozen copy
+     */
+    Frozen freeze() {
+        Arrays.fill(shared, true);
+        return new Frozen(chunks.clone(), length);
+    }
+
+    private static boolean getBit(int[][] chunks, int length, int bit) {
+        int index = bit / Integer.SIZE;
+        return bit >= 0 && index < length
+                && (chunks[index >>> CHUNK_BITS][index & CHUNK_MASK] & 1 << (bit % Integer.SIZE)) != 0;
+    }
+
+    /**
+     * An immutable copy of the values, sharing the chunks with the array and other frozen copies.
+     */
+    static final class Frozen {
+
+        private final int[][] chunks;
+        private final int length;
+
+        private Frozen(int[][] chunks, int length) {
+            this.chunks = chunks;
+            this.length = length;
+        }
+
+        int get(int index) {
+            return chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+        }
+
+        /**
+         * Returns a bit. Bits outside of the array are not set. Runtime O(1).
+         *
+         * @param bit the index of the bit
+         * @return whether the bit is set
+         */
+        boolean getBit(int bit) {
+            return CopyOnWriteIntArray.getBit(chunks, length, bit);
+        }
+    }
+}
@@ -8,8 +8,12 @@ import org.zetool.container.collection.ListSequence;
 import org.zetool.container.collection.IdentifiableCollection;
 import org.zetool.container.mapping.IdentifiableIntegerMapping;
 import org.zetool.container.mapping.IdentifiableObjectMapping;
+import org.zetool.graph.jfr.EventRecorder;
 import org.zetool.graph.util.OppositeNodeCollection;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * An implementation of a directed graph that is able to hide arcs. The {@link MutableGraph} provides an implementation
@@ -21,7 +25,7 @@ import java.util.Iterator;
  * @author Martin Groß
  */
 @XStreamAlias("network")
-public class DefaultDirectedGraph implements MutableDirectedGraph {
+public class DefaultDirectedGraph implements MutableDirectedGraph, ObservableGraph {
 
     /**
      * The nodes of the network. Must not be {@literal null}.
@@ -55,6 +59,18 @@ public class DefaultDirectedGraph implements MutableDirectedGraph {
      * Caches the number of edges starting at a node for all nodes in the graph. Must not be {@literal null}.
      */
     protected IdentifiableIntegerMapping<Node> outdegree;
+    /**
+     * The listeners notified about changes, {@code null} as long as no listener has been registered.
+     */
+    private transient List<GraphChangeListener> listeners;
+    /**
+     * The number of changes of the nodes, edges or their visibility.
+     */
+    private transient long modifications;
+    /**
+     * The state shared with the snapshots of the graph, {@code null} as long as no snapshot has been taken.
+     */
+    private transient DirectedGraphSnapshot.Source snapshots;
 
     /**
      * Creates a new ModifiableGraph with the specified capacities for edges and nodes. The runtime is in
@@ -414,6 +430,7 @@ public class DefaultDirectedGraph implements MutableDirectedGraph {
     public void setEdge(Edge edge) {
         if (edges.get(edge.id()) == null) {
             edges.add(edge);
+            modifications++;
             incidentEdges(edge.start()).add(edge);
             incidentEdges(edge.end()).add(edge);
             outgoingEdges(edge.start()).add(edge);
@@ -422,6 +439,12 @@ public class DefaultDirectedGraph implements MutableDirectedGraph {
             degree.increase(edge.end(), 1);
             outdegree.increase(edge.start(), 1);
             indegree.increase(edge.end(), 1);
+            if (snapshots != null) {
+                snapshots.invalidate();
+            }
+            if (listeners != null) {
+                listeners.forEach(listener -> listener.edgeAdded(edge));
+            }
         } else if (edges.get(edge.id()).equals(edge)) {
             // do nothing, there is already the edge
         } else {
@@ -461,6 +484,10 @@ public class DefaultDirectedGraph implements MutableDirectedGraph {
             outdegree.set(node, 0);
         }
         nodes.add(node);
+        modifications++;
+        if (snapshots != null) {
+            snapshots.invalidate();
+        }
     }
 
     /**
@@ -492,6 +519,27 @@ public class DefaultDirectedGraph implements MutableDirectedGraph {
         return clone;
     }
 
+    /**
+     * Returns an immutable snapshot of the visible nodes and edges of the graph. The snapshot is not affected by later
+     * changes of the graph and can be read by any number of threads without synchronization, while the graph is
+     * changed further. It must be taken by the thread that changes the graph, or while the graph is not changed.
+     * <p>
+     * Snapshots share an immutable copy of all nodes and edges, including the hidden ones, which is created by the
+     * first snapshot after nodes or edges have been added. The visibility of nodes and edges and the degrees are kept
+     * in chunked arrays, of which each snapshot holds a frozen copy. Hiding or showing a node or an edge copies at most
+     * the changed chunks, and only once per snapshot. Only changes made by the methods of this class are tracked.
+     * Runtime O((n + m) / chunk size) if no nodes or edges have been added since the last snapshot, O(n + m)
+     * otherwise.
+     *
+     * @return a snapshot of the graph
+     */
+    public DirectedGraphSnapshot snapshot() {
+        if (snapshots == null) {
+            snapshots = new DirectedGraphSnapshot.Source();
+        }
+        return snapshots.snapshot(this);
+    }
+
     /**
      * Compares the specified object to this object and returns whether the specified object is equivalent to this one.
      * An object is considered equivalent to this network, if and only if it is a network with an equivalent node and
@@ -579,7 +627,12 @@ public class DefaultDirectedGraph implements MutableDirectedGraph {
     @Override
     public void setEdgeCapacity(int newCapacity) {
         if (getEdgeCapacity() != newCapacity) {
+            EventRecorder.Mutation event = EventRecorder.get().startMutation();
+            if (snapshots != null && newCapacity < getEdgeCapacity()) {
+                snapshots.invalidate();
+            }
             edges.setCapacity(newCapacity);
+            event.finish(this, "setEdgeCapacity", newCapacity);
         }
     }
 
@@ -601,7 +654,11 @@ public class DefaultDirectedGraph implements MutableDirectedGraph {
     @Override
     public void setNodeCapacity(int newCapacity) {
         if (getNodeCapacity() != newCapacity) {
+            EventRecorder.Mutation event = EventRecorder.get().startMutation();
             int oldCapacity = getNodeCapacity();
+            if (snapshots != null) {
+                snapshots.invalidate();
+            }
             nodes.setCapacity(newCapacity);
             incidentEdges.setDomainSize(newCapacity);
             incomingEdges.setDomainSize(newCapacity);
@@ -613,6 +670,7 @@ public class DefaultDirectedGraph implements MutableDirectedGraph {
             for (int i = oldCapacity; i < newCapacity; i++) {
                 setNode(new Node(i));
             }
+            event.finish(this, "setNodeCapacity", newCapacity);
         }
     }
 
@@ -638,6 +696,7 @@ public class DefaultDirectedGraph implements MutableDirectedGraph {
     public void setHidden(Edge edge, boolean value) {
         if (isHidden(edge) != value) {
             edges.setHidden(edge, value);
+            modifications++;
             if (value) {
                 degree.decrease(edge.start(), 1);
                 degree.decrease(edge.end(), 1);
@@ -649,6 +708,22 @@ public class DefaultDirectedGraph implements MutableDirectedGraph {
                 outdegree.increase(edge.start(), 1);
                 indegree.increase(edge.end(), 1);
             }
+            if (snapshots != null) {
+                snapshots.setHidden(edge, value);
+            }
+            if (listeners != null) {
+                fireVisibilityChanged(edge, value);
+            }
+        }
+    }
+
+    private void fireVisibilityChanged(Edge edge, boolean hidden) {
+        for (GraphChangeListener listener : listeners) {
+            if (hidden) {
+                listener.edgeHidden(edge);
+            } else {
+                listener.edgeShown(edge);
+            }
         }
     }
 
@@ -679,15 +754,71 @@ public class DefaultDirectedGraph implements MutableDirectedGraph {
                 }
             }
             nodes.setHidden(node, value);
+            modifications++;
+            if (snapshots != null) {
+                snapshots.setHidden(node, value);
+            }
         }
     }
 
     public void setHiddenOnlyNode(Node node, boolean value) {
         nodes.setHidden(node, value);
+        modifications++;
+        if (snapshots != null) {
+            snapshots.setHidden(node, value);
+        }
     }
 
     public void showAllEdges() {
-        edges.showAll();
+        EventRecorder.Mutation event = EventRecorder.get().startMutation();
+        modifications++;
+        if (snapshots != null) {
+            snapshots.invalidate();
+        }
+        if (listeners == null) {
+            edges.showAll();
+        } else {
+            List<Edge> hidden = new ArrayList<>();
+            edges.getHiddenElements().forEach(hidden::add);
+            edges.showAll();
+            for (Edge edge : hidden) {
+                fireVisibilityChanged(edge, false);
+            }
+        }
+        event.finish(this, "showAllEdges", edgeCount());
+    }
+
+    @Override
+    public long getModificationCount() {
+        return modifications;
+    }
+
+    /**
+     * Registers a listener that is notified when edges are added, hidden or shown. Runtime O(1).
+     *
+     * @param listener the listener
+     */
+    @Override
+    public void addChangeListener(GraphChangeListener listener) {
+        if (listeners == null) {
+            listeners = new ArrayList<>(2);
+        }
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Removes a listener. Runtime O(number of listeners).
+     *
+     * @param listener the listener
+     */
+    @Override
+    public void removeChangeListener(GraphChangeListener listener) {
+        if (listeners != null) {
+            listeners.remove(listener);
+            if (listeners.isEmpty()) {
+                listeners = null;
+            }
+        }
     }
 
     @Override
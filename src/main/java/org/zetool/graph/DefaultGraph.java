@@ -22,17 +22,21 @@ import org.zetool.container.collection.IdentifiableCollection;
 import org.zetool.container.collection.ListSequence;
 import org.zetool.container.mapping.IdentifiableIntegerMapping;
 import org.zetool.container.mapping.IdentifiableObjectMapping;
+import org.zetool.graph.jfr.EventRecorder;
 import org.zetool.graph.structure.Path;
 import org.zetool.graph.util.GraphUtil;
 import org.zetool.graph.util.OppositeNodeCollection;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * Implementation of {@link org.zetool.graph.UndirectedGraph} that allows edges to be hidden.
  *
  * @author Jan-Philipp Kappmeier
  */
-public class DefaultGraph implements MutableUndirectedGraph {
+public class DefaultGraph implements MutableUndirectedGraph, ObservableGraph {
 
     /**
      * The nodes of the network. Must not be {@code null}.
@@ -50,6 +54,14 @@ public class DefaultGraph implements MutableUndirectedGraph {
      * Caches the number of edges incident to a node for all nodes in the graph. Must not be {@code null}.
      */
     protected IdentifiableIntegerMapping<Node> degree;
+    /**
+     * The listeners notified about changes, {@code null} as long as no listener has been registered.
+     */
+    private transient List<GraphChangeListener> listeners;
+    /**
+     * The number of changes of the nodes, edges or their visibility.
+     */
+    private transient long modifications;
 
     /**
      * Creates a new AbstractNetwork with the specified capacities for edges and nodes. Runtime
@@ -376,7 +388,9 @@ public class DefaultGraph implements MutableUndirectedGraph {
     @Override
     public void setEdgeCapacity(int newCapacity) {
         if (getEdgeCapacity() != newCapacity) {
+            EventRecorder.Mutation event = EventRecorder.get().startMutation();
             edges.setCapacity(newCapacity);
+            event.finish(this, "setEdgeCapacity", newCapacity);
         }
     }
 
@@ -398,6 +412,7 @@ public class DefaultGraph implements MutableUndirectedGraph {
     @Override
     public void setNodeCapacity(int newCapacity) {
         if (getNodeCapacity() != newCapacity) {
+            EventRecorder.Mutation event = EventRecorder.get().startMutation();
             int oldCapacity = getNodeCapacity();
             nodes.setCapacity(newCapacity);
             incidentEdges.setDomainSize(newCapacity);
@@ -406,6 +421,7 @@ public class DefaultGraph implements MutableUndirectedGraph {
             for (int i = oldCapacity; i < newCapacity; i++) {
                 setNode(new Node(i));
             }
+            event.finish(this, "setNodeCapacity", newCapacity);
         }
     }
 
@@ -433,6 +449,7 @@ public class DefaultGraph implements MutableUndirectedGraph {
     public void setHidden(Edge edge, boolean value) {
         if (isHidden(edge) != value) {
             edges.setHidden(edge, value);
+            modifications++;
             if (value) {
                 degree.decrease(edge.start(), 1);
                 degree.decrease(edge.end(), 1);
@@ -440,6 +457,19 @@ public class DefaultGraph implements MutableUndirectedGraph {
                 degree.increase(edge.start(), 1);
                 degree.increase(edge.end(), 1);
             }
+            if (listeners != null) {
+                fireVisibilityChanged(edge, value);
+            }
+        }
+    }
+
+    private void fireVisibilityChanged(Edge edge, boolean hidden) {
+        for (GraphChangeListener listener : listeners) {
+            if (hidden) {
+                listener.edgeHidden(edge);
+            } else {
+                listener.edgeShown(edge);
+            }
         }
     }
 
@@ -472,21 +502,88 @@ public class DefaultGraph implements MutableUndirectedGraph {
                 }
             }
             nodes.setHidden(node, value);
+            modifications++;
         }
     }
 
     //@Override
     public void setHiddenOnlyNode(Node node, boolean value) {
         nodes.setHidden(node, value);
+        modifications++;
     }
 
     //@Override
     public void showAllEdges() {
-        edges.showAll();
+        EventRecorder.Mutation event = EventRecorder.get().startMutation();
+        modifications++;
+        if (listeners == null) {
+            edges.showAll();
+        } else {
+            List<Edge> hidden = new ArrayList<>();
+            edges.getHiddenElements().forEach(hidden::add);
+            edges.showAll();
+            for (Edge edge : hidden) {
+                fireVisibilityChanged(edge, false);
+            }
+        }
+        event.finish(this, "showAllEdges", edgeCount());
+    }
+
+    @Override
+    public long getModificationCount() {
+        return modifications;
+    }
+
+    /**
+     * Registers a listener that is notified when edges are added, hidden or shown. Runtime O(1).
+     *
+     * @param listener the listener
+     */
+    @Override
+    public void addChangeListener(GraphChangeListener listener) {
+        if (listeners == null) {
+            listeners = new ArrayList<>(2);
+        }
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Removes a listener. Runtime O(number of listeners).
+     *
+     * @param listener the listener
+     */
+    @Override
+    public void removeChangeListener(GraphChangeListener listener) {
+        if (listeners != null) {
+            listeners.remove(listener);
+            if (listeners.isEmpty()) {
+                listeners = null;
+            }
+        }
     }
 
     private int idOfLastCreatedEdge = -1;
 
+    /**
+     * Returns the candidate for the next automatically assigned edge id. It is not guaranteed, that a call to
+     * {@link #createAndSetEdge(org.zetool.graph.Node, org.zetool.graph.Node)} actually will create an edge with that
+     * id.
+     *
+     * @return the next edge id that is first tried
+     */
+    public int getNextEdgeIdCandidate() {
+        return idOfLastCreatedEdge + 1;
+    }
+
+    /**
+     * Sets the next candidate edge id.
+     *
+     * @param candidate the candidate id
+     */
+    public void setNextEdgeIdCandidate(int candidate) {
+        this.idOfLastCreatedEdge = candidate - 1;
+    }
+
     /**
      * Creates a new directed edge between the specified start and end nodes and adds it to the graph (provided the
      * graph has enough space allocated for an additional edge). Runtime O(1).
@@ -597,10 +694,14 @@ public class DefaultGraph implements MutableUndirectedGraph {
     public void setEdge(Edge edge) {
         if (edges.get(edge.id()) == null) {
             edges.add(edge);
+            modifications++;
             incidentEdges(edge.start()).add(edge);
             incidentEdges(edge.end()).add(edge);
             degree.increase(edge.start(), 1);
             degree.increase(edge.end(), 1);
+            if (listeners != null) {
+                listeners.forEach(listener -> listener.edgeAdded(edge));
+            }
         } else if (edges.get(edge.id()).equals(edge)) {
         } else {
             throw new IllegalArgumentException("Edge position is already occupied");
@@ -635,6 +736,7 @@ public class DefaultGraph implements MutableUndirectedGraph {
             degree.set(node, 0);
         }
         nodes.add(node);
+        modifications++;
     }
 
     public Iterator<Edge> allEdgesIterator() {
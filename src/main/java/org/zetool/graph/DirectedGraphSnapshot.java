@@ -0,0 +1,280 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+import org.zetool.container.collection.IdentifiableCollection;
+import org.zetool.container.collection.ListSequence;
+import org.zetool.container.mapping.Identifiable;
+import org.zetool.graph.util.FilteredCollection;
+import org.zetool.graph.util.OppositeNodeCollection;
+
+/**
+ * An immutable snapshot of the visible nodes and edges of a {@link DefaultDirectedGraph}, see
+ * {@link DefaultDirectedGraph#snapshot()}. All nodes and edges of the graph, including the hidden ones, are stored in
+ * an {@link ImmutableDirectedGraph} that is shared by all snapshots taken until nodes or edges are added. Each snapshot
+ * additionally refers to frozen copies of the hidden nodes and edges and of the degrees, which share all unchanged
+ * chunks with the graph and with other snapshots.
+ * <p>
+ * Snapshots never change and can be read by any number of threads without synchronization, while the graph is changed
+ * further. The accessors return views of the shared adjacency that skip hidden edges. The node and edge counts and the
+ * degrees are computed in O(1), iterating the edges of a node takes time proportional to its edges including the
+ * hidden ones.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public final class DirectedGraphSnapshot implements DirectedGraph {
+
+    /** All nodes and edges of the graph, including the hidden ones. */
+    private final ImmutableDirectedGraph base;
+    private final CopyOnWriteIntArray.Frozen hiddenNodes;
+    private final CopyOnWriteIntArray.Frozen hiddenEdges;
+    private final CopyOnWriteIntArray.Frozen inDegree;
+    private final CopyOnWriteIntArray.Frozen outDegree;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final Predicate<Node> visibleNode = this::contains;
+    private final Predicate<Edge> visibleEdge = this::contains;
+
+    private DirectedGraphSnapshot(Source source, int nodeCount, int edgeCount) {
+        this.base = source.base;
+        this.hiddenNodes = source.hiddenNodes.freeze();
+        this.hiddenEdges = source.hiddenEdges.freeze();
+        this.inDegree = source.inDegree.freeze();
+        this.outDegree = source.outDegree.freeze();
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+    }
+
+    private static <E extends Identifiable> IdentifiableCollection<E> view(IdentifiableCollection<E> elements,
+            Predicate<? super E> visible, int size) {
+        return new FilteredCollection<E>(elements, visible) {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return size == 0;
+            }
+        };
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> edges() {
+        return view(base.edges(), visibleEdge, edgeCount);
+    }
+
+    @Override
+    public IdentifiableCollection<Node> nodes() {
+        return view(base.nodes(), visibleNode, nodeCount);
+    }
+
+    @Override
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> incidentEdges(Node node) {
+        return view(base.incidentEdges(node), visibleEdge, degree(node));
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> incomingEdges(Node node) {
+        return view(base.incomingEdges(node), visibleEdge, inDegree(node));
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> outgoingEdges(Node node) {
+        return view(base.outgoingEdges(node), visibleEdge, outDegree(node));
+    }
+
+    @Override
+    public IdentifiableCollection<Node> adjacentNodes(Node node) {
+        return new OppositeNodeCollection(node, incidentEdges(node));
+    }
+
+    @Override
+    public IdentifiableCollection<Node> predecessorNodes(Node node) {
+        return new OppositeNodeCollection(node, incomingEdges(node));
+    }
+
+    @Override
+    public IdentifiableCollection<Node> successorNodes(Node node) {
+        return new OppositeNodeCollection(node, outgoingEdges(node));
+    }
+
+    @Override
+    public int degree(Node node) {
+        return inDegree(node) + outDegree(node);
+    }
+
+    @Override
+    public int inDegree(Node node) {
+        return base.contains(node) ? inDegree.get(node.id()) : 0;
+    }
+
+    @Override
+    public int outDegree(Node node) {
+        return base.contains(node) ? outDegree.get(node.id()) : 0;
+    }
+
+    @Override
+    public boolean contains(Edge edge) {
+        return base.contains(edge) && !hiddenEdges.getBit(edge.id());
+    }
+
+    @Override
+    public boolean contains(Node node) {
+        return base.contains(node) && !hiddenNodes.getBit(node.id());
+    }
+
+    @Override
+    public Edge getEdge(int id) {
+        Edge edge = base.getEdge(id);
+        return edge != null && !hiddenEdges.getBit(id) ? edge : null;
+    }
+
+    @Override
+    public Edge getEdge(Node start, Node end) {
+        for (Edge edge : outgoingEdges(start)) {
+            if (edge.end().equals(end)) {
+                return edge;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> getEdges(Node start, Node end) {
+        ListSequence<Edge> result = new ListSequence<>();
+        for (Edge edge : outgoingEdges(start)) {
+            if (edge.end().equals(end)) {
+                result.add(edge);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Node getNode(int id) {
+        Node node = base.getNode(id);
+        return node != null && !hiddenNodes.getBit(id) ? node : null;
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        return nodes().iterator();
+    }
+
+    @Override
+    public String toString() {
+        return DirectedGraph.stringRepresentation(this);
+    }
+
+    /**
+     * Keeps the state of a {@link DefaultDirectedGraph} that is shared with its snapshots up to date. The graph
+     * reports hidden and shown nodes and edges, which are applied to the copy-on-write arrays in O(1). Other changes
+     * invalidate the state, which is then rebuilt from the graph when the next snapshot is taken.
+     */
+    static final class Source {
+
+        private ImmutableDirectedGraph base;
+        private CopyOnWriteIntArray hiddenNodes;
+        private CopyOnWriteIntArray hiddenEdges;
+        private CopyOnWriteIntArray inDegree;
+        private CopyOnWriteIntArray outDegree;
+
+        /**
+         * Takes a snapshot of the graph. Runtime O(n + m) if the state has to be rebuilt, O((n + m) / chunk size)
+         * otherwise.
+         *
+         * @param graph the graph whose changes are reported to this source
+         * @return the snapshot
+         */
+        DirectedGraphSnapshot snapshot(DefaultDirectedGraph graph) {
+            if (base == null) {
+                rebuild(graph);
+            }
+            return new DirectedGraphSnapshot(this, graph.nodeCount(), graph.edgeCount());
+        }
+
+        private void rebuild(DefaultDirectedGraph graph) {
+            base = new ImmutableDirectedGraph(
+                    AbstractImmutableGraph.toArray(graph.allNodes(), new Node[graph.allNumberOfNodes()]),
+                    AbstractImmutableGraph.toArray(graph.allEdges(), new Edge[graph.allNumberOfEdges()]));
+            hiddenNodes = CopyOnWriteIntArray.ofBits(base.nodeById.length);
+            inDegree = new CopyOnWriteIntArray(base.nodeById.length);
+            outDegree = new CopyOnWriteIntArray(base.nodeById.length);
+            for (Node node : base.nodes) {
+                hiddenNodes.setBit(node.id(), graph.isHidden(node));
+                inDegree.set(node.id(), graph.inDegree(node));
+                outDegree.set(node.id(), graph.outDegree(node));
+            }
+            hiddenEdges = CopyOnWriteIntArray.ofBits(base.edgeById.length);
+            for (Edge edge : base.edges) {
+                hiddenEdges.setBit(edge.id(), graph.isHidden(edge));
+            }
+        }
+
+        /**
+         * Discards the state after nodes or edges have been added or removed, or after many visibility changes.
+         * Runtime O(1).
+         */
+        void invalidate() {
+            base = null;
+            hiddenNodes = null;
+            hiddenEdges = null;
+            inDegree = null;
+            outDegree = null;
+        }
+
+        /**
+         * Records that an edge has been hidden or shown. Runtime O(1).
+         *
+         * @param edge the edge
+         * @param hidden whether the edge is hidden now
+         */
+        void setHidden(Edge edge, boolean hidden) {
+            if (base != null) {
+                hiddenEdges.setBit(edge.id(), hidden);
+                outDegree.add(edge.start().id(), hidden ? -1 : 1);
+                inDegree.add(edge.end().id(), hidden ? -1 : 1);
+            }
+        }
+
+        /**
+         * Records that a node has been hidden or shown. Runtime O(1).
+         *
+         * @param node the node
+         * @param hidden whether the node is hidden now
+         */
+        void setHidden(Node node, boolean hidden) {
+            if (base != null) {
+                hiddenNodes.setBit(node.id(), hidden);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import java.util.BitSet;
+
+import org.zetool.container.collection.IdentifiableCollection;
+import org.zetool.graph.util.OppositeNodeCollection;
+
+/**
+ * A view of a part of a directed graph, e.g. a floor of a building. The subgraph is induced by a set of node ids, a
+ * set of edge ids, or both. Nothing is copied: the view filters the adjacency of the parent graph, and changes of the
+ * parent and of the bit sets are reflected immediately. Algorithms that traverse the subgraph many times can run on
+ * a {@link #compact() compact copy} instead.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class DirectedSubgraph extends AbstractSubgraph<DirectedGraph> implements DirectedGraph {
+
+    /**
+     * Creates a subgraph view. Runtime O(1).
+     *
+     * @param parent the parent graph
+     * @param nodeSelection the selected node ids, {@code null} to select all nodes
+     * @param edgeSelection the selected edge ids, {@code null} to select all edges
+     */
+    public DirectedSubgraph(DirectedGraph parent, BitSet nodeSelection, BitSet edgeSelection) {
+        super(parent, nodeSelection, edgeSelection);
+    }
+
+    /**
+     * Creates the subgraph induced by a set of nodes, containing all edges between them. Runtime O(1).
+     *
+     * @param parent the parent graph
+     * @param nodeSelection the selected node ids
+     * @return the subgraph view
+     */
+    public static DirectedSubgraph induced(DirectedGraph parent, BitSet nodeSelection) {
+        return new DirectedSubgraph(parent, nodeSelection, null);
+    }
+
+    /**
+     * Creates the subgraph containing all nodes and a set of edges. Runtime O(1).
+     *
+     * @param parent the parent graph
+     * @param edgeSelection the selected edge ids
+     * @return the subgraph view
+     */
+    public static DirectedSubgraph ofEdges(DirectedGraph parent, BitSet edgeSelection) {
+        return new DirectedSubgraph(parent, null, edgeSelection);
+    }
+
+    /**
+     * Copies the subgraph into an immutable directed graph with dense ids. Runtime O(n + m).
+     *
+     * @return the copy and the mapping between original and compact ids
+     */
+    public CompactedGraph<ImmutableDirectedGraph> compact() {
+        return compact(ImmutableDirectedGraph::new);
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> incomingEdges(Node node) {
+        return filter(node, parent.incomingEdges(node));
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> outgoingEdges(Node node) {
+        return filter(node, parent.outgoingEdges(node));
+    }
+
+    @Override
+    public IdentifiableCollection<Node> predecessorNodes(Node node) {
+        return new OppositeNodeCollection(node, incomingEdges(node));
+    }
+
+    @Override
+    public IdentifiableCollection<Node> successorNodes(Node node) {
+        return new OppositeNodeCollection(node, outgoingEdges(node));
+    }
+
+    @Override
+    public int inDegree(Node node) {
+        return count(node, parent.incomingEdges(node));
+    }
+
+    @Override
+    public int outDegree(Node node) {
+        return count(node, parent.outgoingEdges(node));
+    }
+}
@@ -18,33 +18,69 @@ package org.zetool.graph;
 import org.zetool.common.localization.CommonLocalization;
 import org.zetool.container.collection.IdentifiableCollection;
 import org.zetool.container.collection.ListSequence;
+import org.zetool.container.mapping.Identifiable;
 import org.zetool.graph.localization.GraphLocalization;
 import org.zetool.graph.util.OppositeNodeCollection;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.NoSuchElementException;
 
 /**
  * The term {@code DynamicNetwork} refers to the fact, that the network structure can change over time.
+ * <p>
+ * Nodes and edges are stored in arrays indexed by their ids. The contained nodes, the contained edges and the incoming
+ * and outgoing edges of each node are kept in dense arrays, and the position of each element is stored by its id. An
+ * element is removed by moving the last element of its array to the freed position. Thus adding and removing single
+ * nodes and edges runs in O(1) amortized, removing a node additionally removes its incident edges in O(degree).
+ * Removals change the order of the remaining elements.
+ * <p>
+ * The collections returned by the accessors are read-only views that reflect later changes of the network. They
+ * iterate from the last to the first element, such that the current element can be removed during the iteration, e.g.
+ * {@code removeEdges(outgoingEdges(node))}. Other changes during an iteration may skip or repeat elements.
+ * <p>
+ * Nodes and edges can also be removed temporarily, which only affects {@link #temp_adjacentNodes(Node)} and
+ * {@link #temp_predNodes(Node)}. The temporarily removed ids are kept on a stack with their position, such that
+ * checking, removing and restoring a single node or edge runs in O(1).
  */
 public class DynamicNetwork implements DirectedGraph {
 
-    protected ListSequence<Node> nodes;
-    protected ListSequence<Edge> edges;
-    protected transient Map<Node, ListSequence<Edge>> incomingEdges;
-    protected transient Map<Node, ListSequence<Edge>> outgoingEdges;
-    protected ListSequence<Edge> temp_removed_edges = new ListSequence<>();
-    protected ListSequence<Node> temp_removed_nodes = new ListSequence<>();
+    private static final Node[] NO_NODES = new Node[0];
+    private static final Edge[] NO_EDGES = new Edge[0];
+    private static final int[] NO_IDS = new int[0];
+    /** The contained nodes by id, {@code null} for ids without node. */
+    private Node[] nodeById = NO_NODES;
+    /** The contained nodes in the first {@link #nodeCount} positions. */
+    private Node[] nodes = NO_NODES;
+    /** The position of each contained node id in {@link #nodes}. */
+    private int[] nodePosition = NO_IDS;
+    private int nodeCount;
+    /** The contained edges by id, {@code null} for ids without edge. */
+    private Edge[] edgeById = NO_EDGES;
+    /** The contained edges in the first {@link #edgeCount} positions. */
+    private Edge[] edges = NO_EDGES;
+    /** The position of each contained edge id in {@link #edges}. */
+    private int[] edgePosition = NO_IDS;
+    private int edgeCount;
+    /** The incoming edges of each contained node id in the first {@code inDegree} positions. */
+    private Edge[][] incomingEdges = new Edge[0][];
+    /** The outgoing edges of each contained node id in the first {@code outDegree} positions. */
+    private Edge[][] outgoingEdges = new Edge[0][];
+    private int[] inDegree = NO_IDS;
+    private int[] outDegree = NO_IDS;
+    /** The position of each contained edge id in the incoming edges of its end node. */
+    private int[] inPosition = NO_IDS;
+    /** The position of each contained edge id in the outgoing edges of its start node. */
+    private int[] outPosition = NO_IDS;
+    /** The temporarily removed edges. */
+    private final TemporaryRemovals tempRemovedEdges = new TemporaryRemovals();
+    /** The temporarily removed nodes. */
+    private final TemporaryRemovals tempRemovedNodes = new TemporaryRemovals();
 
     public DynamicNetwork() {
-        nodes = new ListSequence<>();
-        edges = new ListSequence<>();
-        incomingEdges = new HashMap<>();
-        outgoingEdges = new HashMap<>();
     }
 
     public DynamicNetwork(DynamicNetwork graph) {
@@ -69,10 +105,63 @@ public class DynamicNetwork implements DirectedGraph {
         return true;
     }
 
+    private void ensureNodeDomain(int size) {
+        if (size > nodeById.length) {
+            int capacity = Math.max(size, 2 * nodeById.length);
+            nodeById = Arrays.copyOf(nodeById, capacity);
+            nodes = Arrays.copyOf(nodes, capacity);
+            nodePosition = Arrays.copyOf(nodePosition, capacity);
+            incomingEdges = Arrays.copyOf(incomingEdges, capacity);
+            outgoingEdges = Arrays.copyOf(outgoingEdges, capacity);
+            inDegree = Arrays.copyOf(inDegree, capacity);
+            outDegree = Arrays.copyOf(outDegree, capacity);
+        }
+    }
+
+    private void ensureEdgeDomain(int size) {
+        if (size > edgeById.length) {
+            int capacity = Math.max(size, 2 * edgeById.length);
+            edgeById = Arrays.copyOf(edgeById, capacity);
+            edges = Arrays.copyOf(edges, capacity);
+            edgePosition = Arrays.copyOf(edgePosition, capacity);
+            inPosition = Arrays.copyOf(inPosition, capacity);
+            outPosition = Arrays.copyOf(outPosition, capacity);
+        }
+    }
+
+    /**
+     * Adds an edge between two nodes of the network. Adding an edge that is already contained has no effect. Runtime
+     * O(1) amortized.
+     *
+     * @param edge the edge
+     * @throws IllegalArgumentException if one of the end points is not contained in the network
+     */
     public void addEdge(Edge edge) {
-        edges.add(edge);
-        incomingEdges.get(edge.end()).add(edge);
-        outgoingEdges.get(edge.start()).add(edge);
+        if (!contains(edge.start()) || !contains(edge.end())) {
+            throw new IllegalArgumentException("End points of " + edge + " are not contained in the network");
+        }
+        if (contains(edge)) {
+            return;
+        }
+        int id = edge.id();
+        ensureEdgeDomain(id + 1);
+        edgeById[id] = edge;
+        edgePosition[id] = edgeCount;
+        edges[edgeCount++] = edge;
+        int end = edge.end().id();
+        inPosition[id] = inDegree[end];
+        incomingEdges[end] = append(incomingEdges[end], inDegree[end]++, edge);
+        int start = edge.start().id();
+        outPosition[id] = outDegree[start];
+        outgoingEdges[start] = append(outgoingEdges[start], outDegree[start]++, edge);
+    }
+
+    private static Edge[] append(Edge[] list, int size, Edge edge) {
+        if (size == list.length) {
+            list = Arrays.copyOf(list, Math.max(4, 2 * size));
+        }
+        list[size] = edge;
+        return list;
     }
 
     public void addEdges(Iterable<Edge> edges) {
@@ -81,10 +170,25 @@ public class DynamicNetwork implements DirectedGraph {
         }
     }
 
+    /**
+     * Adds a node without edges to the network. Adding a node that is already contained has no effect. Runtime O(1)
+     * amortized.
+     *
+     * @param node the node
+     */
     public void addNode(Node node) {
-        nodes.add(node);
-        incomingEdges.put(node, new ListSequence<>());
-        outgoingEdges.put(node, new ListSequence<>());
+        if (contains(node)) {
+            return;
+        }
+        int id = node.id();
+        ensureNodeDomain(id + 1);
+        nodeById[id] = node;
+        nodePosition[id] = nodeCount;
+        nodes[nodeCount++] = node;
+        incomingEdges[id] = NO_EDGES;
+        outgoingEdges[id] = NO_EDGES;
+        inDegree[id] = 0;
+        outDegree[id] = 0;
     }
 
     public void addNodes(Iterable<Node> nodes) {
@@ -95,69 +199,173 @@ public class DynamicNetwork implements DirectedGraph {
 
     @Override
     public boolean contains(Node node) {
-        return incomingEdges.containsKey(node);
+        return node.id() >= 0 && node.id() < nodeById.length && node.equals(nodeById[node.id()]);
     }
 
+    /**
+     * Checks whether an edge is contained in the network. The edge stored with the same id must also have the same end
+     * points. Runtime O(1).
+     *
+     * @param edge the edge
+     * @return {@code true} if the edge is contained
+     */
     @Override
     public boolean contains(Edge edge) {
-        return edges.contains(edge);
+        if (edge.id() < 0 || edge.id() >= edgeById.length) {
+            return false;
+        }
+        Edge stored = edgeById[edge.id()];
+        return stored != null && stored.equals(edge) && stored.isParallel(edge);
     }
 
     public List<Edge> extractEdges() {
-        List<Edge> edgesCopy = new LinkedList<Edge>();
-        for (Edge e : this.edges) {
-            edgesCopy.add(e);
-        }
-        setEdges(new ArrayList<>());
+        List<Edge> edgesCopy = new LinkedList<>(Arrays.asList(edges).subList(0, edgeCount));
+        removeAllEdges();
         return edgesCopy;
     }
 
     @Override
-    public Edge getEdge(int index) {
-        return edges.get(index);
+    public Edge getEdge(int id) {
+        return id >= 0 && id < edgeById.length ? edgeById[id] : null;
     }
 
+    /**
+     * Returns an edge from a source to a target node. Runtime O(out degree(source)).
+     *
+     * @param source the source node
+     * @param target the target node
+     * @return an edge from the source to the target, {@code null} if there is none
+     */
     @Override
     public Edge getEdge(Node source, Node target) {
-        for (Edge edge : outgoingEdges.get(source)) {
-            if (edge.start() == source && edge.end() == target) {
-                return edge;
+        if (!contains(source)) {
+            return null;
+        }
+        Edge[] outgoing = outgoingEdges[source.id()];
+        for (int i = 0; i < outDegree[source.id()]; ++i) {
+            if (outgoing[i].end().equals(target)) {
+                return outgoing[i];
             }
         }
         return null;
     }
 
     @Override
-    public Node getNode(int index) {
-        return nodes.get(index);
+    public Node getNode(int id) {
+        return id >= 0 && id < nodeById.length ? nodeById[id] : null;
     }
 
+    /**
+     * Returns a read-only view of the edges. Runtime O(1).
+     *
+     * @return the edges
+     */
     @Override
-    public ListSequence<Edge> edges() {
-        return edges;
+    public IdentifiableCollection<Edge> edges() {
+        return new ListView<Edge>() {
+            @Override
+            Edge[] elements() {
+                return edges;
+            }
+
+            @Override
+            public int size() {
+                return edgeCount;
+            }
+
+            @Override
+            public boolean contains(Edge element) {
+                return DynamicNetwork.this.contains(element);
+            }
+
+            @Override
+            public Edge get(int id) {
+                return getEdge(id);
+            }
+        };
     }
 
+    /**
+     * Returns a read-only view of the incoming edges of a node. Runtime O(1).
+     *
+     * @param node the node
+     * @return the incoming edges, empty while the node is not contained
+     */
     @Override
-    public ListSequence<Edge> incomingEdges(Node node) {
-        return incomingEdges.get(node);
+    public IdentifiableCollection<Edge> incomingEdges(Node node) {
+        return new ListView<Edge>() {
+            @Override
+            Edge[] elements() {
+                return incomingEdges[node.id()];
+            }
+
+            @Override
+            public int size() {
+                return inDegree(node);
+            }
+        };
     }
 
+    /**
+     * Returns a read-only view of the incoming and outgoing edges of a node. Loops are contained twice. Runtime O(1).
+     *
+     * @param node the node
+     * @return the outgoing edges followed by the incoming edges, empty while the node is not contained
+     */
     @Override
-    public ListSequence<Edge> incidentEdges(Node node) {
-        ListSequence<Edge> incidentEdges = new ListSequence<>();
-        incidentEdges.addAll(incomingEdges(node));
-        incidentEdges.addAll(outgoingEdges(node));
-        return incidentEdges;
+    public IdentifiableCollection<Edge> incidentEdges(Node node) {
+        return new IncidentView(outgoingEdges(node), incomingEdges(node));
     }
 
+    /**
+     * Returns a read-only view of the outgoing edges of a node. Runtime O(1).
+     *
+     * @param node the node
+     * @return the outgoing edges, empty while the node is not contained
+     */
     @Override
-    public ListSequence<Edge> outgoingEdges(Node node) {
-        return outgoingEdges.get(node);
+    public IdentifiableCollection<Edge> outgoingEdges(Node node) {
+        return new ListView<Edge>() {
+            @Override
+            Edge[] elements() {
+                return outgoingEdges[node.id()];
+            }
+
+            @Override
+            public int size() {
+                return outDegree(node);
+            }
+        };
     }
 
+    /**
+     * Returns a read-only view of the nodes. Runtime O(1).
+     *
+     * @return the nodes
+     */
     @Override
-    public ListSequence<Node> nodes() {
-        return nodes;
+    public IdentifiableCollection<Node> nodes() {
+        return new ListView<Node>() {
+            @Override
+            Node[] elements() {
+                return nodes;
+            }
+
+            @Override
+            public int size() {
+                return nodeCount;
+            }
+
+            @Override
+            public boolean contains(Node element) {
+                return DynamicNetwork.this.contains(element);
+            }
+
+            @Override
+            public Node get(int id) {
+                return getNode(id);
+            }
+        };
     }
 
     @Override
@@ -167,22 +375,22 @@ public class DynamicNetwork implements DirectedGraph {
 
     @Override
     public int inDegree(Node node) {
-        return incomingEdges(node).size();
+        return contains(node) ? inDegree[node.id()] : 0;
     }
 
     @Override
     public int outDegree(Node node) {
-        return outgoingEdges(node).size();
+        return contains(node) ? outDegree[node.id()] : 0;
     }
 
     @Override
     public int edgeCount() {
-        return edges.size();
+        return edgeCount;
     }
 
     @Override
     public int nodeCount() {
-        return nodes.size();
+        return nodeCount;
     }
 
     public Node opposite(Edge edge, Node node) {
@@ -200,25 +408,69 @@ public class DynamicNetwork implements DirectedGraph {
         return opposite(edge, node);
     }
 
+    /**
+     * Removes all edges. Runtime O(n + m).
+     */
     public void removeAllEdges() {
-        for (Node node : nodes) {
-            incomingEdges.get(node).clear();
-            outgoingEdges.get(node).clear();
+        for (int i = 0; i < edgeCount; ++i) {
+            edgeById[edges[i].id()] = null;
+            edges[i] = null;
+        }
+        edgeCount = 0;
+        for (int i = 0; i < nodeCount; ++i) {
+            int id = nodes[i].id();
+            incomingEdges[id] = NO_EDGES;
+            outgoingEdges[id] = NO_EDGES;
+            inDegree[id] = 0;
+            outDegree[id] = 0;
         }
-        edges.clear();
     }
 
+    /**
+     * Removes all nodes and edges. Runtime O(n + m).
+     */
     public void removeAllNodes() {
-        edges.clear();
-        nodes.clear();
-        incomingEdges.clear();
-        outgoingEdges.clear();
+        removeAllEdges();
+        for (int i = 0; i < nodeCount; ++i) {
+            int id = nodes[i].id();
+            nodeById[id] = null;
+            incomingEdges[id] = null;
+            outgoingEdges[id] = null;
+            nodes[i] = null;
+        }
+        nodeCount = 0;
     }
 
+    /**
+     * Removes an edge. Removing an edge that is not contained has no effect. Runtime O(1).
+     *
+     * @param edge the edge
+     */
     public void removeEdge(Edge edge) {
-        edges.remove(edge);
-        incomingEdges.get(edge.end()).remove(edge);
-        outgoingEdges.get(edge.start()).remove(edge);
+        if (!contains(edge)) {
+            return;
+        }
+        int id = edge.id();
+        edge = edgeById[id];
+        edgeById[id] = null;
+        Edge last = edges[--edgeCount];
+        edges[edgePosition[id]] = last;
+        edgePosition[last.id()] = edgePosition[id];
+        edges[edgeCount] = null;
+
+        Edge[] incoming = incomingEdges[edge.end().id()];
+        int size = --inDegree[edge.end().id()];
+        last = incoming[size];
+        incoming[inPosition[id]] = last;
+        inPosition[last.id()] = inPosition[id];
+        incoming[size] = null;
+
+        Edge[] outgoing = outgoingEdges[edge.start().id()];
+        size = --outDegree[edge.start().id()];
+        last = outgoing[size];
+        outgoing[outPosition[id]] = last;
+        outPosition[last.id()] = outPosition[id];
+        outgoing[size] = null;
     }
 
     public void removeEdges(Iterable<Edge> edges) {
@@ -227,19 +479,41 @@ public class DynamicNetwork implements DirectedGraph {
         }
     }
 
+    /**
+     * Removes all loops. Runtime O(m).
+     */
     public void removeLoops() {
-        ListSequence<Edge> loops = new ListSequence<>();
-        for (Edge edge : edges) {
-            if (edge.start() == edge.end()) {
-                loops.add(edge);
+        for (int i = edgeCount - 1; i >= 0; --i) {
+            if (edges[i].start() == edges[i].end()) {
+                removeEdge(edges[i]);
             }
         }
-        removeEdges(loops);
     }
 
+    /**
+     * Removes a node and its incident edges. Removing a node that is not contained has no effect. Runtime
+     * O(degree(node)).
+     *
+     * @param node the node
+     */
     public void removeNode(Node node) {
-        removeEdges(incidentEdges(node));
-        nodes.remove(node);
+        if (!contains(node)) {
+            return;
+        }
+        int id = node.id();
+        while (inDegree[id] > 0) {
+            removeEdge(incomingEdges[id][inDegree[id] - 1]);
+        }
+        while (outDegree[id] > 0) {
+            removeEdge(outgoingEdges[id][outDegree[id] - 1]);
+        }
+        nodeById[id] = null;
+        Node last = nodes[--nodeCount];
+        nodes[nodePosition[id]] = last;
+        nodePosition[last.id()] = nodePosition[id];
+        nodes[nodeCount] = null;
+        incomingEdges[id] = null;
+        outgoingEdges[id] = null;
     }
 
     public void removeNodes(Iterable<Node> nodes) {
@@ -248,26 +522,25 @@ public class DynamicNetwork implements DirectedGraph {
         }
     }
 
+    /**
+     * Removes all edges that are not contained in the given collection. Runtime O(m + size of the collection).
+     *
+     * @param edges the edges to keep
+     */
     public void retainEdges(Collection<Edge> edges) {
-        ListSequence<Edge> copy;
-        try {
-            copy = edges().clone();
-        } catch (CloneNotSupportedException ex) {
-            throw new IllegalStateException("Could not create copy", ex);
-        }
+        BitSet keep = new BitSet();
         for (Edge edge : edges) {
-            copy.remove(edge);
+            keep.set(edge.id());
+        }
+        for (int i = edgeCount - 1; i >= 0; --i) {
+            if (!keep.get(this.edges[i].id())) {
+                removeEdge(this.edges[i]);
+            }
         }
-        removeEdges(copy);
     }
 
     public void retainNodes(Iterable<Node> nodes) {
-        ListSequence<Edge> edgesCopy;
-        try {
-            edgesCopy = edges().clone();
-        } catch (CloneNotSupportedException ex) {
-            throw new IllegalStateException("Could not create copy", ex);
-        }
+        Edge[] edgesCopy = Arrays.copyOf(edges, edgeCount);
         removeAllNodes();
         addNodes(nodes);
         for (Edge edge : edgesCopy) {
@@ -291,24 +564,21 @@ public class DynamicNetwork implements DirectedGraph {
     public String toString() {
         StringBuilder builder = new StringBuilder();
         builder.append("V = {");
-        for (Node node : nodes) {
-            builder.append(node).append(",");
+        for (int i = 0; i < nodeCount; ++i) {
+            builder.append(nodes[i]).append(",");
         }
-        if (!nodes.isEmpty()) {
+        if (nodeCount > 0) {
             builder.deleteCharAt(builder.length() - 1);
         }
         builder.append("}\n");
         builder.append("E = {");
-        int counter = 0;
-        for (Edge edge : edges) {
-            if (counter == 10) {
-                counter = 0;
+        for (int i = 0; i < edgeCount; ++i) {
+            if (i > 0 && i % 10 == 0) {
                 builder.append("\n");
             }
-            builder.append(edge).append(",");
-            counter++;
+            builder.append(edges[i]).append(",");
         }
-        if (!edges.isEmpty()) {
+        if (edgeCount > 0) {
             builder.deleteCharAt(builder.length() - 1);
         }
         builder.append("}");
@@ -318,24 +588,21 @@ public class DynamicNetwork implements DirectedGraph {
     public String deepToString() {
         StringBuilder builder = new StringBuilder();
         builder.append("V = {");
-        for (Node node : nodes) {
-            builder.append(node).append(",");
+        for (int i = 0; i < nodeCount; ++i) {
+            builder.append(nodes[i]).append(",");
         }
-        if (!nodes.isEmpty()) {
+        if (nodeCount > 0) {
             builder.deleteCharAt(builder.length() - 1);
         }
         builder.append("}\n");
         builder.append("E = {");
-        int counter = 0;
-        for (Edge edge : edges) {
-            if (counter == 10) {
-                counter = 0;
+        for (int i = 0; i < edgeCount; ++i) {
+            if (i > 0 && i % 10 == 0) {
                 builder.append("\n");
             }
-            builder.append(edge.nodesToString()).append(",");
-            counter++;
+            builder.append(edges[i].nodesToString()).append(",");
         }
-        if (!edges.isEmpty()) {
+        if (edgeCount > 0) {
             builder.deleteCharAt(builder.length() - 1);
         }
         builder.append("}");
@@ -354,12 +621,12 @@ public class DynamicNetwork implements DirectedGraph {
 
     @Override
     public IdentifiableCollection<Node> predecessorNodes(Node node) {
-        return new OppositeNodeCollection(node, incomingEdges.get(node));
+        return new OppositeNodeCollection(node, incomingEdges(node));
     }
 
     @Override
     public IdentifiableCollection<Node> successorNodes(Node node) {
-        return new OppositeNodeCollection(node, outgoingEdges.get(node));
+        return new OppositeNodeCollection(node, outgoingEdges(node));
     }
 
     public void setNode(Node node) {
@@ -378,46 +645,71 @@ public class DynamicNetwork implements DirectedGraph {
 
     public DirectedGraph getAsStaticNetwork() {
         DefaultDirectedGraph network = new DefaultDirectedGraph(nodeCount(), edgeCount());
-        network.setNodes(nodes);
-        network.setEdges(edges);
+        network.setNodes(nodes());
+        network.setEdges(edges());
         return network;
     }
 
+    /**
+     * Restores a temporarily removed edge. Runtime O(1).
+     *
+     * @param e the edge
+     */
     public void add_edge_temp(Edge e) {
-        temp_removed_edges.remove(e);
+        tempRemovedEdges.restore(e.id());
     }
 
+    /**
+     * Restores a temporarily removed node. Runtime O(1).
+     *
+     * @param n the node
+     */
     public void add_node_temp(Node n) {
-        temp_removed_nodes.remove(n);
+        tempRemovedNodes.restore(n.id());
     }
 
+    /**
+     * Removes an edge temporarily. Runtime O(1) amortized.
+     *
+     * @param e the edge
+     */
     public void remove_edge_temp(Edge e) {
-        temp_removed_edges.add(e);
+        tempRemovedEdges.remove(e.id());
     }
 
+    /**
+     * Removes a node temporarily. Runtime O(1) amortized.
+     *
+     * @param n the node
+     */
     public void remove_node_temp(Node n) {
-        temp_removed_nodes.add(n);
+        tempRemovedNodes.remove(n.id());
     }
 
+    /**
+     * Restores all temporarily removed edges. Runtime O(number of temporarily removed edges).
+     */
     public void recover_temp_removed_edges() {
-        temp_removed_edges.clear();
+        tempRemovedEdges.restoreAll();
     }
 
+    /**
+     * Restores all temporarily removed nodes. Runtime O(number of temporarily removed nodes).
+     */
     public void recover_temp_removed_nodes() {
-        temp_removed_nodes.clear();
+        tempRemovedNodes.restoreAll();
     }
 
     public IdentifiableCollection<Node> temp_adjacentNodes(Node node) {
-
         IdentifiableCollection<Node> adjacent_nodes = new ListSequence<>();
 
-        if (!temp_removed_nodes.contains(node)) {
-            IdentifiableCollection<Edge> adj = outgoingEdges(node);
-            for (Edge e : adj) {
-                if (temp_removed_nodes.contains(e.opposite(node)) || temp_removed_edges.contains(e)) {
-                    continue;
+        if (!tempRemovedNodes.contains(node.id()) && contains(node)) {
+            Edge[] adj = outgoingEdges[node.id()];
+            for (int i = 0; i < outDegree[node.id()]; ++i) {
+                Node opposite = adj[i].opposite(node);
+                if (!tempRemovedNodes.contains(opposite.id()) && !tempRemovedEdges.contains(adj[i].id())) {
+                    adjacent_nodes.add(opposite);
                 }
-                adjacent_nodes.add(e.opposite(node));
             }
         }
 
@@ -427,21 +719,314 @@ public class DynamicNetwork implements DirectedGraph {
     public IdentifiableCollection<Node> temp_predNodes(Node node) {
         IdentifiableCollection<Node> adjacent_nodes = new ListSequence<>();
 
-        if (!temp_removed_nodes.contains(node)) {
-            IdentifiableCollection<Edge> adj = incomingEdges(node);
-            for (Edge e : adj) {
-                if (temp_removed_nodes.contains(e.opposite(node)) || temp_removed_edges.contains(e)) {
-                    continue;
+        if (!tempRemovedNodes.contains(node.id()) && contains(node)) {
+            Edge[] adj = incomingEdges[node.id()];
+            for (int i = 0; i < inDegree[node.id()]; ++i) {
+                Node opposite = adj[i].opposite(node);
+                if (!tempRemovedNodes.contains(opposite.id()) && !tempRemovedEdges.contains(adj[i].id())) {
+                    adjacent_nodes.add(opposite);
                 }
-                adjacent_nodes.add(e.opposite(node));
             }
         }
 
         return adjacent_nodes;
     }
 
+    /**
+     * Returns an iterator over the nodes from the last to the first one. The current node can be removed during the
+     * iteration. Runtime O(1).
+     *
+     * @return the iterator
+     */
     @Override
     public Iterator<Node> iterator() {
-        return nodes.iterator();
+        return nodes().iterator();
+    }
+
+    /**
+     * The ids of temporarily removed nodes or edges. The ids are stored on a stack and the position of each id on the
+     * stack is stored by id, such that an id is restored by moving the top of the stack to its position.
+     */
+    private static class TemporaryRemovals {
+
+        /** The removed ids in the first {@link #size} positions. */
+        private int[] stack = NO_IDS;
+        /** The position of each id on the stack plus one, {@code 0} for ids that are not removed. */
+        private int[] position = NO_IDS;
+        private int size;
+
+        boolean contains(int id) {
+            return id < position.length && position[id] > 0;
+        }
+
+        void remove(int id) {
+            if (contains(id)) {
+                return;
+            }
+            if (id >= position.length) {
+                position = Arrays.copyOf(position, Math.max(id + 1, 2 * position.length));
+            }
+            if (size == stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(8, 2 * size));
+            }
+            stack[size++] = id;
+            position[id] = size;
+        }
+
+        void restore(int id) {
+            if (!contains(id)) {
+                return;
+            }
+            int top = stack[--size];
+            stack[position[id] - 1] = top;
+            position[top] = position[id];
+            position[id] = 0;
+        }
+
+        void restoreAll() {
+            while (size > 0) {
+                position[stack[--size]] = 0;
+            }
+        }
+    }
+
+    /**
+     * A read-only view of the elements in the first {@link #size()} positions of an array of the network. The array
+     * and the size are read on each access, so the view reflects changes of the network. Iterators run from the last to
+     * the first position, so removing the current element only moves an element that has already been returned.
+     *
+     * @param <E> the element type
+     */
+    private abstract static class ListView<E extends Identifiable> implements IdentifiableCollection<E> {
+
+        /**
+         * Returns the array containing the elements in its first {@link #size()} positions.
+         *
+         * @return the current array
+         */
+        abstract E[] elements();
+
+        @Override
+        public boolean add(E element) {
+            throw new UnsupportedOperationException(GraphLocalization.NOT_SUPPORTED);
+        }
+
+        @Override
+        public boolean remove(E element) {
+            throw new UnsupportedOperationException(GraphLocalization.NOT_SUPPORTED);
+        }
+
+        @Override
+        public E removeLast() {
+            throw new UnsupportedOperationException(GraphLocalization.NOT_SUPPORTED);
+        }
+
+        @Override
+        public boolean contains(E element) {
+            return indexOf(element) != -1;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+
+        @Override
+        public E get(int id) {
+            if (isEmpty()) {
+                return null;
+            }
+            E[] elements = elements();
+            for (int i = size() - 1; i >= 0; --i) {
+                if (elements[i].id() == id) {
+                    return elements[i];
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public E first() {
+            return isEmpty() ? null : elements()[size() - 1];
+        }
+
+        @Override
+        public E last() {
+            return isEmpty() ? null : elements()[0];
+        }
+
+        @Override
+        public E predecessor(E element) {
+            int index = indexOf(element);
+            return index != -1 && index + 1 < size() ? elements()[index + 1] : null;
+        }
+
+        @Override
+        public E successor(E element) {
+            int index = indexOf(element);
+            return index > 0 ? elements()[index - 1] : null;
+        }
+
+        private int indexOf(E element) {
+            if (isEmpty()) {
+                return -1;
+            }
+            E[] elements = elements();
+            for (int i = size() - 1; i >= 0; --i) {
+                if (elements[i].equals(element)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<E>() {
+                private int index = size();
+
+                @Override
+                public boolean hasNext() {
+                    index = Math.min(index, size());
+                    return index > 0;
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return elements()[--index];
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder("[");
+            for (E element : this) {
+                builder.append(builder.length() == 1 ? "" : ", ").append(element);
+            }
+            return builder.append(']').toString();
+        }
+    }
+
+    /**
+     * A read-only view of the outgoing edges followed by the incoming edges of a node. The iterator passes through the
+     * two lists one after the other, such that removing the current edge does not affect the positions in the other
+     * list.
+     */
+    private static class IncidentView implements IdentifiableCollection<Edge> {
+
+        private final IdentifiableCollection<Edge> outgoing;
+        private final IdentifiableCollection<Edge> incoming;
+
+        IncidentView(IdentifiableCollection<Edge> outgoing, IdentifiableCollection<Edge> incoming) {
+            this.outgoing = outgoing;
+            this.incoming = incoming;
+        }
+
+        @Override
+        public boolean add(Edge element) {
+            throw new UnsupportedOperationException(GraphLocalization.NOT_SUPPORTED);
+        }
+
+        @Override
+        public boolean remove(Edge element) {
+            throw new UnsupportedOperationException(GraphLocalization.NOT_SUPPORTED);
+        }
+
+        @Override
+        public Edge removeLast() {
+            throw new UnsupportedOperationException(GraphLocalization.NOT_SUPPORTED);
+        }
+
+        @Override
+        public boolean contains(Edge element) {
+            return outgoing.contains(element) || incoming.contains(element);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return outgoing.isEmpty() && incoming.isEmpty();
+        }
+
+        @Override
+        public int size() {
+            return outgoing.size() + incoming.size();
+        }
+
+        @Override
+        public Edge get(int id) {
+            Edge edge = outgoing.get(id);
+            return edge != null ? edge : incoming.get(id);
+        }
+
+        @Override
+        public Edge first() {
+            return outgoing.isEmpty() ? incoming.first() : outgoing.first();
+        }
+
+        @Override
+        public Edge last() {
+            return incoming.isEmpty() ? outgoing.last() : incoming.last();
+        }
+
+        @Override
+        public Edge predecessor(Edge element) {
+            Edge previous = null;
+            for (Edge edge : this) {
+                if (edge.equals(element)) {
+                    return previous;
+                }
+                previous = edge;
+            }
+            return null;
+        }
+
+        @Override
+        public Edge successor(Edge element) {
+            Iterator<Edge> iterator = iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().equals(element)) {
+                    return iterator.hasNext() ? iterator.next() : null;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Iterator<Edge> iterator() {
+            return new Iterator<Edge>() {
+                private Iterator<Edge> current = outgoing.iterator();
+                private boolean inIncoming;
+
+                @Override
+                public boolean hasNext() {
+                    if (!current.hasNext() && !inIncoming) {
+                        current = incoming.iterator();
+                        inIncoming = true;
+                    }
+                    return current.hasNext();
+                }
+
+                @Override
+                public Edge next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return current.next();
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder("[");
+            for (Edge edge : this) {
+                builder.append(builder.length() == 1 ? "" : ", ").append(edge);
+            }
+            return builder.append(']').toString();
+        }
     }
 }
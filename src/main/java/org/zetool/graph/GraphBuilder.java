@@ -0,0 +1,309 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+import org.zetool.graph.attribute.IntColumn;
+
+/**
+ * Builds graphs with many edges from primitive arrays. Edges are collected as pairs of node ids, either in bulk from
+ * arrays or one by one via {@link #addEdge(int, int)}, without creating objects. The nodes and edges are created only
+ * when a graph is built, where the {@code i}-th added edge gets the id {@code i}. The nodes have the ids
+ * {@code 0, ..., nodeCount - 1}.
+ * <p>
+ * The {@link #buildImmutableDirected() immutable graphs} are built by a counting sort of the edges into compressed
+ * adjacency arrays in a few linear passes, node and edge objects are created in parallel. The mutable graphs are
+ * allocated with their final capacity and filled in id order, which avoids the capacity growth and the search for
+ * free ids of repeated {@link MutableGraph#createAndSetEdge(Node, Node)} calls.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class GraphBuilder {
+
+    /** The minimal number of elements for which objects are created in parallel. */
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+    /** The number of nodes of the graph. */
+    private final int nodeCount;
+    /** The start node ids of the edges. */
+    private int[] sources;
+    /** The end node ids of the edges. */
+    private int[] targets;
+    /** The costs of the edges, {@code null} as long as no cost has been given. */
+    private int[] costs;
+    /** The number of edges. */
+    private int edgeCount;
+
+    /**
+     * Initializes an empty builder for a graph with the given number of nodes.
+     *
+     * @param nodeCount the number of nodes
+     */
+    public GraphBuilder(int nodeCount) {
+        this(nodeCount, 16);
+    }
+
+    /**
+     * Initializes an empty builder for a graph with the given number of nodes and space for the given number of
+     * edges.
+     *
+     * @param nodeCount the number of nodes
+     * @param edgeCapacity the expected number of edges
+     */
+    public GraphBuilder(int nodeCount, int edgeCapacity) {
+        if (nodeCount < 0 || edgeCapacity < 0) {
+            throw new IllegalArgumentException("Negative size: " + nodeCount + " nodes, " + edgeCapacity + " edges");
+        }
+        this.nodeCount = nodeCount;
+        this.sources = new int[edgeCapacity];
+        this.targets = new int[edgeCapacity];
+    }
+
+    /**
+     * Creates a builder containing the edges given by two arrays of node ids. The arrays are copied.
+     *
+     * @param nodeCount the number of nodes
+     * @param sources the start node id of each edge
+     * @param targets the end node id of each edge
+     * @return the builder
+     */
+    public static GraphBuilder of(int nodeCount, int[] sources, int[] targets) {
+        return new GraphBuilder(nodeCount, sources.length).addEdges(sources, targets);
+    }
+
+    /**
+     * Creates a builder containing the edges given by arrays of node ids and costs. The arrays are copied.
+     *
+     * @param nodeCount the number of nodes
+     * @param sources the start node id of each edge
+     * @param targets the end node id of each edge
+     * @param costs the cost of each edge
+     * @return the builder
+     */
+    public static GraphBuilder of(int nodeCount, int[] sources, int[] targets, int[] costs) {
+        return new GraphBuilder(nodeCount, sources.length).addEdges(sources, targets, costs);
+    }
+
+    /**
+     * Adds an edge between the nodes with the given ids. Runtime O(1) amortized.
+     *
+     * @param source the id of the start node
+     * @param target the id of the end node
+     * @return this builder
+     * @throws IllegalArgumentException if one of the ids is not a valid node id
+     */
+    public GraphBuilder addEdge(int source, int target) {
+        checkNode(source);
+        checkNode(target);
+        ensureCapacity(edgeCount + 1);
+        sources[edgeCount] = source;
+        targets[edgeCount] = target;
+        edgeCount++;
+        return this;
+    }
+
+    /**
+     * Adds an edge with a cost between the nodes with the given ids. Runtime O(1) amortized.
+     *
+     * @param source the id of the start node
+     * @param target the id of the end node
+     * @param cost the cost of the edge
+     * @return this builder
+     * @throws IllegalArgumentException if one of the ids is not a valid node id
+     */
+    public GraphBuilder addEdge(int source, int target, int cost) {
+        addEdge(source, target);
+        ensureCosts();
+        costs[edgeCount - 1] = cost;
+        return this;
+    }
+
+    /**
+     * Adds the edges given by two arrays of node ids. Runtime O(number of edges).
+     *
+     * @param sources the start node id of each edge
+     * @param targets the end node id of each edge
+     * @return this builder
+     * @throws IllegalArgumentException if the arrays differ in length or contain invalid node ids
+     */
+    public GraphBuilder addEdges(int[] sources, int[] targets) {
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException("Sources and targets differ in length: " + sources.length + " vs. "
+                    + targets.length);
+        }
+        checkNodes(sources);
+        checkNodes(targets);
+        ensureCapacity(edgeCount + sources.length);
+        System.arraycopy(sources, 0, this.sources, edgeCount, sources.length);
+        System.arraycopy(targets, 0, this.targets, edgeCount, targets.length);
+        edgeCount += sources.length;
+        return this;
+    }
+
+    /**
+     * Adds the edges given by arrays of node ids and costs. Runtime O(number of edges).
+     *
+     * @param sources the start node id of each edge
+     * @param targets the end node id of each edge
+     * @param costs the cost of each edge
+     * @return this builder
+     * @throws IllegalArgumentException if the arrays differ in length or contain invalid node ids
+     */
+    public GraphBuilder addEdges(int[] sources, int[] targets, int[] costs) {
+        if (costs.length != sources.length) {
+            throw new IllegalArgumentException("Sources and costs differ in length: " + sources.length + " vs. "
+                    + costs.length);
+        }
+        addEdges(sources, targets);
+        ensureCosts();
+        System.arraycopy(costs, 0, this.costs, edgeCount - costs.length, costs.length);
+        return this;
+    }
+
+    private void checkNode(int node) {
+        if (node < 0 || node >= nodeCount) {
+            throw new IllegalArgumentException("Invalid node id " + node + " for " + nodeCount + " nodes");
+        }
+    }
+
+    private void checkNodes(int[] nodes) {
+        IntStream ids = Arrays.stream(nodes);
+        if (nodes.length >= PARALLEL_THRESHOLD) {
+            ids = ids.parallel();
+        }
+        ids.filter(node -> node < 0 || node >= nodeCount).findAny().ifPresent(this::checkNode);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > sources.length) {
+            int newCapacity = Math.max(capacity, 2 * sources.length);
+            sources = Arrays.copyOf(sources, newCapacity);
+            targets = Arrays.copyOf(targets, newCapacity);
+            if (costs != null) {
+                costs = Arrays.copyOf(costs, newCapacity);
+            }
+        }
+    }
+
+    private void ensureCosts() {
+        if (costs == null) {
+            costs = new int[sources.length];
+        }
+    }
+
+    /**
+     * Returns the number of nodes of the built graphs.
+     *
+     * @return the number of nodes
+     */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the number of edges added so far.
+     *
+     * @return the number of edges
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Returns the costs of the edges of the built graphs. Edges added without cost have cost 0. The mapping is a view
+     * of an {@link IntColumn} that is filled by edge id; its domain size is the number of edges and cannot be changed.
+     * Runtime O(m).
+     *
+     * @return the costs of the edges, indexed by edge id
+     */
+    public IdentifiableIntegerMapping<Edge> costs() {
+        IntColumn<Edge> result = new IntColumn<>(edgeCount);
+        if (costs != null) {
+            System.arraycopy(costs, 0, result.array(), 0, edgeCount);
+        }
+        return result.asMapping();
+    }
+
+    /**
+     * Builds an immutable directed graph. Runtime O(n + m).
+     *
+     * @return the graph
+     */
+    public ImmutableDirectedGraph buildImmutableDirected() {
+        Node[] nodes = createNodes();
+        return new ImmutableDirectedGraph(nodes, createEdges(nodes));
+    }
+
+    /**
+     * Builds an immutable undirected graph. Runtime O(n + m).
+     *
+     * @return the graph
+     */
+    public ImmutableUndirectedGraph buildImmutableUndirected() {
+        Node[] nodes = createNodes();
+        return new ImmutableUndirectedGraph(nodes, createEdges(nodes));
+    }
+
+    /**
+     * Builds a mutable directed graph whose capacities equal the number of nodes and edges. Runtime O(n + m).
+     *
+     * @return the graph
+     */
+    public DefaultDirectedGraph buildDirected() {
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(nodeCount, edgeCount);
+        for (int i = 0; i < edgeCount; ++i) {
+            graph.setEdge(new Edge(i, graph.getNode(sources[i]), graph.getNode(targets[i])));
+        }
+        graph.setNextEdgeIdCandidate(edgeCount);
+        return graph;
+    }
+
+    /**
+     * Builds a mutable undirected graph whose capacities equal the number of nodes and edges. Runtime O(n + m).
+     *
+     * @return the graph
+     */
+    public DefaultGraph buildUndirected() {
+        DefaultGraph graph = new DefaultGraph(nodeCount, edgeCount);
+        for (int i = 0; i < edgeCount; ++i) {
+            graph.setEdge(new Edge(i, graph.getNode(sources[i]), graph.getNode(targets[i])));
+        }
+        graph.setNextEdgeIdCandidate(edgeCount);
+        return graph;
+    }
+
+    private Node[] createNodes() {
+        Node[] nodes = new Node[nodeCount];
+        if (nodeCount >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSetAll(nodes, Node::new);
+        } else {
+            Arrays.setAll(nodes, Node::new);
+        }
+        return nodes;
+    }
+
+    private Edge[] createEdges(Node[] nodes) {
+        Edge[] edges = new Edge[edgeCount];
+        if (edgeCount >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSetAll(edges, i -> new Edge(i, nodes[sources[i]], nodes[targets[i]]));
+        } else {
+            Arrays.setAll(edges, i -> new Edge(i, nodes[sources[i]], nodes[targets[i]]));
+        }
+        return edges;
+    }
+}
@@ -0,0 +1,49 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+/**
+ * Receives notifications about structural changes of an {@link ObservableGraph}. Notifications are sent after the
+ * change has been applied. All methods do nothing by default.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public interface GraphChangeListener {
+
+    /**
+     * Called after an edge has been added to the graph.
+     *
+     * @param edge the new edge
+     */
+    default void edgeAdded(Edge edge) {
+    }
+
+    /**
+     * Called after a visible edge has been hidden.
+     *
+     * @param edge the hidden edge
+     */
+    default void edgeHidden(Edge edge) {
+    }
+
+    /**
+     * Called after a hidden edge has been made visible again.
+     *
+     * @param edge the edge that is visible again
+     */
+    default void edgeShown(Edge edge) {
+    }
+}
@@ -83,6 +83,15 @@ public class HidingAdjacencySetForThinFlow extends LinkedList<Edge> implements I
         return result;
     }
 
+    /**
+     * Returns all edges of the set, including the hidden ones.
+     *
+     * @return the visible and hidden edges
+     */
+    public Iterable<Edge> allEdges() {
+        return this::listIterator;
+    }
+
     public void decreaseSize() {
         visibleSize--;
     }
@@ -91,6 +100,10 @@ public class HidingAdjacencySetForThinFlow extends LinkedList<Edge> implements I
         visibleSize++;
     }
 
+    public void setSize(int visibleSize) {
+        this.visibleSize = visibleSize;
+    }
+
     public class SequentialHidingIterator implements Iterator<Edge> {
 
         private Iterator<Edge> setIterator;
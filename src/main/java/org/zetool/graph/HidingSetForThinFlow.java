@@ -17,18 +17,29 @@ package org.zetool.graph;
 
 import org.zetool.container.collection.IdentifiableCollection;
 import org.zetool.container.mapping.Identifiable;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Random;
 import java.util.RandomAccess;
 
 /**
+ * A view of an {@link IdentifiableCollection} that hides some of its elements. The visibility is stored in a bit set
+ * with one bit per id, packed into {@code long} words. Iteration skips words without visible elements as a whole, so
+ * iterating a mostly hidden set costs time proportional to the visible elements and the number of words. Besides
+ * changing the visibility of single elements, the set supports batch operations: changing the visibility of many
+ * elements, showing or hiding all elements, and exchanging the complete visibility with a precomputed
+ * {@link #getVisibilityMask() mask}.
  *
  * @author Martin Groß / Sebastian Schenker
  * @param <E>
  */
 public class HidingSetForThinFlow<E extends Identifiable> implements IdentifiableCollection<E> {
 
-    private boolean[] visible;
+    /** The visibility of the elements, bit {@code id % 64} of word {@code id / 64} is set if {@code id} is visible. */
+    private long[] visible;
+    /** The number of ids that can be stored. */
+    private int capacity;
     private int numberOfVisibleElements;
     private IdentifiableCollection<E> set;
 
@@ -36,34 +47,104 @@ public class HidingSetForThinFlow<E extends Identifiable> implements Identifiabl
 	 this(set, new boolean[set.size()], set.size());
 	 } */
     public HidingSetForThinFlow(IdentifiableCollection<E> set, int capacity) {
-        this(set, new boolean[capacity], 0);
+        this.set = set;
+        this.capacity = capacity;
+        this.visible = new long[words(capacity)];
     }
 
     public HidingSetForThinFlow(IdentifiableCollection<E> set, boolean[] visible) {
-        this.visible = visible;
-        this.set = set;
+        this(set, visible.length);
         for (int i = 0; i < visible.length; i++) {
             if (visible[i]) {
+                setBit(i);
                 numberOfVisibleElements++;
             }
         }
     }
 
     public HidingSetForThinFlow(IdentifiableCollection<E> set, boolean[] visible, int numberOfVisibleElements) {
-        this.visible = visible;
+        this(set, visible.length);
+        for (int i = 0; i < visible.length; i++) {
+            if (visible[i]) {
+                setBit(i);
+            }
+        }
         this.numberOfVisibleElements = numberOfVisibleElements;
-        this.set = set;
+    }
+
+    private static int words(int capacity) {
+        return (capacity + Long.SIZE - 1) >>> 6;
+    }
+
+    private boolean bit(int id) {
+        return id >= 0 && id < capacity && (visible[id >>> 6] & (1L << id)) != 0;
+    }
+
+    private void setBit(int id) {
+        visible[id >>> 6] |= 1L << id;
+    }
+
+    private void clearBit(int id) {
+        visible[id >>> 6] &= ~(1L << id);
+    }
+
+    /**
+     * Returns the smallest visible id that is at least {@code from}. Runtime O(number of words skipped).
+     *
+     * @param from the first id to check
+     * @return the next visible id or -1 if no further id is visible
+     */
+    public int nextVisibleId(int from) {
+        if (from < 0) {
+            from = 0;
+        }
+        if (from >= capacity) {
+            return -1;
+        }
+        int index = from >>> 6;
+        long word = visible[index] & (-1L << from);
+        while (word == 0) {
+            if (++index == visible.length) {
+                return -1;
+            }
+            word = visible[index];
+        }
+        return (index << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Returns the largest visible id that is at most {@code from}. Runtime O(number of words skipped).
+     *
+     * @param from the first id to check
+     * @return the previous visible id or -1 if no smaller id is visible
+     */
+    public int previousVisibleId(int from) {
+        if (from >= capacity) {
+            from = capacity - 1;
+        }
+        if (from < 0) {
+            return -1;
+        }
+        int index = from >>> 6;
+        long word = visible[index] & (-1L >>> (Long.SIZE - 1 - (from & 63)));
+        while (word == 0) {
+            if (--index < 0) {
+                return -1;
+            }
+            word = visible[index];
+        }
+        return (index << 6) + Long.SIZE - 1 - Long.numberOfLeadingZeros(word);
     }
 
     public void printVisible() {
-        for (int i = 0; i < visible.length; i++) {
-            System.out.print(" " + visible[i] + " ");
+        for (int i = 0; i < capacity; i++) {
+            System.out.print(" " + bit(i) + " ");
         }
     }
 
     @Override
     public boolean contains(E element) {
-        return set.contains(element) && visible[element.id()];
+        return set.contains(element) && bit(element.id());
     }
 
     @Override
@@ -78,7 +159,7 @@ public class HidingSetForThinFlow<E extends Identifiable> implements Identifiabl
 
     @Override
     public E get(int id) {
-        return (!visible[id]) ? null : set.get(id);
+        return (!bit(id)) ? null : set.get(id);
     }
 
     @Override
@@ -98,33 +179,21 @@ public class HidingSetForThinFlow<E extends Identifiable> implements Identifiabl
 
     @Override
     public E first() {
-        int index = 0;
-        while (!visible[index]) {
-            index++;
-            if (index == visible.length) {
-                return null;
-            }
-        }
-        return get(index);
+        int index = nextVisibleId(0);
+        return index == -1 ? null : get(index);
     }
 
     public E last() {
-        int index = size() - 1;
-        while (!visible[index]) {
-            index--;
-            if (index == -1) {
-                return null;
-            }
-        }
-        return get(index);
+        int index = previousVisibleId(capacity - 1);
+        return index == -1 ? null : get(index);
     }
 
     public E random() {
-        int r = new Random().nextInt(size());
-        for (int i = 0; i < visible.length; i++) {
-            if (visible[i]) {
-                continue;
-            }
+        if (numberOfVisibleElements == 0) {
+            return null;
+        }
+        int r = new Random().nextInt(numberOfVisibleElements);
+        for (int i = nextVisibleId(0); i != -1; i = nextVisibleId(i + 1)) {
             if (r == 0) {
                 return get(i);
             }
@@ -134,26 +203,13 @@ public class HidingSetForThinFlow<E extends Identifiable> implements Identifiabl
     }
 
     public E predecessor(E element) {
-        int index = element.id();
-        do {
-            index--;
-            if (index == -1) {
-                return null;
-            }
-        } while (!visible[index]);
-        return get(index);
+        int index = previousVisibleId(element.id() - 1);
+        return index == -1 ? null : get(index);
     }
 
     public E successor(E element) {
-        int index = element.id();
-        do {
-            index++;
-            //System.out.println(index + " " + hidden.length);
-            if (index == visible.length) {
-                return null;
-            }
-        } while (!visible[index]);
-        return get(index);
+        int index = nextVisibleId(element.id() + 1);
+        return index == -1 ? null : get(index);
     }
 
     public Iterator<E> iterator() {
@@ -169,20 +225,88 @@ public class HidingSetForThinFlow<E extends Identifiable> implements Identifiabl
     }
 
     public boolean isVisible(E element) {
-        return visible[element.id()];
+        return bit(element.id());
     }
 
     public void changeVisibility(E element, boolean visible) {
         if (isVisible(element) != visible) {
-            this.visible[element.id()] = visible;
             if (visible) {
+                setBit(element.id());
                 numberOfVisibleElements++;
             } else {
+                clearBit(element.id());
                 numberOfVisibleElements--;
             }
         }
     }
 
+    /**
+     * Changes the visibility of several elements. Runtime O(number of elements).
+     *
+     * @param elements the elements
+     * @param visible the new visibility
+     */
+    public void changeVisibility(Iterable<? extends E> elements, boolean visible) {
+        for (E element : elements) {
+            changeVisibility(element, visible);
+        }
+    }
+
+    /**
+     * Makes all elements of the underlying collection visible. Runtime O(number of elements).
+     */
+    public void showAll() {
+        for (E element : set) {
+            setBit(element.id());
+        }
+        numberOfVisibleElements = countVisible();
+    }
+
+    /**
+     * Hides all elements. Runtime O(capacity / 64).
+     */
+    public void hideAll() {
+        Arrays.fill(visible, 0);
+        numberOfVisibleElements = 0;
+    }
+
+    /**
+     * Returns a copy of the visibility bits. Bit {@code id % 64} of word {@code id / 64} is set if the element with
+     * the id is visible. Runtime O(capacity / 64).
+     *
+     * @return the visibility mask
+     */
+    public long[] getVisibilityMask() {
+        return visible.clone();
+    }
+
+    /**
+     * Replaces the visibility of all elements by a mask as returned by {@link #getVisibilityMask()}. Bits outside of
+     * the capacity are ignored, missing words hide the corresponding ids. Runtime O(capacity / 64).
+     *
+     * @param mask the visibility mask
+     */
+    public void setVisibilityMask(long[] mask) {
+        long[] newVisible = Arrays.copyOf(mask, words(capacity));
+        clearAbove(newVisible, capacity);
+        visible = newVisible;
+        numberOfVisibleElements = countVisible();
+    }
+
+    private static void clearAbove(long[] words, int capacity) {
+        if ((capacity & 63) != 0) {
+            words[words.length - 1] &= -1L >>> (Long.SIZE - (capacity & 63));
+        }
+    }
+
+    private int countVisible() {
+        int count = 0;
+        for (long word : visible) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
     /* public void setHidden(E element, boolean hidden) {
 	 if (isHidden(element) != hidden) {
 	 this.hidden[element.id()] = hidden;
@@ -194,41 +318,37 @@ public class HidingSetForThinFlow<E extends Identifiable> implements Identifiabl
 	 }
 	 }*/
     public int getCapacity() {
-        return visible.length;
+        return capacity;
     }
 
     public void setCapacity(int capacity) {
-        boolean[] newHidden = new boolean[capacity];
-        System.arraycopy(visible, 0, newHidden, 0, Math.min(visible.length, capacity));
-        visible = newHidden;
+        visible = Arrays.copyOf(visible, words(capacity));
+        clearAbove(visible, capacity);
+        this.capacity = capacity;
+        numberOfVisibleElements = countVisible();
     }
 
+    /**
+     * Iterates the visible elements by their ids, skipping words without visible elements.
+     */
     public class HidingIterator implements Iterator<E> {
 
-        private E current;
-        private E next;
+        private int next;
 
         public HidingIterator() {
+            next = nextVisibleId(0);
         }
 
         public boolean hasNext() {
-            if (next != null) {
-                return true;
-            } else if (current == null && size() > 0) {
-                next = first();
-                return next != null;
-            } else {
-                next = successor(current);
-                return next != null;
-            }
+            return next != -1;
         }
 
         public E next() {
-            if (next == null) {
-                hasNext();
+            if (next == -1) {
+                throw new NoSuchElementException();
             }
-            current = next;
-            next = null;
+            E current = set.get(next);
+            next = nextVisibleId(next + 1);
             return current;
         }
 
@@ -249,9 +369,12 @@ public class HidingSetForThinFlow<E extends Identifiable> implements Identifiabl
         }
 
         public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
             while (setIterator.hasNext()) {
                 E element = setIterator.next();
-                if (visible[element.id()]) {
+                if (bit(element.id())) {
                     next = element;
                     return true;
                 }
@@ -0,0 +1,103 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import org.zetool.container.collection.IdentifiableCollection;
+import org.zetool.graph.util.OppositeNodeCollection;
+
+/**
+ * An immutable directed graph. The outgoing, incoming and incident edges of each node are stored in consecutive
+ * ranges of arrays, so all accessors run without allocating more than a small view object. Instances are thread-safe
+ * and are typically obtained as a {@link MutableDirectedGraph#copyToImmutable() copy} of a mutable graph, which
+ * shares the (immutable) node and edge objects with the original.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class ImmutableDirectedGraph extends AbstractImmutableGraph implements DirectedGraph {
+
+    /** The start of the outgoing edges of each node id, with a sentinel at the end. */
+    private final int[] outgoingOffsets;
+    /** The outgoing edges of all nodes. */
+    private final Edge[] outgoing;
+    /** The start of the incoming edges of each node id, with a sentinel at the end. */
+    private final int[] incomingOffsets;
+    /** The incoming edges of all nodes. */
+    private final Edge[] incoming;
+
+    /**
+     * Creates a directed graph from nodes and edges. The arrays must not be changed afterwards. Runtime O(n + m) if
+     * the arrays are sorted by id, O(n log n + m log m) otherwise.
+     *
+     * @param nodes the nodes
+     * @param edges the edges, their end points must be contained in the nodes
+     */
+    public ImmutableDirectedGraph(Node[] nodes, Edge[] edges) {
+        super(nodes, edges);
+        outgoingOffsets = new int[nodeById.length + 1];
+        outgoing = adjacency(outgoingOffsets, Edge::start);
+        incomingOffsets = new int[nodeById.length + 1];
+        incoming = adjacency(incomingOffsets, Edge::end);
+    }
+
+    /**
+     * Creates an immutable copy of the visible nodes and edges of a directed graph. Runtime O(n + m).
+     *
+     * @param graph the graph
+     * @return an immutable copy, or the graph itself if it is already immutable
+     */
+    public static ImmutableDirectedGraph of(DirectedGraph graph) {
+        if (graph instanceof ImmutableDirectedGraph) {
+            return (ImmutableDirectedGraph) graph;
+        }
+        return new ImmutableDirectedGraph(toArray(graph.nodes(), new Node[graph.nodeCount()]),
+                toArray(graph.edges(), new Edge[graph.edgeCount()]));
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> incomingEdges(Node node) {
+        return slice(incoming, incomingOffsets, node);
+    }
+
+    @Override
+    public IdentifiableCollection<Edge> outgoingEdges(Node node) {
+        return slice(outgoing, outgoingOffsets, node);
+    }
+
+    @Override
+    public IdentifiableCollection<Node> predecessorNodes(Node node) {
+        return new OppositeNodeCollection(node, incomingEdges(node));
+    }
+
+    @Override
+    public IdentifiableCollection<Node> successorNodes(Node node) {
+        return new OppositeNodeCollection(node, outgoingEdges(node));
+    }
+
+    @Override
+    public int inDegree(Node node) {
+        return contains(node) ? incomingOffsets[node.id() + 1] - incomingOffsets[node.id()] : 0;
+    }
+
+    @Override
+    public int outDegree(Node node) {
+        return contains(node) ? outgoingOffsets[node.id() + 1] - outgoingOffsets[node.id()] : 0;
+    }
+
+    @Override
+    protected IdentifiableCollection<Edge> edgesFrom(Node start) {
+        return outgoingEdges(start);
+    }
+}
@@ -0,0 +1,59 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import org.zetool.container.collection.IdentifiableCollection;
+
+/**
+ * An immutable undirected graph. The incident edges of each node are stored in a consecutive range of an array.
+ * Instances are thread-safe and are typically obtained as a {@link MutableUndirectedGraph#copyToImmutable() copy} of
+ * a mutable graph, which shares the (immutable) node and edge objects with the original.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class ImmutableUndirectedGraph extends AbstractImmutableGraph implements UndirectedGraph {
+
+    /**
+     * Creates an undirected graph from nodes and edges. The arrays must not be changed afterwards. Runtime O(n + m)
+     * if the arrays are sorted by id, O(n log n + m log m) otherwise.
+     *
+     * @param nodes the nodes
+     * @param edges the edges, their end points must be contained in the nodes
+     */
+    public ImmutableUndirectedGraph(Node[] nodes, Edge[] edges) {
+        super(nodes, edges);
+    }
+
+    /**
+     * Creates an immutable copy of the visible nodes and edges of a graph. The edges are considered to be undirected.
+     * Runtime O(n + m).
+     *
+     * @param graph the graph
+     * @return an immutable copy, or the graph itself if it is already immutable
+     */
+    public static ImmutableUndirectedGraph of(Graph graph) {
+        if (graph instanceof ImmutableUndirectedGraph) {
+            return (ImmutableUndirectedGraph) graph;
+        }
+        return new ImmutableUndirectedGraph(toArray(graph.nodes(), new Node[graph.nodeCount()]),
+                toArray(graph.edges(), new Edge[graph.edgeCount()]));
+    }
+
+    @Override
+    protected IdentifiableCollection<Edge> edgesFrom(Node start) {
+        return incidentEdges(start);
+    }
+}
@@ -6,5 +6,14 @@ package org.zetool.graph;
  */
 public interface MutableDirectedGraph extends DirectedGraph, MutableGraph {
 
-    
+    /**
+     * Returns an immutable directed copy of the visible nodes and edges of the graph. Runtime O(n + m). Must not run
+     * concurrently with changes of the graph, see {@link MutableGraph#copyToImmutable()}.
+     *
+     * @return an immutable copy of the graph
+     */
+    @Override
+    public default DirectedGraph copyToImmutable() {
+        return ImmutableDirectedGraph.of(this);
+    }
 }
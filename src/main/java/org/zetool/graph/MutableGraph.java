@@ -51,4 +51,34 @@ public interface MutableGraph extends Graph {
     public int getEdgeCapacity();
 
     public void setEdgeCapacity(int i);
+
+    /** The modification count of graphs that do not track their modifications. */
+    public static final long UNTRACKED = -1;
+
+    /**
+     * Returns the number of modifications of the graph. The count increases whenever nodes or edges are added, hidden
+     * or shown. Results computed for the graph remain valid as long as the count does not change. Graphs that do not
+     * count their modifications return {@link #UNTRACKED}, which is also the default. Runtime O(1).
+     *
+     * @return the modification count, or {@link #UNTRACKED} if modifications are not tracked
+     */
+    public default long getModificationCount() {
+        return UNTRACKED;
+    }
+
+    /**
+     * Returns an immutable copy of the visible nodes and edges of the graph. The copy shares the node and edge objects
+     * with this graph, but not the adjacency structures. The copy is thread-safe and not affected by later changes of
+     * this graph. Runtime O(n + m).
+     * <p>
+     * The copy is created by reading the adjacency structures of this graph. It must not be created while the graph
+     * is changed by another thread, unless the implementation allows concurrent reading and writing. Snapshots of a
+     * {@link DefaultDirectedGraph} that share the unchanged structure are created by
+     * {@link DefaultDirectedGraph#snapshot()}.
+     *
+     * @return an immutable copy of the graph
+     */
+    public default Graph copyToImmutable() {
+        return isDirected() ? ImmutableDirectedGraph.of((DirectedGraph) this) : ImmutableUndirectedGraph.of(this);
+    }
 }
@@ -21,4 +21,14 @@ package org.zetool.graph;
  */
 public interface MutableUndirectedGraph extends UndirectedGraph, MutableGraph {
 
+    /**
+     * Returns an immutable undirected copy of the visible nodes and edges of the graph. Runtime O(n + m). Must not run
+     * concurrently with changes of the graph, see {@link MutableGraph#copyToImmutable()}.
+     *
+     * @return an immutable copy of the graph
+     */
+    @Override
+    public default UndirectedGraph copyToImmutable() {
+        return ImmutableUndirectedGraph.of(this);
+    }
 }
@@ -0,0 +1,289 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Renumbers the nodes of a graph to improve the memory locality of traversals. Node ids that come from an external
+ * numbering scatter the neighbors of a node over the whole id range, so that the lookups of id-indexed mappings during
+ * breadth first search or Dijkstra's algorithm rarely hit the cache. After renumbering with one of the orders,
+ * neighboring nodes have close ids.
+ * <ul>
+ * <li>{@link #breadthFirst(Graph)} numbers the nodes in the order of a breadth first search.</li>
+ * <li>{@link #reverseCuthillMcKee(Graph)} visits the neighbors in order of increasing degree, starting from nodes of
+ * small degree, and reverses the result. This reduces the bandwidth of the adjacency matrix.</li>
+ * <li>{@link #degreeDescending(Graph)} puts nodes of high degree, which are accessed most often, in front.</li>
+ * </ul>
+ * All orders ignore the direction of edges. An order is applied by {@link #reorder(DirectedGraph, int[])}, which
+ * returns an immutable copy together with the translation between the new and the original ids. In the copy, the edges
+ * are numbered by their new start node, so that the outgoing edges of a node have consecutive ids as well. Mappings
+ * are carried over by {@link CompactedGraph#toCompactNodeMapping} and translated back by
+ * {@link CompactedGraph#toOriginalNodeMapping} and the corresponding methods for edges.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public final class NodeReordering {
+
+    /**
+     * Private constructor for utility class.
+     */
+    private NodeReordering() {
+    }
+
+    /**
+     * Returns the node ids in the order of breadth first searches. Each search starts at the unvisited node with the
+     * smallest position in {@link Graph#nodes()}. Runtime O(n + m).
+     *
+     * @param graph the graph
+     * @return the original node ids in their new order
+     */
+    public static int[] breadthFirst(Graph graph) {
+        Adjacency adjacency = new Adjacency(graph);
+        return adjacency.breadthFirst(IntStream.range(0, adjacency.size()).toArray(), false);
+    }
+
+    /**
+     * Returns the node ids in reverse Cuthill-McKee order. Each search starts at the unvisited node of smallest
+     * degree and visits the neighbors of a node in order of increasing degree. Runtime O(n log n + m log m).
+     *
+     * @param graph the graph
+     * @return the original node ids in their new order
+     */
+    public static int[] reverseCuthillMcKee(Graph graph) {
+        Adjacency adjacency = new Adjacency(graph);
+        int[] order = adjacency.breadthFirst(adjacency.sortedByDegree(false), true);
+        for (int i = 0, j = order.length - 1; i < j; ++i, --j) {
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+
+    /**
+     * Returns the node ids sorted by decreasing degree. Nodes of equal degree keep their order. Runtime O(n log n).
+     *
+     * @param graph the graph
+     * @return the original node ids in their new order
+     */
+    public static int[] degreeDescending(Graph graph) {
+        Adjacency adjacency = new Adjacency(graph);
+        return adjacency.toIds(adjacency.sortedByDegree(true));
+    }
+
+    /**
+     * Creates a copy of a directed graph whose nodes are numbered in the given order. The edge costs and other
+     * mappings can be carried over with the returned translation. Runtime O(n + m).
+     *
+     * @param graph the graph
+     * @param order the original node ids in their new order, containing each node of the graph exactly once
+     * @return the renumbered copy and the translation of ids
+     * @throws IllegalArgumentException if the order is not a permutation of the nodes
+     */
+    public static CompactedGraph<ImmutableDirectedGraph> reorder(DirectedGraph graph, int[] order) {
+        return reorder(graph, order, GraphBuilder::buildImmutableDirected);
+    }
+
+    /**
+     * Creates a copy of an undirected graph whose nodes are numbered in the given order. Runtime O(n + m).
+     *
+     * @param graph the graph
+     * @param order the original node ids in their new order, containing each node of the graph exactly once
+     * @return the renumbered copy and the translation of ids
+     * @throws IllegalArgumentException if the order is not a permutation of the nodes
+     */
+    public static CompactedGraph<ImmutableUndirectedGraph> reorder(UndirectedGraph graph, int[] order) {
+        return reorder(graph, order, GraphBuilder::buildImmutableUndirected);
+    }
+
+    private static <G extends Graph> CompactedGraph<G> reorder(Graph graph, int[] order,
+            Function<GraphBuilder, G> build) {
+        if (order.length != graph.nodeCount()) {
+            throw new IllegalArgumentException("Order has " + order.length + " nodes, graph has " + graph.nodeCount());
+        }
+        int nodeDomain = 0;
+        for (Node node : graph.nodes()) {
+            nodeDomain = Math.max(nodeDomain, node.id() + 1);
+        }
+        int[] newNodeIds = new int[nodeDomain];
+        Arrays.fill(newNodeIds, -1);
+        for (int i = 0; i < order.length; ++i) {
+            int id = order[i];
+            if (id < 0 || id >= nodeDomain || newNodeIds[id] != -1 || graph.getNode(id) == null) {
+                throw new IllegalArgumentException("Order is not a permutation of the nodes, invalid id " + id);
+            }
+            newNodeIds[id] = i;
+        }
+
+        int edgeDomain = 0;
+        int[] offsets = new int[order.length + 1];
+        for (Edge edge : graph.edges()) {
+            edgeDomain = Math.max(edgeDomain, edge.id() + 1);
+            offsets[newNodeIds[edge.start().id()] + 1]++;
+        }
+        for (int i = 1; i < offsets.length; ++i) {
+            offsets[i] += offsets[i - 1];
+        }
+        int[] originalEdgeIds = new int[graph.edgeCount()];
+        int[] newEdgeIds = new int[edgeDomain];
+        Arrays.fill(newEdgeIds, -1);
+        int[] sources = new int[graph.edgeCount()];
+        int[] targets = new int[graph.edgeCount()];
+        for (Edge edge : graph.edges()) {
+            int position = offsets[newNodeIds[edge.start().id()]]++;
+            originalEdgeIds[position] = edge.id();
+            newEdgeIds[edge.id()] = position;
+            sources[position] = newNodeIds[edge.start().id()];
+            targets[position] = newNodeIds[edge.end().id()];
+        }
+        G reordered = build.apply(GraphBuilder.of(order.length, sources, targets));
+        return new CompactedGraph<>(reordered, graph, order.clone(), newNodeIds, originalEdgeIds, newEdgeIds);
+    }
+
+    /**
+     * The undirected adjacency of a graph in compressed sparse row format, using the positions of the nodes in
+     * {@link Graph#nodes()} as indices.
+     */
+    private static class Adjacency {
+
+        /** The node id of each index. */
+        private final int[] ids;
+        /** The start of the neighbors of each index, with a sentinel at the end. */
+        private final int[] offsets;
+        /** The neighbor indices of all nodes. */
+        private final int[] neighbors;
+
+        Adjacency(Graph graph) {
+            ids = new int[graph.nodeCount()];
+            int nodeDomain = 0;
+            int i = 0;
+            for (Node node : graph.nodes()) {
+                ids[i++] = node.id();
+                nodeDomain = Math.max(nodeDomain, node.id() + 1);
+            }
+            int[] indices = new int[nodeDomain];
+            for (i = 0; i < ids.length; ++i) {
+                indices[ids[i]] = i;
+            }
+            offsets = new int[ids.length + 1];
+            for (Edge edge : graph.edges()) {
+                offsets[indices[edge.start().id()] + 1]++;
+                offsets[indices[edge.end().id()] + 1]++;
+            }
+            for (i = 1; i < offsets.length; ++i) {
+                offsets[i] += offsets[i - 1];
+            }
+            neighbors = new int[offsets[ids.length]];
+            int[] fill = Arrays.copyOf(offsets, ids.length);
+            for (Edge edge : graph.edges()) {
+                int start = indices[edge.start().id()];
+                int end = indices[edge.end().id()];
+                neighbors[fill[start]++] = end;
+                neighbors[fill[end]++] = start;
+            }
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        int degree(int index) {
+            return offsets[index + 1] - offsets[index];
+        }
+
+        /**
+         * Returns the indices sorted by degree. The sort is stable.
+         */
+        int[] sortedByDegree(boolean descending) {
+            Comparator<Integer> byDegree = Comparator.comparingInt(this::degree);
+            return IntStream.range(0, ids.length).boxed().sorted(descending ? byDegree.reversed() : byDegree)
+                    .mapToInt(Integer::intValue).toArray();
+        }
+
+        /**
+         * Runs breadth first searches from the unvisited start candidates in the given order.
+         *
+         * @param starts the start candidates
+         * @param byDegree whether the neighbors of a node are visited in order of increasing degree
+         * @return the node ids in the order they are visited
+         */
+        int[] breadthFirst(int[] starts, boolean byDegree) {
+            boolean[] visited = new boolean[ids.length];
+            int[] queue = new int[ids.length];
+            int head = 0;
+            int tail = 0;
+            for (int start : starts) {
+                if (visited[start]) {
+                    continue;
+                }
+                visited[start] = true;
+                queue[tail++] = start;
+                while (head < tail) {
+                    int current = queue[head++];
+                    int first = tail;
+                    for (int k = offsets[current]; k < offsets[current + 1]; ++k) {
+                        int neighbor = neighbors[k];
+                        if (!visited[neighbor]) {
+                            visited[neighbor] = true;
+                            queue[tail++] = neighbor;
+                        }
+                    }
+                    if (byDegree) {
+                        sortByDegree(queue, first, tail);
+                    }
+                }
+            }
+            return toIds(queue);
+        }
+
+        private void sortByDegree(int[] values, int from, int to) {
+            if (to - from < 16) {
+                for (int i = from + 1; i < to; ++i) {
+                    int value = values[i];
+                    int j = i - 1;
+                    while (j >= from && degree(values[j]) > degree(value)) {
+                        values[j + 1] = values[j];
+                        j--;
+                    }
+                    values[j + 1] = value;
+                }
+                return;
+            }
+            long[] keys = new long[to - from];
+            for (int i = from; i < to; ++i) {
+                keys[i - from] = (long) degree(values[i]) << 32 | (i - from);
+            }
+            Arrays.sort(keys);
+            int[] sorted = new int[to - from];
+            for (int i = 0; i < keys.length; ++i) {
+                sorted[i] = values[from + (int) keys[i]];
+            }
+            System.arraycopy(sorted, 0, values, from, sorted.length);
+        }
+
+        int[] toIds(int[] indices) {
+            int[] result = new int[indices.length];
+            for (int i = 0; i < indices.length; ++i) {
+                result[i] = ids[indices[i]];
+            }
+            return result;
+        }
+    }
+}
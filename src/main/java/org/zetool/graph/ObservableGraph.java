@@ -0,0 +1,39 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+/**
+ * A graph that notifies registered {@link GraphChangeListener listeners} about edges that are added, hidden or shown.
+ * This allows derived structures to be updated incrementally instead of being recomputed.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public interface ObservableGraph extends Graph {
+
+    /**
+     * Registers a listener that is notified about future changes.
+     *
+     * @param listener the listener
+     */
+    void addChangeListener(GraphChangeListener listener);
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener the listener
+     */
+    void removeChangeListener(GraphChangeListener listener);
+}
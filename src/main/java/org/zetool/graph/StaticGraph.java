@@ -6,6 +6,7 @@ package org.zetool.graph;
 
 import org.zetool.container.collection.IdentifiableCollection;
 import org.zetool.container.collection.ArraySet;
+import org.zetool.graph.jfr.EventRecorder;
 import java.util.Iterator;
 
 /**
@@ -483,6 +484,91 @@ public class StaticGraph implements Graph, DirectedGraph {
         }
     }
 
+    /**
+     * ändert die Sichtbarkeit mehrerer Kanten auf den angegebenen Zustand. Laufzeit O(Anzahl der Kanten).
+     *
+     * @param edges die Kanten, fär die die Sichtbarkeit geändert werden soll.
+     * @param visible der neue Sichtbarkeits-Status
+     */
+    public void changeVisibility(Iterable<Edge> edges, boolean visible) {
+        EventRecorder.Mutation event = EventRecorder.get().startMutation();
+        int count = 0;
+        for (Edge edge : edges) {
+            changeVisibility(edge, visible);
+            count++;
+        }
+        event.finish(this, visible ? "showEdges" : "hideEdges", count);
+    }
+
+    /**
+     * ändert die Sichtbarkeit aller zum angegebenen Knoten inzidenten Kanten, versteckte Kanten eingeschlossen. Der
+     * Knoten selbst bleibt sichtbar. Die Kanten werden äber {@link #changeVisibility(java.lang.Iterable, boolean)} in
+     * einem Schritt geändert. Laufzeit O(Grad des Knotens inklusive versteckter Kanten).
+     *
+     * @param node der Knoten, dessen inzidente Kanten versteckt oder sichtbar gemacht werden sollen
+     * @param visible der neue Sichtbarkeits-Status der Kanten
+     */
+    public void changeVisibilityOfIncidentEdges(Node node, boolean visible) {
+        changeVisibility(adjacentEdges[node.id()].allEdges(), visible);
+    }
+
+    /**
+     * Macht alle Kanten des Graphen sichtbar. Laufzeit O(n + m).
+     */
+    public void showAllEdges() {
+        EventRecorder.Mutation event = EventRecorder.get().startMutation();
+        visibleEdges.showAll();
+        recountVisibleAdjacentEdges();
+        event.finish(this, "showAllEdges", edges.size());
+    }
+
+    /**
+     * Gibt die Sichtbarkeit aller Kanten als Bitmaske zuräck, siehe {@link HidingSetForThinFlow#getVisibilityMask()}.
+     * Laufzeit O(m / 64).
+     *
+     * @return die Sichtbarkeit der Kanten
+     */
+    public long[] getEdgeVisibility() {
+        return visibleEdges.getVisibilityMask();
+    }
+
+    /**
+     * Ersetzt die Sichtbarkeit aller Kanten durch eine vorberechnete Bitmaske. Laufzeit O(n + m / 64 + Anzahl der
+     * sichtbaren Kanten).
+     *
+     * @param mask die Sichtbarkeit der Kanten, wie von {@link #getEdgeVisibility()} geliefert
+     */
+    public void setEdgeVisibility(long[] mask) {
+        EventRecorder.Mutation event = EventRecorder.get().startMutation();
+        visibleEdges.setVisibilityMask(mask);
+        recountVisibleAdjacentEdges();
+        event.finish(this, "setEdgeVisibility", edges.size());
+    }
+
+    private void recountVisibleAdjacentEdges() {
+        resetSizes(adjacentEdges);
+        resetSizes(incomingEdges);
+        resetSizes(outgoingEdges);
+        for (Edge edge : visibleEdges) {
+            adjacentEdges[edge.start().id()].increaseSize();
+            adjacentEdges[edge.end().id()].increaseSize();
+            if (directed) {
+                incomingEdges[edge.end().id()].increaseSize();
+                outgoingEdges[edge.start().id()].increaseSize();
+            }
+        }
+    }
+
+    private static void resetSizes(HidingAdjacencySetForThinFlow[] adjacency) {
+        if (adjacency != null) {
+            for (HidingAdjacencySetForThinFlow edges : adjacency) {
+                if (edges != null) {
+                    edges.setSize(0);
+                }
+            }
+        }
+    }
+
     /**
      * Implementiert die {@code removeEdge} Methode des {@link Graph}-Interfaces. Da es sich um einen statischen Graphen
      * handelt, wird das entfernen der angegebenen Kante nur simuliert, d.h. es wird {@code setHidden(edge, true)}
@@ -546,8 +632,10 @@ public class StaticGraph implements Graph, DirectedGraph {
     }
 
     public void setEdgeCapacity(int edgeCapacity) {
+        EventRecorder.Mutation event = EventRecorder.get().startMutation();
         edges.setCapacity(edgeCapacity);
         visibleEdges.setCapacity(edgeCapacity);
+        event.finish(this, "setEdgeCapacity", edgeCapacity);
     }
 
     public int getNodeCapacity() {
@@ -555,6 +643,7 @@ public class StaticGraph implements Graph, DirectedGraph {
     }
 
     public void setNodeCapacity(int nodeCapacity) {
+        EventRecorder.Mutation event = EventRecorder.get().startMutation();
         nodes.setCapacity(nodeCapacity);
         //visibleNodes.setCapacity(nodeCapacity);
         adjacentEdges = new HidingAdjacencySetForThinFlow[nodeCapacity];
@@ -562,6 +651,7 @@ public class StaticGraph implements Graph, DirectedGraph {
             incomingEdges = new HidingAdjacencySetForThinFlow[nodeCapacity];
             outgoingEdges = new HidingAdjacencySetForThinFlow[nodeCapacity];
         }
+        event.finish(this, "setNodeCapacity", nodeCapacity);
     }
 
     @Override
@@ -0,0 +1,71 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import java.util.BitSet;
+
+/**
+ * A view of a part of a graph whose edges are considered undirected. The subgraph is induced by a set of node ids, a
+ * set of edge ids, or both. Nothing is copied: the view filters the adjacency of the parent graph, and changes of the
+ * parent and of the bit sets are reflected immediately. Algorithms that traverse the subgraph many times can run on
+ * a {@link #compact() compact copy} instead.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class UndirectedSubgraph extends AbstractSubgraph<Graph> implements UndirectedGraph {
+
+    /**
+     * Creates a subgraph view. Runtime O(1).
+     *
+     * @param parent the parent graph
+     * @param nodeSelection the selected node ids, {@code null} to select all nodes
+     * @param edgeSelection the selected edge ids, {@code null} to select all edges
+     */
+    public UndirectedSubgraph(Graph parent, BitSet nodeSelection, BitSet edgeSelection) {
+        super(parent, nodeSelection, edgeSelection);
+    }
+
+    /**
+     * Creates the subgraph induced by a set of nodes, containing all edges between them. Runtime O(1).
+     *
+     * @param parent the parent graph
+     * @param nodeSelection the selected node ids
+     * @return the subgraph view
+     */
+    public static UndirectedSubgraph induced(Graph parent, BitSet nodeSelection) {
+        return new UndirectedSubgraph(parent, nodeSelection, null);
+    }
+
+    /**
+     * Creates the subgraph containing all nodes and a set of edges. Runtime O(1).
+     *
+     * @param parent the parent graph
+     * @param edgeSelection the selected edge ids
+     * @return the subgraph view
+     */
+    public static UndirectedSubgraph ofEdges(Graph parent, BitSet edgeSelection) {
+        return new UndirectedSubgraph(parent, null, edgeSelection);
+    }
+
+    /**
+     * Copies the subgraph into an immutable undirected graph with dense ids. Runtime O(n + m).
+     *
+     * @return the copy and the mapping between original and compact ids
+     */
+    public CompactedGraph<ImmutableUndirectedGraph> compact() {
+        return compact(ImmutableUndirectedGraph::new);
+    }
+}
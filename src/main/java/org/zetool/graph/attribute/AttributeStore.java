@@ -0,0 +1,370 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.attribute;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.zetool.container.mapping.Identifiable;
+import org.zetool.graph.Edge;
+import org.zetool.graph.Graph;
+import org.zetool.graph.Node;
+import org.zetool.graph.jfr.EventRecorder;
+
+/**
+ * Named columns of primitive attributes for the nodes or the edges of a graph, e.g. costs, capacities and transit
+ * times of edges. All columns have the same size, which covers the ids of the elements.
+ * <p>
+ * A store can be saved to a file by {@link #save(Path)}. The file contains the raw values of each column, so it can be
+ * mapped into memory by {@link #map(Path)} without reading or converting the values; the columns of a mapped store are
+ * backed by the file and changes are written through to it. A single column is limited to {@code 2^31 - 1} bytes.
+ *
+ * @param <D> the type of elements the attributes belong to
+ * @author Jan-Philipp Kappmeier
+ */
+public class AttributeStore<D extends Identifiable> {
+
+    /** Marks attribute files. */
+    private static final int MAGIC = 0x5A474154;
+    /** The version of the file format. */
+    private static final int VERSION = 1;
+    /** The byte order used in files. */
+    private static final ByteOrder FILE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    /** The number of values of each column. */
+    private final int size;
+    /** Whether new columns are stored outside of the heap. */
+    private final boolean direct;
+    /** The columns by name, in the order they have been added. */
+    private final Map<String, Column<D>> columns = new LinkedHashMap<>();
+
+    /**
+     * Initializes an empty store whose columns are stored on the heap.
+     *
+     * @param size the number of values of each column
+     */
+    public AttributeStore(int size) {
+        this(size, false);
+    }
+
+    /**
+     * Initializes an empty store.
+     *
+     * @param size the number of values of each column
+     * @param direct whether the columns are stored in direct buffers outside of the heap
+     */
+    public AttributeStore(int size, boolean direct) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Negative size: " + size);
+        }
+        this.size = size;
+        this.direct = direct;
+    }
+
+    /**
+     * Creates an empty store for the nodes of a graph.
+     *
+     * @param graph the graph
+     * @param direct whether the columns are stored in direct buffers outside of the heap
+     * @return a store covering the ids of all nodes
+     */
+    public static AttributeStore<Node> forNodes(Graph graph, boolean direct) {
+        int domain = 0;
+        for (Node node : graph.nodes()) {
+            domain = Math.max(domain, node.id() + 1);
+        }
+        return new AttributeStore<>(domain, direct);
+    }
+
+    /**
+     * Creates an empty store for the edges of a graph.
+     *
+     * @param graph the graph
+     * @param direct whether the columns are stored in direct buffers outside of the heap
+     * @return a store covering the ids of all edges
+     */
+    public static AttributeStore<Edge> forEdges(Graph graph, boolean direct) {
+        int domain = 0;
+        for (Edge edge : graph.edges()) {
+            domain = Math.max(domain, edge.id() + 1);
+        }
+        return new AttributeStore<>(domain, direct);
+    }
+
+    /**
+     * Returns the number of values of each column.
+     *
+     * @return the size of the columns
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the names of the columns in the order they have been added.
+     *
+     * @return an unmodifiable view of the names
+     */
+    public Set<String> names() {
+        return Collections.unmodifiableSet(columns.keySet());
+    }
+
+    /**
+     * Checks whether a column with the given name exists.
+     *
+     * @param name the name
+     * @return {@code true} if the column exists
+     */
+    public boolean contains(String name) {
+        return columns.containsKey(name);
+    }
+
+    /**
+     * Returns the column with the given name.
+     *
+     * @param name the name
+     * @return the column or {@code null} if there is no column with the name
+     */
+    public Column<D> getColumn(String name) {
+        return columns.get(name);
+    }
+
+    /**
+     * Removes a column.
+     *
+     * @param name the name
+     * @return the removed column or {@code null} if there is no column with the name
+     */
+    public Column<D> remove(String name) {
+        return columns.remove(name);
+    }
+
+    /**
+     * Adds a column of {@code int} values.
+     *
+     * @param name the name
+     * @return the new column
+     * @throws IllegalArgumentException if a column with the name exists
+     */
+    public IntColumn<D> addIntColumn(String name) {
+        return add(name, direct ? IntColumn.direct(size) : new IntColumn<>(size));
+    }
+
+    /**
+     * Adds a column of {@code long} values.
+     *
+     * @param name the name
+     * @return the new column
+     * @throws IllegalArgumentException if a column with the name exists
+     */
+    public LongColumn<D> addLongColumn(String name) {
+        return add(name, direct ? LongColumn.direct(size) : new LongColumn<>(size));
+    }
+
+    /**
+     * Adds a column of {@code float} values.
+     *
+     * @param name the name
+     * @return the new column
+     * @throws IllegalArgumentException if a column with the name exists
+     */
+    public FloatColumn<D> addFloatColumn(String name) {
+        return add(name, direct ? FloatColumn.direct(size) : new FloatColumn<>(size));
+    }
+
+    /**
+     * Adds a column of {@code double} values.
+     *
+     * @param name the name
+     * @return the new column
+     * @throws IllegalArgumentException if a column with the name exists
+     */
+    public DoubleColumn<D> addDoubleColumn(String name) {
+        return add(name, direct ? DoubleColumn.direct(size) : new DoubleColumn<>(size));
+    }
+
+    private <C extends Column<D>> C add(String name, C column) {
+        if (columns.putIfAbsent(name, column) != null) {
+            throw new IllegalArgumentException("Column " + name + " exists");
+        }
+        return column;
+    }
+
+    /**
+     * Returns a column of {@code int} values.
+     *
+     * @param name the name
+     * @return the column
+     * @throws IllegalArgumentException if there is no column of {@code int} values with the name
+     */
+    public IntColumn<D> getIntColumn(String name) {
+        return get(name, ColumnType.INT);
+    }
+
+    /**
+     * Returns a column of {@code long} values.
+     *
+     * @param name the name
+     * @return the column
+     * @throws IllegalArgumentException if there is no column of {@code long} values with the name
+     */
+    public LongColumn<D> getLongColumn(String name) {
+        return get(name, ColumnType.LONG);
+    }
+
+    /**
+     * Returns a column of {@code float} values.
+     *
+     * @param name the name
+     * @return the column
+     * @throws IllegalArgumentException if there is no column of {@code float} values with the name
+     */
+    public FloatColumn<D> getFloatColumn(String name) {
+        return get(name, ColumnType.FLOAT);
+    }
+
+    /**
+     * Returns a column of {@code double} values.
+     *
+     * @param name the name
+     * @return the column
+     * @throws IllegalArgumentException if there is no column of {@code double} values with the name
+     */
+    public DoubleColumn<D> getDoubleColumn(String name) {
+        return get(name, ColumnType.DOUBLE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <C extends Column<D>> C get(String name, ColumnType type) {
+        Column<D> column = columns.get(name);
+        if (column == null || column.type() != type) {
+            throw new IllegalArgumentException("No " + type.name().toLowerCase() + " column " + name);
+        }
+        return (C) column;
+    }
+
+    /**
+     * Writes all columns to a file. An existing file is replaced. Runtime O(size * number of columns).
+     *
+     * @param file the file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        EventRecorder.Serialization event = EventRecorder.get().startSerialization();
+        ByteBuffer header = ByteBuffer.allocate(headerSize()).order(FILE_ORDER);
+        header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(columns.size());
+        for (Map.Entry<String, Column<D>> entry : columns.entrySet()) {
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            header.putInt(entry.getValue().type().ordinal()).putInt(name.length).put(name);
+        }
+        header.clear();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(header);
+            long position = header.capacity();
+            for (Column<D> column : columns.values()) {
+                int length = Math.multiplyExact(size, column.type().width());
+                ByteBuffer target = channel.map(FileChannel.MapMode.READ_WRITE, position, length).order(FILE_ORDER);
+                column.writeTo(target);
+                position = align(position + length);
+            }
+            event.finish(this, "save", file, position);
+        }
+    }
+
+    /**
+     * Maps a file written by {@link #save(Path)} into memory. The values are not read; the columns of the returned
+     * store are backed by the file, changes are written through to it. Columns added later are stored in direct
+     * buffers and are not part of the file until it is saved again. Runtime O(number of columns).
+     *
+     * @param <D> the type of elements the attributes belong to
+     * @param file the file
+     * @return the store
+     * @throws IOException if the file cannot be read or is not an attribute file
+     */
+    @SuppressWarnings("unchecked")
+    public static <D extends Identifiable> AttributeStore<D> map(Path file) throws IOException {
+        EventRecorder.Serialization event = EventRecorder.get().startSerialization();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = read(channel, 0, 16);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not an attribute file: " + file);
+            }
+            AttributeStore<D> store = new AttributeStore<>(header.getInt(), true);
+            int count = header.getInt();
+            long position = 16;
+            ColumnType[] types = new ColumnType[count];
+            String[] names = new String[count];
+            for (int i = 0; i < count; ++i) {
+                ByteBuffer descriptor = read(channel, position, 8);
+                int type = descriptor.getInt();
+                int length = descriptor.getInt();
+                if (type < 0 || type >= ColumnType.values().length || length < 0) {
+                    throw new IOException("Corrupt attribute file: " + file);
+                }
+                types[i] = ColumnType.values()[type];
+                names[i] = StandardCharsets.UTF_8.decode(read(channel, position + 8, length)).toString();
+                position += 8 + length;
+            }
+            position = align(position);
+            for (int i = 0; i < count; ++i) {
+                int length = Math.multiplyExact(store.size, types[i].width());
+                if (position + length > channel.size()) {
+                    throw new IOException("Truncated attribute file: " + file);
+                }
+                ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_WRITE, position, length).order(FILE_ORDER);
+                store.add(names[i], (Column<D>) types[i].wrap(bytes, store.size));
+                position = align(position + length);
+            }
+            event.finish(store, "map", file, channel.size());
+            return store;
+        }
+    }
+
+    private int headerSize() {
+        long headerSize = 16;
+        for (String name : columns.keySet()) {
+            headerSize += 8 + name.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return (int) align(headerSize);
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(FILE_ORDER);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of attribute file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Rounds a file position up to a multiple of eight, so that all values are aligned.
+     */
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+}
@@ -0,0 +1,148 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.attribute;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.zetool.container.mapping.Identifiable;
+
+/**
+ * A column of primitive values for elements with ids {@code 0, ..., size - 1}. The values are stored either in an array
+ * on the heap or in a buffer outside of the heap, which can be a direct buffer or a memory mapped file. The size of a
+ * column is fixed.
+ * <p>
+ * Hot loops should access the values by id, which avoids the virtual call of {@link Identifiable#id()}, or directly
+ * in the array of heap columns.
+ *
+ * @param <D> the type of elements the values belong to
+ * @author Jan-Philipp Kappmeier
+ */
+public abstract class Column<D extends Identifiable> {
+
+    /** The number of values. */
+    private final int size;
+    /** The bytes storing the values outside of the heap, {@code null} if the values are stored in an array. */
+    private final ByteBuffer bytes;
+
+    /**
+     * Initializes a column stored in an array on the heap.
+     *
+     * @param size the number of values
+     */
+    Column(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Negative size: " + size);
+        }
+        this.size = size;
+        this.bytes = null;
+    }
+
+    /**
+     * Initializes a column that uses the given bytes as storage.
+     *
+     * @param bytes the bytes, with the byte order of the values
+     * @param size the number of values
+     */
+    Column(ByteBuffer bytes, int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Negative size: " + size);
+        }
+        this.size = size;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Returns the number of values, which is the largest id that can be stored plus one.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the values are stored outside of the heap.
+     *
+     * @return {@code true} if the column is backed by a buffer, {@code false} if it is backed by an array
+     */
+    public boolean isDirect() {
+        return bytes != null;
+    }
+
+    /**
+     * Returns the type of the values.
+     *
+     * @return the type
+     */
+    abstract ColumnType type();
+
+    /**
+     * Throws an exception if the values are stored outside of the heap and thus not available as array.
+     *
+     * @throws IllegalStateException if the column is stored outside of the heap
+     */
+    final void checkHeap() {
+        if (bytes != null) {
+            throw new IllegalStateException("Column is stored outside of the heap");
+        }
+    }
+
+    /**
+     * Copies the values into a byte buffer, starting at its current position. The position is not changed. Values
+     * stored outside of the heap are copied byte by byte and reordered if the byte orders differ.
+     *
+     * @param target the buffer, with sufficient remaining space
+     */
+    final void writeTo(ByteBuffer target) {
+        if (bytes == null) {
+            writeArrayTo(target);
+            return;
+        }
+        int width = type().width();
+        int length = size * width;
+        int offset = target.position();
+        if (bytes.order() == target.order()) {
+            ByteBuffer source = bytes.duplicate();
+            source.clear().limit(length);
+            target.duplicate().put(source);
+        } else {
+            for (int i = 0; i < length; ++i) {
+                int value = i - i % width;
+                target.put(offset + i, bytes.get(value + width - 1 - i % width));
+            }
+        }
+    }
+
+    /**
+     * Copies the values of a heap column into a byte buffer, starting at its current position. The position is not
+     * changed.
+     *
+     * @param target the buffer, with sufficient remaining space
+     */
+    abstract void writeArrayTo(ByteBuffer target);
+
+    /**
+     * Allocates a direct buffer with native byte order for a column.
+     *
+     * @param size the number of values
+     * @param width the number of bytes per value
+     * @return the buffer
+     */
+    static ByteBuffer allocateDirect(int size, int width) {
+        return ByteBuffer.allocateDirect(Math.multiplyExact(size, width)).order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,72 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.attribute;
+
+import java.nio.ByteBuffer;
+
+import org.zetool.container.mapping.Identifiable;
+
+/**
+ * The types of values that can be stored in a {@link Column}, together with their width in bytes.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+enum ColumnType {
+
+    INT(Integer.BYTES, IntColumn::new),
+    LONG(Long.BYTES, LongColumn::new),
+    FLOAT(Float.BYTES, FloatColumn::new),
+    DOUBLE(Double.BYTES, DoubleColumn::new);
+
+    /** The number of bytes per value. */
+    private final int width;
+    /** Creates a column backed by a buffer. */
+    private final Wrapper wrap;
+
+    ColumnType(int width, Wrapper wrap) {
+        this.width = width;
+        this.wrap = wrap;
+    }
+
+    /**
+     * Returns the number of bytes per value.
+     *
+     * @return the width
+     */
+    int width() {
+        return width;
+    }
+
+    /**
+     * Creates a column that uses the given bytes as storage.
+     *
+     * @param bytes the bytes, with the byte order of the values
+     * @param size the number of values
+     * @return the column
+     */
+    Column<Identifiable> wrap(ByteBuffer bytes, int size) {
+        return wrap.wrap(bytes, size);
+    }
+
+    /**
+     * Creates a column of a type backed by a buffer.
+     */
+    @FunctionalInterface
+    private interface Wrapper {
+
+        Column<Identifiable> wrap(ByteBuffer bytes, int size);
+    }
+}
@@ -0,0 +1,150 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.attribute;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+import org.zetool.container.mapping.Identifiable;
+
+/**
+ * A column of {@code double} values. The values are initially zero.
+ *
+ * @param <D> the type of elements the values belong to
+ * @author Jan-Philipp Kappmeier
+ */
+public final class DoubleColumn<D extends Identifiable> extends Column<D> {
+
+    /** The values if stored on the heap, {@code null} otherwise. */
+    private final double[] values;
+    /** The values if stored outside of the heap, {@code null} otherwise. */
+    private final DoubleBuffer buffer;
+
+    /**
+     * Creates a column stored in an array on the heap.
+     *
+     * @param size the number of values
+     */
+    public DoubleColumn(int size) {
+        super(size);
+        this.values = new double[size];
+        this.buffer = null;
+    }
+
+    /**
+     * Creates a column that uses the given bytes as storage.
+     *
+     * @param bytes the bytes, with the byte order of the values
+     * @param size the number of values
+     */
+    DoubleColumn(ByteBuffer bytes, int size) {
+        super(bytes, size);
+        this.values = null;
+        this.buffer = bytes.asDoubleBuffer();
+    }
+
+    /**
+     * Creates a column stored in a direct buffer outside of the heap.
+     *
+     * @param <D> the type of elements the values belong to
+     * @param size the number of values
+     * @return the column
+     */
+    public static <D extends Identifiable> DoubleColumn<D> direct(int size) {
+        return new DoubleColumn<>(allocateDirect(size, ColumnType.DOUBLE.width()), size);
+    }
+
+    @Override
+    ColumnType type() {
+        return ColumnType.DOUBLE;
+    }
+
+    /**
+     * Returns the value of an element. Runtime O(1).
+     *
+     * @param element the element
+     * @return the value
+     */
+    public double get(D element) {
+        return get(element.id());
+    }
+
+    /**
+     * Returns the value of an element given by id. Runtime O(1).
+     *
+     * @param id the id of the element
+     * @return the value
+     */
+    public double get(int id) {
+        return values != null ? values[id] : buffer.get(id);
+    }
+
+    /**
+     * Sets the value of an element. Runtime O(1).
+     *
+     * @param element the element
+     * @param value the value
+     */
+    public void set(D element, double value) {
+        set(element.id(), value);
+    }
+
+    /**
+     * Sets the value of an element given by id. Runtime O(1).
+     *
+     * @param id the id of the element
+     * @param value the value
+     */
+    public void set(int id, double value) {
+        if (values != null) {
+            values[id] = value;
+        } else {
+            buffer.put(id, value);
+        }
+    }
+
+    /**
+     * Sets all values to the same value. Runtime O(size).
+     *
+     * @param value the value
+     */
+    public void fill(double value) {
+        if (values != null) {
+            Arrays.fill(values, value);
+        } else {
+            for (int id = 0; id < size(); ++id) {
+                buffer.put(id, value);
+            }
+        }
+    }
+
+    /**
+     * Returns the array containing the values of a heap column. Changes of the array are reflected by the column.
+     *
+     * @return the values indexed by id
+     * @throws IllegalStateException if the column is stored outside of the heap
+     */
+    public double[] array() {
+        checkHeap();
+        return values;
+    }
+
+    @Override
+    void writeArrayTo(ByteBuffer target) {
+        target.duplicate().order(target.order()).asDoubleBuffer().put(values);
+    }
+}
@@ -0,0 +1,150 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.attribute;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import org.zetool.container.mapping.Identifiable;
+
+/**
+ * A column of {@code float} values. The values are initially zero.
+ *
+ * @param <D> the type of elements the values belong to
+ * @author Jan-Philipp Kappmeier
+ */
+public final class FloatColumn<D extends Identifiable> extends Column<D> {
+
+    /** The values if stored on the heap, {@code null} otherwise. */
+    private final float[] values;
+    /** The values if stored outside of the heap, {@code null} otherwise. */
+    private final FloatBuffer buffer;
+
+    /**
+     * Creates a column stored in an array on the heap.
+     *
+     * @param size the number of values
+     */
+    public FloatColumn(int size) {
+        super(size);
+        this.values = new float[size];
+        this.buffer = null;
+    }
+
+    /**
+     * Creates a column that uses the given bytes as storage.
+     *
+     * @param bytes the bytes, with the byte order of the values
+     * @param size the number of values
+     */
+    FloatColumn(ByteBuffer bytes, int size) {
+        super(bytes, size);
+        this.values = null;
+        this.buffer = bytes.asFloatBuffer();
+    }
+
+    /**
+     * Creates a column stored in a direct buffer outside of the heap.
+     *
+     * @param <D> the type of elements the values belong to
+     * @param size the number of values
+     * @return the column
+     */
+    public static <D extends Identifiable> FloatColumn<D> direct(int size) {
+        return new FloatColumn<>(allocateDirect(size, ColumnType.FLOAT.width()), size);
+    }
+
+    @Override
+    ColumnType type() {
+        return ColumnType.FLOAT;
+    }
+
+    /**
+     * Returns the value of an element. Runtime O(1).
+     *
+     * @param element the element
+     * @return the value
+     */
+    public float get(D element) {
+        return get(element.id());
+    }
+
+    /**
+     * Returns the value of an element given by id. Runtime O(1).
+     *
+     * @param id the id of the element
+     * @return the value
+     */
+    public float get(int id) {
+        return values != null ? values[id] : buffer.get(id);
+    }
+
+    /**
+     * Sets the value of an element. Runtime O(1).
+     *
+     * @param element the element
+     * @param value the value
+     */
+    public void set(D element, float value) {
+        set(element.id(), value);
+    }
+
+    /**
+     * Sets the value of an element given by id. Runtime O(1).
+     *
+     * @param id the id of the element
+     * @param value the value
+     */
+    public void set(int id, float value) {
+        if (values != null) {
+            values[id] = value;
+        } else {
+            buffer.put(id, value);
+        }
+    }
+
+    /**
+     * Sets all values to the same value. Runtime O(size).
+     *
+     * @param value the value
+     */
+    public void fill(float value) {
+        if (values != null) {
+            Arrays.fill(values, value);
+        } else {
+            for (int id = 0; id < size(); ++id) {
+                buffer.put(id, value);
+            }
+        }
+    }
+
+    /**
+     * Returns the array containing the values of a heap column. Changes of the array are reflected by the column.
+     *
+     * @return the values indexed by id
+     * @throws IllegalStateException if the column is stored outside of the heap
+     */
+    public float[] array() {
+        checkHeap();
+        return values;
+    }
+
+    @Override
+    void writeArrayTo(ByteBuffer target) {
+        target.duplicate().order(target.order()).asFloatBuffer().put(values);
+    }
+}
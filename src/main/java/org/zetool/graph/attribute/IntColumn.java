@@ -0,0 +1,302 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.attribute;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import org.zetool.container.mapping.Identifiable;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+
+/**
+ * A column of {@code int} values. The values are initially zero. Columns can be passed to algorithms expecting an
+ * {@link IdentifiableIntegerMapping} via the view returned by {@link #asMapping()}.
+ *
+ * @param <D> the type of elements the values belong to
+ * @author Jan-Philipp Kappmeier
+ */
+public final class IntColumn<D extends Identifiable> extends Column<D> {
+
+    /** The values if stored on the heap, {@code null} otherwise. */
+    private final int[] values;
+    /** The values if stored outside of the heap, {@code null} otherwise. */
+    private final IntBuffer buffer;
+
+    /**
+     * Creates a column stored in an array on the heap.
+     *
+     * @param size the number of values
+     */
+    public IntColumn(int size) {
+        super(size);
+        this.values = new int[size];
+        this.buffer = null;
+    }
+
+    /**
+     * Creates a column that uses the given bytes as storage.
+     *
+     * @param bytes the bytes, with the byte order of the values
+     * @param size the number of values
+     */
+    IntColumn(ByteBuffer bytes, int size) {
+        super(bytes, size);
+        this.values = null;
+        this.buffer = bytes.asIntBuffer();
+    }
+
+    /**
+     * Creates a column stored in a direct buffer outside of the heap.
+     *
+     * @param <D> the type of elements the values belong to
+     * @param size the number of values
+     * @return the column
+     */
+    public static <D extends Identifiable> IntColumn<D> direct(int size) {
+        return new IntColumn<>(allocateDirect(size, ColumnType.INT.width()), size);
+    }
+
+    @Override
+    ColumnType type() {
+        return ColumnType.INT;
+    }
+
+    /**
+     * Returns the value of an element. Runtime O(1).
+     *
+     * @param element the element
+     * @return the value
+     */
+    public int get(D element) {
+        return get(element.id());
+    }
+
+    /**
+     * Returns the value of an element given by id. Runtime O(1).
+     *
+     * @param id the id of the element
+     * @return the value
+     */
+    public int get(int id) {
+        return values != null ? values[id] : buffer.get(id);
+    }
+
+    /**
+     * Sets the value of an element. Runtime O(1).
+     *
+     * @param element the element
+     * @param value the value
+     */
+    public void set(D element, int value) {
+        set(element.id(), value);
+    }
+
+    /**
+     * Sets the value of an element given by id. Runtime O(1).
+     *
+     * @param id the id of the element
+     * @param value the value
+     */
+    public void set(int id, int value) {
+        if (values != null) {
+            values[id] = value;
+        } else {
+            buffer.put(id, value);
+        }
+    }
+
+    /**
+     * Sets all values to the same value. Runtime O(size).
+     *
+     * @param value the value
+     */
+    public void fill(int value) {
+        if (values != null) {
+            Arrays.fill(values, value);
+        } else {
+            for (int id = 0; id < size(); ++id) {
+                buffer.put(id, value);
+            }
+        }
+    }
+
+    /**
+     * Returns the array containing the values of a heap column. Changes of the array are reflected by the column.
+     *
+     * @return the values indexed by id
+     * @throws IllegalStateException if the column is stored outside of the heap
+     */
+    public int[] array() {
+        checkHeap();
+        return values;
+    }
+
+    /**
+     * Copies the values of the given elements from a mapping. Runtime O(number of elements).
+     *
+     * @param elements the elements
+     * @param mapping the values
+     */
+    public void copyFrom(Iterable<D> elements, IdentifiableIntegerMapping<D> mapping) {
+        for (D element : elements) {
+            set(element, mapping.get(element));
+        }
+    }
+
+    /**
+     * Returns a view of the column as mapping, so that it can be passed to algorithms that do not accept columns. The
+     * view reads and writes the values of the column directly, for heap columns as well as for columns outside of the
+     * heap; nothing is copied. The domain size of the view is the size of the column and cannot be changed. Algorithms
+     * accepting a column should be given the column itself, as each access of the view is an additional call.
+     * Runtime O(1).
+     *
+     * @return the values as mapping
+     */
+    public IdentifiableIntegerMapping<D> asMapping() {
+        return new ColumnMapping();
+    }
+
+    /**
+     * A mapping that delegates all accesses to the column. The array inherited from the mapping remains empty, so every
+     * public method of the mapping is overridden. Views are equal if they contain the same values.
+     */
+    private class ColumnMapping extends IdentifiableIntegerMapping<D> {
+
+        ColumnMapping() {
+            super(0);
+        }
+
+        @Override
+        public int get(D identifiableObject) {
+            return IntColumn.this.get(identifiableObject);
+        }
+
+        @Override
+        public void set(D identifiableObject, int value) {
+            IntColumn.this.set(identifiableObject, value);
+        }
+
+        @Override
+        public void add(D identifiableObject, int value) {
+            IntColumn.this.set(identifiableObject, value);
+        }
+
+        @Override
+        public void increase(D identifiableObject, int amount) {
+            IntColumn.this.set(identifiableObject, IntColumn.this.get(identifiableObject) + amount);
+        }
+
+        @Override
+        public void decrease(D identifiableObject, int amount) {
+            IntColumn.this.set(identifiableObject, IntColumn.this.get(identifiableObject) - amount);
+        }
+
+        @Override
+        public int getDomainSize() {
+            return size();
+        }
+
+        @Override
+        public void setDomainSize(int value) {
+            if (value != size()) {
+                throw new UnsupportedOperationException("The domain size of a column cannot be changed");
+            }
+        }
+
+        @Override
+        public boolean isDefinedFor(D identifiableObject) {
+            return identifiableObject.id() >= 0 && identifiableObject.id() < size();
+        }
+
+        @Override
+        public int getMaximum() {
+            int maximum = Integer.MIN_VALUE;
+            for (int id = 0; id < size(); ++id) {
+                maximum = Math.max(maximum, IntColumn.this.get(id));
+            }
+            return maximum;
+        }
+
+        @Override
+        public int getMinimum() {
+            int minimum = Integer.MAX_VALUE;
+            for (int id = 0; id < size(); ++id) {
+                minimum = Math.min(minimum, IntColumn.this.get(id));
+            }
+            return minimum;
+        }
+
+        @Override
+        public IdentifiableIntegerMapping<D> clone() {
+            IntColumn<D> copy = new IntColumn<>(size());
+            for (int id = 0; id < size(); ++id) {
+                copy.values[id] = IntColumn.this.get(id);
+            }
+            return copy.asMapping();
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof IntColumn.ColumnMapping)) {
+                return false;
+            }
+            IntColumn<?>.ColumnMapping other = (IntColumn<?>.ColumnMapping) object;
+            if (other.getDomainSize() != size()) {
+                return false;
+            }
+            for (int id = 0; id < size(); ++id) {
+                if (other.get(id) != IntColumn.this.get(id)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 1;
+            for (int id = 0; id < size(); ++id) {
+                hash = 31 * hash + IntColumn.this.get(id);
+            }
+            return hash;
+        }
+
+        /**
+         * Returns the value of an element given by id.
+         *
+         * @param id the id of the element
+         * @return the value
+         */
+        private int get(int id) {
+            return IntColumn.this.get(id);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder result = new StringBuilder("[");
+            for (int id = 0; id < size(); ++id) {
+                result.append(id == 0 ? "" : ", ").append(IntColumn.this.get(id));
+            }
+            return result.append(']').toString();
+        }
+    }
+
+    @Override
+    void writeArrayTo(ByteBuffer target) {
+        target.duplicate().order(target.order()).asIntBuffer().put(values);
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * The attribute package provides columns of primitive values for the nodes or edges of a graph, indexed by id. The
+ * columns are stored in arrays on the heap or in direct and memory mapped buffers outside of the heap and can be
+ * saved to and mapped from files by an {@link org.zetool.graph.attribute.AttributeStore}.
+ */
+
+package org.zetool.graph.attribute;
@@ -0,0 +1,95 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.generator;
+
+import org.zetool.graph.Graph;
+import org.zetool.graph.GraphBuilder;
+import org.zetool.graph.Node;
+import org.zetool.graph.visualization.NodePositionMapping;
+
+/**
+ * A generated graph whose nodes have coordinates in the plane. The edges are collected in a {@link GraphBuilder}, so
+ * any graph implementation can be built from them.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class GeometricGraph {
+
+    /** The edges. */
+    private final GraphBuilder builder;
+    /** The x coordinate of each node id. */
+    private final double[] x;
+    /** The y coordinate of each node id. */
+    private final double[] y;
+
+    GeometricGraph(GraphBuilder builder, double[] x, double[] y) {
+        this.builder = builder;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Returns the builder containing the edges.
+     *
+     * @return the builder
+     */
+    public GraphBuilder getBuilder() {
+        return builder;
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return the number of nodes
+     */
+    public int nodeCount() {
+        return x.length;
+    }
+
+    /**
+     * Returns the x coordinate of a node.
+     *
+     * @param node the node id
+     * @return the x coordinate
+     */
+    public double getX(int node) {
+        return x[node];
+    }
+
+    /**
+     * Returns the y coordinate of a node.
+     *
+     * @param node the node id
+     * @return the y coordinate
+     */
+    public double getY(int node) {
+        return y[node];
+    }
+
+    /**
+     * Creates the positions of the nodes of a graph built from the builder. Runtime O(n).
+     *
+     * @param graph a graph built from the builder
+     * @return the positions of the nodes
+     */
+    public NodePositionMapping<PlanePoint> positions(Graph graph) {
+        NodePositionMapping<PlanePoint> positions = new NodePositionMapping<>(2, x.length);
+        for (Node node : graph.nodes()) {
+            positions.set(node, new PlanePoint(x[node.id()], y[node.id()]));
+        }
+        return positions;
+    }
+}
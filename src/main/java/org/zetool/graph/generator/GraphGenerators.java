@@ -0,0 +1,335 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.generator;
+
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import org.zetool.graph.GraphBuilder;
+
+/**
+ * Seeded generators for large synthetic graphs. The edges are written in parallel into primitive arrays that are
+ * passed to a {@link GraphBuilder}, from which any graph implementation can be built. Nodes have the ids
+ * {@code 0, ..., n - 1}. Each link is generated once; directed graphs contain it in the given direction, undirected
+ * graphs as an undirected edge.
+ * <p>
+ * The random decisions are not drawn from a shared sequence but derived from the seed and the index of the decision
+ * by a hash function, so that the generated graphs only depend on the seed, not on the number of threads or their
+ * scheduling.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public final class GraphGenerators {
+
+    /** The minimal number of elements that are generated in parallel. */
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+    /** The increment of the hash sequence, the golden ratio as 64 bit fraction. */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Private constructor for utility class.
+     */
+    private GraphGenerators() {
+    }
+
+    /**
+     * Generates a grid of {@code width * height} nodes, where node {@code (column, row)} has the id
+     * {@code row * width + column} and is positioned at {@code (column, row)}. Horizontally and vertically adjacent
+     * nodes are linked; with diagonals, also diagonally adjacent nodes are linked, as the cells of a floor plan.
+     * Runtime O(n).
+     *
+     * @param width the number of columns
+     * @param height the number of rows
+     * @param diagonals whether diagonally adjacent nodes are linked
+     * @return the grid with node positions
+     */
+    public static GeometricGraph grid(int width, int height, boolean diagonals) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Invalid grid size " + width + "x" + height);
+        }
+        int nodeCount = Math.multiplyExact(width, height);
+        int perRow = (width - 1) + width + (diagonals ? 2 * (width - 1) : 0);
+        int edgeCount = Math.toIntExact((long) perRow * (height - 1) + (width - 1));
+        int[] sources = new int[edgeCount];
+        int[] targets = new int[edgeCount];
+        range(height).forEach(row -> {
+            int index = row * perRow;
+            for (int column = 0; column < width; ++column) {
+                int node = row * width + column;
+                if (column + 1 < width) {
+                    sources[index] = node;
+                    targets[index++] = node + 1;
+                }
+                if (row + 1 < height) {
+                    sources[index] = node;
+                    targets[index++] = node + width;
+                    if (diagonals && column + 1 < width) {
+                        sources[index] = node;
+                        targets[index++] = node + width + 1;
+                    }
+                    if (diagonals && column > 0) {
+                        sources[index] = node;
+                        targets[index++] = node + width - 1;
+                    }
+                }
+            }
+        });
+        double[] x = new double[nodeCount];
+        double[] y = new double[nodeCount];
+        range(nodeCount).forEach(node -> {
+            x[node] = node % width;
+            y[node] = node / width;
+        });
+        return new GeometricGraph(GraphBuilder.of(nodeCount, sources, targets), x, y);
+    }
+
+    /**
+     * Generates a random geometric graph. The nodes are placed uniformly at random in the unit square, and two nodes
+     * are linked if their euclidean distance is at most the radius. The link {@code (u, v)} is generated with
+     * {@code u < v}. Runtime O(n + m) expected.
+     *
+     * @param nodeCount the number of nodes
+     * @param radius the maximal distance of linked nodes
+     * @param seed the seed
+     * @return the graph with node positions
+     */
+    public static GeometricGraph randomGeometric(int nodeCount, double radius, long seed) {
+        if (nodeCount < 0 || !(radius > 0)) {
+            throw new IllegalArgumentException("Invalid parameters: " + nodeCount + " nodes, radius " + radius);
+        }
+        double[] x = new double[nodeCount];
+        double[] y = new double[nodeCount];
+        range(nodeCount).forEach(node -> {
+            x[node] = uniform(seed, 2L * node);
+            y[node] = uniform(seed, 2L * node + 1);
+        });
+
+        int cellsPerSide = (int) Math.max(1, Math.min(Math.floor(1 / radius), Math.floor(Math.sqrt(nodeCount))));
+        int[] cellOf = new int[nodeCount];
+        int[] cellStart = new int[cellsPerSide * cellsPerSide + 1];
+        for (int node = 0; node < nodeCount; ++node) {
+            int column = Math.min(cellsPerSide - 1, (int) (x[node] * cellsPerSide));
+            int row = Math.min(cellsPerSide - 1, (int) (y[node] * cellsPerSide));
+            cellOf[node] = row * cellsPerSide + column;
+            cellStart[cellOf[node] + 1]++;
+        }
+        for (int cell = 1; cell < cellStart.length; ++cell) {
+            cellStart[cell] += cellStart[cell - 1];
+        }
+        int[] cellNodes = new int[nodeCount];
+        int[] fill = cellStart.clone();
+        for (int node = 0; node < nodeCount; ++node) {
+            cellNodes[fill[cellOf[node]]++] = node;
+        }
+
+        NeighborVisitor visitor = (node, emit) -> {
+            int column = cellOf[node] % cellsPerSide;
+            int row = cellOf[node] / cellsPerSide;
+            for (int neighborRow = Math.max(0, row - 1); neighborRow <= Math.min(cellsPerSide - 1, row + 1);
+                    ++neighborRow) {
+                for (int neighborColumn = Math.max(0, column - 1);
+                        neighborColumn <= Math.min(cellsPerSide - 1, column + 1); ++neighborColumn) {
+                    int cell = neighborRow * cellsPerSide + neighborColumn;
+                    for (int k = cellStart[cell]; k < cellStart[cell + 1]; ++k) {
+                        int other = cellNodes[k];
+                        double dx = x[node] - x[other];
+                        double dy = y[node] - y[other];
+                        if (other > node && dx * dx + dy * dy <= radius * radius) {
+                            emit.accept(other);
+                        }
+                    }
+                }
+            }
+        };
+        int[] offsets = new int[nodeCount + 1];
+        range(nodeCount).forEach(node -> {
+            int[] count = new int[1];
+            visitor.visit(node, other -> count[0]++);
+            offsets[node + 1] = count[0];
+        });
+        for (int node = 1; node <= nodeCount; ++node) {
+            offsets[node] = Math.addExact(offsets[node], offsets[node - 1]);
+        }
+        int[] sources = new int[offsets[nodeCount]];
+        int[] targets = new int[offsets[nodeCount]];
+        range(nodeCount).forEach(node -> {
+            int[] index = {offsets[node]};
+            visitor.visit(node, other -> {
+                sources[index[0]] = node;
+                targets[index[0]++] = other;
+            });
+        });
+        return new GeometricGraph(GraphBuilder.of(nodeCount, sources, targets), x, y);
+    }
+
+    /**
+     * Generates an Erd&#337;s-R&eacute;nyi graph with a fixed number of edges. The end points of each edge are chosen
+     * uniformly at random among all distinct pairs of nodes; parallel edges are possible, loops are not. Runtime
+     * O(m).
+     *
+     * @param nodeCount the number of nodes, at least two if there are edges
+     * @param edgeCount the number of edges
+     * @param seed the seed
+     * @return the builder containing the edges
+     */
+    public static GraphBuilder erdosRenyi(int nodeCount, int edgeCount, long seed) {
+        if (nodeCount < 0 || edgeCount < 0 || (edgeCount > 0 && nodeCount < 2)) {
+            throw new IllegalArgumentException("Invalid parameters: " + nodeCount + " nodes, " + edgeCount + " edges");
+        }
+        int[] sources = new int[edgeCount];
+        int[] targets = new int[edgeCount];
+        range(edgeCount).forEach(edge -> {
+            int source = uniform(seed, 2L * edge, nodeCount);
+            int target = uniform(seed, 2L * edge + 1, nodeCount - 1);
+            sources[edge] = source;
+            targets[edge] = target >= source ? target + 1 : target;
+        });
+        return GraphBuilder.of(nodeCount, sources, targets);
+    }
+
+    /**
+     * Generates a graph by the recursive matrix model of Chakrabarti, Zhan and Faloutsos, as used by the Graph 500
+     * benchmark. The graph has {@code 2^scale} nodes. Each edge is placed by recursively choosing one of the four
+     * quadrants of the adjacency matrix with probabilities {@code a}, {@code b}, {@code c} and {@code 1 - a - b - c}.
+     * The degree distribution is skewed and the graph may contain loops and parallel edges. Runtime O(m * scale).
+     *
+     * @param scale the logarithm of the number of nodes, at most 30
+     * @param edgeCount the number of edges
+     * @param a the probability of the upper left quadrant
+     * @param b the probability of the upper right quadrant
+     * @param c the probability of the lower left quadrant
+     * @param seed the seed
+     * @return the builder containing the edges
+     */
+    public static GraphBuilder rmat(int scale, int edgeCount, double a, double b, double c, long seed) {
+        if (scale < 0 || scale > 30 || edgeCount < 0 || a < 0 || b < 0 || c < 0 || a + b + c > 1) {
+            throw new IllegalArgumentException("Invalid parameters: scale " + scale + ", " + edgeCount
+                    + " edges, probabilities " + a + ", " + b + ", " + c);
+        }
+        int[] sources = new int[edgeCount];
+        int[] targets = new int[edgeCount];
+        range(edgeCount).forEach(edge -> {
+            int source = 0;
+            int target = 0;
+            for (int level = 0; level < scale; ++level) {
+                double p = uniform(seed, (long) edge * scale + level);
+                source <<= 1;
+                target <<= 1;
+                if (p >= a + b + c) {
+                    source |= 1;
+                    target |= 1;
+                } else if (p >= a + b) {
+                    source |= 1;
+                } else if (p >= a) {
+                    target |= 1;
+                }
+            }
+            sources[edge] = source;
+            targets[edge] = target;
+        });
+        return GraphBuilder.of(1 << scale, sources, targets);
+    }
+
+    /**
+     * Generates a graph by the preferential attachment model of Barab&aacute;si and Albert. Starting with node 0, each
+     * further node {@code v} is linked to {@code d} earlier nodes, each chosen with a probability proportional to its
+     * degree. The link {@code (v, u)} is generated with {@code u < v}; parallel edges are possible, loops are not.
+     * <p>
+     * The edges are generated in parallel following Sanders and Schulz: the end points of all links form a sequence
+     * in which the target of a link is a uniformly chosen earlier entry. The earlier entry is resolved independently by
+     * recomputing the links it belongs to, which takes expected constant time. Runtime O(n * d) expected.
+     * <p>
+     * Sanders, Peter and Schulz, Christian. Scalable generation of scale-free graphs. Information Processing Letters,
+     * 2016, 116(7), 489-491.
+     *
+     * @param nodeCount the number of nodes
+     * @param d the number of links of each node except node 0
+     * @param seed the seed
+     * @return the builder containing the edges
+     */
+    public static GraphBuilder barabasiAlbert(int nodeCount, int d, long seed) {
+        if (nodeCount < 1 || d < 1 || 2L * (nodeCount - 1) * d > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid parameters: " + nodeCount + " nodes, degree " + d);
+        }
+        int edgeCount = (nodeCount - 1) * d;
+        int[] sources = new int[edgeCount];
+        int[] targets = new int[edgeCount];
+        range(edgeCount).forEach(edge -> {
+            sources[edge] = edge / d + 1;
+            targets[edge] = attachmentTarget(edge, d, seed);
+        });
+        return GraphBuilder.of(nodeCount, sources, targets);
+    }
+
+    /**
+     * Computes the target of a link in the preferential attachment model. The entries {@code 2k} and {@code 2k + 1}
+     * of the sequence of end points are the source and the target of link {@code k}. The target is a uniformly chosen
+     * entry belonging to the links of earlier nodes.
+     */
+    private static int attachmentTarget(int edge, int d, long seed) {
+        int current = edge;
+        while (true) {
+            int source = current / d + 1;
+            if (source == 1) {
+                return 0;
+            }
+            int entry = uniform(seed, current, 2 * (source - 1) * d);
+            if ((entry & 1) == 0) {
+                return entry / 2 / d + 1;
+            }
+            current = entry / 2;
+        }
+    }
+
+    private static IntStream range(int count) {
+        IntStream range = IntStream.range(0, count);
+        return count >= PARALLEL_THRESHOLD ? range.parallel() : range;
+    }
+
+    /**
+     * Returns the {@code index}-th value of the hash sequence of a seed, computed by the mixing function of
+     * {@link java.util.SplittableRandom}.
+     */
+    private static long hash(long seed, long index) {
+        long z = seed + (index + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns a uniformly distributed value in {@code [0, bound)}.
+     */
+    private static int uniform(long seed, long index, int bound) {
+        return (int) (((hash(seed, index) >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * Returns a uniformly distributed value in {@code [0, 1)}.
+     */
+    private static double uniform(long seed, long index) {
+        return (hash(seed, index) >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Enumerates the neighbors of a node in a deterministic order.
+     */
+    @FunctionalInterface
+    private interface NeighborVisitor {
+
+        void visit(int node, IntConsumer emit);
+    }
+}
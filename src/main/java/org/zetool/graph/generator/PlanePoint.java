@@ -0,0 +1,96 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.generator;
+
+import org.zetool.math.geom.NDimensional;
+
+/**
+ * An immutable point in the plane.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public final class PlanePoint implements NDimensional<Double> {
+
+    /** The x coordinate. */
+    private final double x;
+    /** The y coordinate. */
+    private final double y;
+
+    /**
+     * Creates a point.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     */
+    public PlanePoint(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Returns the x coordinate.
+     *
+     * @return the x coordinate
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Returns the y coordinate.
+     *
+     * @return the y coordinate
+     */
+    public double getY() {
+        return y;
+    }
+
+    @Override
+    public int getDimension() {
+        return 2;
+    }
+
+    @Override
+    public Double get(int i) {
+        switch (i) {
+            case 0:
+                return x;
+            case 1:
+                return y;
+            default:
+                throw new IndexOutOfBoundsException("Dimension " + i + " of a point in the plane");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof PlanePoint)) {
+            return false;
+        }
+        PlanePoint other = (PlanePoint) o;
+        return Double.compare(x, other.x) == 0 && Double.compare(y, other.y) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(x) + Double.hashCode(y);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + x + "," + y + ")";
+    }
+}
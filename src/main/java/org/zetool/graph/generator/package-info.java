@@ -0,0 +1,6 @@
+/**
+ * The generator package provides seeded generators of large synthetic graphs, e.g. grids, random geometric graphs and
+ * scale-free graphs, for benchmarks and load tests.
+ */
+
+package org.zetool.graph.generator;
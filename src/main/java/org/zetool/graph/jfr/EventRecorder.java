@@ -0,0 +1,115 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.jfr;
+
+/**
+ * Reports bulk graph mutations, graph serialization and algorithm runs to the Java Flight Recorder. The recorder
+ * returned by {@link #get()} creates flight recorder events if the {@code jdk.jfr} module is available and does
+ * nothing otherwise, e.g., on Java 8 before update 262 or on runtime images without the module. Code using the
+ * recorder therefore does not depend on {@code jdk.jfr}. Usage:
+ * <pre>{@code
+ * EventRecorder.Mutation event = EventRecorder.get().startMutation();
+ * // change the graph
+ * event.finish(this, "setEdgeCapacity", newCapacity);
+ * }</pre>
+ * Events are only created if they are enabled in a running recording. Otherwise starting an event returns a shared
+ * instance doing nothing, which costs about as much as an empty method call.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public interface EventRecorder {
+
+    /**
+     * A started event for a bulk change of a graph.
+     */
+    @FunctionalInterface
+    interface Mutation {
+
+        /**
+         * Ends the timing and commits the event if it exceeds the threshold of the recording.
+         *
+         * @param graph the changed graph
+         * @param operation the name of the operation
+         * @param elements the number of affected elements or the new capacity
+         */
+        void finish(Object graph, String operation, long elements);
+    }
+
+    /**
+     * A started event for writing graph data to or reading it from a file.
+     */
+    @FunctionalInterface
+    interface Serialization {
+
+        /**
+         * Ends the timing and commits the event if it exceeds the threshold of the recording.
+         *
+         * @param data the written or read object
+         * @param operation the name of the operation
+         * @param path the file
+         * @param bytes the number of bytes of the file
+         */
+        void finish(Object data, String operation, Object path, long bytes);
+    }
+
+    /**
+     * A started event for a run of an algorithm.
+     */
+    @FunctionalInterface
+    interface AlgorithmRun {
+
+        /**
+         * Ends the timing and commits the event if it exceeds the threshold of the recording.
+         *
+         * @param nodesSettled the number of settled nodes
+         * @param edgesScanned the number of scanned edges
+         */
+        void finish(long nodesSettled, long edgesScanned);
+    }
+
+    /**
+     * Returns the recorder. Whether flight recorder events are available is checked once.
+     *
+     * @return the recorder
+     */
+    static EventRecorder get() {
+        return EventRecorders.RECORDER;
+    }
+
+    /**
+     * Starts the timing of a bulk change of a graph.
+     *
+     * @return the started event, or a shared event doing nothing if mutations are not recorded
+     */
+    Mutation startMutation();
+
+    /**
+     * Starts the timing of writing or reading graph data.
+     *
+     * @return the started event, or a shared event doing nothing if serialization is not recorded
+     */
+    Serialization startSerialization();
+
+    /**
+     * Starts the timing of an algorithm run.
+     *
+     * @param algorithm the class of the algorithm
+     * @param nodes the number of nodes of the graph
+     * @param edges the number of edges of the graph
+     * @return the started event, or {@code null} if algorithm runs are not recorded
+     */
+    AlgorithmRun startAlgorithmRun(Class<?> algorithm, int nodes, int edges);
+}
@@ -0,0 +1,67 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.jfr;
+
+/**
+ * Holds the {@link EventRecorder} instance. The flight recorder implementation is loaded by name, so that this class
+ * can be loaded without the {@code jdk.jfr} module.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+final class EventRecorders {
+
+    /** The mutation event doing nothing. */
+    static final EventRecorder.Mutation NO_MUTATION = (graph, operation, elements) -> {
+    };
+    /** The serialization event doing nothing. */
+    static final EventRecorder.Serialization NO_SERIALIZATION = (data, operation, path, bytes) -> {
+    };
+    /** The recorder doing nothing, used if the flight recorder is not available. */
+    static final EventRecorder NONE = new EventRecorder() {
+        @Override
+        public Mutation startMutation() {
+            return NO_MUTATION;
+        }
+
+        @Override
+        public Serialization startSerialization() {
+            return NO_SERIALIZATION;
+        }
+
+        @Override
+        public AlgorithmRun startAlgorithmRun(Class<?> algorithm, int nodes, int edges) {
+            return null;
+        }
+    };
+    /** The recorder used by all graphs and algorithms. */
+    static final EventRecorder RECORDER = load();
+
+    /**
+     * Private constructor for utility class.
+     */
+    private EventRecorders() {
+    }
+
+    private static EventRecorder load() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return (EventRecorder) Class.forName("org.zetool.graph.jfr.JfrEventRecorder").getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException ex) {
+            return NONE;
+        }
+    }
+}
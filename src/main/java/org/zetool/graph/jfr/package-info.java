@@ -0,0 +1,9 @@
+/**
+ * The jfr package reports bulk graph mutations, the serialization of graph data and algorithm runs to the Java Flight
+ * Recorder. Graphs and algorithms use the {@link org.zetool.graph.jfr.EventRecorder}, which does not depend on the
+ * {@code jdk.jfr} module. The flight recorder events themselves are compiled from {@code src/main/jfr} and are only
+ * loaded if the module is available. Events are only created and committed if they are enabled in a running recording,
+ * otherwise they cost about as much as an empty method call.
+ */
+
+package org.zetool.graph.jfr;
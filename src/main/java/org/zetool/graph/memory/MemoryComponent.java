@@ -0,0 +1,41 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.memory;
+
+/**
+ * The parts of a graph that memory is attributed to. Objects reachable from several parts are attributed to the first
+ * part in declaration order, for example {@link org.zetool.graph.Node} objects referenced by edges and adjacency
+ * lists are counted for {@link #NODES}.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public enum MemoryComponent {
+    /** The node objects and the structures storing them. */
+    NODES,
+    /** The edge objects and the structures storing them. */
+    EDGES,
+    /**
+     * Separate state used to hide and show nodes and edges. Hidden flags stored within the node and edge sets are
+     * counted for {@link #NODES} and {@link #EDGES}.
+     */
+    HIDDEN_STATE,
+    /** Incident, incoming and outgoing edge lists and their offsets. */
+    ADJACENCY,
+    /** Stored node degrees. */
+    DEGREES,
+    /** Everything else, including the graph object itself. */
+    OTHER
+}
@@ -0,0 +1,379 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.memory;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.zetool.graph.Graph;
+
+/**
+ * Estimates the heap memory retained by graphs and other objects, such as mappings. The estimator walks all objects
+ * reachable from the root via instance fields and sums their sizes according to the object layout of the running JVM,
+ * i.e. the header size, the reference size and the alignment. The values are estimates, because the exact field
+ * packing of the JVM is not modeled.
+ * <p>
+ * Classes of the JDK are not inspected by reflection. Their size is computed from their declared fields, and the
+ * contents of collections, maps and strings are estimated from their size using the layout of the common
+ * implementations. Class objects, class loaders, threads and enum constants are shared and never counted.
+ * <p>
+ * For graphs, the fields of the graph object are attributed to {@link MemoryComponent components} by their name.
+ * Fields are visited in the order of the components, such that shared objects are attributed to the first component.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public final class MemoryEstimator {
+
+    /** The components of the fields of the graph implementations by field name. */
+    private static final Map<String, MemoryComponent> COMPONENTS = new HashMap<>();
+
+    static {
+        register(MemoryComponent.NODES, "nodes", "nodeById", "nodePosition");
+        register(MemoryComponent.EDGES, "edges", "edgeById", "edgePosition", "segments");
+        register(MemoryComponent.ADJACENCY, "incidentEdges", "incomingEdges", "outgoingEdges", "adjacentEdges",
+                "incident", "incidentOffsets", "incoming", "incomingOffsets", "outgoing", "outgoingOffsets",
+                "incomingPosition", "outgoingPosition", "successors", "predecessors");
+        register(MemoryComponent.HIDDEN_STATE, "visibleEdges", "tempRemovedEdgeStack", "tempRemovedNodeStack");
+        register(MemoryComponent.DEGREES, "degree", "indegree", "outdegree", "inDegree", "outDegree");
+    }
+
+    /** The layout of the running JVM. */
+    private static final Layout LAYOUT = Layout.detect();
+    /** The instance fields of each class. */
+    private static final ClassValue<ClassInfo> CLASS_INFO = new ClassValue<ClassInfo>() {
+        @Override
+        protected ClassInfo computeValue(Class<?> type) {
+            return new ClassInfo(type);
+        }
+    };
+
+    /**
+     * Private constructor for utility class.
+     */
+    private MemoryEstimator() {
+    }
+
+    private static void register(MemoryComponent component, String... fields) {
+        for (String field : fields) {
+            COMPONENTS.put(field, component);
+        }
+    }
+
+    /**
+     * Estimates the bytes retained by a graph per component. Runtime O(number of reachable objects).
+     *
+     * @param graph the graph
+     * @return the estimated bytes per component
+     */
+    public static MemoryReport estimate(Graph graph) {
+        Walker walker = new Walker();
+        EnumMap<MemoryComponent, Long> bytes = new EnumMap<>(MemoryComponent.class);
+        for (MemoryComponent component : MemoryComponent.values()) {
+            bytes.put(component, 0L);
+        }
+        walker.visited.put(graph, Boolean.TRUE);
+        bytes.put(MemoryComponent.OTHER, walker.sizeOf(graph));
+
+        List<Field> fields = new ArrayList<>(CLASS_INFO.get(graph.getClass()).references);
+        fields.sort(Comparator.comparing(MemoryEstimator::componentOf));
+        for (Field field : fields) {
+            MemoryComponent component = componentOf(field);
+            bytes.put(component, bytes.get(component) + walker.walk(read(field, graph)));
+        }
+        return new MemoryReport(graph.getClass(), bytes);
+    }
+
+    /**
+     * Estimates the bytes retained by an object and all objects reachable from it. Runtime O(number of reachable
+     * objects).
+     *
+     * @param object the object, may be {@code null}
+     * @return the estimated bytes
+     */
+    public static long estimate(Object object) {
+        return new Walker().walk(object);
+    }
+
+    /**
+     * Estimates the bytes retained by an object that are not shared with other objects. This is useful for mappings
+     * on the nodes or edges of a graph, whose node and edge objects should not be counted. Runtime O(number of
+     * reachable objects).
+     *
+     * @param object the object, may be {@code null}
+     * @param shared the objects whose reachable objects are not counted, for example the graph
+     * @return the estimated bytes reachable from {@code object} but not from {@code shared}
+     */
+    public static long estimateRetained(Object object, Object... shared) {
+        Walker walker = new Walker();
+        for (Object sharedObject : shared) {
+            walker.walk(sharedObject);
+        }
+        return walker.walk(object);
+    }
+
+    private static MemoryComponent componentOf(Field field) {
+        return COMPONENTS.getOrDefault(field.getName(), MemoryComponent.OTHER);
+    }
+
+    private static Object read(Field field, Object object) {
+        try {
+            return field.get(object);
+        } catch (IllegalAccessException ex) {
+            return null;
+        }
+    }
+
+    private static boolean isJdkClass(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.")
+                || name.startsWith("sun.") || name.startsWith("com.sun.");
+    }
+
+    private static long align(long size) {
+        return (size + LAYOUT.alignment - 1) / LAYOUT.alignment * LAYOUT.alignment;
+    }
+
+    private static int sizeOfType(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return LAYOUT.referenceSize;
+        } else if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    /**
+     * Traverses the object graph, each object is counted at most once.
+     */
+    private static class Walker {
+
+        private final Map<Object, Boolean> visited = new IdentityHashMap<>();
+        private final ArrayDeque<Object> stack = new ArrayDeque<>();
+
+        /**
+         * Returns the bytes of all objects reachable from an object that have not been visited before.
+         *
+         * @param root the object
+         * @return the bytes of the newly visited objects
+         */
+        long walk(Object root) {
+            long bytes = 0;
+            push(root);
+            while (!stack.isEmpty()) {
+                Object object = stack.pop();
+                bytes += sizeOf(object);
+                if (object instanceof Object[]) {
+                    for (Object element : (Object[]) object) {
+                        push(element);
+                    }
+                } else if (!object.getClass().isArray()) {
+                    for (Field field : CLASS_INFO.get(object.getClass()).references) {
+                        push(read(field, object));
+                    }
+                    pushContents(object);
+                }
+            }
+            return bytes;
+        }
+
+        private void push(Object object) {
+            if (object == null || object instanceof Class || object instanceof ClassLoader || object instanceof Thread
+                    || object instanceof Enum) {
+                return;
+            }
+            if (visited.put(object, Boolean.TRUE) == null) {
+                stack.push(object);
+            }
+        }
+
+        /**
+         * Pushes the elements of JDK containers, whose fields are not inspected.
+         *
+         * @param object the object
+         */
+        private void pushContents(Object object) {
+            if (!CLASS_INFO.get(object.getClass()).jdkContainer) {
+                return;
+            }
+            if (object instanceof Collection) {
+                for (Object element : (Collection<?>) object) {
+                    push(element);
+                }
+            } else if (object instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
+                    push(entry.getKey());
+                    push(entry.getValue());
+                }
+            } else if (object instanceof AtomicReferenceArray) {
+                AtomicReferenceArray<?> array = (AtomicReferenceArray<?>) object;
+                for (int i = 0; i < array.length(); ++i) {
+                    push(array.get(i));
+                }
+            }
+        }
+
+        /**
+         * Returns the size of a single object, including the internal storage of JDK containers.
+         *
+         * @param object the object
+         * @return the estimated bytes
+         */
+        long sizeOf(Object object) {
+            Class<?> type = object.getClass();
+            if (type.isArray()) {
+                return align(LAYOUT.arrayHeader + (long) Array.getLength(object) * sizeOfType(type.getComponentType()));
+            }
+            ClassInfo info = CLASS_INFO.get(type);
+            return info.shallowSize + (info.jdkContainer ? contentSize(object) : 0);
+        }
+
+        private long contentSize(Object object) {
+            long referenceArray = LAYOUT.arrayHeader;
+            if (object instanceof LinkedList) {
+                return ((Collection<?>) object).size() * align(LAYOUT.objectHeader + 3L * LAYOUT.referenceSize);
+            } else if (object instanceof Set || object instanceof Map) {
+                int size = object instanceof Set ? ((Set<?>) object).size() : ((Map<?, ?>) object).size();
+                long table = align(referenceArray + (long) tableSize(size) * LAYOUT.referenceSize);
+                return table + size * align(LAYOUT.objectHeader + 4 + 3L * LAYOUT.referenceSize);
+            } else if (object instanceof Collection) {
+                return align(referenceArray + (long) ((Collection<?>) object).size() * LAYOUT.referenceSize);
+            } else if (object instanceof AtomicReferenceArray) {
+                return align(referenceArray + (long) ((AtomicReferenceArray<?>) object).length() * LAYOUT.referenceSize);
+            } else if (object instanceof String) {
+                return align(LAYOUT.arrayHeader + 2L * ((String) object).length());
+            }
+            return 0;
+        }
+
+        private int tableSize(int size) {
+            int table = 16;
+            while (table * 3L / 4 < size) {
+                table <<= 1;
+            }
+            return table;
+        }
+    }
+
+    /**
+     * The instance size and the followed reference fields of a class.
+     */
+    private static class ClassInfo {
+
+        /** The size of an instance without referenced objects. */
+        final long shallowSize;
+        /** The accessible reference fields declared outside of the JDK. */
+        final List<Field> references;
+        /** Whether the class is or extends a JDK container whose contents are estimated. */
+        final boolean jdkContainer;
+
+        ClassInfo(Class<?> type) {
+            long size = LAYOUT.objectHeader;
+            List<Field> fields = new ArrayList<>();
+            boolean container = false;
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                boolean jdk = isJdkClass(c);
+                container |= jdk && c != Object.class && isContainer(type);
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    size += sizeOfType(field.getType());
+                    if (!jdk && !field.getType().isPrimitive() && makeAccessible(field)) {
+                        fields.add(field);
+                    }
+                }
+            }
+            shallowSize = align(size);
+            references = Collections.unmodifiableList(fields);
+            jdkContainer = container;
+        }
+
+        private static boolean isContainer(Class<?> type) {
+            return Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)
+                    || type == AtomicReferenceArray.class || type == String.class;
+        }
+
+        private static boolean makeAccessible(Field field) {
+            try {
+                field.setAccessible(true);
+                return true;
+            } catch (RuntimeException ex) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * The object layout of the JVM.
+     */
+    private static class Layout {
+
+        /** The size of a reference. */
+        final int referenceSize;
+        /** The size of an object header. */
+        final int objectHeader;
+        /** The size of an array header, including the length. */
+        final int arrayHeader;
+        /** The alignment of objects. */
+        final int alignment;
+
+        Layout(boolean compressedOops, boolean compressedClassPointers, int alignment) {
+            this.referenceSize = compressedOops ? 4 : 8;
+            this.objectHeader = compressedClassPointers ? 12 : 16;
+            this.arrayHeader = compressedClassPointers ? 16 : 24;
+            this.alignment = alignment;
+        }
+
+        /**
+         * Reads the layout from the HotSpot options. Defaults to compressed references and 8 byte alignment, the
+         * default for heaps below 32 GB.
+         *
+         * @return the layout
+         */
+        static Layout detect() {
+            try {
+                HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+                boolean compressedOops = Boolean.parseBoolean(bean.getVMOption("UseCompressedOops").getValue());
+                boolean compressedClassPointers
+                        = Boolean.parseBoolean(bean.getVMOption("UseCompressedClassPointers").getValue());
+                int alignment = Integer.parseInt(bean.getVMOption("ObjectAlignmentInBytes").getValue());
+                return new Layout(compressedOops, compressedClassPointers, alignment);
+            } catch (RuntimeException | LinkageError ex) {
+                return new Layout(true, true, 8);
+            }
+        }
+    }
+}
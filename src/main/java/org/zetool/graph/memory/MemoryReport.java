@@ -0,0 +1,84 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.memory;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The estimated retained bytes of a graph per {@link MemoryComponent component}.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public final class MemoryReport {
+
+    /** The graph type. */
+    private final Class<?> type;
+    /** The bytes per component. */
+    private final Map<MemoryComponent, Long> bytes;
+
+    MemoryReport(Class<?> type, EnumMap<MemoryComponent, Long> bytes) {
+        this.type = type;
+        this.bytes = Collections.unmodifiableMap(bytes);
+    }
+
+    /**
+     * Returns the type of the graph.
+     *
+     * @return the graph type
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Returns the estimated bytes of a component.
+     *
+     * @param component the component
+     * @return the bytes attributed to the component
+     */
+    public long get(MemoryComponent component) {
+        return bytes.getOrDefault(component, 0L);
+    }
+
+    /**
+     * Returns the estimated bytes of all components.
+     *
+     * @return the total bytes retained by the graph
+     */
+    public long getTotal() {
+        return bytes.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Returns the estimated bytes per component.
+     *
+     * @return an unmodifiable map containing all components
+     */
+    public Map<MemoryComponent, Long> asMap() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(type.getSimpleName()).append(": ");
+        for (Map.Entry<MemoryComponent, Long> entry : bytes.entrySet()) {
+            builder.append(entry.getKey()).append('=').append(entry.getValue()).append(", ");
+        }
+        return builder.append("total=").append(getTotal()).toString();
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * The memory package estimates the heap footprint of graphs and mappings. The
+ * {@link org.zetool.graph.memory.MemoryEstimator} walks the objects reachable from a graph and reports the retained
+ * bytes per {@link org.zetool.graph.memory.MemoryComponent component}, so that graph implementations can be compared
+ * for a given instance.
+ */
+
+package org.zetool.graph.memory;
@@ -0,0 +1,148 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.traversal;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.zetool.graph.DirectedGraph;
+import org.zetool.graph.Edge;
+import org.zetool.graph.Node;
+
+/**
+ * A topological order of the nodes of a directed graph as computed by {@link TopologicalSort}. If the graph contains
+ * a directed cycle, the order only contains the nodes that are not reachable from a cycle and a witness cycle is
+ * provided.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class TopologicalOrder {
+
+    /** The graph the order refers to. */
+    private final DirectedGraph graph;
+    /** The node ids in topological order. */
+    private final int[] order;
+    /** The position of each node id in the order, or -1 if it is not ordered. */
+    private final int[] position;
+    /** The nodes of a directed cycle, empty for acyclic graphs. */
+    private final List<Node> cycle;
+
+    TopologicalOrder(@NonNull DirectedGraph graph, int[] order, int[] position, List<Node> cycle) {
+        this.graph = Objects.requireNonNull(graph);
+        this.order = order;
+        this.position = position;
+        this.cycle = Collections.unmodifiableList(cycle);
+    }
+
+    /**
+     * Returns whether the graph is acyclic, i.e., all nodes have been ordered.
+     *
+     * @return {@code true} if the graph does not contain a directed cycle
+     */
+    public boolean isAcyclic() {
+        return cycle.isEmpty();
+    }
+
+    /**
+     * Returns the ids of the ordered nodes. For each edge {@code (u,v)} between ordered nodes, {@code u} precedes
+     * {@code v}. The array is backed by this order and must not be modified.
+     *
+     * @return the node ids in topological order
+     */
+    public int[] getOrder() {
+        return order;
+    }
+
+    /**
+     * Returns the ordered nodes as an unmodifiable list view.
+     *
+     * @return the nodes in topological order
+     */
+    public List<Node> getNodes() {
+        return new AbstractList<Node>() {
+            @Override
+            public Node get(int index) {
+                return graph.getNode(order[index]);
+            }
+
+            @Override
+            public int size() {
+                return order.length;
+            }
+        };
+    }
+
+    /**
+     * Returns the position of a node in the order. Runtime O(1).
+     *
+     * @param node the node
+     * @return the position of the node, or -1 if the node is not ordered because it is reachable from a cycle
+     */
+    public int getPosition(Node node) {
+        return node.id() < position.length ? position[node.id()] : -1;
+    }
+
+    /**
+     * Returns the nodes of a directed cycle in the graph in the order of the cycle, if the graph is not acyclic. The
+     * cycle starts with its node having the smallest id.
+     *
+     * @return a directed cycle, or an empty list if the graph is acyclic
+     */
+    public List<Node> getCycle() {
+        return cycle;
+    }
+
+    /**
+     * Finds a cycle among the nodes that could not be ordered. Each of these nodes has an unordered predecessor, so
+     * following unordered predecessors eventually repeats a node.
+     *
+     * @param graph the graph
+     * @param position the positions, -1 for unordered nodes
+     * @param start an unordered node
+     * @return the nodes of a directed cycle, starting at the node with smallest id
+     */
+    static List<Node> findCycle(DirectedGraph graph, int[] position, Node start) {
+        int[] visitedAt = new int[position.length];
+        List<Node> walk = new ArrayList<>();
+        Node current = start;
+        while (visitedAt[current.id()] == 0) {
+            walk.add(current);
+            visitedAt[current.id()] = walk.size();
+            Node next = null;
+            for (Edge edge : graph.incomingEdges(current)) {
+                if (position[edge.start().id()] == -1) {
+                    next = edge.start();
+                    break;
+                }
+            }
+            current = next;
+        }
+        List<Node> cycle = new ArrayList<>(walk.subList(visitedAt[current.id()] - 1, walk.size()));
+        Collections.reverse(cycle);
+        int first = 0;
+        for (int i = 1; i < cycle.size(); ++i) {
+            if (cycle.get(i).id() < cycle.get(first).id()) {
+                first = i;
+            }
+        }
+        Collections.rotate(cycle, -first);
+        return cycle;
+    }
+}
@@ -0,0 +1,87 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.traversal;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.zetool.common.algorithm.AbstractAlgorithm;
+import org.zetool.graph.DirectedGraph;
+import org.zetool.graph.Edge;
+import org.zetool.graph.Node;
+
+/**
+ * Computes a topological order of a directed graph using Kahn's algorithm. The in-degrees are kept in an {@code int}
+ * array indexed by node id and nodes become available in a FIFO queue, so the runtime is O(n + m). If the graph
+ * contains a directed cycle, the remaining nodes cannot be ordered and a witness cycle is returned with the solution.
+ * <p>
+ * Kahn, Arthur B. Topological sorting of large networks. Communications of the ACM, 1962, 5(11), 558-562.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class TopologicalSort extends AbstractAlgorithm<DirectedGraph, TopologicalOrder> {
+
+    public TopologicalSort() {
+        super("Topological Sort");
+    }
+
+    @Override
+    protected TopologicalOrder runAlgorithm(DirectedGraph graph) {
+        int domain = 0;
+        for (Node node : graph.nodes()) {
+            domain = Math.max(domain, node.id() + 1);
+        }
+        int[] inDegree = new int[domain];
+        for (Edge edge : graph.edges()) {
+            inDegree[edge.end().id()]++;
+        }
+
+        int[] order = new int[graph.nodeCount()];
+        int head = 0;
+        int tail = 0;
+        for (Node node : graph.nodes()) {
+            if (inDegree[node.id()] == 0) {
+                order[tail++] = node.id();
+            }
+        }
+        while (head < tail) {
+            Node v = graph.getNode(order[head++]);
+            for (Edge edge : graph.outgoingEdges(v)) {
+                if (--inDegree[edge.end().id()] == 0) {
+                    order[tail++] = edge.end().id();
+                }
+            }
+        }
+
+        int[] position = new int[domain];
+        Arrays.fill(position, -1);
+        for (int i = 0; i < tail; ++i) {
+            position[order[i]] = i;
+        }
+        if (tail == order.length) {
+            return new TopologicalOrder(graph, order, position, Collections.emptyList());
+        }
+        Node unordered = null;
+        for (Node node : graph.nodes()) {
+            if (position[node.id()] == -1) {
+                unordered = node;
+                break;
+            }
+        }
+        return new TopologicalOrder(graph, Arrays.copyOf(order, tail), position,
+                TopologicalOrder.findCycle(graph, position, unordered));
+    }
+}
@@ -0,0 +1,199 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.zetool.container.collection.IdentifiableCollection;
+import org.zetool.container.mapping.Identifiable;
+import org.zetool.graph.localization.GraphLocalization;
+
+/**
+ * An unmodifiable {@link IdentifiableCollection} view of a range of an array. The view does not copy the array, so it
+ * is cheap to create and can be shared by any number of threads as long as the array is not changed.
+ * <p>
+ * If a lookup array indexed by id is provided, {@link #get(int)} and {@link #contains(Identifiable)} run in O(1).
+ * Otherwise, they scan the range.
+ *
+ * @param <E> the element type
+ * @author Jan-Philipp Kappmeier
+ */
+public class ArraySliceCollection<E extends Identifiable> implements IdentifiableCollection<E> {
+
+    /** The array containing the elements. */
+    private final E[] elements;
+    /** The first index of the range, inclusive. */
+    private final int from;
+    /** The last index of the range, exclusive. */
+    private final int to;
+    /** Optional lookup of the elements by id, {@code null} if not available. */
+    private final E[] byId;
+
+    /**
+     * Creates a view of a range of an array. Runtime O(1).
+     *
+     * @param elements the array
+     * @param from the first index, inclusive
+     * @param to the last index, exclusive
+     */
+    public ArraySliceCollection(E[] elements, int from, int to) {
+        this(elements, from, to, null);
+    }
+
+    /**
+     * Creates a view of a range of an array with a lookup array that contains exactly the elements of the range at
+     * the position of their id. Runtime O(1).
+     *
+     * @param elements the array
+     * @param from the first index, inclusive
+     * @param to the last index, exclusive
+     * @param byId the elements indexed by their id, may contain {@code null}
+     */
+    public ArraySliceCollection(E[] elements, int from, int to, E[] byId) {
+        if (from < 0 || to > elements.length || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") of " + elements.length);
+        }
+        this.elements = elements;
+        this.from = from;
+        this.to = to;
+        this.byId = byId;
+    }
+
+    @Override
+    public boolean add(E element) {
+        throw new UnsupportedOperationException(GraphLocalization.NOT_SUPPORTED);
+    }
+
+    @Override
+    public boolean remove(E element) {
+        throw new UnsupportedOperationException(GraphLocalization.NOT_SUPPORTED);
+    }
+
+    @Override
+    public E removeLast() {
+        throw new UnsupportedOperationException(GraphLocalization.NOT_SUPPORTED);
+    }
+
+    /**
+     * Checks whether an element is contained in the range. Runtime O(1) with lookup array, O(size) otherwise.
+     *
+     * @param element the element
+     * @return {@code true} if the element is contained
+     */
+    @Override
+    public boolean contains(E element) {
+        if (byId != null) {
+            int id = element.id();
+            return id >= 0 && id < byId.length && element.equals(byId[id]);
+        }
+        return indexOf(element) != -1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return from == to;
+    }
+
+    /**
+     * Returns the number of elements in the range. Runtime O(1).
+     *
+     * @return the number of elements
+     */
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    /**
+     * Returns the element with the given id. Runtime O(1) with lookup array, O(size) otherwise.
+     *
+     * @param id the id
+     * @return the element with the id, or {@code null} if it is not contained
+     */
+    @Override
+    public E get(int id) {
+        if (byId != null) {
+            return id >= 0 && id < byId.length ? byId[id] : null;
+        }
+        for (int i = from; i < to; ++i) {
+            if (elements[i].id() == id) {
+                return elements[i];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public E first() {
+        return isEmpty() ? null : elements[from];
+    }
+
+    @Override
+    public E last() {
+        return isEmpty() ? null : elements[to - 1];
+    }
+
+    @Override
+    public E predecessor(E element) {
+        int index = indexOf(element);
+        return index > from ? elements[index - 1] : null;
+    }
+
+    @Override
+    public E successor(E element) {
+        int index = indexOf(element);
+        return index != -1 && index + 1 < to ? elements[index + 1] : null;
+    }
+
+    private int indexOf(E element) {
+        for (int i = from; i < to; ++i) {
+            if (elements[i].equals(element)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int index = from;
+
+            @Override
+            public boolean hasNext() {
+                return index < to;
+            }
+
+            @Override
+            public E next() {
+                if (index >= to) {
+                    throw new NoSuchElementException();
+                }
+                return elements[index++];
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = from; i < to; ++i) {
+            builder.append(i == from ? "" : ", ").append(elements[i]);
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,203 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+import org.zetool.container.collection.IdentifiableCollection;
+import org.zetool.container.mapping.Identifiable;
+import org.zetool.graph.localization.GraphLocalization;
+
+/**
+ * An unmodifiable view of the elements of an {@link IdentifiableCollection} that satisfy a predicate. Nothing is
+ * copied, changes of the underlying collection and of the state the predicate depends on are reflected by the view.
+ * <p>
+ * The iteration can be restricted to a set of candidates, which allows views of a small part of a large collection to
+ * be iterated in time proportional to the candidates. Every candidate must be contained in the underlying collection.
+ *
+ * @param <E> the element type
+ * @author Jan-Philipp Kappmeier
+ */
+public class FilteredCollection<E extends Identifiable> implements IdentifiableCollection<E> {
+
+    /** The underlying collection. */
+    private final IdentifiableCollection<E> base;
+    /** Decides which elements of the underlying collection are contained in the view. */
+    private final Predicate<? super E> filter;
+    /** The elements that are tested during iteration. */
+    private final Iterable<E> candidates;
+
+    /**
+     * Creates a view of the elements of a collection that satisfy a predicate. Runtime O(1).
+     *
+     * @param base the underlying collection
+     * @param filter the predicate
+     */
+    public FilteredCollection(IdentifiableCollection<E> base, Predicate<? super E> filter) {
+        this(base, filter, base);
+    }
+
+    /**
+     * Creates a view of the elements of a collection that satisfy a predicate, iterating only the given candidates.
+     * Runtime O(1).
+     *
+     * @param base the underlying collection
+     * @param filter the predicate
+     * @param candidates a superset of the elements of the view in iteration order
+     */
+    public FilteredCollection(IdentifiableCollection<E> base, Predicate<? super E> filter, Iterable<E> candidates) {
+        this.base = base;
+        this.filter = filter;
+        this.candidates = candidates;
+    }
+
+    @Override
+    public boolean add(E element) {
+        throw new UnsupportedOperationException(GraphLocalization.NOT_SUPPORTED);
+    }
+
+    @Override
+    public boolean remove(E element) {
+        throw new UnsupportedOperationException(GraphLocalization.NOT_SUPPORTED);
+    }
+
+    @Override
+    public E removeLast() {
+        throw new UnsupportedOperationException(GraphLocalization.NOT_SUPPORTED);
+    }
+
+    /**
+     * Returns whether an element is contained in the underlying collection and satisfies the predicate. Runtime of
+     * the underlying {@code contains}.
+     *
+     * @param element the element
+     * @return whether the element is contained in the view
+     */
+    @Override
+    public boolean contains(E element) {
+        return filter.test(element) && base.contains(element);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !iterator().hasNext();
+    }
+
+    /**
+     * Returns the number of elements of the view. Runtime O(number of candidates).
+     *
+     * @return the number of elements of the view
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        for (Iterator<E> it = iterator(); it.hasNext(); it.next()) {
+            size++;
+        }
+        return size;
+    }
+
+    @Override
+    public E get(int id) {
+        E element = base.get(id);
+        return element != null && filter.test(element) ? element : null;
+    }
+
+    @Override
+    public E first() {
+        Iterator<E> it = iterator();
+        return it.hasNext() ? it.next() : null;
+    }
+
+    @Override
+    public E last() {
+        E last = null;
+        for (E element : this) {
+            last = element;
+        }
+        return last;
+    }
+
+    @Override
+    public E predecessor(E element) {
+        E last = null;
+        for (E current : this) {
+            if (current.equals(element)) {
+                return last;
+            }
+            last = current;
+        }
+        return null;
+    }
+
+    @Override
+    public E successor(E element) {
+        Iterator<E> it = iterator();
+        while (it.hasNext()) {
+            if (it.next().equals(element)) {
+                return it.hasNext() ? it.next() : null;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        Iterator<E> candidateIterator = candidates.iterator();
+        return new Iterator<E>() {
+            private E next = advance();
+
+            private E advance() {
+                while (candidateIterator.hasNext()) {
+                    E candidate = candidateIterator.next();
+                    if (filter.test(candidate)) {
+                        return candidate;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public E next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                E current = next;
+                next = advance();
+                return current;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (E element : this) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(element);
+        }
+        return builder.append(']').toString();
+    }
+}
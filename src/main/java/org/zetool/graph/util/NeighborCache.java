@@ -0,0 +1,385 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.util;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.zetool.container.collection.IdentifiableCollection;
+import org.zetool.graph.DirectedGraph;
+import org.zetool.graph.Edge;
+import org.zetool.graph.Graph;
+import org.zetool.graph.GraphChangeListener;
+import org.zetool.graph.Node;
+import org.zetool.graph.ObservableGraph;
+import org.zetool.graph.localization.GraphLocalization;
+
+/**
+ * Caches the distinct neighbors of the nodes of a graph as sorted arrays of node ids. The arrays are built lazily on
+ * the first access to a node and reused afterwards, so algorithms that query neighborhoods repeatedly, e.g. triangle
+ * counting or local search, avoid the repeated deduplication of {@link OppositeNodeCollection}. The returned
+ * collections have O(1) size and O(log degree) {@code contains}.
+ * <p>
+ * For directed graphs, successors, predecessors and adjacent nodes (the union of both) are cached separately, for
+ * undirected graphs all three coincide. If the graph is an {@link ObservableGraph}, the cache registers itself as
+ * listener and invalidates the entries of the end points of added, hidden and shown edges. Other changes must be
+ * reported by calling {@link #invalidate()} or {@link #invalidate(Node)}. The cache is not thread-safe.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class NeighborCache implements GraphChangeListener {
+
+    private static final int[] NONE = new int[0];
+    /** The graph. */
+    private final Graph graph;
+    /** The graph as directed graph, {@code null} if the graph is undirected. */
+    private final DirectedGraph directedGraph;
+    /** The sorted successor ids by node id, {@code null} if not computed. */
+    private int[][] successors;
+    /** The sorted predecessor ids by node id, {@code null} if not computed. */
+    private int[][] predecessors;
+    /** The sorted adjacent node ids by node id, {@code null} if not computed. */
+    private int[][] neighbors;
+
+    /**
+     * Creates an empty cache for a graph. If the graph is observable, the cache is registered as listener.
+     *
+     * @param graph the graph
+     */
+    public NeighborCache(Graph graph) {
+        this.graph = graph;
+        this.directedGraph = graph.isDirected() ? (DirectedGraph) graph : null;
+        invalidate();
+        if (graph instanceof ObservableGraph) {
+            ((ObservableGraph) graph).addChangeListener(this);
+        }
+    }
+
+    /**
+     * Stops listening to changes of the graph. Runtime O(number of listeners).
+     */
+    public void detach() {
+        if (graph instanceof ObservableGraph) {
+            ((ObservableGraph) graph).removeChangeListener(this);
+        }
+    }
+
+    /**
+     * Discards all cached neighborhoods. Runtime O(1).
+     */
+    public final void invalidate() {
+        successors = new int[0][];
+        predecessors = new int[0][];
+        neighbors = new int[0][];
+    }
+
+    /**
+     * Discards the cached neighborhoods of a node. Must be called whenever an edge incident to the node changes.
+     * Runtime O(1).
+     *
+     * @param node the node
+     */
+    public void invalidate(Node node) {
+        int id = node.id();
+        if (id < successors.length) {
+            successors[id] = null;
+        }
+        if (id < predecessors.length) {
+            predecessors[id] = null;
+        }
+        if (id < neighbors.length) {
+            neighbors[id] = null;
+        }
+    }
+
+    private void invalidate(Edge edge) {
+        invalidate(edge.start());
+        invalidate(edge.end());
+    }
+
+    @Override
+    public void edgeAdded(Edge edge) {
+        invalidate(edge);
+    }
+
+    @Override
+    public void edgeHidden(Edge edge) {
+        invalidate(edge);
+    }
+
+    @Override
+    public void edgeShown(Edge edge) {
+        invalidate(edge);
+    }
+
+    /**
+     * Returns the sorted ids of the distinct successors of a node. For undirected graphs these are all adjacent
+     * nodes. The array is cached and must not be changed. Runtime O(1) if cached, O(d log d) otherwise.
+     *
+     * @param node the node
+     * @return the sorted successor ids
+     */
+    public int[] successorIds(Node node) {
+        if (directedGraph == null) {
+            return adjacentIds(node);
+        }
+        successors = ensure(successors, node);
+        int[] result = successors[node.id()];
+        if (result == null) {
+            result = successors[node.id()] = sortedOpposite(node, directedGraph.outgoingEdges(node), null);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the sorted ids of the distinct predecessors of a node. For undirected graphs these are all adjacent
+     * nodes. The array is cached and must not be changed. Runtime O(1) if cached, O(d log d) otherwise.
+     *
+     * @param node the node
+     * @return the sorted predecessor ids
+     */
+    public int[] predecessorIds(Node node) {
+        if (directedGraph == null) {
+            return adjacentIds(node);
+        }
+        predecessors = ensure(predecessors, node);
+        int[] result = predecessors[node.id()];
+        if (result == null) {
+            result = predecessors[node.id()] = sortedOpposite(node, directedGraph.incomingEdges(node), null);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the sorted ids of the distinct nodes adjacent to a node, regardless of the direction of the edges. The
+     * array is cached and must not be changed. Runtime O(1) if cached, O(d log d) otherwise.
+     *
+     * @param node the node
+     * @return the sorted adjacent node ids
+     */
+    public int[] adjacentIds(Node node) {
+        neighbors = ensure(neighbors, node);
+        int[] result = neighbors[node.id()];
+        if (result == null) {
+            if (directedGraph == null) {
+                result = sortedOpposite(node, graph.incidentEdges(node), null);
+            } else {
+                result = sortedOpposite(node, directedGraph.outgoingEdges(node), directedGraph.incomingEdges(node));
+            }
+            neighbors[node.id()] = result;
+        }
+        return result;
+    }
+
+    private int[][] ensure(int[][] cache, Node node) {
+        if (node.id() >= cache.length) {
+            int size = Math.max(node.id() + 1, graph.nodeCount());
+            return Arrays.copyOf(cache, Math.max(size, 2 * cache.length));
+        }
+        return cache;
+    }
+
+    private static int[] sortedOpposite(Node node, IdentifiableCollection<Edge> first,
+            IdentifiableCollection<Edge> second) {
+        int[] ids = new int[first.size() + (second == null ? 0 : second.size())];
+        int count = 0;
+        for (Edge edge : first) {
+            ids[count++] = edge.opposite(node).id();
+        }
+        if (second != null) {
+            for (Edge edge : second) {
+                ids[count++] = edge.opposite(node).id();
+            }
+        }
+        if (count == 0) {
+            return NONE;
+        }
+        Arrays.sort(ids, 0, count);
+        int distinct = 1;
+        for (int i = 1; i < count; ++i) {
+            if (ids[i] != ids[distinct - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return distinct == ids.length ? ids : Arrays.copyOf(ids, distinct);
+    }
+
+    /**
+     * Returns the distinct successors of a node. For undirected graphs these are all adjacent nodes.
+     *
+     * @param node the node
+     * @return the successors in order of their ids
+     */
+    public IdentifiableCollection<Node> successorNodes(Node node) {
+        return new SortedNodeCollection(graph, successorIds(node));
+    }
+
+    /**
+     * Returns the distinct predecessors of a node. For undirected graphs these are all adjacent nodes.
+     *
+     * @param node the node
+     * @return the predecessors in order of their ids
+     */
+    public IdentifiableCollection<Node> predecessorNodes(Node node) {
+        return new SortedNodeCollection(graph, predecessorIds(node));
+    }
+
+    /**
+     * Returns the distinct nodes adjacent to a node, regardless of the direction of the edges.
+     *
+     * @param node the node
+     * @return the adjacent nodes in order of their ids
+     */
+    public IdentifiableCollection<Node> adjacentNodes(Node node) {
+        return new SortedNodeCollection(graph, adjacentIds(node));
+    }
+
+    /**
+     * Checks whether there is an edge from one node to another, or between the nodes in undirected graphs. Runtime
+     * O(log degree) if cached.
+     *
+     * @param start the start node
+     * @param end the end node
+     * @return whether {@code end} is a successor of {@code start}
+     */
+    public boolean isSuccessor(Node start, Node end) {
+        return Arrays.binarySearch(successorIds(start), end.id()) >= 0;
+    }
+
+    /**
+     * Returns the number of nodes adjacent to both given nodes. Runtime O(degree(first) + degree(second)) if cached.
+     *
+     * @param first the first node
+     * @param second the second node
+     * @return the number of common adjacent nodes
+     */
+    public int commonNeighborCount(Node first, Node second) {
+        int[] a = adjacentIds(first);
+        int[] b = adjacentIds(second);
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * An unmodifiable collection of nodes given by a sorted array of ids.
+     */
+    private static class SortedNodeCollection implements IdentifiableCollection<Node> {
+
+        private final Graph graph;
+        private final int[] ids;
+
+        SortedNodeCollection(Graph graph, int[] ids) {
+            this.graph = graph;
+            this.ids = ids;
+        }
+
+        @Override
+        public boolean add(Node element) {
+            throw new UnsupportedOperationException(GraphLocalization.NOT_SUPPORTED);
+        }
+
+        @Override
+        public boolean remove(Node element) {
+            throw new UnsupportedOperationException(GraphLocalization.NOT_SUPPORTED);
+        }
+
+        @Override
+        public Node removeLast() {
+            throw new UnsupportedOperationException(GraphLocalization.NOT_SUPPORTED);
+        }
+
+        @Override
+        public boolean contains(Node element) {
+            return Arrays.binarySearch(ids, element.id()) >= 0;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return ids.length == 0;
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+
+        @Override
+        public Node get(int id) {
+            return Arrays.binarySearch(ids, id) >= 0 ? graph.getNode(id) : null;
+        }
+
+        @Override
+        public Node first() {
+            return ids.length == 0 ? null : graph.getNode(ids[0]);
+        }
+
+        @Override
+        public Node last() {
+            return ids.length == 0 ? null : graph.getNode(ids[ids.length - 1]);
+        }
+
+        @Override
+        public Node predecessor(Node element) {
+            int index = Arrays.binarySearch(ids, element.id());
+            return index > 0 ? graph.getNode(ids[index - 1]) : null;
+        }
+
+        @Override
+        public Node successor(Node element) {
+            int index = Arrays.binarySearch(ids, element.id());
+            return index >= 0 && index + 1 < ids.length ? graph.getNode(ids[index + 1]) : null;
+        }
+
+        @Override
+        public Iterator<Node> iterator() {
+            return new Iterator<Node>() {
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < ids.length;
+                }
+
+                @Override
+                public Node next() {
+                    if (index == ids.length) {
+                        throw new NoSuchElementException();
+                    }
+                    return graph.getNode(ids[index++]);
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(ids);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.util;
+
+import org.zetool.container.mapping.Identifiable;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+
+/**
+ * An {@link IdentifiableIntegerMapping} that counts its modifications. Results computed from the mapping, for example
+ * shortest paths for edge costs, remain valid as long as the version does not change. The version is increased by all
+ * methods changing values or the domain size; the values must not be changed by other means, e.g., by subclasses
+ * accessing the backing array.
+ *
+ * @param <D> the domain type
+ * @author Jan-Philipp Kappmeier
+ */
+public class VersionedIntegerMapping<D extends Identifiable> extends IdentifiableIntegerMapping<D> {
+
+    /** The number of modifications. */
+    private long version;
+
+    /**
+     * Creates a mapping with all values zero.
+     *
+     * @param domainSize the number of ids in the domain
+     */
+    public VersionedIntegerMapping(int domainSize) {
+        super(domainSize);
+    }
+
+    /**
+     * Creates a copy of a mapping. The version of the copy starts at zero.
+     *
+     * @param mapping the mapping
+     */
+    public VersionedIntegerMapping(IdentifiableIntegerMapping<D> mapping) {
+        super(mapping);
+    }
+
+    /**
+     * Returns the number of modifications of the mapping. Runtime O(1).
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void set(D identifiableObject, int value) {
+        super.set(identifiableObject, value);
+        version++;
+    }
+
+    @Override
+    public void add(D identifiableObject, int value) {
+        super.add(identifiableObject, value);
+        version++;
+    }
+
+    @Override
+    public void increase(D identifiableObject, int amount) {
+        super.increase(identifiableObject, amount);
+        version++;
+    }
+
+    @Override
+    public void decrease(D identifiableObject, int amount) {
+        super.decrease(identifiableObject, amount);
+        version++;
+    }
+
+    @Override
+    public void setDomainSize(int value) {
+        super.setDomainSize(value);
+        version++;
+    }
+}
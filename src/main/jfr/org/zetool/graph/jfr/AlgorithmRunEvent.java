@@ -0,0 +1,56 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a run of an instrumented algorithm. The event is created by
+ * {@link JfrEventRecorder#startAlgorithmRun(Class, int, int)}.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+@Name("org.zetool.algorithm.AlgorithmRun")
+@Label("Algorithm Run")
+@Category({"zetool", "Algorithm"})
+@Description("A run of a graph algorithm")
+final class AlgorithmRunEvent extends Event implements EventRecorder.AlgorithmRun {
+
+    @Label("Algorithm")
+    Class<?> algorithm;
+    @Label("Nodes")
+    int nodes;
+    @Label("Edges")
+    int edges;
+    @Label("Nodes Settled")
+    long nodesSettled;
+    @Label("Edges Scanned")
+    long edgesScanned;
+
+    @Override
+    public void finish(long nodesSettled, long edgesScanned) {
+        end();
+        if (shouldCommit()) {
+            this.nodesSettled = nodesSettled;
+            this.edgesScanned = edgesScanned;
+            commit();
+        }
+    }
+}
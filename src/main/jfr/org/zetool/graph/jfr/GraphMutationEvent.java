@@ -0,0 +1,54 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a bulk change of a graph, such as a capacity change or a batch of visibility changes.
+ * Single edge or node changes are not recorded. The event is created by {@link JfrEventRecorder#startMutation()}.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+@Name("org.zetool.graph.GraphMutation")
+@Label("Graph Mutation")
+@Category({"zetool", "Graph"})
+@Description("A bulk change of a graph, such as a capacity change or a batch of visibility changes")
+final class GraphMutationEvent extends Event implements EventRecorder.Mutation {
+
+    @Label("Graph Type")
+    private Class<?> graphType;
+    @Label("Operation")
+    private String operation;
+    @Label("Elements")
+    @Description("The number of affected elements, or the new capacity of capacity changes")
+    private long elements;
+
+    @Override
+    public void finish(Object graph, String operation, long elements) {
+        end();
+        if (shouldCommit()) {
+            this.graphType = graph.getClass();
+            this.operation = operation;
+            this.elements = elements;
+            commit();
+        }
+    }
+}
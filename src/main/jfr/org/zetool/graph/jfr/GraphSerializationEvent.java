@@ -0,0 +1,58 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for writing graph data to or reading it from a file. The event is created by
+ * {@link JfrEventRecorder#startSerialization()}.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+@Name("org.zetool.graph.GraphSerialization")
+@Label("Graph Serialization")
+@Category({"zetool", "Graph"})
+@Description("Graph data written to or read from a file")
+final class GraphSerializationEvent extends Event implements EventRecorder.Serialization {
+
+    @Label("Data Type")
+    private Class<?> dataType;
+    @Label("Operation")
+    private String operation;
+    @Label("Path")
+    private String path;
+    @Label("Size")
+    @DataAmount
+    private long bytes;
+
+    @Override
+    public void finish(Object data, String operation, Object path, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.dataType = data.getClass();
+            this.operation = operation;
+            this.path = String.valueOf(path);
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.jfr;
+
+import jdk.jfr.EventType;
+
+/**
+ * Creates Java Flight Recorder events. This class and the event classes are the only classes depending on the
+ * {@code jdk.jfr} module; they are loaded by {@link EventRecorder#get()} only if the module is available. An event is
+ * only allocated and started if its type is enabled in a running recording.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+final class JfrEventRecorder implements EventRecorder {
+
+    private final EventType mutation = EventType.getEventType(GraphMutationEvent.class);
+    private final EventType serialization = EventType.getEventType(GraphSerializationEvent.class);
+    private final EventType algorithmRun = EventType.getEventType(AlgorithmRunEvent.class);
+
+    @Override
+    public Mutation startMutation() {
+        if (!mutation.isEnabled()) {
+            return EventRecorders.NO_MUTATION;
+        }
+        GraphMutationEvent event = new GraphMutationEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public Serialization startSerialization() {
+        if (!serialization.isEnabled()) {
+            return EventRecorders.NO_SERIALIZATION;
+        }
+        GraphSerializationEvent event = new GraphSerializationEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public AlgorithmRun startAlgorithmRun(Class<?> algorithm, int nodes, int edges) {
+        if (!algorithmRun.isEnabled()) {
+            return null;
+        }
+        AlgorithmRunEvent event = new AlgorithmRunEvent();
+        event.algorithm = algorithm;
+        event.nodes = nodes;
+        event.edges = edges;
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,245 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.zetool.algorithm.instrumentation.Counter;
+import org.zetool.algorithm.instrumentation.Instrumented;
+import org.zetool.algorithm.shortestpath.Dijkstra;
+import org.zetool.algorithm.shortestpath.IntegralSingleSourceShortestPathProblem;
+import org.zetool.algorithm.spanningtree.KruskalAlgorithm;
+import org.zetool.algorithm.spanningtree.MinSpanningTreeProblem;
+import org.zetool.algorithm.spanningtree.PrimAlgorithm;
+import org.zetool.common.algorithm.AbstractAlgorithm;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+import org.zetool.graph.DefaultDirectedGraph;
+import org.zetool.graph.DefaultGraph;
+import org.zetool.graph.Edge;
+import org.zetool.graph.GraphBuilder;
+import org.zetool.graph.generator.GraphGenerators;
+import org.zetool.graph.memory.MemoryEstimator;
+import org.zetool.graph.traversal.BreadthFirstSearch;
+import org.zetool.graph.traversal.DepthFirstSearch;
+
+/**
+ * Guards the hot paths of the algorithms against allocation regressions. Each algorithm runs on two generated graphs
+ * with the same nodes, the second one with three times the edges of the first one. The difference of the allocated
+ * bytes is divided by the difference of the scanned edges, or of the edges for algorithms that do not count them. The
+ * result mappings and other allocations per node cancel out, so the budgets cover only the allocations per edge and a
+ * new object per scanned edge, such as an iterator or a boxed value, exceeds them.
+ * <p>
+ * The budgets are about 10% above the allocations measured with compressed references. The allocations per edge are
+ * mostly references in arrays and small objects, so the budgets are scaled by the size of a reference array in the
+ * object layout that {@link MemoryEstimator} reads from the JVM. They are also scaled by the system property
+ * {@code zetool.allocationBudgetFactor}, which can be lowered to tighten them. If a change reduces the allocations,
+ * the budget should be lowered accordingly.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class AllocationBudgetTest {
+
+    private static final int NODES = 20_000;
+    private static final int SPARSE_EDGES = 80_000;
+    private static final int DENSE_EDGES = 240_000;
+    /** Scales all budgets. */
+    private static final double BUDGET_FACTOR
+            = Double.parseDouble(System.getProperty("zetool.allocationBudgetFactor", "1"));
+    /** Estimated size of the layout sample with compressed references, for which the budgets are measured. */
+    private static final long MEASURED_LAYOUT_SIZE = 272;
+    /** The budget of Dijkstra's algorithm in bytes per scanned edge. */
+    private static final double DIJKSTRA_BUDGET = 16.3;
+
+    private static double layoutScale;
+    private static Instance sparse;
+    private static Instance dense;
+    /** Receives the values boxed by {@link AllocatingCosts}, so that they escape. */
+    private static volatile Object sink;
+
+    @BeforeClass
+    public static void createGraphs() {
+        sparse = new Instance(GraphGenerators.erdosRenyi(NODES, SPARSE_EDGES, 17));
+        dense = new Instance(GraphGenerators.erdosRenyi(NODES, DENSE_EDGES, 17));
+        layoutScale = Math.max(1, (double) layoutSize() / MEASURED_LAYOUT_SIZE);
+    }
+
+    /**
+     * Estimates the size of an array of references, which dominate the allocations per edge.
+     *
+     * @return the size of the sample in the object layout of the running JVM
+     */
+    private static long layoutSize() {
+        return MemoryEstimator.estimate(new Object[64]);
+    }
+
+    /**
+     * Returns the bytes an algorithm allocates per additional edge of the dense instance.
+     *
+     * @param algorithm creates the algorithm for an instance, ready to run
+     * @param edges the number of scanned edges or of edges of an instance
+     * @return the bytes per edge
+     */
+    private static double bytesPerEdge(Function<Instance, AbstractAlgorithm<?, ?>> algorithm,
+            ToLongFunction<Instance> edges) {
+        long sparseBytes = AllocationMeter.allocatedBytes(() -> algorithm.apply(sparse).run());
+        long denseBytes = AllocationMeter.allocatedBytes(() -> algorithm.apply(dense).run());
+        return (double) (denseBytes - sparseBytes) / (edges.applyAsLong(dense) - edges.applyAsLong(sparse));
+    }
+
+    /**
+     * Counts the edges scanned by an instrumented run of an algorithm.
+     *
+     * @param algorithm creates the algorithm for an instance, ready to run
+     * @return the number of scanned edges of an instance
+     */
+    private static ToLongFunction<Instance> scannedEdges(Function<Instance, AbstractAlgorithm<?, ?>> algorithm) {
+        return instance -> {
+            AbstractAlgorithm<?, ?> counted = algorithm.apply(instance);
+            ((Instrumented) counted).setInstrumented(true);
+            counted.run();
+            return ((Instrumented) counted).getOperationCounts().get(Counter.EDGES_SCANNED);
+        };
+    }
+
+    private static double budget(double bytesPerEdge) {
+        return bytesPerEdge * layoutScale * BUDGET_FACTOR;
+    }
+
+    private static void assertBudget(String algorithm, double bytesPerEdge, double budget) {
+        assertThat(algorithm + " allocated " + bytesPerEdge + " bytes per edge", bytesPerEdge,
+                lessThanOrEqualTo(budget(budget)));
+    }
+
+    private static AbstractAlgorithm<?, ?> dijkstra(Instance instance, IdentifiableIntegerMapping<Edge> costs) {
+        Dijkstra dijkstra = new Dijkstra();
+        dijkstra.setProblem(new IntegralSingleSourceShortestPathProblem(instance.directed, costs,
+                instance.directed.getNode(0)));
+        return dijkstra;
+    }
+
+    @Test
+    public void dijkstra() {
+        assumeTrue(AllocationMeter.isSupported());
+        Function<Instance, AbstractAlgorithm<?, ?>> dijkstra = instance -> dijkstra(instance, instance.costs);
+        assertBudget("Dijkstra", bytesPerEdge(dijkstra, scannedEdges(dijkstra)), DIJKSTRA_BUDGET);
+    }
+
+    @Test
+    public void boxedValuePerEdgeExceedsBudget() {
+        assumeTrue(AllocationMeter.isSupported());
+        AllocatingCosts sparseCosts = new AllocatingCosts(sparse);
+        AllocatingCosts denseCosts = new AllocatingCosts(dense);
+        Function<Instance, AbstractAlgorithm<?, ?>> dijkstra
+                = instance -> dijkstra(instance, instance == sparse ? sparseCosts : denseCosts);
+        double bytesPerEdge = bytesPerEdge(dijkstra, scannedEdges(dijkstra));
+        assertThat("Boxing costs allocated " + bytesPerEdge + " bytes per edge", bytesPerEdge,
+                greaterThan(budget(DIJKSTRA_BUDGET)));
+    }
+
+    @Test
+    public void prim() {
+        assumeTrue(AllocationMeter.isSupported());
+        Function<Instance, AbstractAlgorithm<?, ?>> prim = instance -> {
+            PrimAlgorithm algorithm = new PrimAlgorithm();
+            algorithm.setProblem(new MinSpanningTreeProblem(instance.undirected, instance.costs));
+            return algorithm;
+        };
+        assertBudget("Prim", bytesPerEdge(prim, scannedEdges(prim)), 21.1);
+    }
+
+    /**
+     * Kruskal's algorithm stops scanning when the tree is complete, but sorts all edges. The allocations are measured
+     * per edge of the graph.
+     */
+    @Test
+    public void kruskal() {
+        assumeTrue(AllocationMeter.isSupported());
+        Function<Instance, AbstractAlgorithm<?, ?>> kruskal = instance -> {
+            KruskalAlgorithm algorithm = new KruskalAlgorithm();
+            algorithm.setProblem(new MinSpanningTreeProblem(instance.undirected, instance.costs));
+            return algorithm;
+        };
+        assertBudget("Kruskal", bytesPerEdge(kruskal, instance -> instance.undirected.edgeCount()), 15.4);
+    }
+
+    @Test
+    public void breadthFirstSearch() {
+        assumeTrue(AllocationMeter.isSupported());
+        Function<Instance, AbstractAlgorithm<?, ?>> bfs = instance -> {
+            BreadthFirstSearch algorithm = new BreadthFirstSearch();
+            algorithm.setProblem(instance.directed);
+            algorithm.setStart(instance.directed.getNode(0));
+            return algorithm;
+        };
+        assertBudget("BFS", bytesPerEdge(bfs, instance -> instance.directed.edgeCount()), 10.1);
+    }
+
+    @Test
+    public void depthFirstSearch() {
+        assumeTrue(AllocationMeter.isSupported());
+        Function<Instance, AbstractAlgorithm<?, ?>> dfs = instance -> {
+            DepthFirstSearch algorithm = new DepthFirstSearch();
+            algorithm.setProblem(instance.directed);
+            algorithm.setStart(instance.directed.getNode(0));
+            return algorithm;
+        };
+        assertBudget("DFS", bytesPerEdge(dfs, instance -> instance.directed.edgeCount()), 27.6);
+    }
+
+    /**
+     * The graphs and costs built from one generated graph.
+     */
+    private static class Instance {
+
+        final DefaultDirectedGraph directed;
+        final DefaultGraph undirected;
+        final IdentifiableIntegerMapping<Edge> costs;
+
+        Instance(GraphBuilder builder) {
+            directed = builder.buildDirected();
+            undirected = builder.buildUndirected();
+            costs = builder.costs();
+        }
+    }
+
+    /**
+     * Costs that box a value on each access, like a hot loop that allocates per scanned edge.
+     */
+    private static class AllocatingCosts extends IdentifiableIntegerMapping<Edge> {
+
+        AllocatingCosts(Instance instance) {
+            super(instance.directed.edgeCount());
+            for (Edge edge : instance.directed.edges()) {
+                set(edge, instance.costs.get(edge));
+            }
+        }
+
+        @Override
+        public int get(Edge edge) {
+            Integer value = Integer.valueOf(super.get(edge) + 1_000);
+            sink = value;
+            return value - 1_000;
+        }
+    }
+}
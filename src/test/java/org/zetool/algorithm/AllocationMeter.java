@@ -0,0 +1,83 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the bytes allocated by the current thread while running an action, using the allocation counters of the
+ * HotSpot {@link com.sun.management.ThreadMXBean}. The action is run several times to load classes and warm up the
+ * JIT; the smallest measurement is returned, as allocations of class loading and other one-time initialization only
+ * occur in the first runs.
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public final class AllocationMeter {
+
+    /** The number of runs before measuring. */
+    private static final int WARM_UP_RUNS = 5;
+    /** The number of measured runs. */
+    private static final int MEASURED_RUNS = 5;
+
+    /**
+     * Private constructor for utility class.
+     */
+    private AllocationMeter() {
+    }
+
+    /**
+     * Checks whether the JVM supports measuring allocations per thread.
+     *
+     * @return {@code true} if allocations can be measured
+     */
+    public static boolean isSupported() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return false;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if (threads.isThreadAllocatedMemorySupported() && !threads.isThreadAllocatedMemoryEnabled()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+        return threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * Returns the smallest number of bytes allocated by the current thread in one run of an action.
+     *
+     * @param action the action
+     * @return the allocated bytes
+     * @throws IllegalStateException if allocations cannot be measured
+     */
+    public static long allocatedBytes(Runnable action) {
+        if (!isSupported()) {
+            throw new IllegalStateException("Thread allocation measurement not supported");
+        }
+        com.sun.management.ThreadMXBean threads
+                = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < WARM_UP_RUNS; ++i) {
+            action.run();
+        }
+        long minimum = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_RUNS; ++i) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            action.run();
+            minimum = Math.min(minimum, threads.getThreadAllocatedBytes(thread) - before);
+        }
+        return minimum;
+    }
+}
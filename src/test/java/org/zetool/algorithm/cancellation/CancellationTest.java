@@ -0,0 +1,202 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.cancellation;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+
+import org.junit.Test;
+import org.zetool.algorithm.shortestpath.Dijkstra;
+import org.zetool.algorithm.shortestpath.IntegralShortestPathSolution;
+import org.zetool.algorithm.shortestpath.IntegralSingleSourceShortestPathProblem;
+import org.zetool.algorithm.shortestpath.MooreBellmanFord;
+import org.zetool.algorithm.steinertree.MinSteinerTreeProblem;
+import org.zetool.algorithm.steinertree.SteinerTree;
+import org.zetool.algorithm.steinertree.SteinerTreeSpanningTreeApproximationAlgorithm;
+import org.zetool.container.collection.ListSequence;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+import org.zetool.graph.DefaultDirectedGraph;
+import org.zetool.graph.DefaultGraph;
+import org.zetool.graph.Edge;
+import org.zetool.graph.MutableGraph;
+import org.zetool.graph.Node;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class CancellationTest {
+
+    @Test
+    public void tokenStates() {
+        CancellationToken token = CancellationToken.create();
+        assertThat(token.shouldStop(), is(false));
+        token.cancel();
+        assertThat(token.isCancelled(), is(true));
+        assertThat(token.isExpired(), is(false));
+        assertThat(token.shouldStop(), is(true));
+
+        assertThat(CancellationToken.withTimeout(Duration.ZERO).isExpired(), is(true));
+        assertThat(CancellationToken.withTimeout(Duration.ofHours(1)).shouldStop(), is(false));
+        assertThat(CancellationToken.NONE.shouldStop(), is(false));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void noneCannotBeCancelled() {
+        CancellationToken.NONE.cancel();
+    }
+
+    @Test
+    public void dijkstraStopsWithSettledNodes() {
+        int n = 3 * CancellationToken.CHECK_INTERVAL;
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(n, n - 1);
+        for (int i = 0; i < n - 1; ++i) {
+            graph.createAndSetEdge(graph.getNode(i), graph.getNode(i + 1));
+        }
+        CancellationToken token = CancellationToken.create();
+        Dijkstra dijkstra = new Dijkstra();
+        dijkstra.setCancellationToken(token);
+        dijkstra.setProblem(new IntegralSingleSourceShortestPathProblem(graph, new CancellingCosts(n, token, 1000),
+                graph.getNode(0)));
+
+        AlgorithmCancelledException ex = expectCancelled(dijkstra::run);
+
+        assertThat(ex.isDeadlineExceeded(), is(false));
+        IntegralShortestPathSolution partial = ex.getPartialResult(IntegralShortestPathSolution.class);
+        int lastSettled = CancellationToken.CHECK_INTERVAL - 1;
+        assertThat(partial.getDistance(graph.getNode(lastSettled)), is(equalTo(lastSettled)));
+        assertThat(partial.getDistance(graph.getNode(lastSettled + 1)), is(equalTo(Integer.MAX_VALUE)));
+    }
+
+    @Test
+    public void dijkstraStopsAfterDeadline() {
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(2, 1);
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        Dijkstra dijkstra = new Dijkstra();
+        dijkstra.setCancellationToken(CancellationToken.withTimeout(Duration.ZERO));
+        dijkstra.setProblem(new IntegralSingleSourceShortestPathProblem(graph, new CancellingCosts(2, null, 0),
+                graph.getNode(0)));
+
+        AlgorithmCancelledException ex = expectCancelled(dijkstra::run);
+
+        assertThat(ex.isDeadlineExceeded(), is(true));
+        assertThat(ex.getPartialResult(IntegralShortestPathSolution.class).getDistance(graph.getNode(1)),
+                is(equalTo(Integer.MAX_VALUE)));
+    }
+
+    @Test
+    public void mooreBellmanFordIsResetAfterCancellation() {
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(3, 2);
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        graph.createAndSetEdge(graph.getNode(1), graph.getNode(2));
+        CancellationToken token = CancellationToken.create();
+        token.cancel();
+        MooreBellmanFord mbf = new MooreBellmanFord(graph, new CancellingCosts(2, null, 0), graph.getNode(0));
+        mbf.setCancellationToken(token);
+
+        AlgorithmCancelledException ex = expectCancelled(mbf::run);
+
+        IntegralShortestPathSolution partial = ex.getPartialResult(IntegralShortestPathSolution.class);
+        assertThat(partial.getDistance(graph.getNode(0)), is(equalTo(0)));
+        assertThat(partial.getDistance(graph.getNode(2)), is(equalTo(Integer.MAX_VALUE)));
+
+        mbf.setCancellationToken(CancellationToken.NONE);
+        mbf.run();
+        assertThat(mbf.getDistance(graph.getNode(2)), is(equalTo(2.0)));
+    }
+
+    @Test
+    public void steinerTreeReturnsBestTreeSoFar() {
+        MutableGraph graph = new DefaultGraph(4, 3);
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        graph.createAndSetEdge(graph.getNode(1), graph.getNode(2));
+        graph.createAndSetEdge(graph.getNode(2), graph.getNode(3));
+        ListSequence<Node> terminals = new ListSequence<>();
+        terminals.add(graph.getNode(0));
+        terminals.add(graph.getNode(2));
+        terminals.add(graph.getNode(3));
+        CancellationToken token = CancellationToken.create();
+        // the token is cancelled during the shortest path computation of the first terminal
+        SteinerTreeSpanningTreeApproximationAlgorithm algorithm = new SteinerTreeSpanningTreeApproximationAlgorithm();
+        algorithm.setCancellationToken(token);
+        algorithm.setProblem(new MinSteinerTreeProblem(graph, new CancellingCosts(3, token, 1), terminals));
+
+        AlgorithmCancelledException ex = expectCancelled(algorithm::run);
+
+        assertThat(ex.getCause(), is(instanceOf(AlgorithmCancelledException.class)));
+        SteinerTree partial = ex.getPartialResult(SteinerTree.class);
+        assertThat(partial.getEdges().size(), is(equalTo(3)));
+        assertThat(partial.getCost(), is(equalTo(3L)));
+    }
+
+    @Test
+    public void steinerTreeWithoutPartialResult() {
+        MutableGraph graph = new DefaultGraph(2, 1);
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        ListSequence<Node> terminals = new ListSequence<>();
+        terminals.add(graph.getNode(0));
+        terminals.add(graph.getNode(1));
+        CancellationToken token = CancellationToken.create();
+        token.cancel();
+        SteinerTreeSpanningTreeApproximationAlgorithm algorithm = new SteinerTreeSpanningTreeApproximationAlgorithm();
+        algorithm.setCancellationToken(token);
+        algorithm.setProblem(new MinSteinerTreeProblem(graph, new CancellingCosts(1, null, 0), terminals));
+
+        AlgorithmCancelledException ex = expectCancelled(algorithm::run);
+
+        assertThat(ex.hasPartialResult(), is(false));
+        assertThat(ex.getPartialResult(SteinerTree.class), is(nullValue()));
+    }
+
+    private static AlgorithmCancelledException expectCancelled(Runnable algorithm) {
+        try {
+            algorithm.run();
+        } catch (AlgorithmCancelledException ex) {
+            return ex;
+        }
+        fail("Algorithm has not been cancelled");
+        return null;
+    }
+
+    /**
+     * Unit edge costs that cancel a token after a number of cost lookups.
+     */
+    private static class CancellingCosts extends IdentifiableIntegerMapping<Edge> {
+
+        private final CancellationToken token;
+        private int remainingLookups;
+
+        CancellingCosts(int edges, CancellationToken token, int lookups) {
+            super(edges);
+            this.token = token;
+            this.remainingLookups = lookups;
+        }
+
+        @Override
+        public int get(Edge edge) {
+            if (token != null && --remainingLookups == 0) {
+                token.cancel();
+            }
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.components;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.zetool.algorithm.spanningtree.KruskalAlgorithm;
+import org.zetool.algorithm.spanningtree.MinSpanningTreeProblem;
+import org.zetool.graph.DefaultGraph;
+import org.zetool.graph.Graph;
+import org.zetool.graph.SimpleUndirectedGraph;
+import org.zetool.graph.util.GraphUtil;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class ParallelConnectedComponentsAlgorithmTest {
+
+    @Test
+    public void isolatedNodes() {
+        ConnectedComponents components = compute(new DefaultGraph(3, 0), true);
+
+        assertThat(components.getComponentCount(), is(equalTo(3)));
+        assertThat(components.getSpanningForestSize(), is(equalTo(0)));
+        for (int i = 0; i < 3; ++i) {
+            assertThat(components.getLabels()[i], is(equalTo(i)));
+            assertThat(components.getComponentSize(i), is(equalTo(1)));
+        }
+    }
+
+    @Test
+    public void twoComponents() {
+        SimpleUndirectedGraph graph = new SimpleUndirectedGraph(6);
+        graph.addEdge(4, 1);
+        graph.addEdge(1, 3);
+        graph.addEdge(5, 2);
+        graph.addEdge(0, 5);
+
+        ConnectedComponents components = compute(graph, true);
+
+        assertThat(components.getComponentCount(), is(equalTo(2)));
+        assertThat(components.getLabels(), is(equalTo(new int[]{0, 1, 0, 1, 1, 0})));
+        assertThat(components.getComponentSizes(), is(equalTo(new int[]{3, 3})));
+        assertThat(components.isConnected(graph.getNode(0), graph.getNode(2)), is(true));
+        assertThat(components.isConnected(graph.getNode(0), graph.getNode(1)), is(false));
+        assertThat(components.getSpanningForestSize(), is(equalTo(4)));
+    }
+
+    @Test
+    public void directedGraphWeaklyConnected() {
+        Graph graph = GraphUtil.generateDirected(4, new int[][]{{0, 1}, {2, 1}, {3, 3}});
+
+        ConnectedComponents components = compute(graph, true);
+
+        assertThat(components.getComponentCount(), is(equalTo(2)));
+        assertThat(components.getLabels(), is(equalTo(new int[]{0, 0, 0, 1})));
+    }
+
+    @Test
+    public void largeRandomGraphParallelMatchesSequential() {
+        int n = 50_000;
+        Random random = new Random(26);
+        DefaultGraph graph = new DefaultGraph(n, 40_000);
+        for (int i = 0; i < 40_000; ++i) {
+            graph.createAndSetEdge(graph.getNode(random.nextInt(n)), graph.getNode(random.nextInt(n)));
+        }
+
+        ConnectedComponents parallel = compute(graph, true);
+        ConnectedComponents sequential = compute(graph, false);
+
+        assertThat(parallel.getLabels(), is(equalTo(sequential.getLabels())));
+        assertThat(parallel.getComponentSizes(), is(equalTo(sequential.getComponentSizes())));
+        KruskalAlgorithm kruskal = new KruskalAlgorithm();
+        kruskal.setProblem(new MinSpanningTreeProblem(graph, GraphUtil.UNIT_EDGE_MAPPING));
+        kruskal.run();
+        assertThat(parallel.getSpanningForestSize(), is(equalTo(kruskal.getSolution().getEdges().size())));
+    }
+
+    private static ConnectedComponents compute(Graph graph, boolean parallel) {
+        ParallelConnectedComponentsAlgorithm algorithm = new ParallelConnectedComponentsAlgorithm(parallel);
+        algorithm.setProblem(graph);
+        algorithm.run();
+        return algorithm.getSolution();
+    }
+}
@@ -0,0 +1,79 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.instrumentation;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+import org.zetool.graph.DefaultDirectedGraph;
+import org.zetool.graph.Graph;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class OperationCountsTest {
+
+    private static final Graph GRAPH = new DefaultDirectedGraph(0, 0);
+
+    @Test
+    public void sumsAndMaxima() {
+        OperationCounts counts = new OperationCounts();
+        counts.increment(Counter.EDGES_SCANNED);
+        counts.add(Counter.EDGES_SCANNED, 4);
+        counts.max(Counter.PEAK_QUEUE_SIZE, 7);
+        counts.max(Counter.PEAK_QUEUE_SIZE, 3);
+
+        assertThat(counts.get(Counter.EDGES_SCANNED), is(equalTo(5L)));
+        assertThat(counts.get(Counter.PEAK_QUEUE_SIZE), is(equalTo(7L)));
+        assertThat(counts.get(Counter.RELAXATIONS), is(equalTo(0L)));
+        assertThat(Counter.PEAK_QUEUE_SIZE.isMaximum(), is(true));
+        assertThat(Counter.EDGES_SCANNED.isMaximum(), is(false));
+
+        counts.clear();
+        assertThat(counts.get(Counter.EDGES_SCANNED), is(equalTo(0L)));
+    }
+
+    @Test
+    public void freshCountsPerRun() {
+        Instrumentation instrumentation = new Instrumentation(Object.class);
+        assertThat(instrumentation.start(GRAPH), is(sameInstance(OperationCounter.NONE)));
+
+        instrumentation.setEnabled(true);
+        OperationCounter first = instrumentation.start(GRAPH);
+        first.increment(Counter.NODES_SETTLED);
+        OperationCounter second = instrumentation.start(GRAPH);
+
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(instrumentation.getCounts(), is(sameInstance(second)));
+        assertThat(instrumentation.getCounts().get(Counter.NODES_SETTLED), is(equalTo(0L)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void disabledRunHasNoCounts() {
+        Instrumentation instrumentation = new Instrumentation(Object.class);
+        instrumentation.setEnabled(true);
+        instrumentation.start(GRAPH);
+        instrumentation.setEnabled(false);
+        instrumentation.start(GRAPH);
+
+        instrumentation.getCounts();
+    }
+}
@@ -0,0 +1,103 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.metrics;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsCoverAllValues() {
+        long previous = -1;
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; ++i) {
+            long highest = LatencyHistogram.highestValue(i);
+            assertThat(LatencyHistogram.index(previous + 1), is(equalTo(i)));
+            assertThat(LatencyHistogram.index(highest), is(equalTo(i)));
+            previous = highest;
+        }
+        assertThat(previous, is(equalTo(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void quantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100_000; ++i) {
+            histogram.record(i * 1_000L);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount(), is(equalTo(100_000L)));
+        assertThat(snapshot.getMin(), is(equalTo(1_000L)));
+        assertThat(snapshot.getMax(), is(equalTo(100_000_000L)));
+        assertThat(snapshot.getMean(), is(equalTo(50_000_500.0)));
+        assertClose(snapshot.getValueAtQuantile(0.5), 50_000_000L);
+        assertClose(snapshot.getValueAtQuantile(0.99), 99_000_000L);
+        assertClose(snapshot.getValueAtQuantile(0.999), 99_900_000L);
+        assertThat(snapshot.getValueAtQuantile(1), is(equalTo(100_000_000L)));
+    }
+
+    private static void assertClose(long actual, long expected) {
+        assertThat(actual, is(greaterThanOrEqualTo(expected)));
+        assertThat(actual, is(lessThanOrEqualTo(expected + expected / 64)));
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(3);
+        histogram.record(100);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getValueAtQuantile(0), is(equalTo(0L)));
+        assertThat(snapshot.getValueAtQuantile(0.5), is(equalTo(3L)));
+        assertThat(snapshot.getValueAtQuantile(0.9), is(equalTo(100L)));
+    }
+
+    @Test
+    public void concurrentRecording() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        IntStream.range(0, 8).parallel().forEach(thread -> {
+            SplittableRandom random = new SplittableRandom(thread);
+            for (int i = 0; i < 10_000; ++i) {
+                histogram.record(random.nextLong(1L << 40));
+            }
+        });
+
+        assertThat(histogram.snapshot().getCount(), is(equalTo(80_000L)));
+        histogram.reset();
+        assertThat(histogram.snapshot().getCount(), is(equalTo(0L)));
+        assertThat(histogram.snapshot().getValueAtQuantile(0.5), is(equalTo(0L)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeValue() {
+        new LatencyHistogram().record(-1);
+    }
+}
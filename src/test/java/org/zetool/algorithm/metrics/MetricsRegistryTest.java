@@ -0,0 +1,90 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.metrics;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.fail;
+
+import java.util.Map;
+
+import org.junit.Test;
+import org.zetool.algorithm.shortestpath.Dijkstra;
+import org.zetool.algorithm.shortestpath.IntegralShortestPathSolution;
+import org.zetool.algorithm.shortestpath.IntegralSingleSourceShortestPathProblem;
+import org.zetool.common.algorithm.AbstractAlgorithm;
+import org.zetool.container.mapping.IdentifiableConstantMapping;
+import org.zetool.graph.DefaultDirectedGraph;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class MetricsRegistryTest {
+
+    @Test
+    public void meteredRuns() {
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(3, 2);
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        graph.createAndSetEdge(graph.getNode(1), graph.getNode(2));
+        MetricsRegistry registry = new MetricsRegistry();
+
+        MeteredAlgorithm<IntegralSingleSourceShortestPathProblem, IntegralShortestPathSolution> dijkstra
+                = registry.metered(new Dijkstra(), "path graph");
+        for (int i = 0; i < 3; ++i) {
+            dijkstra.setProblem(new IntegralSingleSourceShortestPathProblem(graph, new IdentifiableConstantMapping<>(1),
+                    graph.getNode(i)));
+            dijkstra.run();
+        }
+
+        assertThat(dijkstra.getSolution().getDistance(graph.getNode(2)), is(equalTo(0)));
+        assertThat(registry.get("Dijkstra", "path graph"), is(sameInstance(dijkstra.getMetrics())));
+        Map<String, Number> snapshot = registry.snapshot();
+        assertThat(snapshot.get("Dijkstra.path_graph.runs"), is(equalTo(3L)));
+        assertThat(snapshot.get("Dijkstra.path_graph.failures"), is(equalTo(0L)));
+        assertThat(snapshot.get("Dijkstra.path_graph.p999").longValue(), is(greaterThan(0L)));
+        assertThat(registry.export(), containsString("Dijkstra.path_graph.runs 3\n"));
+
+        registry.reset();
+        assertThat(registry.snapshot().get("Dijkstra.path_graph.runs"), is(equalTo(0L)));
+    }
+
+    @Test
+    public void failedRuns() {
+        MetricsRegistry registry = new MetricsRegistry();
+        AbstractAlgorithm<Object, Object> failing = new AbstractAlgorithm<Object, Object>() {
+            @Override
+            protected Object runAlgorithm(Object problem) {
+                throw new IllegalStateException();
+            }
+        };
+        MeteredAlgorithm<Object, Object> metered = new MeteredAlgorithm<>(failing, registry.get("Failing", "graph"));
+        metered.setProblem(new Object());
+        try {
+            metered.run();
+            fail();
+        } catch (IllegalStateException ex) {
+            // passed on
+        }
+
+        assertThat(metered.getMetrics().getFailures(), is(equalTo(1L)));
+        assertThat(metered.getMetrics().getRuns(), is(equalTo(0L)));
+    }
+}
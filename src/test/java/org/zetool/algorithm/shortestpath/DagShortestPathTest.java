@@ -0,0 +1,118 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.shortestpath;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+import org.zetool.graph.DefaultDirectedGraph;
+import org.zetool.graph.DefaultGraph;
+import org.zetool.graph.Edge;
+import org.zetool.graph.MutableGraph;
+import org.zetool.graph.Node;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class DagShortestPathTest {
+
+    private final MutableGraph graph = new DefaultDirectedGraph(5, 7);
+    private final IdentifiableIntegerMapping<Edge> costs = new IdentifiableIntegerMapping<>(7);
+
+    public DagShortestPathTest() {
+        // 0 -> 1 -> 3, 0 -> 2 -> 3, 1 -> 2, 4 is unreachable and points to 3
+        costs.set(graph.createAndSetEdge(graph.getNode(0), graph.getNode(1)), 2);
+        costs.set(graph.createAndSetEdge(graph.getNode(0), graph.getNode(2)), 6);
+        costs.set(graph.createAndSetEdge(graph.getNode(1), graph.getNode(2)), -3);
+        costs.set(graph.createAndSetEdge(graph.getNode(1), graph.getNode(3)), 4);
+        costs.set(graph.createAndSetEdge(graph.getNode(2), graph.getNode(3)), 1);
+        costs.set(graph.createAndSetEdge(graph.getNode(4), graph.getNode(3)), -10);
+    }
+
+    @Test
+    public void shortestPathsWithNegativeCosts() {
+        IntegralShortestPathSolution solution = run(new DagShortestPath(), graph.getNode(0), null);
+
+        assertThat(solution.getDistance(graph.getNode(0)), is(equalTo(0)));
+        assertThat(solution.getDistance(graph.getNode(1)), is(equalTo(2)));
+        assertThat(solution.getDistance(graph.getNode(2)), is(equalTo(-1)));
+        assertThat(solution.getDistance(graph.getNode(3)), is(equalTo(0)));
+        assertThat(solution.getDistance(graph.getNode(4)), is(equalTo(Integer.MAX_VALUE)));
+        assertThat(solution.getPredecessor(graph.getNode(3)), is(equalTo(graph.getNode(2))));
+        assertThat(solution.getPredecessor(graph.getNode(2)), is(equalTo(graph.getNode(1))));
+    }
+
+    @Test
+    public void longestPaths() {
+        IntegralShortestPathSolution solution = run(new DagShortestPath(true), graph.getNode(0), null);
+
+        assertThat(solution.getDistance(graph.getNode(2)), is(equalTo(6)));
+        assertThat(solution.getDistance(graph.getNode(3)), is(equalTo(7)));
+        assertThat(solution.getPredecessor(graph.getNode(3)), is(equalTo(graph.getNode(2))));
+        assertThat(solution.getDistance(graph.getNode(4)), is(equalTo(Integer.MIN_VALUE)));
+    }
+
+    @Test
+    public void targetIsFinal() {
+        Node target = graph.getNode(2);
+        IntegralShortestPathSolution solution = run(new DagShortestPath(), graph.getNode(0), target);
+
+        assertThat(solution.getDistance(target), is(equalTo(-1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cyclicGraphRejected() {
+        graph.createAndSetEdge(graph.getNode(3), graph.getNode(0));
+        run(new DagShortestPath(), graph.getNode(0), null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void undirectedGraphRejected() {
+        MutableGraph undirected = new DefaultGraph(2, 1);
+        undirected.createAndSetEdge(undirected.getNode(0), undirected.getNode(1));
+        run(new DagShortestPath(), undirected, undirected.getNode(0), null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void foreignSourceRejected() {
+        run(new DagShortestPath(), new Node(5), null);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void overflowRejected() {
+        MutableGraph path = new DefaultDirectedGraph(3, 2);
+        IdentifiableIntegerMapping<Edge> large = new IdentifiableIntegerMapping<>(2);
+        large.set(path.createAndSetEdge(path.getNode(0), path.getNode(1)), Integer.MAX_VALUE - 1);
+        large.set(path.createAndSetEdge(path.getNode(1), path.getNode(2)), 2);
+        DagShortestPath algorithm = new DagShortestPath(true);
+        algorithm.setProblem(new IntegralSingleSourceShortestPathProblem(path, large, path.getNode(0)));
+        algorithm.run();
+    }
+
+    private IntegralShortestPathSolution run(DagShortestPath algorithm, Node source, Node target) {
+        return run(algorithm, graph, source, target);
+    }
+
+    private IntegralShortestPathSolution run(DagShortestPath algorithm, MutableGraph g, Node source, Node target) {
+        algorithm.setProblem(new IntegralSingleSourceShortestPathProblem(g, costs, source, target));
+        algorithm.run();
+        return algorithm.getSolution();
+    }
+}
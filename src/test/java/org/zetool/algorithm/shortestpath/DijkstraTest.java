@@ -26,6 +26,8 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
 
+import org.zetool.algorithm.instrumentation.Counter;
+import org.zetool.algorithm.instrumentation.OperationCounts;
 import org.zetool.container.mapping.IdentifiableConstantMapping;
 import org.zetool.container.mapping.IdentifiableIntegerMapping;
 import org.zetool.graph.DefaultDirectedGraph;
@@ -34,6 +36,7 @@ import org.zetool.graph.Edge;
 import org.zetool.graph.MutableDirectedGraph;
 import org.zetool.graph.MutableGraph;
 import org.zetool.graph.Node;
+import org.zetool.graph.attribute.IntColumn;
 
 /**
  *
@@ -206,6 +209,43 @@ public class DijkstraTest {
         assertThat(solution.getPredecessor(target), is(equalTo(upperIntermediate)));
     }
 
+    @Test
+    public void operationCounts() {
+        MutableGraph graph = createGraphInstance(directed, 4, 4);
+        Edge upperFirst = graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        graph.createAndSetEdge(graph.getNode(1), graph.getNode(3));
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(2));
+        graph.createAndSetEdge(graph.getNode(2), graph.getNode(3));
+        IdentifiableIntegerMapping<Edge> costs = new IdentifiableIntegerMapping<>(4);
+        costs.set(upperFirst, 0);
+
+        IntegralSingleSourceShortestPathProblem ssspProblem = new IntegralSingleSourceShortestPathProblem(graph, costs, graph.getNode(0));
+        Dijkstra dijkstra = new Dijkstra();
+        dijkstra.setInstrumented(true);
+        dijkstra.setProblem(ssspProblem);
+        dijkstra.run();
+
+        OperationCounts counts = dijkstra.getOperationCounts();
+        assertThat(counts.get(Counter.NODES_SETTLED), is(equalTo(4L)));
+        assertThat(counts.get(Counter.EDGES_SCANNED), is(equalTo(directed ? 4L : 8L)));
+        assertThat(counts.get(Counter.RELAXATIONS), is(equalTo(3L)));
+        assertThat(counts.get(Counter.HEAP_INSERTS), is(equalTo(4L)));
+        assertThat(counts.get(Counter.HEAP_DECREASE_KEYS), is(equalTo(4L)));
+        assertThat(counts.get(Counter.HEAP_EXTRACTS), is(equalTo(4L)));
+        assertThat(counts.get(Counter.PEAK_QUEUE_SIZE), is(equalTo(4L)));
+        assertThat(counts.get(Counter.UNION_FIND_OPERATIONS), is(equalTo(0L)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void noOperationCountsByDefault() {
+        MutableGraph graph = createGraphInstance(directed, 1, 0);
+        Dijkstra dijkstra = new Dijkstra();
+        dijkstra.setProblem(new IntegralSingleSourceShortestPathProblem(graph, new IdentifiableConstantMapping<>(0), graph.getNode(0)));
+        dijkstra.run();
+
+        dijkstra.getOperationCounts();
+    }
+
     /**
      * Shortest path along {@code s -> 3 -> 1 -> t} with cost 3.
      */
@@ -297,6 +337,33 @@ public class DijkstraTest {
         assertThat(solution.getPredecessor(cycleGraph.target), is(equalTo(cycleGraph.node1)));
     }
 
+    @Test
+    public void columnCosts() {
+        MutableGraph graph = createGraphInstance(directed, 4, 5);
+        int[] edgeCosts = {4, 1, 2, 7, 1};
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(2));
+        graph.createAndSetEdge(graph.getNode(2), graph.getNode(1));
+        graph.createAndSetEdge(graph.getNode(1), graph.getNode(3));
+        graph.createAndSetEdge(graph.getNode(2), graph.getNode(3));
+
+        for (IntColumn<Edge> costs : Arrays.asList(new IntColumn<Edge>(5), IntColumn.<Edge>direct(5))) {
+            for (int id = 0; id < edgeCosts.length; ++id) {
+                costs.set(id, edgeCosts[id]);
+            }
+            Dijkstra dijkstra = new Dijkstra();
+            dijkstra.setProblem(new IntegralSingleSourceShortestPathProblem(graph, costs, graph.getNode(0)));
+            dijkstra.run();
+
+            IntegralShortestPathSolution solution = dijkstra.getSolution();
+
+            assertThat(solution.getDistance(graph.getNode(1)), is(equalTo(3)));
+            assertThat(solution.getDistance(graph.getNode(2)), is(equalTo(1)));
+            assertThat(solution.getDistance(graph.getNode(3)), is(equalTo(2)));
+            assertThat(solution.getLastEdge(graph.getNode(3)), is(equalTo(graph.getEdge(4))));
+        }
+    }
+
     @Test
     public void partial() {
         MutableGraph graph = createGraphInstance(directed, 3, 2);
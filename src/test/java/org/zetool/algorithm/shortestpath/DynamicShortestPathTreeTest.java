@@ -0,0 +1,133 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.shortestpath;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+import org.zetool.graph.DefaultDirectedGraph;
+import org.zetool.graph.DefaultGraph;
+import org.zetool.graph.Edge;
+import org.zetool.graph.MutableGraph;
+import org.zetool.graph.Node;
+import org.zetool.graph.ObservableGraph;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class DynamicShortestPathTreeTest {
+
+    @Test
+    public void directedRandomUpdates() {
+        randomUpdates(new DefaultDirectedGraph(60, 240));
+    }
+
+    @Test
+    public void undirectedRandomUpdates() {
+        randomUpdates(new DefaultGraph(60, 150));
+    }
+
+    @Test
+    public void localRepairOnLongPath() {
+        int n = 1000;
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(n, n);
+        IdentifiableIntegerMapping<Edge> costs = new IdentifiableIntegerMapping<>(n);
+        for (int i = 0; i + 1 < n; ++i) {
+            costs.set(graph.createAndSetEdge(graph.getNode(i), graph.getNode(i + 1)), 1);
+        }
+        Edge shortcut = graph.createAndSetEdge(graph.getNode(n - 3), graph.getNode(n - 1));
+        costs.set(shortcut, 1);
+        DynamicShortestPathTree tree = new DynamicShortestPathTree(graph, costs, graph.getNode(0));
+
+        assertThat(tree.getSolution().getDistance(graph.getNode(n - 1)), is(equalTo(n - 2)));
+
+        graph.setHidden(shortcut, true);
+        assertThat(tree.getSolution().getDistance(graph.getNode(n - 1)), is(equalTo(n - 1)));
+        assertThat(tree.getLastUpdateSize(), is(lessThan(3)));
+
+        tree.setCost(graph.getEdge(graph.getNode(0), graph.getNode(1)), 5);
+        assertThat(tree.getSolution().getDistance(graph.getNode(n - 1)), is(equalTo(n + 3)));
+
+        tree.detach();
+        graph.setHidden(shortcut, false);
+        assertThat(tree.getSolution().getDistance(graph.getNode(n - 1)), is(equalTo(n + 3)));
+    }
+
+    private static <G extends MutableGraph & ObservableGraph> void randomUpdates(G graph) {
+        Random random = new Random(30);
+        int n = graph.nodeCount();
+        IdentifiableIntegerMapping<Edge> costs = new IdentifiableIntegerMapping<>(graph.getEdgeCapacity());
+        List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < graph.getEdgeCapacity() / 2; ++i) {
+            Edge edge = graph.createAndSetEdge(graph.getNode(random.nextInt(n)), graph.getNode(random.nextInt(n)));
+            costs.set(edge, random.nextInt(10));
+            edges.add(edge);
+        }
+        DynamicShortestPathTree tree = new DynamicShortestPathTree(graph, costs, graph.getNode(0));
+        assertSameAsDijkstra(graph, costs, tree);
+
+        for (int step = 0; step < 400; ++step) {
+            Edge edge = edges.get(random.nextInt(edges.size()));
+            switch (random.nextInt(3)) {
+                case 0:
+                    if (graph instanceof DefaultDirectedGraph) {
+                        ((DefaultDirectedGraph) graph).setHidden(edge, !((DefaultDirectedGraph) graph).isHidden(edge));
+                    } else {
+                        ((DefaultGraph) graph).setHidden(edge, !((DefaultGraph) graph).isHidden(edge));
+                    }
+                    break;
+                case 1:
+                    tree.setCost(edge, random.nextInt(10));
+                    break;
+                default:
+                    if (edges.size() < graph.getEdgeCapacity()) {
+                        Edge added = graph.createAndSetEdge(graph.getNode(random.nextInt(n)),
+                                graph.getNode(random.nextInt(n)));
+                        tree.setCost(added, random.nextInt(10));
+                        edges.add(added);
+                    }
+            }
+            assertSameAsDijkstra(graph, costs, tree);
+        }
+    }
+
+    private static void assertSameAsDijkstra(MutableGraph graph, IdentifiableIntegerMapping<Edge> costs,
+            DynamicShortestPathTree tree) {
+        Dijkstra dijkstra = new Dijkstra();
+        dijkstra.setProblem(new IntegralSingleSourceShortestPathProblem(graph, costs, graph.getNode(0)));
+        dijkstra.run();
+        IntegralShortestPathSolution solution = tree.getSolution();
+        for (Node node : graph.nodes()) {
+            int distance = solution.getDistance(node);
+            assertThat(distance, is(equalTo(dijkstra.getSolution().getDistance(node))));
+            if (distance != Integer.MAX_VALUE && !node.equals(graph.getNode(0))) {
+                Edge last = solution.getLastEdge(node);
+                Node predecessor = solution.getPredecessor(node);
+                assertThat(graph.contains(last), is(true));
+                assertThat(solution.getDistance(predecessor) + costs.get(last), is(equalTo(distance)));
+            }
+        }
+    }
+}
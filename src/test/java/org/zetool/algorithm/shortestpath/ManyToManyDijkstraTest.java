@@ -0,0 +1,126 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.shortestpath;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+import org.zetool.graph.DefaultDirectedGraph;
+import org.zetool.graph.DefaultGraph;
+import org.zetool.graph.Edge;
+import org.zetool.graph.Graph;
+import org.zetool.graph.MutableGraph;
+import org.zetool.graph.Node;
+import org.zetool.graph.util.GraphUtil;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class ManyToManyDijkstraTest {
+
+    @Test
+    public void path() {
+        MutableGraph graph = new DefaultDirectedGraph(4, 3);
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        graph.createAndSetEdge(graph.getNode(1), graph.getNode(2));
+        graph.createAndSetEdge(graph.getNode(2), graph.getNode(3));
+
+        DistanceTable table = run(graph, GraphUtil.UNIT_EDGE_MAPPING,
+                Arrays.asList(graph.getNode(2), graph.getNode(0)), Arrays.asList(graph.getNode(3), graph.getNode(1)),
+                false);
+
+        assertThat(table.getDistances(), is(equalTo(new int[]{
+            1, DistanceTable.UNREACHABLE,
+            3, 1})));
+        assertThat(table.getDistance(graph.getNode(0), graph.getNode(3)), is(equalTo(3)));
+    }
+
+    @Test
+    public void directedMatchesDijkstra() {
+        compareWithDijkstra(new DefaultDirectedGraph(700, 2_000), 60, 25);
+    }
+
+    @Test
+    public void undirectedMatchesDijkstra() {
+        compareWithDijkstra(new DefaultGraph(300, 400), 20, 40);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateTarget() {
+        MutableGraph graph = new DefaultGraph(2, 0);
+        new DistanceTableProblem(graph, GraphUtil.UNIT_EDGE_MAPPING, Arrays.asList(graph.getNode(0)),
+                Arrays.asList(graph.getNode(1), graph.getNode(1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nodeNotInGraph() {
+        MutableGraph graph = new DefaultGraph(2, 0);
+        new DistanceTableProblem(graph, GraphUtil.UNIT_EDGE_MAPPING, Arrays.asList(new Node(5)),
+                Arrays.asList(graph.getNode(1)));
+    }
+
+    private static void compareWithDijkstra(MutableGraph graph, int sourceCount, int targetCount) {
+        Random random = new Random(49);
+        IdentifiableIntegerMapping<Edge> costs = new IdentifiableIntegerMapping<>(graph.getEdgeCapacity());
+        for (int i = 0; i < graph.getEdgeCapacity(); ++i) {
+            Edge edge = graph.createAndSetEdge(graph.getNode(random.nextInt(graph.nodeCount())),
+                    graph.getNode(random.nextInt(graph.nodeCount())));
+            costs.set(edge, random.nextInt(20));
+        }
+        List<Node> sources = new ArrayList<>();
+        for (int i = 0; i < sourceCount; ++i) {
+            sources.add(graph.getNode(random.nextInt(graph.nodeCount())));
+        }
+        List<Node> targets = new ArrayList<>();
+        for (int i = 0; targets.size() < targetCount; ++i) {
+            Node target = graph.getNode(random.nextInt(graph.nodeCount()));
+            if (!targets.contains(target)) {
+                targets.add(target);
+            }
+        }
+
+        for (boolean parallel : new boolean[]{false, true}) {
+            DistanceTable table = run(graph, costs, sources, targets, parallel);
+
+            for (int row = 0; row < sourceCount; ++row) {
+                Dijkstra dijkstra = new Dijkstra();
+                dijkstra.setProblem(new IntegralSingleSourceShortestPathProblem(graph, costs, sources.get(row)));
+                dijkstra.run();
+                for (int column = 0; column < targetCount; ++column) {
+                    assertThat(table.getDistance(row, column),
+                            is(equalTo(dijkstra.getSolution().getDistance(targets.get(column)))));
+                }
+            }
+        }
+    }
+
+    private static DistanceTable run(Graph graph, IdentifiableIntegerMapping<Edge> costs, List<Node> sources,
+            List<Node> targets, boolean parallel) {
+        ManyToManyDijkstra algorithm = new ManyToManyDijkstra(parallel);
+        algorithm.setProblem(new DistanceTableProblem(graph, costs, sources, targets));
+        algorithm.run();
+        return algorithm.getSolution();
+    }
+}
@@ -0,0 +1,49 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.shortestpath;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+import org.zetool.algorithm.instrumentation.Counter;
+import org.zetool.algorithm.instrumentation.OperationCounts;
+import org.zetool.container.mapping.IdentifiableConstantMapping;
+import org.zetool.graph.DefaultDirectedGraph;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class MooreBellmanFordTest {
+
+    @Test
+    public void operationCounts() {
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(3, 2);
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        graph.createAndSetEdge(graph.getNode(1), graph.getNode(2));
+
+        MooreBellmanFord mbf = new MooreBellmanFord(graph, new IdentifiableConstantMapping<>(1), graph.getNode(0));
+        mbf.setInstrumented(true);
+        mbf.run();
+
+        assertThat(mbf.getDistance(graph.getNode(2)), is(equalTo(2.0)));
+        OperationCounts counts = mbf.getOperationCounts();
+        assertThat(counts.get(Counter.EDGES_SCANNED), is(equalTo(6L)));
+        assertThat(counts.get(Counter.RELAXATIONS), is(equalTo(2L)));
+    }
+}
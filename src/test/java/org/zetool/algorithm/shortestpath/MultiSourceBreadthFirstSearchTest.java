@@ -0,0 +1,116 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.shortestpath;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.zetool.graph.DefaultDirectedGraph;
+import org.zetool.graph.DefaultGraph;
+import org.zetool.graph.MutableGraph;
+import org.zetool.graph.Node;
+import org.zetool.graph.util.GraphUtil;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class MultiSourceBreadthFirstSearchTest {
+
+    @Test
+    public void path() {
+        MutableGraph graph = new DefaultDirectedGraph(4, 3);
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        graph.createAndSetEdge(graph.getNode(1), graph.getNode(2));
+        graph.createAndSetEdge(graph.getNode(2), graph.getNode(3));
+
+        DistanceTable table = run(graph, Arrays.asList(graph.getNode(1), graph.getNode(0)), false);
+
+        assertThat(table.getDistances(), is(equalTo(new int[]{
+            DistanceTable.UNREACHABLE, 0, 1, 2,
+            0, 1, 2, 3})));
+        assertThat(table.getDistance(graph.getNode(0), graph.getNode(3)), is(equalTo(3)));
+
+        DistanceTable reverse = run(graph, Arrays.asList(graph.getNode(3)), true);
+        assertThat(reverse.getDistances(), is(equalTo(new int[]{3, 2, 1, 0})));
+    }
+
+    @Test
+    public void directedMatchesDijkstra() {
+        compareWithDijkstra(new DefaultDirectedGraph(700, 2_000), 600);
+    }
+
+    @Test
+    public void undirectedMatchesDijkstra() {
+        compareWithDijkstra(new DefaultGraph(300, 400), 70);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void hiddenSource() {
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(3, 2);
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        graph.createAndSetEdge(graph.getNode(1), graph.getNode(2));
+        graph.setHidden(graph.getNode(1), true);
+
+        run(graph, Arrays.asList(graph.getNode(0), graph.getNode(1)), false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sourceNotInGraph() {
+        MutableGraph graph = new DefaultDirectedGraph(2, 0);
+
+        run(graph, Arrays.asList(new Node(2)), false);
+    }
+
+    private static void compareWithDijkstra(MutableGraph graph, int sourceCount) {
+        Random random = new Random(28);
+        for (int i = 0; i < graph.getEdgeCapacity(); ++i) {
+            graph.createAndSetEdge(graph.getNode(random.nextInt(graph.nodeCount())),
+                    graph.getNode(random.nextInt(graph.nodeCount())));
+        }
+        List<Node> sources = new ArrayList<>();
+        for (int i = 0; i < sourceCount; ++i) {
+            sources.add(graph.getNode(random.nextInt(graph.nodeCount())));
+        }
+
+        DistanceTable table = run(graph, sources, false);
+
+        for (int row = 0; row < sourceCount; ++row) {
+            Dijkstra dijkstra = new Dijkstra();
+            dijkstra.setProblem(new IntegralSingleSourceShortestPathProblem(graph, GraphUtil.UNIT_EDGE_MAPPING,
+                    sources.get(row)));
+            dijkstra.run();
+            for (Node node : graph.nodes()) {
+                assertThat(table.getDistance(row, node.id()), is(equalTo(dijkstra.getSolution().getDistance(node))));
+            }
+        }
+    }
+
+    private static DistanceTable run(MutableGraph graph, List<Node> sources, boolean reverse) {
+        MultiSourceBreadthFirstSearch msbfs = new MultiSourceBreadthFirstSearch(reverse);
+        msbfs.setSources(sources);
+        msbfs.setProblem(graph);
+        msbfs.run();
+        return msbfs.getSolution();
+    }
+}
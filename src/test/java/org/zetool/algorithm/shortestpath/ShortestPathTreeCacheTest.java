@@ -0,0 +1,185 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.shortestpath;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+import org.zetool.graph.ConcurrentDirectedGraph;
+import org.zetool.graph.DefaultDirectedGraph;
+import org.zetool.graph.DefaultGraph;
+import org.zetool.graph.Edge;
+import org.zetool.graph.MutableGraph;
+import org.zetool.graph.Node;
+import org.zetool.graph.util.GraphUtil;
+import org.zetool.graph.util.VersionedIntegerMapping;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class ShortestPathTreeCacheTest {
+
+    @Test
+    public void matchesDijkstra() {
+        for (boolean reverse : new boolean[]{false, true}) {
+            DefaultDirectedGraph graph = new DefaultDirectedGraph(200, 800);
+            VersionedIntegerMapping<Edge> costs = randomEdges(graph);
+            ShortestPathTreeCache cache = new ShortestPathTreeCache(1 << 20);
+            Node source = graph.getNode(7);
+
+            ShortestPathTree tree = cache.get(graph, costs, source, reverse);
+
+            Dijkstra dijkstra = new Dijkstra(reverse);
+            dijkstra.setProblem(new IntegralSingleSourceShortestPathProblem(graph, costs, source));
+            dijkstra.run();
+            for (Node node : graph.nodes()) {
+                int distance = dijkstra.getSolution().getDistance(node);
+                assertThat(tree.getDistance(node.id()), is(equalTo(distance)));
+                if (node.equals(source) || distance == DistanceTable.UNREACHABLE) {
+                    assertThat(tree.getPredecessorEdge(node.id()), is(equalTo(-1)));
+                } else {
+                    Edge edge = graph.getEdge(tree.getPredecessorEdge(node.id()));
+                    Node predecessor = edge.opposite(node);
+                    assertThat(tree.getDistance(predecessor.id()) + costs.get(edge), is(equalTo(distance)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void cachedPerSourceAndDirection() {
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(50, 200);
+        VersionedIntegerMapping<Edge> costs = randomEdges(graph);
+        ShortestPathTreeCache cache = new ShortestPathTreeCache(1 << 20);
+
+        ShortestPathTree tree = cache.get(graph, costs, graph.getNode(0), false);
+        assertThat(cache.get(graph, costs, graph.getNode(0), false), is(sameInstance(tree)));
+        assertThat(cache.get(graph, costs, graph.getNode(0), true), is(not(sameInstance(tree))));
+        assertThat(cache.get(graph, costs, graph.getNode(1), false), is(not(sameInstance(tree))));
+
+        assertThat(cache.getHitCount(), is(equalTo(1L)));
+        assertThat(cache.getMissCount(), is(equalTo(3L)));
+        assertThat(cache.getTreeCount(), is(equalTo(3)));
+    }
+
+    @Test
+    public void graphChangesInvalidate() {
+        DefaultGraph graph = new DefaultGraph(3, 3);
+        Edge edge = graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        graph.createAndSetEdge(graph.getNode(1), graph.getNode(2));
+        ShortestPathTreeCache cache = new ShortestPathTreeCache(1 << 20);
+        Node source = graph.getNode(0);
+        assertThat(cache.get(graph, GraphUtil.UNIT_EDGE_MAPPING, source, false).getDistance(2), is(equalTo(2)));
+
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(2));
+        assertThat(cache.get(graph, GraphUtil.UNIT_EDGE_MAPPING, source, false).getDistance(2), is(equalTo(1)));
+
+        graph.setHidden(edge, true);
+        assertThat(cache.get(graph, GraphUtil.UNIT_EDGE_MAPPING, source, false).getDistance(1), is(equalTo(2)));
+
+        graph.showAllEdges();
+        assertThat(cache.get(graph, GraphUtil.UNIT_EDGE_MAPPING, source, false).getDistance(1), is(equalTo(1)));
+        assertThat(cache.getHitCount(), is(equalTo(0L)));
+        assertThat(cache.getTreeCount(), is(equalTo(1)));
+    }
+
+    @Test
+    public void costChangesInvalidate() {
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(2, 1);
+        Edge edge = graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        VersionedIntegerMapping<Edge> costs = new VersionedIntegerMapping<>(1);
+        costs.set(edge, 3);
+        ShortestPathTreeCache cache = new ShortestPathTreeCache(1 << 20);
+        assertThat(cache.get(graph, costs, graph.getNode(0), false).getDistance(1), is(equalTo(3)));
+
+        costs.increase(edge, 2);
+        assertThat(cache.get(graph, costs, graph.getNode(0), false).getDistance(1), is(equalTo(5)));
+        assertThat(cache.get(graph, costs, graph.getNode(0), false).getDistance(1), is(equalTo(5)));
+        assertThat(cache.getHitCount(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void unversionedCostsAreNotCached() {
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(2, 1);
+        Edge edge = graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        IdentifiableIntegerMapping<Edge> costs = new IdentifiableIntegerMapping<>(1);
+        costs.set(edge, 3);
+        ShortestPathTreeCache cache = new ShortestPathTreeCache(1 << 20);
+        cache.get(graph, costs, graph.getNode(0), false);
+
+        costs.set(edge, 4);
+        assertThat(cache.get(graph, costs, graph.getNode(0), false).getDistance(1), is(equalTo(4)));
+        assertThat(cache.getTreeCount(), is(equalTo(0)));
+    }
+
+    @Test
+    public void leastRecentlyUsedTreesAreEvicted() {
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(100, 300);
+        VersionedIntegerMapping<Edge> costs = randomEdges(graph);
+        ShortestPathTreeCache probe = new ShortestPathTreeCache(1 << 20);
+        probe.get(graph, costs, graph.getNode(0), false);
+        ShortestPathTreeCache cache = new ShortestPathTreeCache(2 * probe.getSize());
+
+        ShortestPathTree first = cache.get(graph, costs, graph.getNode(0), false);
+        ShortestPathTree second = cache.get(graph, costs, graph.getNode(1), false);
+        assertThat(cache.get(graph, costs, graph.getNode(0), false), is(sameInstance(first)));
+        cache.get(graph, costs, graph.getNode(2), false);
+
+        assertThat(cache.getTreeCount(), is(equalTo(2)));
+        assertThat(cache.getSize(), is(equalTo(2 * probe.getSize())));
+        assertThat(cache.get(graph, costs, graph.getNode(0), false), is(sameInstance(first)));
+        assertThat(cache.get(graph, costs, graph.getNode(1), false), is(not(sameInstance(second))));
+    }
+
+    @Test
+    public void modificationCounts() {
+        DefaultDirectedGraph directed = new DefaultDirectedGraph(2, 1);
+        long version = directed.getModificationCount();
+        Edge edge = directed.createAndSetEdge(directed.getNode(0), directed.getNode(1));
+        assertThat(directed.getModificationCount(), is(not(equalTo(version))));
+        version = directed.getModificationCount();
+        directed.setHidden(edge, false);
+        assertThat(directed.getModificationCount(), is(equalTo(version)));
+        directed.setHidden(directed.getNode(1), true);
+        assertThat(directed.getModificationCount(), is(not(equalTo(version))));
+
+        ConcurrentDirectedGraph concurrent = new ConcurrentDirectedGraph(2, 1);
+        version = concurrent.getModificationCount();
+        concurrent.createAndSetEdge(concurrent.getNode(0), concurrent.getNode(1));
+        assertThat(concurrent.getModificationCount(), is(equalTo(version + 1)));
+        concurrent.setNodeCapacity(3);
+        assertThat(concurrent.getModificationCount(), is(equalTo(version + 2)));
+    }
+
+    private static VersionedIntegerMapping<Edge> randomEdges(MutableGraph graph) {
+        Random random = new Random(50);
+        VersionedIntegerMapping<Edge> costs = new VersionedIntegerMapping<>(graph.getEdgeCapacity());
+        for (int i = 0; i < graph.getEdgeCapacity(); ++i) {
+            Edge edge = graph.createAndSetEdge(graph.getNode(random.nextInt(graph.nodeCount())),
+                    graph.getNode(random.nextInt(graph.nodeCount())));
+            costs.set(edge, random.nextInt(10));
+        }
+        return costs;
+    }
+}
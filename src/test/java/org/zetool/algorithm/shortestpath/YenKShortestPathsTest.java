@@ -0,0 +1,159 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.algorithm.shortestpath;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+import org.zetool.graph.DefaultDirectedGraph;
+import org.zetool.graph.Edge;
+import org.zetool.graph.Node;
+import org.zetool.graph.structure.Path;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class YenKShortestPathsTest {
+
+    @Test
+    public void textbookInstance() {
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(6, 9);
+        IdentifiableIntegerMapping<Edge> costs = new IdentifiableIntegerMapping<>(9);
+        int[][] edges = {{0, 1, 3}, {0, 2, 2}, {1, 3, 4}, {2, 1, 1}, {2, 3, 2}, {2, 4, 3}, {3, 4, 2}, {3, 5, 1},
+            {4, 5, 2}};
+        for (int[] edge : edges) {
+            costs.set(graph.createAndSetEdge(graph.getNode(edge[0]), graph.getNode(edge[1])), edge[2]);
+        }
+
+        List<Path> paths = run(graph, costs, 0, 5, 3, false);
+
+        assertThat(paths.size(), is(equalTo(3)));
+        assertThat(nodes(paths.get(0)), contains(0, 2, 3, 5));
+        assertThat(nodes(paths.get(1)), contains(0, 2, 4, 5));
+        assertThat(nodes(paths.get(2)), contains(0, 1, 3, 5));
+    }
+
+    @Test
+    public void lazyIteratorStopsWhenExhausted() {
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(3, 3);
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        graph.createAndSetEdge(graph.getNode(1), graph.getNode(2));
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(2));
+        IdentifiableIntegerMapping<Edge> costs = new IdentifiableIntegerMapping<>(3);
+        for (Edge edge : graph.edges()) {
+            costs.set(edge, 1);
+        }
+
+        KShortestPathIterator paths = new KShortestPathIterator(
+                new IntegralSingleSourceShortestPathProblem(graph, costs, graph.getNode(0), graph.getNode(2)));
+
+        assertThat(paths.next().length(), is(equalTo(1)));
+        assertThat(paths.getLastCost(), is(equalTo(1L)));
+        assertThat(paths.next().length(), is(equalTo(2)));
+        assertThat(paths.getLastCost(), is(equalTo(2L)));
+        assertThat(paths.hasNext(), is(false));
+    }
+
+    @Test
+    public void sourceIsTarget() {
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(2, 2);
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        graph.createAndSetEdge(graph.getNode(1), graph.getNode(0));
+        IdentifiableIntegerMapping<Edge> costs = new IdentifiableIntegerMapping<>(2);
+
+        List<Path> paths = run(graph, costs, 0, 0, 5, false);
+
+        assertThat(paths.size(), is(equalTo(1)));
+        assertThat(paths.get(0).length(), is(equalTo(0)));
+    }
+
+    @Test
+    public void randomInstancesMatchEnumeration() {
+        Random random = new Random(29);
+        for (int instance = 0; instance < 20; ++instance) {
+            DefaultDirectedGraph graph = new DefaultDirectedGraph(7, 18);
+            IdentifiableIntegerMapping<Edge> costs = new IdentifiableIntegerMapping<>(18);
+            for (int i = 0; i < 18; ++i) {
+                Edge edge = graph.createAndSetEdge(graph.getNode(random.nextInt(7)), graph.getNode(random.nextInt(7)));
+                costs.set(edge, random.nextInt(5));
+            }
+            List<Long> expected = new ArrayList<>();
+            enumerate(graph, costs, graph.getNode(0), graph.getNode(6), new boolean[7], 0, expected);
+            Collections.sort(expected);
+
+            List<Path> sequential = run(graph, costs, 0, 6, 10, false);
+            List<Path> parallel = run(graph, costs, 0, 6, 10, true);
+
+            assertThat(sequential.size(), is(equalTo(Math.min(10, expected.size()))));
+            assertThat(parallel.size(), is(equalTo(sequential.size())));
+            for (int i = 0; i < sequential.size(); ++i) {
+                assertThat(cost(sequential.get(i), costs), is(equalTo(expected.get(i))));
+                assertThat(nodes(parallel.get(i)), is(equalTo(nodes(sequential.get(i)))));
+            }
+        }
+    }
+
+    private static void enumerate(DefaultDirectedGraph graph, IdentifiableIntegerMapping<Edge> costs, Node v,
+            Node target, boolean[] visited, long cost, List<Long> result) {
+        if (v.equals(target)) {
+            result.add(cost);
+            return;
+        }
+        visited[v.id()] = true;
+        for (Edge edge : graph.outgoingEdges(v)) {
+            if (!visited[edge.end().id()]) {
+                enumerate(graph, costs, edge.end(), target, visited, cost + costs.get(edge), result);
+            }
+        }
+        visited[v.id()] = false;
+    }
+
+    private static long cost(Path path, IdentifiableIntegerMapping<Edge> costs) {
+        long cost = 0;
+        for (Edge edge : path) {
+            cost += costs.get(edge);
+        }
+        return cost;
+    }
+
+    private static List<Integer> nodes(Path path) {
+        List<Integer> nodes = new ArrayList<>();
+        nodes.add(path.start().id());
+        for (Edge edge : path) {
+            nodes.add(edge.end().id());
+        }
+        return nodes;
+    }
+
+    private static List<Path> run(DefaultDirectedGraph graph, IdentifiableIntegerMapping<Edge> costs, int source,
+            int target, int k, boolean parallel) {
+        YenKShortestPaths yen = new YenKShortestPaths(k, parallel);
+        yen.setProblem(new IntegralSingleSourceShortestPathProblem(graph, costs, graph.getNode(source),
+                graph.getNode(target)));
+        yen.run();
+        return yen.getSolution();
+    }
+}
@@ -22,10 +22,13 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.iterableWithSize;
 import static org.junit.Assert.assertThat;
 import static org.zetool.algorithm.spanningtree.TestInstances.createComplexSingleComponentInstance;
+import static org.zetool.algorithm.spanningtree.TestInstances.createColumnCopy;
 import static org.zetool.algorithm.spanningtree.TestInstances.createComplexTwoComponentInstance;
 import static org.zetool.algorithm.spanningtree.TestInstances.createDirectedCopy;
 
 import org.junit.Test;
+import org.zetool.algorithm.instrumentation.Counter;
+import org.zetool.algorithm.instrumentation.OperationCounts;
 import org.zetool.container.mapping.IdentifiableConstantMapping;
 import org.zetool.container.mapping.IdentifiableIntegerMapping;
 import org.zetool.graph.DefaultDirectedGraph;
@@ -70,6 +73,27 @@ public class KruskalAlgorithmTest {
         assertThat(solution.getEdges(), is(iterableWithSize(1)));
     }
 
+    @Test
+    public void operationCounts() {
+        MutableGraph graph = new DefaultGraph(3, 3);
+        IdentifiableIntegerMapping<Edge> weights = new IdentifiableIntegerMapping<>(3);
+        weights.set(graph.createAndSetEdge(graph.getNode(0), graph.getNode(1)), 1);
+        weights.set(graph.createAndSetEdge(graph.getNode(1), graph.getNode(2)), 2);
+        weights.set(graph.createAndSetEdge(graph.getNode(0), graph.getNode(2)), 3);
+
+        KruskalAlgorithm kruskal = new KruskalAlgorithm();
+        kruskal.setInstrumented(true);
+        kruskal.setProblem(new MinSpanningTreeProblem(graph, weights));
+        kruskal.run();
+
+        OperationCounts counts = kruskal.getOperationCounts();
+        assertThat(counts.get(Counter.HEAP_INSERTS), is(equalTo(3L)));
+        assertThat(counts.get(Counter.PEAK_QUEUE_SIZE), is(equalTo(3L)));
+        assertThat(counts.get(Counter.HEAP_EXTRACTS), is(equalTo(2L)));
+        assertThat(counts.get(Counter.EDGES_SCANNED), is(equalTo(2L)));
+        assertThat(counts.get(Counter.UNION_FIND_OPERATIONS), is(equalTo(6L)));
+    }
+
     @Test
     public void parallelEdges() {
         MutableGraph graph = new DefaultGraph(2, 2);
@@ -107,6 +131,25 @@ public class KruskalAlgorithmTest {
         assertThat(cost, is(equalTo(39)));
     }
 
+    @Test
+    public void columnDistances() {
+        for (boolean direct : new boolean[]{false, true}) {
+            MinSpanningTreeProblem mstProblem = createColumnCopy(createComplexSingleComponentInstance(), direct);
+            KruskalAlgorithm kruskal = new KruskalAlgorithm();
+            kruskal.setProblem(mstProblem);
+            kruskal.run();
+
+            UndirectedForest solution = kruskal.getSolution();
+
+            assertThat(solution.getEdges(), is(iterableWithSize(6)));
+            int cost = 0;
+            for (Edge edge : solution.getEdges()) {
+                cost += mstProblem.getDistanceColumn().get().get(edge);
+            }
+            assertThat(cost, is(equalTo(39)));
+        }
+    }
+
     @Test
     public void complexTwoComponentInstance() {
         MinSpanningTreeProblem mstProblem = createComplexTwoComponentInstance();
@@ -22,10 +22,13 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.iterableWithSize;
 import static org.junit.Assert.assertThat;
 import static org.zetool.algorithm.spanningtree.TestInstances.createComplexSingleComponentInstance;
+import static org.zetool.algorithm.spanningtree.TestInstances.createColumnCopy;
 import static org.zetool.algorithm.spanningtree.TestInstances.createComplexTwoComponentInstance;
 import static org.zetool.algorithm.spanningtree.TestInstances.createDirectedCopy;
 
 import org.junit.Test;
+import org.zetool.algorithm.instrumentation.Counter;
+import org.zetool.algorithm.instrumentation.OperationCounts;
 import org.zetool.container.mapping.IdentifiableConstantMapping;
 import org.zetool.container.mapping.IdentifiableIntegerMapping;
 import org.zetool.graph.DefaultGraph;
@@ -68,6 +71,29 @@ public class PrimAlgorithmTest {
         assertThat(solution.getEdges(), is(iterableWithSize(1)));
     }
 
+    @Test
+    public void operationCounts() {
+        MutableGraph graph = new DefaultGraph(3, 3);
+        IdentifiableIntegerMapping<Edge> weights = new IdentifiableIntegerMapping<>(3);
+        weights.set(graph.createAndSetEdge(graph.getNode(0), graph.getNode(1)), 1);
+        weights.set(graph.createAndSetEdge(graph.getNode(1), graph.getNode(2)), 2);
+        weights.set(graph.createAndSetEdge(graph.getNode(0), graph.getNode(2)), 3);
+
+        PrimAlgorithm prim = new PrimAlgorithm();
+        prim.setInstrumented(true);
+        prim.setProblem(new MinSpanningTreeProblem(graph, weights));
+        prim.run();
+
+        OperationCounts counts = prim.getOperationCounts();
+        assertThat(counts.get(Counter.NODES_SETTLED), is(equalTo(3L)));
+        assertThat(counts.get(Counter.EDGES_SCANNED), is(equalTo(6L)));
+        assertThat(counts.get(Counter.RELAXATIONS), is(equalTo(3L)));
+        assertThat(counts.get(Counter.HEAP_INSERTS), is(equalTo(2L)));
+        assertThat(counts.get(Counter.HEAP_DECREASE_KEYS), is(equalTo(1L)));
+        assertThat(counts.get(Counter.HEAP_EXTRACTS), is(equalTo(2L)));
+        assertThat(counts.get(Counter.PEAK_QUEUE_SIZE), is(equalTo(2L)));
+    }
+
     @Test
     public void parallelEdges() {
         MutableGraph graph = new DefaultGraph(2, 2);
@@ -105,6 +131,25 @@ public class PrimAlgorithmTest {
         assertThat(cost, is(equalTo(39)));
     }
 
+    @Test
+    public void columnDistances() {
+        for (boolean direct : new boolean[]{false, true}) {
+            MinSpanningTreeProblem mstProblem = createColumnCopy(createComplexSingleComponentInstance(), direct);
+            PrimAlgorithm prim = new PrimAlgorithm();
+            prim.setProblem(mstProblem);
+            prim.run();
+
+            UndirectedForest solution = prim.getSolution();
+
+            assertThat(solution.getEdges(), is(iterableWithSize(6)));
+            int cost = 0;
+            for (Edge edge : solution.getEdges()) {
+                cost += mstProblem.getDistanceColumn().get().get(edge);
+            }
+            assertThat(cost, is(equalTo(39)));
+        }
+    }
+
     @Test
     public void complexTwoComponentInstance() {
         MinSpanningTreeProblem mstProblem = createComplexTwoComponentInstance();
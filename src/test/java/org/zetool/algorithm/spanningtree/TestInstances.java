@@ -21,6 +21,7 @@ import org.zetool.graph.DefaultGraph;
 import org.zetool.graph.Edge;
 import org.zetool.graph.MutableGraph;
 import org.zetool.graph.Node;
+import org.zetool.graph.attribute.IntColumn;
 
 /**
  * Collection of test instances for minimum spanning tree algorithms.
@@ -128,6 +129,20 @@ public class TestInstances {
         weights.set(newEdge, weight);
     }
 
+    /**
+     * Copies the distances of a minimum spanning tree problem instance into a column.
+     *
+     * @param problem the problem with distances given as mapping
+     * @param direct whether the column is stored outside of the heap
+     * @return the problem on the same graph with distances given as column
+     */
+    static MinSpanningTreeProblem createColumnCopy(MinSpanningTreeProblem problem, boolean direct) {
+        int size = problem.getGraph().edgeCount();
+        IntColumn<Edge> distances = direct ? IntColumn.direct(size) : new IntColumn<>(size);
+        distances.copyFrom(problem.getGraph().edges(), problem.getDistances());
+        return new MinSpanningTreeProblem(problem.getGraph(), distances);
+    }
+
     /**
      * Converts a minimum spanning tree problem instance into another instance using a directed graph by making it
      * bidirectional. The result has the same nodes but uses the double amount of edges.
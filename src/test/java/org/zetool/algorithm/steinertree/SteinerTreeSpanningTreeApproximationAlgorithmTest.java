@@ -29,7 +29,9 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.zetool.container.collection.ListSequence;
 import org.zetool.container.mapping.IdentifiableConstantMapping;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
 import org.zetool.graph.DefaultGraph;
+import org.zetool.graph.Edge;
 import org.zetool.graph.MutableGraph;
 import org.zetool.graph.Node;
 
@@ -61,6 +63,32 @@ public class SteinerTreeSpanningTreeApproximationAlgorithmTest {
         assertThat(steinerTree.getCost(), is(equalTo(20L)));
     }
 
+    /**
+     * The first terminal is connected to the center of a star by an edge of cost 1, the other terminals by edges of
+     * cost 2. The spanning tree of the metric closure consists of the paths from the first terminal to the others,
+     * which share the edge to the center. The shared edge must be contained in the tree and in its cost only once: the
+     * tree has 3 edges of cost 5, not 4 edges of cost 6.
+     */
+    @Test
+    public void sharedPathEdgesCountedOnce() {
+        MutableGraph graph = new DefaultGraph(4, 3);
+        IdentifiableIntegerMapping<Edge> costs = new IdentifiableIntegerMapping<>(3);
+        costs.set(graph.createAndSetEdge(graph.getNode(0), graph.getNode(1)), 1);
+        costs.set(graph.createAndSetEdge(graph.getNode(1), graph.getNode(2)), 2);
+        costs.set(graph.createAndSetEdge(graph.getNode(1), graph.getNode(3)), 2);
+
+        MinSteinerTreeProblem instance = new MinSteinerTreeProblem(graph, costs,
+                new ListSequence<>(Arrays.asList(graph.getNode(0), graph.getNode(2), graph.getNode(3))));
+        SteinerTreeSpanningTreeApproximationAlgorithm approximationAlgorithm
+                = new SteinerTreeSpanningTreeApproximationAlgorithm();
+        approximationAlgorithm.setProblem(instance);
+        approximationAlgorithm.runAlgorithm();
+
+        SteinerTree steinerTree = approximationAlgorithm.getSolution();
+        assertThat(steinerTree.getEdges(), is(iterableWithSize(3)));
+        assertThat(steinerTree.getCost(), is(equalTo(5L)));
+    }
+
     @Parameterized.Parameters
     public static Collection pathNodesAndDistances() {
         return Arrays.asList(new Object[][]{
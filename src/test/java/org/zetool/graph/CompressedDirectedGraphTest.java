@@ -0,0 +1,174 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class CompressedDirectedGraphTest {
+
+    @Test
+    public void smallGraph() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.of(4, new int[]{2, 0, 0, 1, 0},
+                new int[]{3, 2, 1, 3, 2}, true);
+
+        assertThat(graph.nodeCount(), is(equalTo(4)));
+        assertThat(graph.edgeCount(), is(equalTo(5)));
+        assertThat(graph.successorIds(0), is(equalTo(new int[]{1, 2, 2})));
+        assertThat(graph.predecessorIds(3), is(equalTo(new int[]{1, 2})));
+        assertThat(graph.getEdge(3).start().id(), is(equalTo(1)));
+        assertThat(graph.getEdge(3).end().id(), is(equalTo(3)));
+        assertThat(graph.getEdges(graph.getNode(0), graph.getNode(2)), containsInAnyOrder(graph.getEdge(1),
+                graph.getEdge(2)));
+        assertThat(graph.incomingEdges(graph.getNode(2)), containsInAnyOrder(graph.getEdge(1), graph.getEdge(2)));
+        assertThat(graph.getEdge(graph.getNode(3), graph.getNode(0)), is(nullValue()));
+        assertThat(graph.getEdge(5), is(nullValue()));
+        assertThat(graph.degree(graph.getNode(2)), is(equalTo(3)));
+    }
+
+    @Test
+    public void randomGraph() {
+        int n = 2_000;
+        SplittableRandom random = new SplittableRandom(3);
+        int[] sources = random.ints(20_000, 0, n).toArray();
+        int[] targets = random.ints(20_000, 0, n).toArray();
+        assertEquivalent(n, sources, targets);
+    }
+
+    @Test
+    public void gridGraph() {
+        int width = 100;
+        int n = width * width;
+        List<int[]> edges = new ArrayList<>();
+        for (int node = 0; node < n; ++node) {
+            for (int neighbor : new int[]{node - width, node - 1, node + 1, node + width}) {
+                boolean sameRowOrColumn = neighbor / width == node / width || neighbor % width == node % width;
+                if (neighbor >= 0 && neighbor < n && sameRowOrColumn) {
+                    edges.add(new int[]{node, neighbor});
+                }
+            }
+        }
+        int[] sources = edges.stream().mapToInt(edge -> edge[0]).toArray();
+        int[] targets = edges.stream().mapToInt(edge -> edge[1]).toArray();
+        assertEquivalent(n, sources, targets);
+
+        // grid lists have neither runs nor entries shared with preceding lists, only the gaps are compressed
+        long size = CompressedDirectedGraph.of(n, sources, targets, false).byteSize();
+        assertThat(size, is(lessThan(uncompressedSize(n, sources.length) / 2)));
+    }
+
+    @Test
+    public void localGraph() {
+        int n = 10_000;
+        SplittableRandom random = new SplittableRandom(5);
+        List<int[]> edges = new ArrayList<>();
+        for (int node = 0; node < n; ++node) {
+            int first = Math.max(0, node - random.nextInt(8));
+            for (int neighbor = first; neighbor < Math.min(n, first + 8 + random.nextInt(8)); ++neighbor) {
+                edges.add(new int[]{node, neighbor});
+            }
+            if (random.nextInt(4) == 0) {
+                edges.add(new int[]{node, random.nextInt(n)});
+            }
+        }
+        int[] sources = edges.stream().mapToInt(edge -> edge[0]).toArray();
+        int[] targets = edges.stream().mapToInt(edge -> edge[1]).toArray();
+        assertEquivalent(n, sources, targets);
+
+        long size = CompressedDirectedGraph.of(n, sources, targets, false).byteSize();
+        assertThat(size, is(lessThan(uncompressedSize(n, sources.length) / 5)));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void withoutIncomingEdges() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.of(2, new int[]{0}, new int[]{1}, false);
+        assertThat(graph.outDegree(graph.getNode(0)), is(equalTo(1)));
+        graph.incomingEdges(graph.getNode(1));
+    }
+
+    private static CompressedDirectedGraph assertEquivalent(int n, int[] sources, int[] targets) {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.of(n, sources, targets, true);
+        int[][] expected = new int[n][];
+        int[][] expectedIncoming = new int[n][];
+        for (int node = 0; node < n; ++node) {
+            expected[node] = new int[0];
+            expectedIncoming[node] = new int[0];
+        }
+        for (int i = 0; i < sources.length; ++i) {
+            expected[sources[i]] = append(expected[sources[i]], targets[i]);
+            expectedIncoming[targets[i]] = append(expectedIncoming[targets[i]], sources[i]);
+        }
+
+        int edgeId = 0;
+        for (int node = 0; node < n; ++node) {
+            Arrays.sort(expected[node]);
+            Arrays.sort(expectedIncoming[node]);
+            assertThat(graph.successorIds(node), is(equalTo(expected[node])));
+            assertThat(graph.predecessorIds(node), is(equalTo(expectedIncoming[node])));
+            PrimitiveIterator.OfInt iterator = graph.successorIterator(node);
+            for (int successor : expected[node]) {
+                assertThat(iterator.nextInt(), is(equalTo(successor)));
+                Edge edge = graph.getEdge(edgeId++);
+                assertThat(edge.start().id(), is(equalTo(node)));
+                assertThat(edge.end().id(), is(equalTo(successor)));
+            }
+            assertThat(iterator.hasNext(), is(false));
+            for (Edge edge : graph.incomingEdges(graph.getNode(node))) {
+                assertThat(edge, is(equalTo(graph.getEdge(edge.id()))));
+                assertThat(edge.end().id(), is(equalTo(node)));
+            }
+            assertThat(graph.inDegree(graph.getNode(node)), is(equalTo(expectedIncoming[node].length)));
+        }
+        assertThat(edgeId, is(equalTo(sources.length)));
+
+        int count = 0;
+        for (Edge edge : graph.edges()) {
+            assertThat(edge.id(), is(equalTo(count++)));
+            assertThat(graph.contains(edge), is(true));
+        }
+        assertThat(count, is(equalTo(graph.edgeCount())));
+        return graph;
+    }
+
+    /**
+     * Returns the size of successor lists stored as compressed sparse row arrays of {@code int}.
+     */
+    private static long uncompressedSize(int n, int m) {
+        return 4L * (n + 1) + 4L * m;
+    }
+
+    private static int[] append(int[] array, int value) {
+        int[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = value;
+        return result;
+    }
+}
@@ -0,0 +1,143 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class ConcurrentDirectedGraphTest {
+
+    @Test
+    public void createEdges() {
+        ConcurrentDirectedGraph graph = new ConcurrentDirectedGraph(3, 2);
+        Edge e01 = graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        Edge e12 = graph.createAndSetEdge(graph.getNode(1), graph.getNode(2));
+        Edge e02 = graph.createAndSetEdge(graph.getNode(0), graph.getNode(2));
+
+        assertThat(graph.edgeCount(), is(equalTo(3)));
+        assertThat(graph.nodeCount(), is(equalTo(3)));
+        assertThat(e02.id(), is(equalTo(2)));
+        assertThat(graph.getEdge(2), is(equalTo(e02)));
+        assertThat(graph.getEdge(3), is(nullValue()));
+        assertThat(graph.outgoingEdges(graph.getNode(0)), containsInAnyOrder(e01, e02));
+        assertThat(graph.incomingEdges(graph.getNode(2)), containsInAnyOrder(e12, e02));
+        assertThat(graph.incidentEdges(graph.getNode(1)), containsInAnyOrder(e01, e12));
+        assertThat(graph.successorNodes(graph.getNode(0)), containsInAnyOrder(graph.getNode(1), graph.getNode(2)));
+        assertThat(graph.degree(graph.getNode(2)), is(equalTo(2)));
+        assertThat(graph.getEdge(graph.getNode(1), graph.getNode(2)), is(equalTo(e12)));
+        assertThat(graph.getEdge(graph.getNode(2), graph.getNode(1)), is(nullValue()));
+        assertThat(graph.edges(), containsInAnyOrder(e01, e12, e02));
+        assertThat(graph.edges().get(1), is(equalTo(e12)));
+    }
+
+    @Test
+    public void setEdgeSkipsUsedIds() {
+        ConcurrentDirectedGraph graph = new ConcurrentDirectedGraph(2, 0);
+        Edge edge = new Edge(5, graph.getNode(1), graph.getNode(0));
+        graph.setEdges(Arrays.asList(edge, edge));
+
+        Edge created = graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+
+        assertThat(graph.edgeCount(), is(equalTo(2)));
+        assertThat(created.id(), is(equalTo(6)));
+        assertThat(graph.getEdgeCapacity() >= 6, is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nodeNotContained() {
+        ConcurrentDirectedGraph graph = new ConcurrentDirectedGraph(2, 1);
+        graph.createAndSetEdge(graph.getNode(0), new Node(2));
+    }
+
+    @Test
+    public void growingCapacity() {
+        ConcurrentDirectedGraph graph = new ConcurrentDirectedGraph(1, 0);
+        graph.setNodeCapacity(3);
+        for (int i = 0; i < 5000; ++i) {
+            graph.createAndSetEdge(graph.getNode(i % 3), graph.getNode((i + 1) % 3));
+        }
+        assertThat(graph.nodeCount(), is(equalTo(3)));
+        assertThat(graph.edgeCount(), is(equalTo(5000)));
+        assertThat(graph.getEdge(4999).id(), is(equalTo(4999)));
+        assertThat(graph.edges().size(), is(equalTo(5000)));
+    }
+
+    @Test
+    public void concurrentInsertion() throws Exception {
+        int nodeCount = 500;
+        int threads = 8;
+        int edgesPerThread = 20000;
+        ConcurrentDirectedGraph graph = new ConcurrentDirectedGraph(nodeCount, 0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<Edge>>> results = new ArrayList<>();
+        for (int t = 0; t < threads; ++t) {
+            SplittableRandom random = new SplittableRandom(t);
+            Callable<List<Edge>> producer = () -> {
+                List<Edge> created = new ArrayList<>();
+                for (int i = 0; i < edgesPerThread; ++i) {
+                    Node start = graph.getNode(random.nextInt(nodeCount));
+                    Node end = graph.getNode(random.nextInt(nodeCount));
+                    created.add(graph.createAndSetEdge(start, end));
+                }
+                return created;
+            };
+            results.add(executor.submit(producer));
+        }
+        int[] outDegree = new int[nodeCount];
+        int[] inDegree = new int[nodeCount];
+        boolean[] usedIds = new boolean[threads * edgesPerThread];
+        for (Future<List<Edge>> result : results) {
+            for (Edge edge : result.get()) {
+                assertThat(usedIds[edge.id()], is(false));
+                usedIds[edge.id()] = true;
+                outDegree[edge.start().id()]++;
+                inDegree[edge.end().id()]++;
+            }
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        assertThat(graph.edgeCount(), is(equalTo(threads * edgesPerThread)));
+        for (Node node : graph) {
+            assertThat(graph.outDegree(node), is(equalTo(outDegree[node.id()])));
+            assertThat(graph.inDegree(node), is(equalTo(inDegree[node.id()])));
+            for (Edge edge : graph.outgoingEdges(node)) {
+                assertThat(edge.start(), is(equalTo(node)));
+            }
+        }
+        assertThat(graph.copyToImmutable().edgeCount(), is(equalTo(threads * edgesPerThread)));
+    }
+}
@@ -18,6 +18,11 @@ package org.zetool.graph;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Test;
 
 /**
@@ -51,4 +56,32 @@ public class DefaultDirectedGraphTest {
         assertThat(edgeManuallySet.id(), is(equalTo(2)));
         assertThat(edgeStartAgain.id(), is(equalTo(1)));
     }
+
+    @Test
+    public void listenersNotifiedAboutVisibilityChanges() {
+        DefaultDirectedGraph fixture = new DefaultDirectedGraph(2, 2);
+        List<String> events = new ArrayList<>();
+        fixture.addChangeListener(new GraphChangeListener() {
+            @Override
+            public void edgeAdded(Edge edge) {
+                events.add("added " + edge.id());
+            }
+
+            @Override
+            public void edgeHidden(Edge edge) {
+                events.add("hidden " + edge.id());
+            }
+
+            @Override
+            public void edgeShown(Edge edge) {
+                events.add("shown " + edge.id());
+            }
+        });
+        Edge edge = fixture.createAndSetEdge(fixture.getNode(0), fixture.getNode(1));
+        fixture.setHidden(edge, true);
+        fixture.setHidden(edge, true);
+        fixture.showAllEdges();
+
+        assertThat(events, contains("added 0", "hidden 0", "shown 0"));
+    }
 }
@@ -0,0 +1,197 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.zetool.algorithm.shortestpath.Dijkstra;
+import org.zetool.algorithm.shortestpath.IntegralSingleSourceShortestPathProblem;
+import org.zetool.graph.util.GraphUtil;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class DirectedGraphSnapshotTest {
+
+    @Test
+    public void snapshotContainsVisibleStructure() {
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(3, 4);
+        Edge e01 = graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        Edge e12 = graph.createAndSetEdge(graph.getNode(1), graph.getNode(2));
+        Edge e02 = graph.createAndSetEdge(graph.getNode(0), graph.getNode(2));
+        Edge e22 = graph.createAndSetEdge(graph.getNode(2), graph.getNode(2));
+        graph.setHidden(e02, true);
+
+        DirectedGraph snapshot = graph.snapshot();
+
+        assertThat(snapshot.nodeCount(), is(equalTo(3)));
+        assertThat(snapshot.edgeCount(), is(equalTo(3)));
+        assertThat(snapshot.edges(), containsInAnyOrder(e01, e12, e22));
+        assertThat(snapshot.contains(e02), is(false));
+        assertThat(snapshot.getEdge(e02.id()), is(nullValue()));
+        assertThat(snapshot.outgoingEdges(graph.getNode(0)), containsInAnyOrder(e01));
+        assertThat(snapshot.outgoingEdges(graph.getNode(0)).size(), is(equalTo(1)));
+        assertThat(snapshot.incomingEdges(graph.getNode(2)), containsInAnyOrder(e12, e22));
+        assertThat(snapshot.incidentEdges(graph.getNode(2)), containsInAnyOrder(e12, e22, e22));
+        assertThat(snapshot.degree(graph.getNode(2)), is(equalTo(graph.degree(graph.getNode(2)))));
+        assertThat(snapshot.getEdge(graph.getNode(1), graph.getNode(2)), is(equalTo(e12)));
+        assertThat(snapshot.successorNodes(graph.getNode(0)), containsInAnyOrder(graph.getNode(1)));
+    }
+
+    @Test
+    public void snapshotIsNotAffectedByChanges() {
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(3, 4);
+        Node n0 = graph.getNode(0);
+        Node n1 = graph.getNode(1);
+        Node n2 = graph.getNode(2);
+        Edge e01 = graph.createAndSetEdge(n0, n1);
+        Edge e12 = graph.createAndSetEdge(n1, n2);
+        graph.setHidden(e12, true);
+        DirectedGraph first = graph.snapshot();
+
+        graph.setHidden(e01, true);
+        graph.setHidden(e12, false);
+        graph.setHiddenOnlyNode(n0, true);
+        DirectedGraph second = graph.snapshot();
+        Edge e20 = graph.createAndSetEdge(n2, n0);
+        DirectedGraph third = graph.snapshot();
+
+        assertThat(first.edges(), containsInAnyOrder(e01));
+        assertThat(first.outDegree(n0), is(equalTo(1)));
+        assertThat(first.outDegree(n1), is(equalTo(0)));
+        assertThat(first.nodeCount(), is(equalTo(3)));
+        assertThat(first.contains(n0), is(true));
+
+        assertThat(second.edges(), containsInAnyOrder(e12));
+        assertThat(second.outDegree(n0), is(equalTo(0)));
+        assertThat(second.outgoingEdges(n1), containsInAnyOrder(e12));
+        assertThat(second.nodeCount(), is(equalTo(2)));
+        assertThat(second.getNode(0), is(nullValue()));
+        assertThat(second.contains(e20), is(false));
+
+        assertThat(third.edges(), containsInAnyOrder(e12, e20));
+        assertThat(third.inDegree(n0), is(equalTo(1)));
+    }
+
+    @Test
+    public void snapshotsMatchCopies() {
+        int n = 1_000;
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(n, 3 * n);
+        SplittableRandom random = new SplittableRandom(11);
+        List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < 3 * n; ++i) {
+            edges.add(graph.createAndSetEdge(graph.getNode(random.nextInt(n)), graph.getNode(random.nextInt(n))));
+        }
+        List<DirectedGraph> snapshots = new ArrayList<>();
+        List<DirectedGraph> copies = new ArrayList<>();
+        for (int round = 0; round < 5; ++round) {
+            for (int i = 0; i < 500; ++i) {
+                Edge edge = edges.get(random.nextInt(edges.size()));
+                graph.setHidden(edge, !graph.isHidden(edge));
+            }
+            snapshots.add(graph.snapshot());
+            copies.add(graph.copyToImmutable());
+        }
+        for (int round = 0; round < snapshots.size(); ++round) {
+            DirectedGraph snapshot = snapshots.get(round);
+            DirectedGraph copy = copies.get(round);
+            assertThat(snapshot.edgeCount(), is(equalTo(copy.edgeCount())));
+            for (Node node : copy) {
+                assertThat(snapshot.outDegree(node), is(equalTo(copy.outDegree(node))));
+                assertThat(snapshot.inDegree(node), is(equalTo(copy.inDegree(node))));
+                assertThat(snapshot.outgoingEdges(node), containsInAnyOrder(toArray(copy.outgoingEdges(node))));
+            }
+        }
+    }
+
+    private static Edge[] toArray(Iterable<Edge> edges) {
+        List<Edge> list = new ArrayList<>();
+        edges.forEach(list::add);
+        return list.toArray(new Edge[0]);
+    }
+
+    @Test
+    public void frozenArrayKeepsValues() {
+        CopyOnWriteIntArray array = new CopyOnWriteIntArray(1_000);
+        array.set(3, 7);
+        array.setBit(32 * 900 + 5, true);
+        CopyOnWriteIntArray.Frozen frozen = array.freeze();
+
+        array.set(3, 8);
+        array.add(999, 2);
+        array.setBit(32 * 900 + 5, false);
+
+        assertThat(frozen.get(3), is(equalTo(7)));
+        assertThat(frozen.get(999), is(equalTo(0)));
+        assertThat(frozen.getBit(32 * 900 + 5), is(true));
+        assertThat(frozen.getBit(32 * 1_000), is(false));
+        assertThat(array.get(3), is(equalTo(8)));
+        assertThat(array.freeze().get(999), is(equalTo(2)));
+    }
+
+    @Test
+    public void concurrentReadersWhileHiding() throws Exception {
+        int n = 200;
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(n, 2 * n);
+        List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            edges.add(graph.createAndSetEdge(graph.getNode(i), graph.getNode((i + 1) % n)));
+            edges.add(graph.createAndSetEdge(graph.getNode(i), graph.getNode((i + 7) % n)));
+        }
+        DirectedGraph snapshot = graph.snapshot();
+        int expected = distance(snapshot, n - 1);
+
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 8; ++i) {
+            results.add(readers.submit(() -> distance(snapshot, n - 1)));
+        }
+        for (int i = 0; i < 1000; ++i) {
+            Edge edge = edges.get(i % edges.size());
+            graph.setHidden(edge, !graph.isHidden(edge));
+            if (i % 100 == 0) {
+                graph.snapshot();
+            }
+        }
+        for (Future<Integer> result : results) {
+            assertThat(result.get(), is(equalTo(expected)));
+        }
+        readers.shutdown();
+        readers.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private static int distance(DirectedGraph graph, int target) {
+        Dijkstra dijkstra = new Dijkstra();
+        dijkstra.setProblem(new IntegralSingleSourceShortestPathProblem(graph, GraphUtil.UNIT_EDGE_MAPPING,
+                graph.getNode(0)));
+        dijkstra.run();
+        return dijkstra.getSolution().getDistance(graph.getNode(target));
+    }
+}
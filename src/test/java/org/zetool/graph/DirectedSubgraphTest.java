@@ -0,0 +1,122 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+import java.util.BitSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class DirectedSubgraphTest {
+
+    private DefaultDirectedGraph graph;
+    private Edge e01;
+    private Edge e12;
+    private Edge e23;
+    private Edge e13;
+    private Edge e30;
+
+    @Before
+    public void createGraph() {
+        graph = new DefaultDirectedGraph(4, 5);
+        e01 = graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        e12 = graph.createAndSetEdge(graph.getNode(1), graph.getNode(2));
+        e23 = graph.createAndSetEdge(graph.getNode(2), graph.getNode(3));
+        e13 = graph.createAndSetEdge(graph.getNode(1), graph.getNode(3));
+        e30 = graph.createAndSetEdge(graph.getNode(3), graph.getNode(0));
+    }
+
+    @Test
+    public void inducedByNodes() {
+        BitSet nodes = new BitSet();
+        nodes.set(1, 4);
+        DirectedSubgraph subgraph = DirectedSubgraph.induced(graph, nodes);
+
+        assertThat(subgraph.nodeCount(), is(equalTo(3)));
+        assertThat(subgraph.nodes(), contains(graph.getNode(1), graph.getNode(2), graph.getNode(3)));
+        assertThat(subgraph.edgeCount(), is(equalTo(3)));
+        assertThat(subgraph.edges(), containsInAnyOrder(e12, e23, e13));
+        assertThat(subgraph.contains(graph.getNode(0)), is(false));
+        assertThat(subgraph.contains(e30), is(false));
+        assertThat(subgraph.getEdge(e01.id()), is(nullValue()));
+        assertThat(subgraph.outgoingEdges(graph.getNode(3)).isEmpty(), is(true));
+        assertThat(subgraph.incomingEdges(graph.getNode(3)), containsInAnyOrder(e23, e13));
+        assertThat(subgraph.inDegree(graph.getNode(1)), is(equalTo(0)));
+        assertThat(subgraph.degree(graph.getNode(1)), is(equalTo(2)));
+        assertThat(subgraph.outDegree(graph.getNode(0)), is(equalTo(0)));
+        assertThat(subgraph.successorNodes(graph.getNode(1)), containsInAnyOrder(graph.getNode(2), graph.getNode(3)));
+        assertThat(subgraph.getEdge(graph.getNode(3), graph.getNode(0)), is(nullValue()));
+    }
+
+    @Test
+    public void viewReflectsChanges() {
+        BitSet edges = new BitSet();
+        edges.set(e01.id());
+        DirectedSubgraph subgraph = DirectedSubgraph.ofEdges(graph, edges);
+        assertThat(subgraph.nodeCount(), is(equalTo(4)));
+        assertThat(subgraph.edges(), contains(e01));
+
+        edges.set(e30.id());
+        assertThat(subgraph.edgeCount(), is(equalTo(2)));
+        graph.setHidden(e01, true);
+        assertThat(subgraph.edges(), contains(e30));
+    }
+
+    @Test
+    public void compact() {
+        BitSet nodes = new BitSet();
+        nodes.set(1);
+        nodes.set(3);
+        BitSet edges = new BitSet();
+        edges.set(e13.id());
+        edges.set(e23.id());
+        CompactedGraph<ImmutableDirectedGraph> compact = new DirectedSubgraph(graph, nodes, edges).compact();
+        ImmutableDirectedGraph copy = compact.getGraph();
+
+        assertThat(copy.nodeCount(), is(equalTo(2)));
+        assertThat(copy.edgeCount(), is(equalTo(1)));
+        Edge edge = copy.getEdge(0);
+        assertThat(compact.getOriginalEdge(edge), is(equalTo(e13)));
+        assertThat(compact.getOriginalNode(edge.start()), is(equalTo(graph.getNode(1))));
+        assertThat(compact.getOriginalNode(edge.end()), is(equalTo(graph.getNode(3))));
+        assertThat(compact.getCompactNode(graph.getNode(3)), is(equalTo(copy.getNode(1))));
+        assertThat(compact.getCompactNode(graph.getNode(2)), is(nullValue()));
+        assertThat(compact.getCompactEdge(e23), is(nullValue()));
+        assertThat(compact.getOriginalNodeIds(), is(equalTo(new int[]{1, 3})));
+    }
+
+    @Test
+    public void undirectedSubgraph() {
+        BitSet nodes = new BitSet();
+        nodes.set(0, 3);
+        UndirectedSubgraph subgraph = UndirectedSubgraph.induced(graph, nodes);
+        assertThat(subgraph.isDirected(), is(false));
+        assertThat(subgraph.incidentEdges(graph.getNode(1)), containsInAnyOrder(e01, e12));
+        assertThat(subgraph.adjacentNodes(graph.getNode(1)), containsInAnyOrder(graph.getNode(0), graph.getNode(2)));
+        assertThat(subgraph.compact().getGraph().edgeCount(), is(equalTo(2)));
+    }
+}
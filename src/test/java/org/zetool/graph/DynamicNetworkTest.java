@@ -0,0 +1,216 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+import org.zetool.container.collection.IdentifiableCollection;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class DynamicNetworkTest {
+
+    private static List<Node> nodes(int count) {
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            nodes.add(new Node(i));
+        }
+        return nodes;
+    }
+
+    @Test
+    public void removeEdgesAndNodes() {
+        List<Node> nodes = nodes(4);
+        Edge e01 = new Edge(0, nodes.get(0), nodes.get(1));
+        Edge e12 = new Edge(1, nodes.get(1), nodes.get(2));
+        Edge e13 = new Edge(2, nodes.get(1), nodes.get(3));
+        Edge e31 = new Edge(3, nodes.get(3), nodes.get(1));
+        DynamicNetwork network = new DynamicNetwork(nodes, Arrays.asList(e01, e12, e13, e31));
+
+        assertThat(network.outgoingEdges(nodes.get(1)), containsInAnyOrder(e12, e13));
+        assertThat(network.degree(nodes.get(1)), is(equalTo(4)));
+
+        network.removeEdge(e12);
+        assertThat(network.edgeCount(), is(equalTo(3)));
+        assertThat(network.contains(e12), is(false));
+        assertThat(network.getEdge(1), is(nullValue()));
+        assertThat(network.outgoingEdges(nodes.get(1)), containsInAnyOrder(e13));
+        assertThat(network.edges(), containsInAnyOrder(e01, e13, e31));
+
+        network.removeNode(nodes.get(3));
+        assertThat(network.nodeCount(), is(equalTo(3)));
+        assertThat(network.edges(), containsInAnyOrder(e01));
+        assertThat(network.outDegree(nodes.get(1)), is(equalTo(0)));
+        assertThat(network.inDegree(nodes.get(1)), is(equalTo(1)));
+        assertThat(network.nodes(), containsInAnyOrder(nodes.get(0), nodes.get(1), nodes.get(2)));
+
+        network.addNode(nodes.get(3));
+        network.addEdge(e13);
+        assertThat(network.getEdge(nodes.get(1), nodes.get(3)), is(equalTo(e13)));
+    }
+
+    @Test
+    public void accessorsAreViews() {
+        List<Node> nodes = nodes(3);
+        Edge e01 = new Edge(0, nodes.get(0), nodes.get(1));
+        Edge e02 = new Edge(1, nodes.get(0), nodes.get(2));
+        Edge e12 = new Edge(2, nodes.get(1), nodes.get(2));
+        DynamicNetwork network = new DynamicNetwork(nodes, Arrays.asList(e01, e02));
+
+        IdentifiableCollection<Edge> outgoing = network.outgoingEdges(nodes.get(1));
+        IdentifiableCollection<Edge> edges = network.edges();
+        assertThat(outgoing.isEmpty(), is(true));
+        network.addEdge(e12);
+        assertThat(outgoing, containsInAnyOrder(e12));
+        assertThat(edges.size(), is(equalTo(3)));
+        assertThat(edges.get(2), is(equalTo(e12)));
+
+        network.removeEdges(network.outgoingEdges(nodes.get(0)));
+        assertThat(edges, containsInAnyOrder(e12));
+        for (Node node : network) {
+            network.removeNode(node);
+        }
+        assertThat(network.nodeCount(), is(equalTo(0)));
+        assertThat(network.contains(nodes.get(0)), is(false));
+        assertThat(outgoing.isEmpty(), is(true));
+        assertThat(outgoing.get(2), is(nullValue()));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void viewsAreReadOnly() {
+        List<Node> nodes = nodes(2);
+        DynamicNetwork network = new DynamicNetwork(nodes, Arrays.asList(new Edge(0, nodes.get(0), nodes.get(1))));
+        network.edges().add(new Edge(1, nodes.get(1), nodes.get(0)));
+    }
+
+    @Test
+    public void removeIncidentEdgesWithLoop() {
+        List<Node> nodes = nodes(3);
+        Edge e00 = new Edge(0, nodes.get(0), nodes.get(0));
+        Edge e01 = new Edge(1, nodes.get(0), nodes.get(1));
+        Edge e10 = new Edge(2, nodes.get(1), nodes.get(0));
+        Edge e20 = new Edge(3, nodes.get(2), nodes.get(0));
+        Edge e12 = new Edge(4, nodes.get(1), nodes.get(2));
+        DynamicNetwork network = new DynamicNetwork(nodes, Arrays.asList(e00, e01, e10, e20, e12));
+
+        assertThat(network.incidentEdges(nodes.get(0)).size(), is(equalTo(5)));
+        network.removeEdges(network.incidentEdges(nodes.get(0)));
+        assertThat(network.edges(), containsInAnyOrder(e12));
+        assertThat(network.degree(nodes.get(0)), is(equalTo(0)));
+        assertThat(network.outgoingEdges(nodes.get(1)), containsInAnyOrder(e12));
+        assertThat(network.incomingEdges(nodes.get(2)), containsInAnyOrder(e12));
+    }
+
+    @Test
+    public void containsComparesStoredEdge() {
+        List<Node> nodes = nodes(3);
+        Edge e01 = new Edge(0, nodes.get(0), nodes.get(1));
+        DynamicNetwork network = new DynamicNetwork(nodes, Arrays.asList(e01));
+
+        Edge other = new Edge(0, nodes.get(1), nodes.get(2));
+        assertThat(network.contains(e01), is(true));
+        assertThat(network.contains(other), is(false));
+        network.removeEdge(other);
+        assertThat(network.edgeCount(), is(equalTo(1)));
+    }
+
+    @Test
+    public void retain() {
+        List<Node> nodes = nodes(3);
+        Edge e01 = new Edge(0, nodes.get(0), nodes.get(1));
+        Edge e12 = new Edge(1, nodes.get(1), nodes.get(2));
+        Edge e20 = new Edge(2, nodes.get(2), nodes.get(0));
+        DynamicNetwork network = new DynamicNetwork(nodes, Arrays.asList(e01, e12, e20));
+
+        network.retainEdges(Arrays.asList(e12, e20));
+        assertThat(network.edges(), containsInAnyOrder(e12, e20));
+
+        network.retainNodes(Arrays.asList(nodes.get(1), nodes.get(2)));
+        assertThat(network.edges(), containsInAnyOrder(e12));
+    }
+
+    @Test
+    public void temporaryRemovals() {
+        List<Node> nodes = nodes(4);
+        Edge e01 = new Edge(0, nodes.get(0), nodes.get(1));
+        Edge e02 = new Edge(1, nodes.get(0), nodes.get(2));
+        Edge e03 = new Edge(2, nodes.get(0), nodes.get(3));
+        DynamicNetwork network = new DynamicNetwork(nodes, Arrays.asList(e01, e02, e03));
+
+        network.remove_edge_temp(e01);
+        network.remove_node_temp(nodes.get(2));
+        assertThat(network.temp_adjacentNodes(nodes.get(0)), containsInAnyOrder(nodes.get(3)));
+        assertThat(network.temp_predNodes(nodes.get(2)).isEmpty(), is(true));
+
+        network.add_edge_temp(e01);
+        assertThat(network.temp_adjacentNodes(nodes.get(0)), containsInAnyOrder(nodes.get(1), nodes.get(3)));
+
+        network.remove_edge_temp(e01);
+        network.remove_edge_temp(e02);
+        network.remove_edge_temp(e03);
+        network.add_edge_temp(e01);
+        assertThat(network.temp_adjacentNodes(nodes.get(0)), containsInAnyOrder(nodes.get(1)));
+        network.add_edge_temp(e03);
+        assertThat(network.temp_adjacentNodes(nodes.get(0)), containsInAnyOrder(nodes.get(1), nodes.get(3)));
+        network.recover_temp_removed_edges();
+        network.recover_temp_removed_nodes();
+        assertThat(network.temp_adjacentNodes(nodes.get(0)),
+                containsInAnyOrder(nodes.get(1), nodes.get(2), nodes.get(3)));
+        assertThat(network.edgeCount(), is(equalTo(3)));
+    }
+
+    @Test
+    public void randomRemovalsKeepDegreesConsistent() {
+        int n = 50;
+        List<Node> nodes = nodes(n);
+        DynamicNetwork network = new DynamicNetwork();
+        network.addNodes(nodes);
+        SplittableRandom random = new SplittableRandom(7);
+        List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) {
+            Edge edge = new Edge(i, nodes.get(random.nextInt(n)), nodes.get(random.nextInt(n)));
+            edges.add(edge);
+            network.addEdge(edge);
+        }
+        for (int i = 0; i < 600; ++i) {
+            network.removeEdge(edges.get(random.nextInt(edges.size())));
+        }
+        int inSum = 0;
+        int outSum = 0;
+        for (Node node : network) {
+            inSum += network.inDegree(node);
+            outSum += network.outDegree(node);
+            for (Edge edge : network.outgoingEdges(node)) {
+                assertThat(edge.start(), is(equalTo(node)));
+                assertThat(network.contains(edge), is(true));
+            }
+        }
+        assertThat(inSum, is(equalTo(network.edgeCount())));
+        assertThat(outSum, is(equalTo(network.edgeCount())));
+    }
+}
@@ -0,0 +1,110 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class GraphBuilderTest {
+
+    @Test
+    public void buildFromArrays() {
+        GraphBuilder builder = GraphBuilder.of(4, new int[]{0, 0, 1, 2}, new int[]{1, 2, 3, 3}, new int[]{5, 1, 2, 7});
+
+        for (DirectedGraph graph : new DirectedGraph[]{builder.buildDirected(), builder.buildImmutableDirected()}) {
+            assertThat(graph.nodeCount(), is(equalTo(4)));
+            assertThat(graph.edgeCount(), is(equalTo(4)));
+            assertThat(graph.getEdge(2).start().id(), is(equalTo(1)));
+            assertThat(graph.getEdge(2).end().id(), is(equalTo(3)));
+            assertThat(graph.outgoingEdges(graph.getNode(0)), containsInAnyOrder(graph.getEdge(0), graph.getEdge(1)));
+            assertThat(graph.inDegree(graph.getNode(3)), is(equalTo(2)));
+        }
+        IdentifiableIntegerMapping<Edge> costs = builder.costs();
+        DirectedGraph graph = builder.buildImmutableDirected();
+        assertThat(costs.get(graph.getEdge(0)), is(equalTo(5)));
+        assertThat(costs.get(graph.getEdge(3)), is(equalTo(7)));
+    }
+
+    @Test
+    public void buildUndirected() {
+        GraphBuilder builder = new GraphBuilder(3).addEdge(0, 1).addEdge(1, 2);
+
+        for (Graph graph : new Graph[]{builder.buildUndirected(), builder.buildImmutableUndirected()}) {
+            assertThat(graph.isDirected(), is(false));
+            assertThat(graph.degree(graph.getNode(1)), is(equalTo(2)));
+            assertThat(graph.adjacentNodes(graph.getNode(1)), containsInAnyOrder(graph.getNode(0), graph.getNode(2)));
+        }
+    }
+
+    @Test
+    public void builtGraphAcceptsNewEdges() {
+        DefaultDirectedGraph graph = new GraphBuilder(2).addEdge(0, 1).buildDirected();
+        graph.setEdgeCapacity(2);
+        Edge edge = graph.createAndSetEdge(graph.getNode(1), graph.getNode(0));
+        assertThat(edge.id(), is(equalTo(1)));
+    }
+
+    @Test
+    public void builtUndirectedGraphAcceptsNewEdges() {
+        DefaultGraph graph = new GraphBuilder(3).addEdge(0, 1).addEdge(1, 2).buildUndirected();
+        assertThat(graph.getNextEdgeIdCandidate(), is(equalTo(2)));
+        graph.setEdgeCapacity(3);
+        Edge edge = graph.createAndSetEdge(graph.getNode(2), graph.getNode(0));
+        assertThat(edge.id(), is(equalTo(2)));
+        assertThat(graph.getNextEdgeIdCandidate(), is(equalTo(3)));
+    }
+
+    @Test
+    public void largeGraph() {
+        int n = 100_000;
+        int m = 400_000;
+        SplittableRandom random = new SplittableRandom(1);
+        int[] sources = random.ints(m, 0, n).toArray();
+        int[] targets = random.ints(m, 0, n).toArray();
+        int[] outDegree = new int[n];
+        for (int source : sources) {
+            outDegree[source]++;
+        }
+
+        ImmutableDirectedGraph graph = GraphBuilder.of(n, sources, targets).buildImmutableDirected();
+
+        assertThat(graph.edgeCount(), is(equalTo(m)));
+        for (int i = 0; i < n; i += 997) {
+            assertThat(graph.outDegree(graph.getNode(i)), is(equalTo(outDegree[i])));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidNode() {
+        GraphBuilder.of(2, new int[]{0, 1}, new int[]{1, 2});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lengthMismatch() {
+        GraphBuilder.of(2, new int[]{0, 1}, new int[]{1});
+    }
+}
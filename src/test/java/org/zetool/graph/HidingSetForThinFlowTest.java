@@ -0,0 +1,131 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.zetool.container.collection.ArraySet;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class HidingSetForThinFlowTest {
+
+    private static ArraySet<Node> nodes(int count) {
+        ArraySet<Node> nodes = new ArraySet<>(Node.class, count);
+        for (int i = 0; i < count; ++i) {
+            nodes.add(new Node(i));
+        }
+        return nodes;
+    }
+
+    @Test
+    public void iterationSkipsHiddenWords() {
+        ArraySet<Node> nodes = nodes(200);
+        HidingSetForThinFlow<Node> hiding = new HidingSetForThinFlow<>(nodes, 200);
+        hiding.changeVisibility(Arrays.asList(nodes.get(199), nodes.get(3), nodes.get(64)), true);
+
+        assertThat(hiding, contains(nodes.get(3), nodes.get(64), nodes.get(199)));
+        assertThat(hiding.numberOfVisibleElements(), is(equalTo(3)));
+        assertThat(hiding.first(), is(equalTo(nodes.get(3))));
+        assertThat(hiding.last(), is(equalTo(nodes.get(199))));
+        assertThat(hiding.successor(nodes.get(3)), is(equalTo(nodes.get(64))));
+        assertThat(hiding.predecessor(nodes.get(199)), is(equalTo(nodes.get(64))));
+        assertThat(hiding.predecessor(nodes.get(3)), is(nullValue()));
+        assertThat(hiding.get(5), is(nullValue()));
+        assertThat(hiding.contains(nodes.get(64)), is(true));
+    }
+
+    @Test
+    public void batchOperations() {
+        ArraySet<Node> nodes = nodes(130);
+        HidingSetForThinFlow<Node> hiding = new HidingSetForThinFlow<>(nodes, 130);
+        hiding.showAll();
+        assertThat(hiding.numberOfVisibleElements(), is(equalTo(130)));
+
+        hiding.changeVisibility(Arrays.asList(nodes.get(0), nodes.get(129)), false);
+        long[] mask = hiding.getVisibilityMask();
+        hiding.hideAll();
+        assertThat(hiding.isEmpty(), is(true));
+        assertThat(hiding.first(), is(nullValue()));
+
+        hiding.setVisibilityMask(mask);
+        assertThat(hiding.numberOfVisibleElements(), is(equalTo(128)));
+        assertThat(hiding.first(), is(equalTo(nodes.get(1))));
+        assertThat(hiding.last(), is(equalTo(nodes.get(128))));
+
+        hiding.setVisibilityMask(new long[]{-1L, -1L, -1L, -1L});
+        assertThat(hiding.numberOfVisibleElements(), is(equalTo(130)));
+    }
+
+    @Test
+    public void booleanConstructor() {
+        ArraySet<Node> nodes = nodes(3);
+        HidingSetForThinFlow<Node> hiding = new HidingSetForThinFlow<>(nodes, new boolean[]{true, false, true});
+        assertThat(hiding, contains(nodes.get(0), nodes.get(2)));
+        hiding.setCapacity(1);
+        assertThat(hiding.numberOfVisibleElements(), is(equalTo(1)));
+    }
+
+    @Test
+    public void staticGraphVisibility() {
+        StaticGraph graph = new StaticGraph(true, 3, 3);
+        graph.setNodes(nodes(3));
+        graph.createEdge(graph.getNode(0), graph.getNode(1), 0);
+        graph.createEdge(graph.getNode(0), graph.getNode(2), 1);
+        graph.createEdge(graph.getNode(1), graph.getNode(2), 2);
+        graph.showAllEdges();
+        assertThat(graph.edgeCount(), is(equalTo(3)));
+        long[] all = graph.getEdgeVisibility();
+
+        graph.changeVisibility(Arrays.asList(graph.getEdge(0), graph.getEdge(1)), false);
+        assertThat(graph.edgeCount(), is(equalTo(1)));
+        assertThat(graph.outDegree(graph.getNode(0)), is(equalTo(0)));
+        assertThat(graph.edges(), contains(graph.getEdge(2)));
+
+        graph.setEdgeVisibility(all);
+        assertThat(graph.outDegree(graph.getNode(0)), is(equalTo(2)));
+        assertThat(graph.degree(graph.getNode(2)), is(equalTo(2)));
+    }
+
+    @Test
+    public void staticGraphIncidentEdgeVisibility() {
+        StaticGraph graph = new StaticGraph(true, 3, 3);
+        graph.setNodes(nodes(3));
+        graph.createEdge(graph.getNode(0), graph.getNode(1), 0);
+        graph.createEdge(graph.getNode(0), graph.getNode(2), 1);
+        graph.createEdge(graph.getNode(1), graph.getNode(2), 2);
+        graph.showAllEdges();
+
+        graph.changeVisibilityOfIncidentEdges(graph.getNode(1), false);
+        assertThat(graph.edges(), contains(graph.getEdge(1)));
+        assertThat(graph.degree(graph.getNode(1)), is(equalTo(0)));
+        assertThat(graph.inDegree(graph.getNode(2)), is(equalTo(1)));
+
+        graph.changeVisibilityOfIncidentEdges(graph.getNode(1), true);
+        assertThat(graph.edgeCount(), is(equalTo(3)));
+        assertThat(graph.degree(graph.getNode(1)), is(equalTo(2)));
+        assertThat(graph.outDegree(graph.getNode(0)), is(equalTo(2)));
+    }
+}
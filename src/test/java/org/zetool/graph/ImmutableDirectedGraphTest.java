@@ -0,0 +1,130 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.zetool.algorithm.shortestpath.Dijkstra;
+import org.zetool.algorithm.shortestpath.IntegralSingleSourceShortestPathProblem;
+import org.zetool.graph.util.GraphUtil;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class ImmutableDirectedGraphTest {
+
+    @Test
+    public void snapshotContainsVisibleStructure() {
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(3, 4);
+        Edge e01 = graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        Edge e12 = graph.createAndSetEdge(graph.getNode(1), graph.getNode(2));
+        Edge e02 = graph.createAndSetEdge(graph.getNode(0), graph.getNode(2));
+        Edge e22 = graph.createAndSetEdge(graph.getNode(2), graph.getNode(2));
+        graph.setHidden(e02, true);
+
+        DirectedGraph snapshot = graph.copyToImmutable();
+
+        assertThat(snapshot.nodeCount(), is(equalTo(3)));
+        assertThat(snapshot.edgeCount(), is(equalTo(3)));
+        assertThat(snapshot.contains(e02), is(false));
+        assertThat(snapshot.getEdge(e02.id()), is(nullValue()));
+        assertThat(snapshot.outgoingEdges(graph.getNode(0)), containsInAnyOrder(e01));
+        assertThat(snapshot.incomingEdges(graph.getNode(2)), containsInAnyOrder(e12, e22));
+        assertThat(snapshot.incidentEdges(graph.getNode(2)), containsInAnyOrder(e12, e22, e22));
+        assertThat(snapshot.outDegree(graph.getNode(2)), is(equalTo(graph.outDegree(graph.getNode(2)))));
+        assertThat(snapshot.inDegree(graph.getNode(1)), is(equalTo(1)));
+        assertThat(snapshot.degree(graph.getNode(1)), is(equalTo(graph.degree(graph.getNode(1)))));
+        assertThat(snapshot.getEdge(graph.getNode(1), graph.getNode(2)), is(equalTo(e12)));
+        assertThat(snapshot.successorNodes(graph.getNode(0)), containsInAnyOrder(graph.getNode(1)));
+    }
+
+    @Test
+    public void snapshotIsNotAffectedByChanges() {
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(2, 2);
+        Edge edge = graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        DirectedGraph snapshot = graph.copyToImmutable();
+
+        graph.setHidden(edge, true);
+        graph.createAndSetEdge(graph.getNode(1), graph.getNode(0));
+
+        assertThat(snapshot.edgeCount(), is(equalTo(1)));
+        assertThat(snapshot.contains(edge), is(true));
+        assertThat(snapshot.outgoingEdges(graph.getNode(1)).isEmpty(), is(true));
+    }
+
+    @Test
+    public void undirectedSnapshot() {
+        DefaultGraph graph = new DefaultGraph(3, 2);
+        Edge e01 = graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        Edge e12 = graph.createAndSetEdge(graph.getNode(1), graph.getNode(2));
+
+        UndirectedGraph snapshot = graph.copyToImmutable();
+
+        assertThat(snapshot.isDirected(), is(false));
+        assertThat(snapshot.incidentEdges(graph.getNode(1)), containsInAnyOrder(e01, e12));
+        assertThat(snapshot.getEdge(graph.getNode(1), graph.getNode(0)), is(equalTo(e01)));
+        assertThat(snapshot.adjacentNodes(graph.getNode(1)), containsInAnyOrder(graph.getNode(0), graph.getNode(2)));
+    }
+
+    @Test
+    public void concurrentReadersWhileWriting() throws Exception {
+        int n = 200;
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(n, 2 * n);
+        List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            edges.add(graph.createAndSetEdge(graph.getNode(i), graph.getNode((i + 1) % n)));
+            edges.add(graph.createAndSetEdge(graph.getNode(i), graph.getNode((i + 7) % n)));
+        }
+        DirectedGraph snapshot = graph.copyToImmutable();
+        int expected = distance(snapshot, n - 1);
+
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 8; ++i) {
+            results.add(readers.submit(() -> distance(snapshot, n - 1)));
+        }
+        for (int i = 0; i < 1000; ++i) {
+            Edge edge = edges.get(i % edges.size());
+            graph.setHidden(edge, !graph.isHidden(edge));
+        }
+        for (Future<Integer> result : results) {
+            assertThat(result.get(), is(equalTo(expected)));
+        }
+        readers.shutdown();
+        readers.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private static int distance(DirectedGraph graph, int target) {
+        Dijkstra dijkstra = new Dijkstra();
+        dijkstra.setProblem(new IntegralSingleSourceShortestPathProblem(graph, GraphUtil.UNIT_EDGE_MAPPING,
+                graph.getNode(0)));
+        dijkstra.run();
+        return dijkstra.getSolution().getDistance(graph.getNode(target));
+    }
+}
@@ -0,0 +1,127 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class NodeReorderingTest {
+
+    @Test
+    public void orders() {
+        // star with center 2 and a path 0 - 4 attached to leaf 3
+        ImmutableDirectedGraph graph = GraphBuilder.of(5, new int[]{2, 2, 2, 3}, new int[]{0, 1, 3, 4})
+                .buildImmutableDirected();
+
+        assertThat(NodeReordering.breadthFirst(graph), is(equalTo(new int[]{0, 2, 1, 3, 4})));
+        assertThat(NodeReordering.degreeDescending(graph), is(equalTo(new int[]{2, 3, 0, 1, 4})));
+        assertThat(NodeReordering.reverseCuthillMcKee(graph), is(equalTo(new int[]{4, 3, 1, 2, 0})));
+    }
+
+    @Test
+    public void reorderKeepsStructure() {
+        ImmutableDirectedGraph graph = GraphBuilder.of(4, new int[]{3, 0, 3, 1}, new int[]{0, 1, 1, 2})
+                .buildImmutableDirected();
+        int[] order = {3, 0, 1, 2};
+        CompactedGraph<ImmutableDirectedGraph> reordered = NodeReordering.reorder(graph, order);
+
+        ImmutableDirectedGraph copy = reordered.getGraph();
+        assertThat(copy.edgeCount(), is(equalTo(4)));
+        for (Edge edge : copy.edges()) {
+            Edge original = reordered.getOriginalEdge(edge);
+            assertThat(reordered.getOriginalNode(edge.start()), is(equalTo(original.start())));
+            assertThat(reordered.getOriginalNode(edge.end()), is(equalTo(original.end())));
+            assertThat(reordered.getCompactEdge(original), is(equalTo(edge)));
+        }
+        assertThat(reordered.getCompactNode(graph.getNode(3)).id(), is(equalTo(0)));
+        // outgoing edges of the new node 0 come first
+        assertThat(copy.getEdge(0).start().id(), is(equalTo(0)));
+        assertThat(copy.getEdge(1).start().id(), is(equalTo(0)));
+    }
+
+    @Test
+    public void translateMappings() {
+        ImmutableDirectedGraph graph = GraphBuilder.of(3, new int[]{0, 1}, new int[]{1, 2}).buildImmutableDirected();
+        CompactedGraph<ImmutableDirectedGraph> reordered = NodeReordering.reorder(graph, new int[]{2, 1, 0});
+        IdentifiableIntegerMapping<Edge> costs = new IdentifiableIntegerMapping<>(2);
+        costs.set(graph.getEdge(0), 5);
+        costs.set(graph.getEdge(1), 7);
+
+        IdentifiableIntegerMapping<Edge> copiedCosts = reordered.toCompactEdgeMapping(costs);
+        for (Edge edge : reordered.getGraph().edges()) {
+            assertThat(copiedCosts.get(edge), is(equalTo(costs.get(reordered.getOriginalEdge(edge)))));
+        }
+        IdentifiableIntegerMapping<Node> labels = new IdentifiableIntegerMapping<>(3);
+        for (Node node : reordered.getGraph().nodes()) {
+            labels.set(node, 10 * node.id());
+        }
+        IdentifiableIntegerMapping<Node> originalLabels = reordered.toOriginalNodeMapping(labels);
+        assertThat(originalLabels.get(graph.getNode(2)), is(equalTo(0)));
+        assertThat(originalLabels.get(graph.getNode(0)), is(equalTo(20)));
+        assertThat(reordered.toOriginalEdgeMapping(copiedCosts).get(graph.getEdge(1)), is(equalTo(7)));
+    }
+
+    @Test
+    public void reverseCuthillMcKeeReducesBandwidth() {
+        int width = 30;
+        int n = width * width;
+        int[] scrambled = new SplittableRandom(7).ints(0, Integer.MAX_VALUE).limit(n).toArray();
+        Integer[] permutation = new Integer[n];
+        Arrays.setAll(permutation, i -> i);
+        Arrays.sort(permutation, (a, b) -> Integer.compare(scrambled[a], scrambled[b]));
+        GraphBuilder builder = new GraphBuilder(n);
+        for (int node = 0; node < n; ++node) {
+            if (node % width + 1 < width) {
+                builder.addEdge(permutation[node], permutation[node + 1]);
+            }
+            if (node + width < n) {
+                builder.addEdge(permutation[node], permutation[node + width]);
+            }
+        }
+        ImmutableUndirectedGraph graph = builder.buildImmutableUndirected();
+
+        ImmutableUndirectedGraph reordered = NodeReordering.reorder(graph,
+                NodeReordering.reverseCuthillMcKee(graph)).getGraph();
+        assertThat(bandwidth(reordered), is(lessThan(2 * width)));
+        assertThat(bandwidth(reordered), is(lessThan(bandwidth(graph) / 10)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidOrder() {
+        ImmutableDirectedGraph graph = GraphBuilder.of(3, new int[]{0}, new int[]{1}).buildImmutableDirected();
+        NodeReordering.reorder(graph, new int[]{0, 1, 1});
+    }
+
+    private static int bandwidth(Graph graph) {
+        int bandwidth = 0;
+        for (Edge edge : graph.edges()) {
+            bandwidth = Math.max(bandwidth, Math.abs(edge.start().id() - edge.end().id()));
+        }
+        return bandwidth;
+    }
+}
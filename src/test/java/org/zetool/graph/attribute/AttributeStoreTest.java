@@ -0,0 +1,180 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.attribute;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.not;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.zetool.container.mapping.IdentifiableIntegerMapping;
+import org.zetool.graph.Edge;
+import org.zetool.graph.GraphBuilder;
+import org.zetool.graph.ImmutableDirectedGraph;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class AttributeStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ImmutableDirectedGraph graph = GraphBuilder.of(3, new int[]{0, 1, 0}, new int[]{1, 2, 2})
+            .buildImmutableDirected();
+
+    @Test
+    public void heapAndDirectColumns() {
+        for (boolean direct : new boolean[]{false, true}) {
+            AttributeStore<Edge> store = AttributeStore.forEdges(graph, direct);
+            IntColumn<Edge> costs = store.addIntColumn("costs");
+            DoubleColumn<Edge> lengths = store.addDoubleColumn("lengths");
+            costs.set(graph.getEdge(1), 4);
+            lengths.set(2, 1.5);
+
+            assertThat(store.size(), is(equalTo(3)));
+            assertThat(costs.isDirect(), is(direct));
+            assertThat(store.getIntColumn("costs").get(1), is(equalTo(4)));
+            assertThat(store.getDoubleColumn("lengths").get(graph.getEdge(2)), is(equalTo(1.5)));
+            assertThat(store.names(), contains("costs", "lengths"));
+        }
+    }
+
+    @Test
+    public void intColumnAsMapping() {
+        IntColumn<Edge> costs = new IntColumn<>(3);
+        IdentifiableIntegerMapping<Edge> mapping = costs.asMapping();
+        costs.set(0, 7);
+        assertThat(mapping.get(graph.getEdge(0)), is(equalTo(7)));
+        mapping.set(graph.getEdge(2), 3);
+        assertThat(costs.array()[2], is(equalTo(3)));
+
+        IntColumn<Edge> direct = IntColumn.direct(3);
+        direct.copyFrom(graph.edges(), mapping);
+        IdentifiableIntegerMapping<Edge> view = direct.asMapping();
+        assertThat(view.get(graph.getEdge(2)), is(equalTo(3)));
+        view.increase(graph.getEdge(2), 2);
+        assertThat(direct.get(2), is(equalTo(5)));
+        assertThat(view.getMaximum(), is(equalTo(7)));
+        assertThat(view.getDomainSize(), is(equalTo(3)));
+    }
+
+    @Test
+    public void mappingViewOverridesEveryAccessor() throws NoSuchMethodException {
+        Class<?> view = new IntColumn<Edge>(0).asMapping().getClass();
+        for (Method method : IdentifiableIntegerMapping.class.getDeclaredMethods()) {
+            int modifiers = method.getModifiers();
+            if (Modifier.isPublic(modifiers) && !Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers)
+                    && !method.isSynthetic()) {
+                assertThat(method.toString(), view.getDeclaredMethod(method.getName(), method.getParameterTypes())
+                        .getDeclaringClass(), is(equalTo(view)));
+            }
+        }
+    }
+
+    @Test
+    public void mappingViewApi() {
+        IntColumn<Edge> column = IntColumn.direct(3);
+        IdentifiableIntegerMapping<Edge> view = column.asMapping();
+        view.add(graph.getEdge(0), 2);
+        view.set(graph.getEdge(1), -1);
+        view.decrease(graph.getEdge(1), 1);
+        assertThat(column.get(1), is(equalTo(-2)));
+        assertThat(view.getMinimum(), is(equalTo(-2)));
+        assertThat(view.isDefinedFor(graph.getEdge(2)), is(true));
+        view.setDomainSize(3);
+        assertThat(view.toString(), is(equalTo("[2, -2, 0]")));
+
+        IdentifiableIntegerMapping<Edge> copy = view.clone();
+        assertThat(copy, is(equalTo(view)));
+        assertThat(copy.hashCode(), is(equalTo(view.hashCode())));
+        copy.increase(graph.getEdge(2), 1);
+        assertThat(column.get(2), is(equalTo(0)));
+        assertThat(copy, is(not(equalTo(view))));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void mappingViewHasFixedDomain() {
+        new IntColumn<Edge>(3).asMapping().setDomainSize(4);
+    }
+
+    @Test
+    public void writeConvertsByteOrder() {
+        LongColumn<Edge> column = new LongColumn<>(ByteBuffer.allocate(16).order(ByteOrder.BIG_ENDIAN), 2);
+        column.set(0, 1L << 40 | 3);
+        column.set(1, -2);
+        ByteBuffer target = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN);
+        target.position(4);
+        column.writeTo(target);
+
+        assertThat(target.position(), is(equalTo(4)));
+        assertThat(target.getLong(4), is(equalTo(1L << 40 | 3)));
+        assertThat(target.getLong(12), is(equalTo(-2L)));
+    }
+
+    @Test
+    public void saveAndMap() throws IOException {
+        AttributeStore<Edge> store = new AttributeStore<>(1000);
+        IntColumn<Edge> capacities = store.addIntColumn("capacities");
+        LongColumn<Edge> ids = store.addLongColumn("ids with ümlaut");
+        FloatColumn<Edge> weights = store.addFloatColumn("w");
+        for (int id = 0; id < 1000; ++id) {
+            capacities.set(id, id * 3);
+            ids.set(id, 1L << 40 | id);
+            weights.set(id, id / 4f);
+        }
+        Path file = folder.newFile("attributes.bin").toPath();
+        store.save(file);
+
+        AttributeStore<Edge> mapped = AttributeStore.map(file);
+        assertThat(mapped.size(), is(equalTo(1000)));
+        assertThat(mapped.names(), contains("capacities", "ids with ümlaut", "w"));
+        assertThat(mapped.getIntColumn("capacities").isDirect(), is(true));
+        assertThat(mapped.getIntColumn("capacities").get(999), is(equalTo(2997)));
+        assertThat(mapped.getLongColumn("ids with ümlaut").get(5), is(equalTo(1L << 40 | 5)));
+        assertThat(mapped.getFloatColumn("w").get(10), is(equalTo(2.5f)));
+
+        mapped.getIntColumn("capacities").set(0, -1);
+        assertThat(AttributeStore.map(file).getIntColumn("capacities").get(0), is(equalTo(-1)));
+        mapped.save(folder.newFile("copy.bin").toPath());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongType() {
+        AttributeStore<Edge> store = new AttributeStore<>(2);
+        store.addIntColumn("costs");
+        store.getDoubleColumn("costs");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateName() {
+        AttributeStore<Edge> store = new AttributeStore<>(2);
+        store.addIntColumn("costs");
+        store.addLongColumn("costs");
+    }
+}
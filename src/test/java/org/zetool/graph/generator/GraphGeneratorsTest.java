@@ -0,0 +1,136 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.generator;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.zetool.graph.Edge;
+import org.zetool.graph.Graph;
+import org.zetool.graph.ImmutableDirectedGraph;
+import org.zetool.graph.ImmutableUndirectedGraph;
+import org.zetool.graph.visualization.NodePositionMapping;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class GraphGeneratorsTest {
+
+    @Test
+    public void gridWithDiagonals() {
+        GeometricGraph grid = GraphGenerators.grid(4, 3, true);
+        ImmutableUndirectedGraph graph = grid.getBuilder().buildImmutableUndirected();
+
+        assertThat(graph.nodeCount(), is(equalTo(12)));
+        assertThat(graph.edgeCount(), is(equalTo(3 * 3 + 2 * 4 + 2 * 2 * 3)));
+        assertThat(graph.degree(graph.getNode(0)), is(equalTo(3)));
+        assertThat(graph.degree(graph.getNode(5)), is(equalTo(8)));
+        assertThat(grid.getX(6), is(equalTo(2.0)));
+        assertThat(grid.getY(6), is(equalTo(1.0)));
+        for (Edge edge : graph.edges()) {
+            double dx = grid.getX(edge.start().id()) - grid.getX(edge.end().id());
+            double dy = grid.getY(edge.start().id()) - grid.getY(edge.end().id());
+            assertThat(Math.abs(dx) <= 1 && Math.abs(dy) <= 1, is(true));
+        }
+        assertThat(GraphGenerators.grid(4, 3, false).getBuilder().edgeCount(), is(equalTo(3 * 3 + 2 * 4)));
+    }
+
+    @Test
+    public void randomGeometric() {
+        double radius = 0.1;
+        GeometricGraph generated = GraphGenerators.randomGeometric(500, radius, 3);
+        ImmutableUndirectedGraph graph = generated.getBuilder().buildImmutableUndirected();
+
+        Set<Long> expected = new HashSet<>();
+        for (int u = 0; u < 500; ++u) {
+            for (int v = u + 1; v < 500; ++v) {
+                double dx = generated.getX(u) - generated.getX(v);
+                double dy = generated.getY(u) - generated.getY(v);
+                if (dx * dx + dy * dy <= radius * radius) {
+                    expected.add((long) u << 32 | v);
+                }
+            }
+        }
+        Set<Long> actual = new HashSet<>();
+        for (Edge edge : graph.edges()) {
+            actual.add((long) edge.start().id() << 32 | edge.end().id());
+        }
+        assertThat(actual, is(equalTo(expected)));
+
+        NodePositionMapping<PlanePoint> positions = generated.positions(graph);
+        assertThat(positions.get(graph.getNode(7)).getX(), is(equalTo(generated.getX(7))));
+    }
+
+    @Test
+    public void erdosRenyi() {
+        ImmutableDirectedGraph graph = GraphGenerators.erdosRenyi(1000, 5000, 1).buildImmutableDirected();
+        assertThat(graph.edgeCount(), is(equalTo(5000)));
+        for (Edge edge : graph.edges()) {
+            assertThat(edge.isLoop(), is(false));
+        }
+    }
+
+    @Test
+    public void rmatIsSkewed() {
+        ImmutableDirectedGraph graph = GraphGenerators.rmat(10, 16_000, 0.57, 0.19, 0.19, 1).buildImmutableDirected();
+        assertThat(graph.nodeCount(), is(equalTo(1024)));
+        assertThat(graph.edgeCount(), is(equalTo(16_000)));
+        assertThat(graph.outDegree(graph.getNode(0)), is(greaterThan(10 * 16)));
+    }
+
+    @Test
+    public void barabasiAlbert() {
+        int d = 3;
+        ImmutableUndirectedGraph graph = GraphGenerators.barabasiAlbert(10_000, d, 5).buildImmutableUndirected();
+        assertThat(graph.edgeCount(), is(equalTo(9_999 * d)));
+        int maxDegree = 0;
+        for (Edge edge : graph.edges()) {
+            assertThat(edge.end().id(), is(lessThan(edge.start().id())));
+        }
+        for (int node = 0; node < graph.nodeCount(); ++node) {
+            maxDegree = Math.max(maxDegree, graph.degree(graph.getNode(node)));
+        }
+        assertThat(maxDegree, is(greaterThan(20 * 2 * d)));
+    }
+
+    @Test
+    public void deterministicInParallel() {
+        int n = 1 << 17;
+        assertSameEdges(GraphGenerators.erdosRenyi(n, 4 * n, 9).buildImmutableDirected(),
+                GraphGenerators.erdosRenyi(n, 4 * n, 9).buildImmutableDirected());
+        assertSameEdges(GraphGenerators.barabasiAlbert(n, 2, 9).buildImmutableDirected(),
+                GraphGenerators.barabasiAlbert(n, 2, 9).buildImmutableDirected());
+        assertSameEdges(GraphGenerators.randomGeometric(n, 0.005, 9).getBuilder().buildImmutableDirected(),
+                GraphGenerators.randomGeometric(n, 0.005, 9).getBuilder().buildImmutableDirected());
+    }
+
+    private static void assertSameEdges(Graph first, Graph second) {
+        assertThat(first.edgeCount(), is(equalTo(second.edgeCount())));
+        for (Edge edge : first.edges()) {
+            Edge other = second.getEdge(edge.id());
+            assertThat(other.start(), is(equalTo(edge.start())));
+            assertThat(other.end(), is(equalTo(edge.end())));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.jfr;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.zetool.algorithm.shortestpath.Dijkstra;
+import org.zetool.algorithm.shortestpath.IntegralSingleSourceShortestPathProblem;
+import org.zetool.container.mapping.IdentifiableConstantMapping;
+import org.zetool.graph.DefaultDirectedGraph;
+import org.zetool.graph.Edge;
+import org.zetool.graph.attribute.AttributeStore;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class FlightRecorderEventsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void eventsAreRecorded() throws IOException {
+        Path attributes = folder.newFile("attributes.bin").toPath();
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("org.zetool.algorithm.AlgorithmRun");
+            recording.enable("org.zetool.graph.GraphMutation");
+            recording.enable("org.zetool.graph.GraphSerialization");
+            recording.start();
+
+            DefaultDirectedGraph graph = new DefaultDirectedGraph(3, 2);
+            graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+            graph.createAndSetEdge(graph.getNode(1), graph.getNode(2));
+            graph.setEdgeCapacity(4);
+            Dijkstra dijkstra = new Dijkstra();
+            dijkstra.setProblem(new IntegralSingleSourceShortestPathProblem(graph, new IdentifiableConstantMapping<>(1),
+                    graph.getNode(1)));
+            dijkstra.run();
+            AttributeStore<Edge> store = AttributeStore.forEdges(graph, false);
+            store.addIntColumn("costs");
+            store.save(attributes);
+            AttributeStore.map(attributes);
+
+            recording.stop();
+            Path file = folder.newFile("recording.jfr").toPath();
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        List<RecordedEvent> runs = byType(events, "org.zetool.algorithm.AlgorithmRun");
+        assertThat(runs, hasSize(1));
+        assertThat(runs.get(0).getClass("algorithm").getName(), is(equalTo(Dijkstra.class.getName())));
+        assertThat(runs.get(0).getInt("nodes"), is(equalTo(3)));
+        assertThat(runs.get(0).getInt("edges"), is(equalTo(2)));
+        assertThat(runs.get(0).getLong("nodesSettled"), is(equalTo(3L)));
+        assertThat(runs.get(0).getLong("edgesScanned"), is(equalTo(2L)));
+
+        List<RecordedEvent> mutations = byType(events, "org.zetool.graph.GraphMutation");
+        assertThat(mutations, hasSize(1));
+        assertThat(mutations.get(0).getString("operation"), is(equalTo("setEdgeCapacity")));
+        assertThat(mutations.get(0).getLong("elements"), is(equalTo(4L)));
+
+        List<String> serializations = byType(events, "org.zetool.graph.GraphSerialization").stream()
+                .map(event -> event.getString("operation")).collect(Collectors.toList());
+        assertThat(serializations, containsInAnyOrder("save", "map"));
+    }
+
+    private static List<RecordedEvent> byType(List<RecordedEvent> events, String type) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(type))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,166 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.memory;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import org.junit.Test;
+import org.zetool.container.mapping.IdentifiableObjectMapping;
+import org.zetool.graph.DefaultDirectedGraph;
+import org.zetool.graph.DynamicNetwork;
+import org.zetool.graph.Graph;
+import org.zetool.graph.GraphBuilder;
+import org.zetool.graph.Node;
+import org.zetool.graph.StaticGraph;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class MemoryEstimatorTest {
+
+    private static final int NODES = 50_000;
+    private static final int EDGES = 200_000;
+    /** The difference of two heap readings that are considered to agree, small compared to the measured graphs. */
+    private static final long HEAP_TOLERANCE = 64 * 1024;
+
+    private static GraphBuilder randomGraph() {
+        SplittableRandom random = new SplittableRandom(3);
+        return GraphBuilder.of(NODES, random.ints(EDGES, 0, NODES).toArray(), random.ints(EDGES, 0, NODES).toArray());
+    }
+
+    @Test
+    public void arrays() {
+        assertThat(MemoryEstimator.estimate(new long[1000]), is(allOf(greaterThanOrEqualTo(8_000L), lessThan(8_100L))));
+        assertThat(MemoryEstimator.estimate((Object) null), is(equalTo(0L)));
+
+        int[] shared = new int[1000];
+        assertThat(MemoryEstimator.estimate(new Object[]{shared, shared}),
+                is(equalTo(MemoryEstimator.estimate(shared) + MemoryEstimator.estimate(new Object[2]))));
+    }
+
+    @Test
+    public void components() {
+        GraphBuilder builder = randomGraph();
+        for (Graph graph : new Graph[]{builder.buildDirected(), builder.buildUndirected(),
+            builder.buildImmutableDirected()}) {
+            MemoryReport report = MemoryEstimator.estimate(graph);
+            assertThat(report.toString(), report.get(MemoryComponent.NODES), is(greaterThan(0L)));
+            assertThat(report.toString(), report.get(MemoryComponent.EDGES), is(greaterThan(0L)));
+            assertThat(report.toString(), report.get(MemoryComponent.ADJACENCY), is(greaterThan(0L)));
+            assertThat(report.getTotal(), is(equalTo(report.asMap().values().stream().mapToLong(Long::longValue).sum())));
+        }
+        MemoryReport directed = MemoryEstimator.estimate(builder.buildDirected());
+        assertThat(directed.get(MemoryComponent.DEGREES), is(greaterThan(0L)));
+
+        StaticGraph staticGraph = new StaticGraph(true, 3, 2);
+        staticGraph.setNode(new Node(0));
+        staticGraph.setNode(new Node(1));
+        staticGraph.createEdge(staticGraph.getNode(0), staticGraph.getNode(1), 0);
+        assertThat(MemoryEstimator.estimate(staticGraph).get(MemoryComponent.HIDDEN_STATE), is(greaterThan(0L)));
+    }
+
+    @Test
+    public void retainedMapping() {
+        DefaultDirectedGraph graph = randomGraph().buildDirected();
+        IdentifiableObjectMapping<Node, Node> mapping = new IdentifiableObjectMapping<>(graph.nodeCount());
+        for (Node node : graph.nodes()) {
+            mapping.set(node, node);
+        }
+
+        long retained = MemoryEstimator.estimateRetained(mapping, graph);
+        assertThat(retained, is(allOf(greaterThanOrEqualTo(4L * NODES), lessThan(8L * NODES + 1_000))));
+        assertThat(MemoryEstimator.estimate(mapping), is(greaterThan(retained)));
+    }
+
+    @Test
+    public void matchesMeasuredHeap() {
+        GraphBuilder builder = randomGraph();
+        assertMatchesHeap(builder::buildDirected);
+        assertMatchesHeap(builder::buildUndirected);
+        assertMatchesHeap(builder::buildImmutableDirected);
+        DefaultDirectedGraph base = builder.buildDirected();
+        long measured = measure(() -> new DynamicNetwork(base), network -> MemoryEstimator.estimateRetained(network, base));
+        assertThat(measured, is(greaterThan(0L)));
+    }
+
+    private static void assertMatchesHeap(Supplier<Graph> factory) {
+        measure(factory, graph -> MemoryEstimator.estimate(graph).getTotal());
+    }
+
+    /**
+     * Compares the heap growth caused by creating an object with the estimate. The estimate must be within 10% of the
+     * measured value. The comparison is skipped if the heap cannot be measured reliably, e.g. because explicit garbage
+     * collections are disabled or other threads allocate concurrently.
+     */
+    private static <T> long measure(Supplier<T> factory, ToLongFunction<T> estimator) {
+        long before = usedHeap();
+        T object = factory.get();
+        long after = usedHeap();
+        long measured = after - before;
+        assumeTrue("Unstable heap measurement", before >= 0 && after >= 0 && measured > 0);
+        long estimated = estimator.applyAsLong(object);
+        String message = object.getClass().getSimpleName() + ": measured " + measured + ", estimated " + estimated;
+        assertThat(message, (double) estimated, is(allOf(greaterThanOrEqualTo(0.9 * measured),
+                lessThanOrEqualTo(1.1 * measured))));
+        return measured;
+    }
+
+    /**
+     * Measures the used heap after garbage collections until two consecutive readings agree.
+     *
+     * @return the used heap in bytes, or -1 if no collection happened or the readings did not agree
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long previous = -1;
+        for (int i = 0; i < 10; ++i) {
+            long collections = collectionCount();
+            System.gc();
+            if (collectionCount() == collections) {
+                return -1;
+            }
+            long used = runtime.totalMemory() - runtime.freeMemory();
+            if (previous >= 0 && Math.abs(used - previous) <= HEAP_TOLERANCE) {
+                return Math.min(used, previous);
+            }
+            previous = used;
+        }
+        return -1;
+    }
+
+    private static long collectionCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+}
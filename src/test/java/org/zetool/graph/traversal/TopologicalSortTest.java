@@ -0,0 +1,86 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.traversal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.zetool.graph.util.GraphUtil.generateDirected;
+
+import org.junit.Test;
+import org.zetool.graph.DirectedGraph;
+import org.zetool.graph.Edge;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class TopologicalSortTest {
+
+    @Test
+    public void emptyGraph() {
+        TopologicalOrder order = sort(generateDirected(0, new int[][]{}));
+
+        assertThat(order.isAcyclic(), is(true));
+        assertThat(order.getNodes(), is(empty()));
+    }
+
+    @Test
+    public void allEdgesPointForward() {
+        DirectedGraph graph = generateDirected(6, new int[][]{{5, 2}, {5, 0}, {4, 0}, {4, 1}, {2, 3}, {3, 1}});
+
+        TopologicalOrder order = sort(graph);
+
+        assertThat(order.isAcyclic(), is(true));
+        assertThat(order.getOrder().length, is(equalTo(6)));
+        assertThat(order.getCycle(), is(empty()));
+        for (Edge edge : graph.edges()) {
+            assertThat(order.getPosition(edge.start()), is(lessThan(order.getPosition(edge.end()))));
+        }
+    }
+
+    @Test
+    public void cycleDetected() {
+        DirectedGraph graph = generateDirected(5, new int[][]{{0, 1}, {1, 2}, {2, 3}, {3, 1}, {3, 4}});
+
+        TopologicalOrder order = sort(graph);
+
+        assertThat(order.isAcyclic(), is(false));
+        assertThat(order.getNodes(), contains(graph.getNode(0)));
+        assertThat(order.getPosition(graph.getNode(4)), is(equalTo(-1)));
+        assertThat(order.getCycle(), contains(graph.getNode(1), graph.getNode(2), graph.getNode(3)));
+    }
+
+    @Test
+    public void selfLoopIsCycle() {
+        DirectedGraph graph = generateDirected(2, new int[][]{{0, 1}, {1, 1}});
+
+        TopologicalOrder order = sort(graph);
+
+        assertThat(order.isAcyclic(), is(false));
+        assertThat(order.getCycle(), contains(graph.getNode(1)));
+    }
+
+    private static TopologicalOrder sort(DirectedGraph graph) {
+        TopologicalSort sort = new TopologicalSort();
+        sort.setProblem(graph);
+        sort.run();
+        return sort.getSolution();
+    }
+}
@@ -0,0 +1,89 @@
+/* zet evacuation tool copyright (c) 2007-20 zet evacuation team
+ *
+ * This program is free software; you can redistribute it and/or
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package org.zetool.graph.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+import org.junit.Test;
+import org.zetool.graph.DefaultDirectedGraph;
+import org.zetool.graph.DefaultGraph;
+import org.zetool.graph.Edge;
+
+/**
+ *
+ * @author Jan-Philipp Kappmeier
+ */
+public class NeighborCacheTest {
+
+    @Test
+    public void directedNeighbors() {
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(4, 6);
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(2));
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(2));
+        graph.createAndSetEdge(graph.getNode(3), graph.getNode(0));
+        NeighborCache cache = new NeighborCache(graph);
+
+        assertThat(cache.successorIds(graph.getNode(0)), is(equalTo(new int[]{1, 2})));
+        assertThat(cache.predecessorIds(graph.getNode(0)), is(equalTo(new int[]{3})));
+        assertThat(cache.adjacentIds(graph.getNode(0)), is(equalTo(new int[]{1, 2, 3})));
+        assertThat(cache.successorNodes(graph.getNode(0)).size(), is(equalTo(2)));
+        assertThat(cache.successorNodes(graph.getNode(0)), contains(graph.getNode(1), graph.getNode(2)));
+        assertThat(cache.adjacentNodes(graph.getNode(0)).contains(graph.getNode(3)), is(true));
+        assertThat(cache.isSuccessor(graph.getNode(0), graph.getNode(3)), is(false));
+        assertThat(cache.isSuccessor(graph.getNode(3), graph.getNode(0)), is(true));
+        assertThat(cache.successorIds(graph.getNode(1)).length, is(equalTo(0)));
+    }
+
+    @Test
+    public void invalidatedOnChange() {
+        DefaultDirectedGraph graph = new DefaultDirectedGraph(3, 3);
+        Edge edge = graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        NeighborCache cache = new NeighborCache(graph);
+        assertThat(cache.successorIds(graph.getNode(0)), is(equalTo(new int[]{1})));
+
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(2));
+        assertThat(cache.successorIds(graph.getNode(0)), is(equalTo(new int[]{1, 2})));
+
+        graph.setHidden(edge, true);
+        assertThat(cache.successorIds(graph.getNode(0)), is(equalTo(new int[]{2})));
+        assertThat(cache.predecessorIds(graph.getNode(1)).length, is(equalTo(0)));
+
+        cache.detach();
+        graph.setHidden(edge, false);
+        assertThat(cache.successorIds(graph.getNode(0)), is(equalTo(new int[]{2})));
+        cache.invalidate();
+        assertThat(cache.successorIds(graph.getNode(0)), is(equalTo(new int[]{1, 2})));
+    }
+
+    @Test
+    public void triangles() {
+        DefaultGraph graph = new DefaultGraph(4, 5);
+        graph.createAndSetEdge(graph.getNode(0), graph.getNode(1));
+        graph.createAndSetEdge(graph.getNode(1), graph.getNode(2));
+        graph.createAndSetEdge(graph.getNode(2), graph.getNode(0));
+        graph.createAndSetEdge(graph.getNode(2), graph.getNode(3));
+        graph.createAndSetEdge(graph.getNode(3), graph.getNode(1));
+        NeighborCache cache = new NeighborCache(graph);
+
+        assertThat(cache.successorIds(graph.getNode(2)), is(equalTo(new int[]{0, 1, 3})));
+        assertThat(cache.commonNeighborCount(graph.getNode(1), graph.getNode(2)), is(equalTo(2)));
+        assertThat(cache.commonNeighborCount(graph.getNode(0), graph.getNode(3)), is(equalTo(2)));
+    }
+}